@@ -37,4 +37,12 @@ public interface DataSyncService {
      */
     String sync(Map<String, String> params) throws InvalidProtocolBufferException;
 
+    /**
+     * 提交重新同步驱动的所有失败数据，在后台执行，进度见监控失败数和日志
+     *
+     * @param metaId
+     * @return 是否提交成功
+     */
+    boolean syncAll(String metaId);
+
 }
\ No newline at end of file
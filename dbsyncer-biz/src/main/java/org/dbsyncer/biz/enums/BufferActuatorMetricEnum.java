@@ -17,10 +17,38 @@ public enum BufferActuatorMetricEnum {
      * 通用执行器
      */
     GENERAL("buffer.actuator.general", "通用执行器", ""),
+    /**
+     * 通用执行器消费通道
+     */
+    GENERAL_LANE("buffer.actuator.general.lane", "通用执行器", "消费通道"),
+    /**
+     * 通用执行器消费批次
+     */
+    GENERAL_BATCH("buffer.actuator.general.batch", "通用执行器", "消费批次(1分钟)"),
+    /**
+     * 通用执行器溢写磁盘
+     */
+    GENERAL_SPILL("buffer.actuator.general.spill", "通用执行器", "溢写磁盘"),
+    /**
+     * 表执行器池
+     */
+    TABLE_GROUP_POOL("buffer.actuator.table.group.pool", "表执行器", "执行器池"),
     /**
      * 表执行器
      */
-    TABLE_GROUP("buffer.actuator.table.group", "表执行器", "");
+    TABLE_GROUP("buffer.actuator.table.group", "表执行器", ""),
+    /**
+     * 数据库连接池
+     */
+    DATA_SOURCE("connector.data.source", "连接池", ""),
+    /**
+     * Oracle日志挖掘
+     */
+    ORACLE_LOGMINER("connector.oracle.logminer", "LogMiner", ""),
+    /**
+     * 增量监听提交阻塞
+     */
+    LISTENER_BLOCKED("connector.listener.blocked", "增量监听", "提交阻塞");
 
     private String code;
     private String group;
@@ -5,6 +5,7 @@ package org.dbsyncer.biz.impl;
 
 import com.google.protobuf.InvalidProtocolBufferException;
 import org.apache.lucene.index.IndexableField;
+import org.dbsyncer.biz.BizException;
 import org.dbsyncer.biz.DataSyncService;
 import org.dbsyncer.biz.vo.BinlogColumnVo;
 import org.dbsyncer.biz.vo.MessageVo;
@@ -16,6 +17,7 @@ import org.dbsyncer.common.util.NumberUtil;
 import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.parser.ProfileComponent;
 import org.dbsyncer.parser.flush.impl.BufferActuatorRouter;
+import org.dbsyncer.parser.impl.StorageDataCounter;
 import org.dbsyncer.parser.model.Meta;
 import org.dbsyncer.parser.model.Picker;
 import org.dbsyncer.parser.model.TableGroup;
@@ -26,13 +28,16 @@ import org.dbsyncer.sdk.filter.FieldResolver;
 import org.dbsyncer.sdk.filter.Query;
 import org.dbsyncer.sdk.storage.StorageService;
 import org.dbsyncer.storage.binlog.proto.BinlogMap;
+import org.dbsyncer.storage.enums.StorageDataStatusEnum;
 import org.dbsyncer.sdk.constant.ConfigConstant;
 import org.dbsyncer.storage.util.BinlogMessageUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -42,6 +47,13 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -56,6 +68,21 @@ public class DataSyncServiceImpl implements DataSyncService {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
+    /**
+     * 重新同步失败数据时，每处理多少条更新一次失败数
+     */
+    private static final int SYNC_ALL_PROGRESS_SIZE = 1000;
+
+    /**
+     * 重新同步失败数据在后台执行，不占用请求线程
+     */
+    private final ThreadPoolExecutor syncAllExecutor = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new CustomizableThreadFactory("SyncAllExecutor-"));
+
+    /**
+     * 正在重新同步的驱动，同一驱动不重复提交
+     */
+    private final Set<String> syncingMetas = ConcurrentHashMap.newKeySet();
+
     @Resource
     private BufferActuatorRouter bufferActuatorRouter;
 
@@ -65,6 +92,9 @@ public class DataSyncServiceImpl implements DataSyncService {
     @Resource
     private StorageService storageService;
 
+    @Resource
+    private StorageDataCounter storageDataCounter;
+
     @Override
     public MessageVo getMessageVo(String metaId, String messageId) {
         Assert.hasText(metaId, "The metaId is null.");
@@ -150,14 +180,91 @@ public class DataSyncServiceImpl implements DataSyncService {
         Assert.hasText(messageId, "The messageId is null.");
 
         Map row = getData(metaId, messageId);
+        if (!retry(metaId, messageId, row, params.get("retryDataParams"))) {
+            return messageId;
+        }
+        // 更新失败数
+        updateFail(metaId, 1);
+        return messageId;
+    }
+
+    @Override
+    public boolean syncAll(String metaId) {
+        Assert.hasText(metaId, "The metaId is null.");
+        if (!syncingMetas.add(metaId)) {
+            throw new BizException("正在重新同步失败数据，请稍后再试.");
+        }
+        try {
+            syncAllExecutor.execute(() -> {
+                try {
+                    doSyncAll(metaId);
+                } catch (Exception e) {
+                    logger.error("重新同步失败数据异常, metaId:{}, {}", metaId, e.getMessage(), e);
+                } finally {
+                    syncingMetas.remove(metaId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            syncingMetas.remove(metaId);
+            throw new BizException("重新同步失败数据任务提交失败.");
+        }
+        logger.info("提交重新同步失败数据任务, metaId:{}", metaId);
+        return true;
+    }
+
+    /**
+     * 后台重新同步失败数据，每处理{@link #SYNC_ALL_PROGRESS_SIZE}条更新一次失败数并打印进度，可在监控页面查看
+     */
+    private void doSyncAll(String metaId) {
+        Query query = new Query();
+        query.setFieldResolverMap(getBinlogResolverMap());
+        query.addFilter(ConfigConstant.DATA_SUCCESS, StorageDataStatusEnum.FAIL.getValue());
+        query.setMetaId(metaId);
+        query.setType(StorageEnum.DATA);
+
+        // 流式遍历失败数据，逐条重新同步后删除，不分页，内存占用与失败数无关
+        final AtomicLong scanned = new AtomicLong();
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong pending = new AtomicLong();
+        storageService.scan(query, row -> {
+            String messageId = (String) row.get(ConfigConstant.CONFIG_MODEL_ID);
+            try {
+                if (retry(metaId, messageId, row, null)) {
+                    count.incrementAndGet();
+                    pending.incrementAndGet();
+                }
+            } catch (Exception e) {
+                logger.error("重新同步失败数据异常, metaId:{}, messageId:{}, {}", metaId, messageId, e.getMessage());
+            }
+            if (scanned.incrementAndGet() % SYNC_ALL_PROGRESS_SIZE == 0) {
+                updateFail(metaId, pending.getAndSet(0));
+                logger.info("重新同步失败数据进度, metaId:{}, scanned:{}, count:{}", metaId, scanned.get(), count.get());
+            }
+        });
+        if (pending.get() > 0) {
+            updateFail(metaId, pending.get());
+        }
+        logger.info("重新同步失败数据完成, metaId:{}, scanned:{}, count:{}", metaId, scanned.get(), count.get());
+    }
+
+    @PreDestroy
+    private void destroy() {
+        syncAllExecutor.shutdownNow();
+    }
+
+    /**
+     * 重新同步一条失败数据，提交后删除失败记录（同步再次失败时会记录新的失败数据）
+     *
+     * @return 没有可同步的数据返回false
+     */
+    private boolean retry(String metaId, String messageId, Map row, String retryDataParams) throws InvalidProtocolBufferException {
         Map binlogData = getBinlogData(row, false);
         if (CollectionUtils.isEmpty(binlogData)) {
-            return messageId;
+            return false;
         }
         String tableGroupId = (String) row.get(ConfigConstant.DATA_TABLE_GROUP_ID);
         String event = (String) row.get(ConfigConstant.DATA_EVENT);
         // 有修改同步值
-        String retryDataParams = params.get("retryDataParams");
         if (StringUtil.isNotBlank(retryDataParams)) {
             JsonUtil.parseMap(retryDataParams).forEach((k, v) -> binlogData.put(k, convertValue(binlogData.get(k), (String) v)));
         }
@@ -170,20 +277,27 @@ public class DataSyncServiceImpl implements DataSyncService {
         // 执行同步是否成功
         bufferActuatorRouter.execute(metaId, tableGroupId, changedEvent);
         storageService.remove(StorageEnum.DATA, metaId, messageId);
-        // 更新失败数
+        storageDataCounter.remove(metaId, false, event, 1);
+        return true;
+    }
+
+    private void updateFail(String metaId, long count) {
         Meta meta = profileComponent.getMeta(metaId);
         Assert.notNull(meta, "Meta can not be null.");
-        meta.getFail().decrementAndGet();
+        meta.getFail().addAndGet(-count);
         meta.setUpdateTime(Instant.now().toEpochMilli());
         profileComponent.editConfigModel(meta);
-        return messageId;
     }
 
-    private Map getData(String metaId, String messageId) {
-        Query query = new Query(1, 1);
+    private Map<String, FieldResolver> getBinlogResolverMap() {
         Map<String, FieldResolver> fieldResolvers = new LinkedHashMap<>();
         fieldResolvers.put(ConfigConstant.BINLOG_DATA, (FieldResolver<IndexableField>) field -> field.binaryValue().bytes);
-        query.setFieldResolverMap(fieldResolvers);
+        return fieldResolvers;
+    }
+
+    private Map getData(String metaId, String messageId) {
+        Query query = new Query(1, 1);
+        query.setFieldResolverMap(getBinlogResolverMap());
         query.addFilter(ConfigConstant.CONFIG_MODEL_ID, messageId);
         query.setMetaId(metaId);
         query.setType(StorageEnum.DATA);
@@ -19,6 +19,7 @@ import org.dbsyncer.connector.base.ConnectorFactory;
 import org.dbsyncer.manager.ManagerFactory;
 import org.dbsyncer.parser.LogType;
 import org.dbsyncer.parser.ProfileComponent;
+import org.dbsyncer.parser.enums.ParserEnum;
 import org.dbsyncer.parser.model.ConfigModel;
 import org.dbsyncer.parser.model.Connector;
 import org.dbsyncer.parser.model.Mapping;
@@ -36,6 +37,7 @@ import org.springframework.util.Assert;
 
 import javax.annotation.Resource;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -276,12 +278,44 @@ public class MappingServiceImpl extends BaseServiceImpl implements MappingServic
         Assert.notNull(meta, "Meta can not be null.");
         MetaVo metaVo = new MetaVo(ModelEnum.getModelEnum(model).getName(), mapping.getName());
         BeanUtils.copyProperties(meta, metaVo);
+        metaVo.setTableGroupProgress(getTableGroupProgress(mapping, meta));
 
         MappingVo vo = new MappingVo(sConn, tConn, metaVo);
         BeanUtils.copyProperties(mapping, vo);
         return vo;
     }
 
+    /**
+     * 表级并行全量同步进度，例如：12/300 [user(第3页), order(第1页)]
+     *
+     * @param mapping
+     * @param meta
+     * @return
+     */
+    private String getTableGroupProgress(Mapping mapping, Meta meta) {
+        Map<String, String> snapshot = meta.getSnapshot();
+        String completed = snapshot.get(ParserEnum.COMPLETED_TABLE_GROUPS.getCode());
+        String tableGroupTasks = snapshot.get(ParserEnum.TABLE_GROUP_TASKS.getCode());
+        if (StringUtil.isBlank(completed) && StringUtil.isBlank(tableGroupTasks)) {
+            return null;
+        }
+        int completedSize = StringUtil.isBlank(completed) ? 0 : StringUtil.split(completed, StringUtil.COMMA).length;
+        StringBuilder progress = new StringBuilder();
+        progress.append(completedSize).append(StringUtil.FORWARD_SLASH).append(profileComponent.getTableGroupAll(mapping.getId()).size());
+        if (StringUtil.isNotBlank(tableGroupTasks)) {
+            List<String> running = new ArrayList<>();
+            JsonUtil.parseMap(tableGroupTasks).forEach((tableGroupId, checkpoint) -> {
+                TableGroup tableGroup = profileComponent.getTableGroup((String) tableGroupId);
+                if (null != tableGroup) {
+                    Object pageIndex = ((Map) checkpoint).get(ParserEnum.PAGE_INDEX.getCode());
+                    running.add(tableGroup.getSourceTable().getName() + "(第" + pageIndex + "页)");
+                }
+            });
+            progress.append(StringUtil.SPACE).append(running);
+        }
+        return progress.toString();
+    }
+
     /**
      * 检查是否存在驱动
      *
@@ -7,42 +7,36 @@ import org.dbsyncer.biz.enums.BufferActuatorMetricEnum;
 import org.dbsyncer.biz.enums.StatisticEnum;
 import org.dbsyncer.biz.enums.ThreadPoolMetricEnum;
 import org.dbsyncer.biz.model.AppReportMetric;
-import org.dbsyncer.biz.model.MappingReportMetric;
 import org.dbsyncer.biz.model.MetricResponse;
 import org.dbsyncer.biz.model.MetricResponseInfo;
 import org.dbsyncer.biz.model.Sample;
 import org.dbsyncer.biz.vo.HistoryStackVo;
+import org.dbsyncer.common.config.BinlogRecorderConfig;
 import org.dbsyncer.common.metric.Bucket;
 import org.dbsyncer.common.metric.TimeRegistry;
-import org.dbsyncer.common.model.Paging;
-import org.dbsyncer.common.scheduled.ScheduledTaskJob;
-import org.dbsyncer.common.scheduled.ScheduledTaskService;
 import org.dbsyncer.common.util.CollectionUtils;
 import org.dbsyncer.common.util.DateFormatUtil;
 import org.dbsyncer.common.util.StringUtil;
+import org.dbsyncer.connector.base.ConnectorFactory;
 import org.dbsyncer.parser.ProfileComponent;
 import org.dbsyncer.parser.flush.BufferActuator;
+import org.dbsyncer.parser.flush.LimitedExecutor;
 import org.dbsyncer.parser.flush.impl.BufferActuatorRouter;
 import org.dbsyncer.parser.flush.impl.TableGroupBufferActuator;
+import org.dbsyncer.parser.impl.StorageDataCounter;
 import org.dbsyncer.parser.model.Mapping;
 import org.dbsyncer.parser.model.Meta;
 import org.dbsyncer.parser.model.TableGroup;
-import org.dbsyncer.sdk.constant.ConfigConstant;
-import org.dbsyncer.sdk.constant.ConnectorConstant;
-import org.dbsyncer.sdk.enums.StorageEnum;
-import org.dbsyncer.sdk.filter.Query;
-import org.dbsyncer.sdk.storage.StorageService;
-import org.dbsyncer.storage.enums.StorageDataStatusEnum;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.dbsyncer.sdk.connector.database.DatabaseConnectorInstance;
+import org.dbsyncer.sdk.connector.database.ds.LatencyHistogram;
+import org.dbsyncer.sdk.connector.database.ds.SimpleDataSource;
+import org.dbsyncer.sdk.connector.database.ds.StatementCacheCounter;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
-import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import java.sql.Timestamp;
 import java.time.Instant;
-import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -51,8 +45,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -62,9 +54,7 @@ import java.util.stream.Stream;
  * @Date 2020-04-23 11:30
  */
 @Component
-public class MetricReporter implements ScheduledTaskJob {
-
-    private final Logger logger = LoggerFactory.getLogger(getClass());
+public class MetricReporter {
 
     @Resource
     private ProfileComponent profileComponent;
@@ -79,35 +69,39 @@ public class MetricReporter implements ScheduledTaskJob {
     private BufferActuatorRouter bufferActuatorRouter;
 
     @Resource
-    private ScheduledTaskService scheduledTaskService;
-
-    @Resource
-    private StorageService storageService;
+    private StorageDataCounter storageDataCounter;
 
     @Resource
     private TimeRegistry timeRegistry;
 
-    private volatile boolean running;
-
-    private LocalDateTime queryTime;
+    @Resource
+    private BinlogRecorderConfig binlogRecorderConfig;
 
-    private final MappingReportMetric mappingReportMetric = new MappingReportMetric();
+    @Resource
+    private ConnectorFactory connectorFactory;
 
     private AppReportMetric report = new AppReportMetric();
 
     private final int SHOW_BUFFER_ACTUATOR_SIZE = 7;
 
-    @PostConstruct
-    private void init() {
-        scheduledTaskService.start(5000, this);
-    }
-
     public List<MetricResponse> getMetricInfo() {
         List<MetricResponseInfo> list = new ArrayList<>();
         BufferActuatorMetricEnum general = BufferActuatorMetricEnum.GENERAL;
         BufferActuatorMetricEnum storage = BufferActuatorMetricEnum.STORAGE;
         list.add(collect(generalBufferActuator, general.getCode(), general.getGroup(), general.getMetricName()));
         list.add(collect(storageBufferActuator, storage.getCode(), storage.getGroup(), storage.getMetricName()));
+        list.add(collectBatch());
+        long laneSize = timeRegistry.getGauge(TimeRegistry.GENERAL_BUFFER_ACTUATOR_LANE_SIZE);
+        if (laneSize > 1) {
+            list.add(collectLane(laneSize));
+        }
+        if (binlogRecorderConfig.isEnabled()) {
+            list.add(collectSpill());
+        }
+        list.add(collectPool());
+        list.addAll(collectDataSource());
+        list.addAll(collectLogMiner());
+        list.addAll(collectListenerBlocked());
         if (!CollectionUtils.isEmpty(bufferActuatorRouter.getRouter())) {
             List<MetricResponseInfo> tableList = new ArrayList<>();
             String tableGroupCode = BufferActuatorMetricEnum.TABLE_GROUP.getCode();
@@ -135,49 +129,23 @@ public class MetricReporter implements ScheduledTaskJob {
     }
 
     public AppReportMetric getAppReportMetric() {
-        queryTime = LocalDateTime.now();
-        report.setSuccess(mappingReportMetric.getSuccess());
-        report.setFail(mappingReportMetric.getFail());
-        report.setInsert(mappingReportMetric.getInsert());
-        report.setUpdate(mappingReportMetric.getUpdate());
-        report.setDelete(mappingReportMetric.getDelete());
+        // 同步数据计数，增量维护
+        report.setSuccess(storageDataCounter.getSuccess());
+        report.setFail(storageDataCounter.getFail());
+        report.setInsert(storageDataCounter.getInsert());
+        report.setUpdate(storageDataCounter.getUpdate());
+        report.setDelete(storageDataCounter.getDelete());
         // 堆积任务(通用执行器 + 表执行器)
-        report.setQueueUp(bufferActuatorRouter.getQueueSize().addAndGet(generalBufferActuator.getQueue().size()));
+        report.setQueueUp(bufferActuatorRouter.getQueueSize().addAndGet(generalBufferActuator.getQueueSize()));
         report.setQueueCapacity(bufferActuatorRouter.getQueueCapacity().addAndGet(generalBufferActuator.getQueueCapacity()));
         // 持久化任务
-        report.setStorageQueueUp(storageBufferActuator.getQueue().size());
+        report.setStorageQueueUp(storageBufferActuator.getQueueSize());
         report.setStorageQueueCapacity(storageBufferActuator.getQueueCapacity());
         // 执行器TPS
         report.setTps(getOneMinBufferActuatorRate());
         return report;
     }
 
-    @Override
-    public void run() {
-        if (running || null == queryTime) {
-            return;
-        }
-        // 非活动时间范围(30s内)
-        if (LocalDateTime.now().minusSeconds(30).isAfter(queryTime)) {
-            return;
-        }
-
-        // 刷新报表
-        try {
-            running = true;
-            final List<Meta> metaAll = profileComponent.getMetaAll();
-            mappingReportMetric.setSuccess(getMappingSuccess(metaAll));
-            mappingReportMetric.setFail(getMappingFail(metaAll));
-            mappingReportMetric.setInsert(getMappingInsert(metaAll));
-            mappingReportMetric.setUpdate(getMappingUpdate(metaAll));
-            mappingReportMetric.setDelete(getMappingDelete(metaAll));
-        } catch (Exception e) {
-            logger.error(e.getMessage());
-        } finally {
-            running = false;
-        }
-    }
-
     /**
      * 获取执行器TPS
      *
@@ -204,83 +172,159 @@ public class MetricReporter implements ScheduledTaskJob {
         return vo;
     }
 
-    /**
-     * 获取所有驱动成功数
-     *
-     * @param metaAll
-     * @return
-     */
-    private long getMappingSuccess(List<Meta> metaAll) {
-        return queryMappingMetricCount(metaAll, (query) -> query.addFilter(ConfigConstant.DATA_SUCCESS, StorageDataStatusEnum.SUCCESS.getValue()));
+    private MetricResponseInfo collectBatch() {
+        BufferActuatorMetricEnum batch = BufferActuatorMetricEnum.GENERAL_BATCH;
+        long oneMin = Instant.now().minus(1, ChronoUnit.MINUTES).toEpochMilli();
+        long total = sumBucket(TimeRegistry.GENERAL_BUFFER_ACTUATOR_TPS, oneMin);
+        long count = sumBucket(TimeRegistry.GENERAL_BUFFER_ACTUATOR_BATCH, oneMin);
+        MetricResponseInfo info = new MetricResponseInfo();
+        StringBuilder msg = new StringBuilder();
+        msg.append("批次").append(StringUtil.COLON).append(count).append(StringUtil.SPACE);
+        msg.append("平均").append(StringUtil.COLON).append(count > 0 ? total / count : 0);
+        info.setResponse(new MetricResponse(batch.getCode(), batch.getGroup(), batch.getMetricName(), Arrays.asList(new Sample(StatisticEnum.COUNT.getTagValueRepresentation(), msg.toString()))));
+        return info;
     }
 
-    /**
-     * 获取所有驱动失败数
-     *
-     * @param metaAll
-     * @return
-     */
-    private long getMappingFail(List<Meta> metaAll) {
-        return queryMappingMetricCount(metaAll, (query) -> query.addFilter(ConfigConstant.DATA_SUCCESS, StorageDataStatusEnum.FAIL.getValue()));
+    private long sumBucket(String name, long beginTime) {
+        return Stream.of(timeRegistry.meter(name).getBucketAll()).filter(b -> b.getTime() >= beginTime).mapToLong(Bucket::get).sum();
     }
 
-    /**
-     * 获取所有驱动事件插入数
-     *
-     * @param metaAll
-     * @return
-     */
-    private long getMappingInsert(List<Meta> metaAll) {
-        return queryMappingMetricCount(metaAll, (query) -> query.addFilter(ConfigConstant.DATA_EVENT, ConnectorConstant.OPERTION_INSERT));
+    private MetricResponseInfo collectLane(long laneSize) {
+        BufferActuatorMetricEnum lane = BufferActuatorMetricEnum.GENERAL_LANE;
+        MetricResponseInfo info = new MetricResponseInfo();
+        List<Long> queueUp = new ArrayList<>();
+        for (int i = 0; i < laneSize; i++) {
+            queueUp.add(timeRegistry.getGauge(TimeRegistry.GENERAL_BUFFER_ACTUATOR_LANE_QUEUE + i));
+        }
+        info.setQueueUp(queueUp.stream().mapToLong(Long::longValue).sum());
+        StringBuilder msg = new StringBuilder();
+        msg.append("通道").append(StringUtil.COLON).append(laneSize).append(StringUtil.SPACE);
+        msg.append("堆积").append(StringUtil.COLON).append(queueUp);
+        info.setResponse(new MetricResponse(lane.getCode(), lane.getGroup(), lane.getMetricName(), Arrays.asList(new Sample(StatisticEnum.COUNT.getTagValueRepresentation(), msg.toString()))));
+        return info;
     }
 
-    /**
-     * 获取所有驱动事件更新数
-     *
-     * @param metaAll
-     * @return
-     */
-    private long getMappingUpdate(List<Meta> metaAll) {
-        return queryMappingMetricCount(metaAll, (query) -> query.addFilter(ConfigConstant.DATA_EVENT, ConnectorConstant.OPERTION_UPDATE));
+    private MetricResponseInfo collectSpill() {
+        BufferActuatorMetricEnum spill = BufferActuatorMetricEnum.GENERAL_SPILL;
+        MetricResponseInfo info = new MetricResponseInfo();
+        long size = timeRegistry.getGauge(TimeRegistry.GENERAL_BUFFER_ACTUATOR_SPILL_SIZE);
+        info.setQueueUp(size);
+        StringBuilder msg = new StringBuilder();
+        msg.append("堆积").append(StringUtil.COLON).append(size).append(StringUtil.SPACE);
+        msg.append("大小").append(StringUtil.COLON).append(timeRegistry.getGauge(TimeRegistry.GENERAL_BUFFER_ACTUATOR_SPILL_BYTES) / 1024).append("KB").append(StringUtil.SPACE);
+        msg.append("回放延迟").append(StringUtil.COLON).append(timeRegistry.getGauge(TimeRegistry.GENERAL_BUFFER_ACTUATOR_SPILL_LAG)).append("ms");
+        info.setResponse(new MetricResponse(spill.getCode(), spill.getGroup(), spill.getMetricName(), Arrays.asList(new Sample(StatisticEnum.COUNT.getTagValueRepresentation(), msg.toString()))));
+        return info;
     }
 
-    /**
-     * 获取所有驱动事件删除数
-     *
-     * @param metaAll
-     * @return
-     */
-    private long getMappingDelete(List<Meta> metaAll) {
-        return queryMappingMetricCount(metaAll, (query) -> query.addFilter(ConfigConstant.DATA_EVENT, ConnectorConstant.OPERTION_DELETE));
+    private MetricResponseInfo collectPool() {
+        BufferActuatorMetricEnum pool = BufferActuatorMetricEnum.TABLE_GROUP_POOL;
+        MetricResponseInfo info = new MetricResponseInfo();
+        StringBuilder msg = new StringBuilder();
+        msg.append("执行器").append(StringUtil.COLON).append(bufferActuatorRouter.getActuatorSize()).append(StringUtil.SPACE);
+        msg.append("晋升").append(StringUtil.COLON).append(bufferActuatorRouter.getPromotionCount()).append(StringUtil.SPACE);
+        msg.append("淘汰").append(StringUtil.COLON).append(bufferActuatorRouter.getEvictionCount()).append(StringUtil.SPACE);
+        msg.append("线程").append(StringUtil.COLON).append(bufferActuatorRouter.getThreadSize());
+        info.setResponse(new MetricResponse(pool.getCode(), pool.getGroup(), pool.getMetricName(), Arrays.asList(new Sample(StatisticEnum.COUNT.getTagValueRepresentation(), msg.toString()))));
+        return info;
     }
 
-    private long queryMappingMetricCount(List<Meta> metaAll, Consumer<Query> operation) {
-        AtomicLong total = new AtomicLong(0);
-        if (!CollectionUtils.isEmpty(metaAll)) {
-            Query query = new Query(1, 1);
-            query.setQueryTotal(true);
-            query.setType(StorageEnum.DATA);
-            operation.accept(query);
-            metaAll.forEach(meta -> {
-                query.setMetaId(meta.getId());
-                Paging paging = storageService.query(query);
-                total.getAndAdd(paging.getTotal());
-            });
+    private List<MetricResponseInfo> collectDataSource() {
+        String code = BufferActuatorMetricEnum.DATA_SOURCE.getCode();
+        String group = BufferActuatorMetricEnum.DATA_SOURCE.getGroup();
+        List<MetricResponseInfo> list = new ArrayList<>();
+        connectorFactory.getConnectorInstances().forEach(instance -> {
+            if (!(instance instanceof DatabaseConnectorInstance)) {
+                return;
+            }
+            SimpleDataSource dataSource = ((DatabaseConnectorInstance) instance).getDataSource();
+            LatencyHistogram histogram = dataSource.getBorrowHistogram();
+            MetricResponseInfo info = new MetricResponseInfo();
+            info.setQueueUp(dataSource.getPendingNum());
+            StringBuilder msg = new StringBuilder();
+            msg.append("活跃").append(StringUtil.COLON).append(dataSource.getActiveNum());
+            msg.append(StringUtil.FORWARD_SLASH).append(dataSource.getMaxActive()).append(StringUtil.SPACE);
+            msg.append("空闲").append(StringUtil.COLON).append(dataSource.getIdleNum()).append(StringUtil.SPACE);
+            msg.append("等待").append(StringUtil.COLON).append(dataSource.getPendingNum()).append(StringUtil.SPACE);
+            msg.append("获取耗时").append(StringUtil.COLON).append(String.format("%.2fms", histogram.getMean())).append(StringUtil.SPACE);
+            msg.append(histogram).append(StringUtil.SPACE);
+            StatementCacheCounter counter = dataSource.getStatementCacheCounter();
+            msg.append("语句缓存命中").append(StringUtil.COLON).append(counter.getHits());
+            msg.append(StringUtil.FORWARD_SLASH).append(counter.getHits() + counter.getMisses());
+            info.setResponse(new MetricResponse(code, group, dataSource.getUrl(), Arrays.asList(new Sample(StatisticEnum.COUNT.getTagValueRepresentation(), msg.toString()))));
+            list.add(info);
+        });
+        return list;
+    }
+
+    private List<MetricResponseInfo> collectLogMiner() {
+        String code = BufferActuatorMetricEnum.ORACLE_LOGMINER.getCode();
+        String group = BufferActuatorMetricEnum.ORACLE_LOGMINER.getGroup();
+        List<MetricResponseInfo> list = new ArrayList<>();
+        List<Meta> metaAll = profileComponent.getMetaAll();
+        if (CollectionUtils.isEmpty(metaAll)) {
+            return list;
         }
-        return total.get();
+        metaAll.forEach(meta -> {
+            String metaId = meta.getId();
+            if (!timeRegistry.containsGauge(TimeRegistry.ORACLE_LOGMINER_WINDOW + metaId)) {
+                return;
+            }
+            Mapping mapping = profileComponent.getMapping(meta.getMappingId());
+            MetricResponseInfo info = new MetricResponseInfo();
+            StringBuilder msg = new StringBuilder();
+            msg.append("挖掘窗口").append(StringUtil.COLON).append(timeRegistry.getGauge(TimeRegistry.ORACLE_LOGMINER_WINDOW + metaId)).append("ms").append(StringUtil.SPACE);
+            msg.append("批次").append(StringUtil.COLON).append(timeRegistry.getGauge(TimeRegistry.ORACLE_LOGMINER_BATCH_SIZE + metaId)).append(StringUtil.SPACE);
+            msg.append("SCN延迟").append(StringUtil.COLON).append(timeRegistry.getGauge(TimeRegistry.ORACLE_LOGMINER_SCN_LAG + metaId));
+            info.setResponse(new MetricResponse(code, group, null != mapping ? mapping.getName() : metaId, Arrays.asList(new Sample(StatisticEnum.COUNT.getTagValueRepresentation(), msg.toString()))));
+            list.add(info);
+        });
+        return list;
+    }
+
+    private List<MetricResponseInfo> collectListenerBlocked() {
+        String code = BufferActuatorMetricEnum.LISTENER_BLOCKED.getCode();
+        String group = BufferActuatorMetricEnum.LISTENER_BLOCKED.getGroup();
+        String metricName = BufferActuatorMetricEnum.LISTENER_BLOCKED.getMetricName();
+        List<MetricResponseInfo> list = new ArrayList<>();
+        List<Meta> metaAll = profileComponent.getMetaAll();
+        if (CollectionUtils.isEmpty(metaAll)) {
+            return list;
+        }
+        metaAll.forEach(meta -> {
+            String name = TimeRegistry.LISTENER_BLOCKED_TIME + meta.getId();
+            if (!timeRegistry.containsGauge(name)) {
+                return;
+            }
+            Mapping mapping = profileComponent.getMapping(meta.getMappingId());
+            MetricResponseInfo info = new MetricResponseInfo();
+            String msg = new StringBuilder("累计").append(StringUtil.COLON).append(timeRegistry.getGauge(name)).append("ms").toString();
+            String mappingName = null != mapping ? mapping.getName() : meta.getId();
+            info.setResponse(new MetricResponse(code, group, mappingName + StringUtil.SPACE + metricName, Arrays.asList(new Sample(StatisticEnum.COUNT.getTagValueRepresentation(), msg))));
+            list.add(info);
+        });
+        return list;
     }
 
     private MetricResponseInfo collect(BufferActuator bufferActuator, String code, String group, String metricName) {
         MetricResponseInfo info = new MetricResponseInfo();
-        ThreadPoolTaskExecutor threadTask = (ThreadPoolTaskExecutor) bufferActuator.getExecutor();
-        ThreadPoolExecutor pool = threadTask.getThreadPoolExecutor();
-        info.setQueueUp(bufferActuator.getQueue().size());
+        info.setQueueUp(bufferActuator.getQueueSize());
         StringBuilder msg = new StringBuilder();
         msg.append("堆积").append(StringUtil.COLON).append(info.getQueueUp());
         msg.append(StringUtil.FORWARD_SLASH).append(bufferActuator.getQueueCapacity()).append(StringUtil.SPACE);
-        msg.append(ThreadPoolMetricEnum.CORE_SIZE.getMetricName()).append(StringUtil.COLON).append(pool.getActiveCount());
-        msg.append(StringUtil.FORWARD_SLASH).append(pool.getMaximumPoolSize()).append(StringUtil.SPACE);
-        msg.append(ThreadPoolMetricEnum.COMPLETED.getMetricName()).append(StringUtil.COLON).append(pool.getCompletedTaskCount());
+        if (bufferActuator.getExecutor() instanceof LimitedExecutor) {
+            // 共享线程池，统计表执行器并发数
+            LimitedExecutor executor = (LimitedExecutor) bufferActuator.getExecutor();
+            msg.append(ThreadPoolMetricEnum.CORE_SIZE.getMetricName()).append(StringUtil.COLON).append(executor.getActiveCount());
+            msg.append(StringUtil.FORWARD_SLASH).append(executor.getMaxConcurrency()).append(StringUtil.SPACE);
+            msg.append(ThreadPoolMetricEnum.COMPLETED.getMetricName()).append(StringUtil.COLON).append(executor.getCompletedTaskCount());
+        } else {
+            ThreadPoolTaskExecutor threadTask = (ThreadPoolTaskExecutor) bufferActuator.getExecutor();
+            ThreadPoolExecutor pool = threadTask.getThreadPoolExecutor();
+            msg.append(ThreadPoolMetricEnum.CORE_SIZE.getMetricName()).append(StringUtil.COLON).append(pool.getActiveCount());
+            msg.append(StringUtil.FORWARD_SLASH).append(pool.getMaximumPoolSize()).append(StringUtil.SPACE);
+            msg.append(ThreadPoolMetricEnum.COMPLETED.getMetricName()).append(StringUtil.COLON).append(pool.getCompletedTaskCount());
+        }
         info.setResponse(new MetricResponse(code, group, metricName, Arrays.asList(new Sample(StatisticEnum.COUNT.getTagValueRepresentation(), msg.toString()))));
         return info;
     }
@@ -34,6 +34,7 @@ import org.dbsyncer.parser.LogService;
 import org.dbsyncer.parser.LogType;
 import org.dbsyncer.parser.ProfileComponent;
 import org.dbsyncer.parser.enums.MetaEnum;
+import org.dbsyncer.parser.impl.StorageDataCounter;
 import org.dbsyncer.parser.model.Mapping;
 import org.dbsyncer.parser.model.Meta;
 import org.dbsyncer.sdk.constant.ConfigConstant;
@@ -89,6 +90,9 @@ public class MonitorServiceImpl extends BaseServiceImpl implements MonitorServic
     @Resource
     private StorageService storageService;
 
+    @Resource
+    private StorageDataCounter storageDataCounter;
+
     @Resource
     private LogService logService;
 
@@ -149,7 +153,7 @@ public class MonitorServiceImpl extends BaseServiceImpl implements MonitorServic
         String error = params.get(ConfigConstant.DATA_ERROR);
         String success = params.get(ConfigConstant.DATA_SUCCESS);
 
-        Paging paging = queryData(getDefaultMetaId(id), pageNum, pageSize, error, success);
+        Paging paging = queryData(getDefaultMetaId(id), pageNum, pageSize, error, success, params.get("cursor"));
         List<Map> data = (List<Map>) paging.getData();
         List<DataVo> list = new ArrayList<>();
         for (Map row : data) {
@@ -175,6 +179,7 @@ public class MonitorServiceImpl extends BaseServiceImpl implements MonitorServic
         LogType.MappingLog log = LogType.MappingLog.CLEAR_DATA;
         logService.log(log, "%s:%s(%s)", log.getMessage(), mapping.getName(), model);
         storageService.clear(StorageEnum.DATA, id);
+        storageDataCounter.reset(id);
         return "清空同步数据成功";
     }
 
@@ -256,12 +261,14 @@ public class MonitorServiceImpl extends BaseServiceImpl implements MonitorServic
         }
     }
 
-    private Paging queryData(String metaId, int pageNum, int pageSize, String error, String success) {
+    private Paging queryData(String metaId, int pageNum, int pageSize, String error, String success, String cursor) {
         // 没有驱动
         if (StringUtil.isBlank(metaId)) {
             return new Paging(pageNum, pageSize);
         }
         Query query = new Query(pageNum, pageSize);
+        // 显示更多时按上一页游标查询
+        query.setCursor(StringUtil.isNotBlank(cursor) ? cursor : null);
         Map<String, FieldResolver> fieldResolvers = new LinkedHashMap<>();
         fieldResolvers.put(ConfigConstant.BINLOG_DATA, (FieldResolver<IndexableField>) field -> field.binaryValue().bytes);
         query.setFieldResolverMap(fieldResolvers);
@@ -289,6 +296,8 @@ public class MonitorServiceImpl extends BaseServiceImpl implements MonitorServic
             metaAll.forEach(metaVo -> {
                 query.setMetaId(metaVo.getId());
                 storageService.delete(query);
+                // 删除数量未知，重新统计
+                storageDataCounter.rebuild(metaVo.getId());
             });
         }
     }
@@ -13,6 +13,8 @@ public class MetaVo extends Meta {
     private String model;
     // 驱动名称
     private String mappingName;
+    // 表级并行同步进度
+    private String tableGroupProgress;
 
     public MetaVo(String model, String mappingName) {
         this.model = model;
@@ -34,4 +36,12 @@ public class MetaVo extends Meta {
     public void setMappingName(String mappingName) {
         this.mappingName = mappingName;
     }
+
+    public String getTableGroupProgress() {
+        return tableGroupProgress;
+    }
+
+    public void setTableGroupProgress(String tableGroupProgress) {
+        this.tableGroupProgress = tableGroupProgress;
+    }
 }
\ No newline at end of file
@@ -1,14 +1,26 @@
 package org.dbsyncer.common.config;
 
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
 /**
+ * 溢写磁盘配置（通用执行器缓存队列已满时，变更事件按序写入磁盘，队列空闲后回放）
+ *
  * @author AE86
  * @version 1.0.0
  * @date 2022/7/14 23:50
  */
+@Configuration
+@ConfigurationProperties(prefix = "dbsyncer.parser.spill")
 public class BinlogRecorderConfig {
 
     /**
-     * 批量同步数
+     * 是否开启溢写磁盘，关闭时队列已满由监听器重试提交
+     */
+    private boolean enabled = false;
+
+    /**
+     * 批量同步数（每次回放任务数）
      */
     private int batchCount = 10000;
 
@@ -30,7 +42,20 @@ public class BinlogRecorderConfig {
     /**
      * 读磁盘间隔（毫秒）
      */
-    private int readerPeriodMillisecond = 2000;
+    private int readerPeriodMillisecond = 200;
+
+    /**
+     * 单个分段文件大小（字节），写满后滚动到新文件，回放完毕删除
+     */
+    private long segmentSize = 64L * 1024 * 1024;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
 
     public int getBatchCount() {
         return batchCount;
@@ -71,4 +96,12 @@ public class BinlogRecorderConfig {
     public void setReaderPeriodMillisecond(int readerPeriodMillisecond) {
         this.readerPeriodMillisecond = readerPeriodMillisecond;
     }
-}
\ No newline at end of file
+
+    public long getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(long segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+}
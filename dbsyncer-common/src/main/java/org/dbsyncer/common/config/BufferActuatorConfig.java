@@ -29,6 +29,36 @@ public abstract class BufferActuatorConfig {
      */
     private int bufferPeriodMillisecond = 300;
 
+    /**
+     * 消费通道数（大于1时按分区键哈希到多个通道并行消费，相同键按序执行）
+     */
+    private int bufferLaneCount = 1;
+
+    /**
+     * 是否启用事件驱动消费（有任务立即唤醒消费，否则按定时间隔消费）
+     */
+    private boolean bufferEventDriven;
+
+    /**
+     * 事件驱动消费时凑批最长等待时间(毫秒)，队列达到单次消费任务数时立即消费
+     */
+    private int bufferLingerMillisecond = 5;
+
+    /**
+     * 是否按主键合并变更（同一批次内相同主键的变更合并后，按删除、新增、更新分批执行）
+     */
+    private boolean bufferCoalesce;
+
+    /**
+     * 缓存队列已满时提交线程最长阻塞等待时间(毫秒)，超时后提交失败，0-不等待
+     */
+    private int bufferOfferTimeoutMillisecond = 1000;
+
+    /**
+     * 多通道时屏障任务等待通道执行完毕的最长时间(毫秒)，超时后提交失败
+     */
+    private int bufferBarrierTimeoutMillisecond = 30000;
+
     public int getBufferWriterCount() {
         return bufferWriterCount;
     }
@@ -61,4 +91,52 @@ public abstract class BufferActuatorConfig {
         this.bufferPeriodMillisecond = bufferPeriodMillisecond;
     }
 
+    public int getBufferLaneCount() {
+        return bufferLaneCount;
+    }
+
+    public void setBufferLaneCount(int bufferLaneCount) {
+        this.bufferLaneCount = bufferLaneCount;
+    }
+
+    public boolean isBufferEventDriven() {
+        return bufferEventDriven;
+    }
+
+    public void setBufferEventDriven(boolean bufferEventDriven) {
+        this.bufferEventDriven = bufferEventDriven;
+    }
+
+    public int getBufferLingerMillisecond() {
+        return bufferLingerMillisecond;
+    }
+
+    public void setBufferLingerMillisecond(int bufferLingerMillisecond) {
+        this.bufferLingerMillisecond = bufferLingerMillisecond;
+    }
+
+    public boolean isBufferCoalesce() {
+        return bufferCoalesce;
+    }
+
+    public void setBufferCoalesce(boolean bufferCoalesce) {
+        this.bufferCoalesce = bufferCoalesce;
+    }
+
+    public int getBufferOfferTimeoutMillisecond() {
+        return bufferOfferTimeoutMillisecond;
+    }
+
+    public void setBufferOfferTimeoutMillisecond(int bufferOfferTimeoutMillisecond) {
+        this.bufferOfferTimeoutMillisecond = bufferOfferTimeoutMillisecond;
+    }
+
+    public int getBufferBarrierTimeoutMillisecond() {
+        return bufferBarrierTimeoutMillisecond;
+    }
+
+    public void setBufferBarrierTimeoutMillisecond(int bufferBarrierTimeoutMillisecond) {
+        this.bufferBarrierTimeoutMillisecond = bufferBarrierTimeoutMillisecond;
+    }
+
 }
\ No newline at end of file
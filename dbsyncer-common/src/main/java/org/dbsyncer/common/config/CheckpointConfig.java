@@ -0,0 +1,58 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.common.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 同步点日志配置
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2024/6/22 21:16
+ */
+@Configuration
+@ConfigurationProperties(prefix = "dbsyncer.storage.checkpoint")
+public class CheckpointConfig {
+
+    /**
+     * 日志文件大小（字节），空间不足时压缩或扩容
+     */
+    private int capacity = 4 * 1024 * 1024;
+
+    /**
+     * 刷盘间隔（毫秒），组提交
+     */
+    private int syncPeriodMillisecond = 200;
+
+    /**
+     * 定时压缩：已使用空间超过该比例时压缩
+     */
+    private double compactRatio = 0.75;
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getSyncPeriodMillisecond() {
+        return syncPeriodMillisecond;
+    }
+
+    public void setSyncPeriodMillisecond(int syncPeriodMillisecond) {
+        this.syncPeriodMillisecond = syncPeriodMillisecond;
+    }
+
+    public double getCompactRatio() {
+        return compactRatio;
+    }
+
+    public void setCompactRatio(double compactRatio) {
+        this.compactRatio = compactRatio;
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.common.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 全量同步配置
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2024/6/23 21:08
+ */
+@Configuration
+@ConfigurationProperties(prefix = "dbsyncer.parser.full")
+public class FullSyncConfig {
+
+    /**
+     * 流水线模式（读取下一页数据的同时写入当前页数据）
+     */
+    private boolean pipelined;
+
+    /**
+     * 流水线读写之间最多缓存的页数
+     */
+    private int pipelineQueueCapacity = 2;
+
+    /**
+     * 单表按主键分段并行同步的分段数（小于等于1不分段）
+     */
+    private int rangeSplitCount = 1;
+
+    /**
+     * 表数据量达到该值才分段
+     */
+    private long rangeSplitMinRows = 1000000;
+
+    /**
+     * 分段同步线程数（所有表的分段共用）
+     */
+    private int rangeThreadSize = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 同时同步的表数（不超过驱动线程数，与写入共用驱动线程池）
+     */
+    private int tableParallelism = 1;
+
+    /**
+     * 首次同步且目标表为空时，使用数据库批量导入（MySQL LOAD DATA、PostgreSQL COPY、SqlServer BulkCopy），失败时改用批量写入
+     */
+    private boolean bulkLoad;
+
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
+    public int getPipelineQueueCapacity() {
+        return pipelineQueueCapacity;
+    }
+
+    public void setPipelineQueueCapacity(int pipelineQueueCapacity) {
+        this.pipelineQueueCapacity = pipelineQueueCapacity;
+    }
+
+    public int getRangeSplitCount() {
+        return rangeSplitCount;
+    }
+
+    public void setRangeSplitCount(int rangeSplitCount) {
+        this.rangeSplitCount = rangeSplitCount;
+    }
+
+    public long getRangeSplitMinRows() {
+        return rangeSplitMinRows;
+    }
+
+    public void setRangeSplitMinRows(long rangeSplitMinRows) {
+        this.rangeSplitMinRows = rangeSplitMinRows;
+    }
+
+    public int getRangeThreadSize() {
+        return rangeThreadSize;
+    }
+
+    public void setRangeThreadSize(int rangeThreadSize) {
+        this.rangeThreadSize = rangeThreadSize;
+    }
+
+    public int getTableParallelism() {
+        return tableParallelism;
+    }
+
+    public void setTableParallelism(int tableParallelism) {
+        this.tableParallelism = tableParallelism;
+    }
+
+    public boolean isBulkLoad() {
+        return bulkLoad;
+    }
+
+    public void setBulkLoad(boolean bulkLoad) {
+        this.bulkLoad = bulkLoad;
+    }
+}
@@ -35,6 +35,11 @@ public class StorageConfig extends BufferActuatorConfig {
      */
     private int threadQueueCapacity = 500;
 
+    public StorageConfig() {
+        // 持久化队列已满时不阻塞同步线程
+        setBufferOfferTimeoutMillisecond(0);
+    }
+
     @Bean(name = "storageExecutor", destroyMethod = "shutdown")
     public ThreadPoolTaskExecutor storageExecutor() {
         return ThreadPoolUtil.newThreadPoolTaskExecutor(threadCoreSize, maxThreadSize, threadQueueCapacity, 30, "StorageExecutor-");
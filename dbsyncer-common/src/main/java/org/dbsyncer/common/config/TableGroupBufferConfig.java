@@ -1,8 +1,13 @@
 package org.dbsyncer.common.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
 /**
  * 表执行器配置
  *
@@ -18,6 +23,16 @@ public class TableGroupBufferConfig extends BufferActuatorConfig {
      */
     private int maxBufferActuatorSize;
 
+    /**
+     * 按吞吐量晋升/回收表执行器的统计间隔(毫秒)
+     */
+    private int rebalancePeriodMillisecond = 5000;
+
+    /**
+     * 表执行器最大空闲时长(秒)，超过后回收
+     */
+    private int maxIdleSecond = 60;
+
     /**
      * 工作线程数
      */
@@ -33,6 +48,29 @@ public class TableGroupBufferConfig extends BufferActuatorConfig {
      */
     private int threadQueueCapacity = 1000;
 
+    /**
+     * 共享工作线程池（所有表执行器共用，按表限制最大并发数）
+     */
+    private boolean sharedExecutor;
+
+    /**
+     * 共享工作线程数
+     */
+    private int sharedThreadSize = Runtime.getRuntime().availableProcessors() * 2;
+
+    /**
+     * 开启共享工作线程池时才创建
+     */
+    @Bean(name = "tableGroupExecutor", destroyMethod = "shutdown")
+    @ConditionalOnProperty(value = "dbsyncer.parser.table.group.shared-executor", havingValue = "true")
+    public ForkJoinPool tableGroupExecutor() {
+        return new ForkJoinPool(sharedThreadSize, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("TableGroupSharedExecutor-" + thread.getPoolIndex());
+            return thread;
+        }, null, true);
+    }
+
     public int getMaxBufferActuatorSize() {
         return maxBufferActuatorSize;
     }
@@ -41,6 +79,22 @@ public class TableGroupBufferConfig extends BufferActuatorConfig {
         this.maxBufferActuatorSize = maxBufferActuatorSize;
     }
 
+    public int getRebalancePeriodMillisecond() {
+        return rebalancePeriodMillisecond;
+    }
+
+    public void setRebalancePeriodMillisecond(int rebalancePeriodMillisecond) {
+        this.rebalancePeriodMillisecond = rebalancePeriodMillisecond;
+    }
+
+    public int getMaxIdleSecond() {
+        return maxIdleSecond;
+    }
+
+    public void setMaxIdleSecond(int maxIdleSecond) {
+        this.maxIdleSecond = maxIdleSecond;
+    }
+
     public int getThreadCoreSize() {
         return threadCoreSize;
     }
@@ -64,4 +118,20 @@ public class TableGroupBufferConfig extends BufferActuatorConfig {
     public void setThreadQueueCapacity(int threadQueueCapacity) {
         this.threadQueueCapacity = threadQueueCapacity;
     }
+
+    public boolean isSharedExecutor() {
+        return sharedExecutor;
+    }
+
+    public void setSharedExecutor(boolean sharedExecutor) {
+        this.sharedExecutor = sharedExecutor;
+    }
+
+    public int getSharedThreadSize() {
+        return sharedThreadSize;
+    }
+
+    public void setSharedThreadSize(int sharedThreadSize) {
+        this.sharedThreadSize = sharedThreadSize;
+    }
 }
\ No newline at end of file
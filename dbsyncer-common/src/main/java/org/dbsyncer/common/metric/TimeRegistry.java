@@ -7,6 +7,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
 
 /**
  * @Author AE86
@@ -18,9 +19,90 @@ public final class TimeRegistry {
 
     public static final String GENERAL_BUFFER_ACTUATOR_TPS = "general.buffer.actuator.tps";
 
+    /**
+     * 通用执行器消费批次数（结合TPS计算平均批次大小）
+     */
+    public static final String GENERAL_BUFFER_ACTUATOR_BATCH = "general.buffer.actuator.batch";
+
+    /**
+     * 通用执行器消费通道数
+     */
+    public static final String GENERAL_BUFFER_ACTUATOR_LANE_SIZE = "general.buffer.actuator.lane.size";
+
+    /**
+     * 通用执行器消费通道堆积数（后缀为通道序号）
+     */
+    public static final String GENERAL_BUFFER_ACTUATOR_LANE_QUEUE = "general.buffer.actuator.lane.queue.";
+
+    /**
+     * 通用执行器溢写磁盘堆积数
+     */
+    public static final String GENERAL_BUFFER_ACTUATOR_SPILL_SIZE = "general.buffer.actuator.spill.size";
+
+    /**
+     * 通用执行器溢写磁盘字节数
+     */
+    public static final String GENERAL_BUFFER_ACTUATOR_SPILL_BYTES = "general.buffer.actuator.spill.bytes";
+
+    /**
+     * 通用执行器溢写回放延迟（毫秒）
+     */
+    public static final String GENERAL_BUFFER_ACTUATOR_SPILL_LAG = "general.buffer.actuator.spill.lag";
+
+    /**
+     * Oracle LogMiner挖掘窗口耗时（毫秒，后缀为驱动ID）
+     */
+    public static final String ORACLE_LOGMINER_WINDOW = "oracle.logminer.window.";
+
+    /**
+     * Oracle LogMiner每次挖掘的SCN数（后缀为驱动ID）
+     */
+    public static final String ORACLE_LOGMINER_BATCH_SIZE = "oracle.logminer.batch.size.";
+
+    /**
+     * Oracle LogMiner落后当前SCN数（后缀为驱动ID）
+     */
+    public static final String ORACLE_LOGMINER_SCN_LAG = "oracle.logminer.scn.lag.";
+
+    /**
+     * 增量监听提交事件被阻塞的累计时长（毫秒，后缀为驱动ID）
+     */
+    public static final String LISTENER_BLOCKED_TIME = "listener.blocked.time.";
+
     private Map<String, TimeMetric> metricMap = new ConcurrentHashMap<>();
 
+    private Map<String, LongSupplier> gaugeMap = new ConcurrentHashMap<>();
+
     public TimeMetric meter(String name) {
         return metricMap.computeIfAbsent(name, k -> new TimeMetric());
     }
+
+    /**
+     * 注册瞬时值指标
+     *
+     * @param name
+     * @param supplier
+     */
+    public void gauge(String name, LongSupplier supplier) {
+        gaugeMap.put(name, supplier);
+    }
+
+    /**
+     * 获取瞬时值指标，未注册返回0
+     *
+     * @param name
+     * @return
+     */
+    public long getGauge(String name) {
+        LongSupplier supplier = gaugeMap.get(name);
+        return supplier != null ? supplier.getAsLong() : 0L;
+    }
+
+    public boolean containsGauge(String name) {
+        return gaugeMap.containsKey(name);
+    }
+
+    public void removeGauge(String name) {
+        gaugeMap.remove(name);
+    }
 }
\ No newline at end of file
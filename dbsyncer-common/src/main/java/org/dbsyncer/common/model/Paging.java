@@ -8,6 +8,10 @@ public class Paging {
     private int pageNum;
     private int pageSize;
     private Collection data = Collections.EMPTY_LIST;
+    /**
+     * 下一页游标
+     */
+    private String cursor;
 
     public Paging(int pageNum, int pageSize) {
         this.pageNum = pageNum;
@@ -45,4 +49,12 @@ public class Paging {
     public void setData(Collection data) {
         this.data = data;
     }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
 }
\ No newline at end of file
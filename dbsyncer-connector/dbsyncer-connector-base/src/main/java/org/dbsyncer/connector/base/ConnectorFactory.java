@@ -10,6 +10,7 @@ import org.dbsyncer.sdk.config.DDLConfig;
 import org.dbsyncer.sdk.config.WriterBatchConfig;
 import org.dbsyncer.sdk.connector.AbstractConnector;
 import org.dbsyncer.sdk.connector.ConnectorInstance;
+import org.dbsyncer.sdk.connector.RowHandler;
 import org.dbsyncer.sdk.listener.Listener;
 import org.dbsyncer.sdk.model.ConnectorConfig;
 import org.dbsyncer.sdk.model.MetaInfo;
@@ -166,6 +167,12 @@ public class ConnectorFactory implements DisposableBean {
         return getConnectorService(connectorInstance.getConfig()).getCount(connectorInstance, command);
     }
 
+    public Object[] getPrimaryKeyRange(ConnectorInstance connectorInstance, Map<String, String> command) {
+        Assert.notNull(connectorInstance, "ConnectorInstance can not null");
+        Assert.notNull(command, "command can not null");
+        return getConnectorService(connectorInstance.getConfig()).getPrimaryKeyRange(connectorInstance, command);
+    }
+
     public Result reader(ConnectorInstance connectorInstance, ReaderContext context) {
         Assert.notNull(connectorInstance, "ConnectorInstance can not null");
         Assert.notNull(context, "ReaderContext can not null");
@@ -174,6 +181,22 @@ public class ConnectorFactory implements DisposableBean {
         return result;
     }
 
+    /**
+     * 获取缓存的连接器实例
+     *
+     * @return
+     */
+    public Collection<ConnectorInstance> getConnectorInstances() {
+        return Collections.unmodifiableCollection(pool.values());
+    }
+
+    public void readerStream(ConnectorInstance connectorInstance, ReaderContext context, RowHandler handler) {
+        Assert.notNull(connectorInstance, "ConnectorInstance can not null");
+        Assert.notNull(context, "ReaderContext can not null");
+        Assert.notNull(handler, "RowHandler can not null");
+        getConnectorService(connectorInstance.getConfig()).readerStream(connectorInstance, context, handler);
+    }
+
     public Result writer(ConnectorInstance connectorInstance, WriterBatchConfig config) {
         Assert.notNull(connectorInstance, "ConnectorInstance can not null");
         Assert.notNull(config, "WriterBatchConfig can not null");
@@ -195,6 +218,24 @@ public class ConnectorFactory implements DisposableBean {
         return result;
     }
 
+    public boolean isSupportedBulkLoad(ConnectorInstance connectorInstance, String tableName) {
+        Assert.notNull(connectorInstance, "ConnectorInstance can not null");
+        return getConnectorService(connectorInstance.getConfig()).isSupportedBulkLoad(connectorInstance, tableName);
+    }
+
+    public Result writerBulk(ConnectorInstance connectorInstance, WriterBatchConfig config) {
+        Assert.notNull(connectorInstance, "ConnectorInstance can not null");
+        Assert.notNull(config, "WriterBatchConfig can not null");
+        ConnectorService connector = getConnectorService(connectorInstance.getConfig());
+        if (connector instanceof AbstractConnector) {
+            ((AbstractConnector) connector).convertProcessBeforeWriter(connectorInstance, config);
+        }
+
+        Result result = connector.writerBulk(connectorInstance, config);
+        Assert.notNull(result, "Connector writer bulk result can not null");
+        return result;
+    }
+
     public Result writerDDL(ConnectorInstance connectorInstance, DDLConfig ddlConfig) {
         Assert.notNull(connectorInstance, "ConnectorInstance can not null");
         Result result = getConnectorService(connectorInstance.getConfig()).writerDDL(connectorInstance, ddlConfig);
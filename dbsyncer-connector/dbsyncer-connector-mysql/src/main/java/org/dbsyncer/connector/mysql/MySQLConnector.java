@@ -3,23 +3,36 @@
  */
 package org.dbsyncer.connector.mysql;
 
+import com.mysql.cj.jdbc.JdbcStatement;
 import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.connector.mysql.cdc.MySQLListener;
 import org.dbsyncer.connector.mysql.storage.MySQLStorageService;
 import org.dbsyncer.connector.mysql.validator.MySQLConfigValidator;
+import org.dbsyncer.sdk.SdkException;
+import org.dbsyncer.sdk.config.DatabaseConfig;
+import org.dbsyncer.sdk.config.SqlBuilderConfig;
 import org.dbsyncer.sdk.connector.ConfigValidator;
 import org.dbsyncer.sdk.connector.database.AbstractDatabaseConnector;
+import org.dbsyncer.sdk.connector.database.sqlbuilder.SqlBuilderUpsertOnDuplicateKey;
 import org.dbsyncer.sdk.constant.DatabaseConstant;
 import org.dbsyncer.sdk.enums.ListenerTypeEnum;
 import org.dbsyncer.sdk.listener.DatabaseQuartzListener;
 import org.dbsyncer.sdk.listener.Listener;
+import org.dbsyncer.sdk.model.Field;
 import org.dbsyncer.sdk.model.PageSql;
 import org.dbsyncer.sdk.plugin.ReaderContext;
 import org.dbsyncer.sdk.storage.StorageService;
+import org.dbsyncer.sdk.util.BulkLoadUtil;
 import org.dbsyncer.sdk.util.PrimaryKeyUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
 
 /**
@@ -35,6 +48,7 @@ public final class MySQLConnector extends AbstractDatabaseConnector {
 
     private final String TYPE = "MySQL";
     private final MySQLConfigValidator configValidator = new MySQLConfigValidator();
+    private final SqlBuilderUpsertOnDuplicateKey upsertSqlBuilder = new SqlBuilderUpsertOnDuplicateKey();
 
     @Override
     public String getConnectorType() {
@@ -73,6 +87,11 @@ public final class MySQLConnector extends AbstractDatabaseConnector {
         return "`";
     }
 
+    @Override
+    public String buildUpsertSql(SqlBuilderConfig config) {
+        return upsertSqlBuilder.buildSql(config);
+    }
+
     @Override
     public String getPageSql(PageSql config) {
         // select * from test.`my_user` where `id` > ? and `uid` > ? order by `id`,`uid` limit ?,?
@@ -135,4 +154,135 @@ public final class MySQLConnector extends AbstractDatabaseConnector {
         return true;
     }
 
+    /**
+     * MySQL驱动默认读取全部结果集到内存，fetchSize为Integer.MIN_VALUE时开启流式结果集逐行读取
+     */
+    @Override
+    public int getStreamFetchSize(ReaderContext context) {
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * 驱动需配置allowLoadLocalInfile=true，服务端需开启local_infile
+     */
+    @Override
+    protected boolean enableBulkLoad(DatabaseConfig config) {
+        return StringUtil.contains(config.getUrl(), "allowLoadLocalInfile=true");
+    }
+
+    /**
+     * LOAD DATA遇到错误数据（截断、类型不匹配、重复键等）只产生告警，因此在事务内导入，
+     * 导入行数与写入行数不一致或有告警时回滚，由调用方改用批量写入
+     */
+    @Override
+    protected int bulkLoad(Connection connection, String tableName, List<Field> fields, List<Object[]> rows) throws Exception {
+        // LOAD DATA LOCAL INFILE 'dbsyncer' INTO TABLE test.`my_user` CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\t' ESCAPED BY '\\' LINES TERMINATED BY '\n' (`id`,@c1) SET `avatar`=UNHEX(@c1)
+        final boolean[] binary = getBinaryColumns(fields.size(), rows);
+        String sql = new StringBuilder(generateUniqueCode()).append("LOAD DATA LOCAL INFILE 'dbsyncer' INTO TABLE ").append(tableName)
+                .append(" CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' ")
+                .append(buildColumns(fields, binary)).toString();
+        final boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            // 从内存读取导入数据，不落盘
+            statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(new ByteArrayInputStream(encode(rows, binary)));
+            int count = statement.executeUpdate(sql);
+            String warning = getFirstWarning(statement);
+            if (count != rows.size() || null != warning) {
+                throw new SdkException(String.format("LOAD DATA导入%d行, 预期%d行, 告警:%s", count, rows.size(), warning));
+            }
+            connection.commit();
+            return count;
+        } catch (Exception e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private String getFirstWarning(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SHOW WARNINGS LIMIT 1")) {
+            return rs.next() ? rs.getString("Message") : null;
+        }
+    }
+
+    /**
+     * 二进制字段（值为byte[]）按十六进制导入
+     */
+    private boolean[] getBinaryColumns(int size, List<Object[]> rows) {
+        boolean[] binary = new boolean[size];
+        for (Object[] row : rows) {
+            for (int i = 0; i < size; i++) {
+                binary[i] |= row[i] instanceof byte[];
+            }
+        }
+        return binary;
+    }
+
+    /**
+     * 导入字段，二进制字段先读入变量再用UNHEX解码，例如：(`id`,@c1) SET `avatar`=UNHEX(@c1)
+     */
+    private String buildColumns(List<Field> fields, boolean[] binary) {
+        final String quotation = buildSqlWithQuotation();
+        StringBuilder columns = new StringBuilder("(");
+        StringBuilder set = new StringBuilder();
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                columns.append(StringUtil.COMMA);
+            }
+            String column = new StringBuilder(quotation).append(buildFieldName(fields.get(i))).append(quotation).toString();
+            if (!binary[i]) {
+                columns.append(column);
+                continue;
+            }
+            columns.append("@c").append(i);
+            set.append(set.length() == 0 ? " SET " : StringUtil.COMMA).append(column).append("=UNHEX(@c").append(i).append(")");
+        }
+        return columns.append(")").append(set).toString();
+    }
+
+    /**
+     * 按制表符分隔字段，换行分隔行，null为\N，特殊字符用反斜杠转义
+     */
+    private byte[] encode(List<Object[]> rows, boolean[] binary) {
+        StringBuilder buf = new StringBuilder();
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    buf.append('\t');
+                }
+                String text = binary[i] && row[i] instanceof String ? BulkLoadUtil.toHex(((String) row[i]).getBytes(StandardCharsets.UTF_8)) : BulkLoadUtil.toText(row[i]);
+                if (null == text) {
+                    buf.append("\\N");
+                    continue;
+                }
+                for (int j = 0; j < text.length(); j++) {
+                    char c = text.charAt(j);
+                    switch (c) {
+                        case '\\':
+                            buf.append("\\\\");
+                            break;
+                        case '\t':
+                            buf.append("\\t");
+                            break;
+                        case '\n':
+                            buf.append("\\n");
+                            break;
+                        case '\r':
+                            buf.append("\\r");
+                            break;
+                        case '\0':
+                            buf.append("\\0");
+                            break;
+                        default:
+                            buf.append(c);
+                    }
+                }
+            }
+            buf.append('\n');
+        }
+        return buf.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
 }
\ No newline at end of file
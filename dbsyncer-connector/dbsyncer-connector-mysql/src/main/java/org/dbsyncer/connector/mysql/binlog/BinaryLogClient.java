@@ -95,6 +95,25 @@ public interface BinaryLogClient {
      */
     void setTableMapEventByTableId(Map<Long, TableMapEventData> tableMapEventByTableId);
 
+    /**
+     * @return executed GTID set, updated on each transaction commit, null if GTID set is not tracked.
+     * @see #setGtidSet(String)
+     * @see #setExecutedGtidSet(String)
+     */
+    String getGtidSet();
+
+    /**
+     * @param gtidSet GTID set, switch the client into GTID mode (COM_BINLOG_DUMP_GTID), the server streams every transaction not
+     *                contained in this set, regardless of binlog filename/position.
+     */
+    void setGtidSet(String gtidSet);
+
+    /**
+     * @param gtidSet GTID set executed before binlog filename/position. The client keeps streaming from binlog filename/position
+     *                (COM_BINLOG_DUMP) and only tracks this set on each transaction commit.
+     */
+    void setExecutedGtidSet(String gtidSet);
+
     /**
      * binlog-parser-127.0.0.1_3306_1
      *
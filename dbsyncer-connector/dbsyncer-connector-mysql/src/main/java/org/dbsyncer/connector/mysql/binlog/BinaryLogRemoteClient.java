@@ -11,9 +11,6 @@ import com.github.shyiko.mysql.binlog.io.ByteArrayInputStream;
 import com.github.shyiko.mysql.binlog.network.*;
 import com.github.shyiko.mysql.binlog.network.protocol.*;
 import com.github.shyiko.mysql.binlog.network.protocol.command.*;
-import org.dbsyncer.connector.mysql.deserializer.DeleteDeserializer;
-import org.dbsyncer.connector.mysql.deserializer.UpdateDeserializer;
-import org.dbsyncer.connector.mysql.deserializer.WriteDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,6 +25,7 @@ import java.net.Socket;
 import java.security.GeneralSecurityException;
 import java.security.cert.X509Certificate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -85,11 +83,21 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
     private Thread worker;
     private Thread keepAlive;
     private String workerThreadName;
+    private BinlogEventPipeline pipeline;
+    private ChecksumType checksumType = ChecksumType.NONE;
+    private boolean customEventDeserializer;
+    private int eventBufferCapacity = 1024;
+    private long eventBufferBytes = 64L * 1024 * 1024;
+    private int decodeThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
 
     private final Lock connectLock = new ReentrantLock();
     private boolean gtidEnabled = false;
     private final Object gtidSetAccessLock = new Object();
     private GtidSet gtidSet;
+    /**
+     * 已执行GTID集合的字符串缓存，事务提交时刷新
+     */
+    private volatile String gtidSetString;
     private String gtid;
     private boolean tx;
     private boolean gtidSetFallbackToPurged;
@@ -162,6 +170,10 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
                     this.worker.interrupt();
                     this.worker = null;
                 }
+                if (null != this.pipeline) {
+                    this.pipeline.stop();
+                    this.pipeline = null;
+                }
                 if (null != this.keepAlive && !keepAlive.isInterrupted()) {
                     this.keepAlive.interrupt();
                     this.keepAlive = null;
@@ -221,7 +233,7 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
             logger.warn("Binary log position adjusted from {} to {}", binlogPosition, 4);
             binlogPosition = 4;
         }
-        ChecksumType checksumType = fetchBinlogChecksum();
+        checksumType = fetchBinlogChecksum();
         if (checksumType != ChecksumType.NONE) {
             confirmSupportOfChecksum(channel, checksumType);
         }
@@ -262,7 +274,10 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
         return false;
     }
 
-    private void listenForEventPackets(final PacketChannel channel) {
+    /**
+     * 只负责拆包，原始事件写入流水线缓冲区，解析和分发由流水线完成
+     */
+    private void listenForEventPackets(final PacketChannel channel, final BinlogEventPipeline pipeline) {
         ByteArrayInputStream inputStream = channel.getInputStream();
         try {
             while (inputStream.peek() != -1) {
@@ -281,20 +296,21 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
                 if (marker == 0xFE && !blocking) {
                     break;
                 }
-                Event event = eventDeserializer.nextEvent(packetLength == MAX_PACKET_LENGTH ? new ByteArrayInputStream(readPacketSplitInChunks(inputStream, packetLength - 1)) : inputStream);
-                if (event != null) {
-                    updateGtidSet(event);
-                    notifyEventListeners(event);
-                    updateClientBinlogFilenameAndPosition(event);
-                    continue;
-                }
-                throw new EOFException("event data deserialization exception");
+                pipeline.put(packetLength == MAX_PACKET_LENGTH ? readPacketSplitInChunks(inputStream, packetLength - 1) : inputStream.read(packetLength - 1));
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             notifyException(e);
         }
     }
 
+    private void onEvent(Event event) {
+        updateGtidSet(event);
+        notifyEventListeners(event);
+        updateClientBinlogFilenameAndPosition(event);
+    }
+
     private void ensureEventDeserializerHasRequiredEDDs() {
         ensureEventDataDeserializerIfPresent(EventType.ROTATE, RotateEventDataDeserializer.class);
         synchronized (gtidSetAccessLock) {
@@ -434,6 +450,10 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
         ResultSetRowPacket resultSetRow = resultSet[0];
         binlogFilename = resultSetRow.getValue(0);
         binlogPosition = Long.parseLong(resultSetRow.getValue(1));
+        // File, Position, Binlog_Do_DB, Binlog_Ignore_DB, Executed_Gtid_Set
+        if (!Boolean.TRUE.equals(isMariaDB) && resultSetRow.getValues().length > 4) {
+            trackGtidSet(resultSetRow.getValue(4));
+        }
     }
 
     private ChecksumType fetchBinlogChecksum() throws IOException {
@@ -450,6 +470,7 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
         byte[] statementResult = channel.read();
         checkError(statementResult);
         eventDeserializer.setChecksumType(checksumType);
+        this.checksumType = checksumType;
     }
 
     private byte[] readPacketSplitInChunks(ByteArrayInputStream inputStream, int packetLength) throws IOException {
@@ -485,12 +506,20 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
     }
 
     private void updateGtidSet(Event event) {
+        EventHeader eventHeader = event.getHeader();
+        // 每个binlog文件开头记录此前已执行的GTID集合，从文件/位置续传且未记录GTID集合时，以此开始记录
+        if (eventHeader.getEventType() == EventType.PREVIOUS_GTIDS) {
+            if (!Boolean.TRUE.equals(isMariaDB)) {
+                PreviousGtidSetEventData previousGtidSetEventData = (PreviousGtidSetEventData) EventDeserializer.EventDataWrapper.internal(event.getData());
+                trackGtidSet(previousGtidSetEventData.getGtidSet());
+            }
+            return;
+        }
         synchronized (gtidSetAccessLock) {
             if (gtidSet == null) {
                 return;
             }
         }
-        EventHeader eventHeader = event.getHeader();
         switch (eventHeader.getEventType()) {
             case GTID:
                 GtidEventData gtidEventData = (GtidEventData) EventDeserializer.EventDataWrapper.internal(event.getData());
@@ -523,6 +552,28 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
         if (gtid != null) {
             synchronized (gtidSetAccessLock) {
                 gtidSet.add(gtid);
+                gtidSetString = gtidSet.toString();
+            }
+        }
+    }
+
+    /**
+     * 开始记录已执行的GTID集合（已记录时忽略）
+     *
+     * @param gtidStr
+     */
+    private void trackGtidSet(String gtidStr) {
+        if (gtidStr == null) {
+            return;
+        }
+        gtidStr = gtidStr.replace("\n", "").trim();
+        if (gtidStr.isEmpty()) {
+            return;
+        }
+        synchronized (gtidSetAccessLock) {
+            if (gtidSet == null) {
+                gtidSet = new GtidSet(gtidStr);
+                gtidSetString = null;
             }
         }
     }
@@ -550,32 +601,13 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
     }
 
     private void setConfig() {
+        // 表映射由解析线程写入，分发线程读取
         if (null == tableMapEventByTableId) {
-            tableMapEventByTableId = new HashMap<>();
+            tableMapEventByTableId = new ConcurrentHashMap<>();
         }
-
-        IdentityHashMap eventDataDeserializers = new IdentityHashMap();
         if (null == eventDeserializer) {
-            this.eventDeserializer = new EventDeserializer(new EventHeaderV4Deserializer(), new NullEventDataDeserializer(), eventDataDeserializers, tableMapEventByTableId);
-        }
-
-        // Process event priority: RotateEvent > FormatDescriptionEvent > TableMapEvent > RowsEvent > XidEvent
-        eventDataDeserializers.put(EventType.ROTATE, new RotateEventDataDeserializer());
-        eventDataDeserializers.put(EventType.FORMAT_DESCRIPTION, new FormatDescriptionEventDataDeserializer());
-        eventDataDeserializers.put(EventType.TABLE_MAP, new TableMapEventDataDeserializer());
-        eventDataDeserializers.put(EventType.UPDATE_ROWS, new UpdateRowsEventDataDeserializer(tableMapEventByTableId));
-        eventDataDeserializers.put(EventType.WRITE_ROWS, new WriteRowsEventDataDeserializer(tableMapEventByTableId));
-        eventDataDeserializers.put(EventType.DELETE_ROWS, new DeleteRowsEventDataDeserializer(tableMapEventByTableId));
-        eventDataDeserializers.put(EventType.EXT_WRITE_ROWS, (new WriteDeserializer(tableMapEventByTableId)).setMayContainExtraInformation(true));
-        eventDataDeserializers.put(EventType.EXT_UPDATE_ROWS, (new UpdateDeserializer(tableMapEventByTableId)).setMayContainExtraInformation(true));
-        eventDataDeserializers.put(EventType.EXT_DELETE_ROWS, (new DeleteDeserializer(tableMapEventByTableId)).setMayContainExtraInformation(true));
-        eventDataDeserializers.put(EventType.XID, new XidEventDataDeserializer());
-        eventDataDeserializers.put(EventType.INTVAR, new IntVarEventDataDeserializer());
-        eventDataDeserializers.put(EventType.QUERY, new QueryEventDataDeserializer());
-        eventDataDeserializers.put(EventType.ROWS_QUERY, new RowsQueryEventDataDeserializer());
-        eventDataDeserializers.put(EventType.GTID, new GtidEventDataDeserializer());
-        eventDataDeserializers.put(EventType.PREVIOUS_GTIDS, new PreviousGtidSetDeserializer());
-        eventDataDeserializers.put(EventType.XA_PREPARE, new XAPrepareEventDataDeserializer());
+            this.eventDeserializer = BinlogEventPipeline.createEventDeserializer(tableMapEventByTableId);
+        }
     }
 
     private void notifyEventListeners(Event event) {
@@ -609,10 +641,20 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
     }
 
     private void spawnWorkerThread() {
-        this.worker = new Thread(() -> listenForEventPackets(channel));
+        String clientId = createClientId();
+        // 自定义的事件解析器无法复制到解码线程，只在解析线程内解码
+        int threads = customEventDeserializer ? 1 : decodeThreads;
+        final BinlogEventPipeline pipeline = new BinlogEventPipeline(clientId, eventDeserializer, tableMapEventByTableId, eventBufferCapacity,
+                eventBufferBytes, threads, this::onEvent, this::notifyException);
+        pipeline.setChecksumType(checksumType);
+        pipeline.start();
+        this.pipeline = pipeline;
+        this.workerThreadName = pipeline.getParserThreadName();
+
+        final PacketChannel channel = this.channel;
+        this.worker = new Thread(() -> listenForEventPackets(channel, pipeline));
         this.worker.setDaemon(false);
-        this.workerThreadName = new StringBuilder("binlog-parser-").append(createClientId()).toString();
-        this.worker.setName(workerThreadName);
+        this.worker.setName(new StringBuilder("binlog-reader-").append(clientId).toString());
         this.worker.start();
     }
 
@@ -685,6 +727,7 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
             throw new IllegalArgumentException("Event deserializer cannot be NULL");
         }
         this.eventDeserializer = eventDeserializer;
+        this.customEventDeserializer = true;
     }
 
     @Override
@@ -702,6 +745,39 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
         return workerThreadName;
     }
 
+    public int getEventBufferCapacity() {
+        return eventBufferCapacity;
+    }
+
+    /**
+     * @param eventBufferCapacity 读取线程与解析线程之间缓冲的最大事件数，默认1024
+     */
+    public void setEventBufferCapacity(int eventBufferCapacity) {
+        this.eventBufferCapacity = eventBufferCapacity;
+    }
+
+    public long getEventBufferBytes() {
+        return eventBufferBytes;
+    }
+
+    /**
+     * @param eventBufferBytes 读取线程与解析线程之间缓冲的最大字节数，默认64MB
+     */
+    public void setEventBufferBytes(long eventBufferBytes) {
+        this.eventBufferBytes = eventBufferBytes;
+    }
+
+    public int getDecodeThreads() {
+        return decodeThreads;
+    }
+
+    /**
+     * @param decodeThreads 行事件并行解码线程数，小于2时在解析线程内解码
+     */
+    public void setDecodeThreads(int decodeThreads) {
+        this.decodeThreads = decodeThreads;
+    }
+
     public SSLMode getSSLMode() {
         return sslMode;
     }
@@ -714,12 +790,20 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
     }
 
     /**
-     * @return GTID set. Note that this value changes with each received GTID event (provided client is in GTID mode).
+     * @return GTID set. Note that this value changes with each committed transaction (provided client is in GTID mode or tracks GTID set).
      * @see #setGtidSet(String)
      */
+    @Override
     public String getGtidSet() {
+        String s = gtidSetString;
+        if (s != null) {
+            return s;
+        }
         synchronized (gtidSetAccessLock) {
-            return gtidSet != null ? gtidSet.toString() : null;
+            if (gtidSet != null) {
+                gtidSetString = gtidSet.toString();
+            }
+            return gtidSetString;
         }
     }
 
@@ -733,6 +817,7 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
      * @see #getGtidSet()
      * @see #setGtidSetFallbackToPurged(boolean)
      */
+    @Override
     public void setGtidSet(String gtidStr) {
         if (gtidStr == null)
             return;
@@ -749,10 +834,25 @@ public class BinaryLogRemoteClient implements BinaryLogClient {
                 } else {
                     this.gtidSet = new GtidSet(gtidStr);
                 }
+                this.gtidSetString = null;
             }
         }
     }
 
+    /**
+     * @param gtidStr GTID set executed before {@link #getBinlogFilename()}/{@link #getBinlogPosition()}, nullable. Unlike
+     *                {@link #setGtidSet(String)}, the client stays in binlog filename/position mode and only tracks this set. When it is
+     *                null, the client starts tracking from Executed_Gtid_Set of "show master status" or the next PREVIOUS_GTIDS event.
+     */
+    @Override
+    public void setExecutedGtidSet(String gtidStr) {
+        synchronized (gtidSetAccessLock) {
+            this.gtidSet = null;
+            this.gtidSetString = null;
+        }
+        trackGtidSet(gtidStr);
+    }
+
     /**
      * @see #setGtidSetFallbackToPurged(boolean)
      */
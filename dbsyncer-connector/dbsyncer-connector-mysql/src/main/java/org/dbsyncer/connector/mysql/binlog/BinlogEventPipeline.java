@@ -0,0 +1,353 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.connector.mysql.binlog;
+
+import com.github.shyiko.mysql.binlog.event.Event;
+import com.github.shyiko.mysql.binlog.event.EventType;
+import com.github.shyiko.mysql.binlog.event.TableMapEventData;
+import com.github.shyiko.mysql.binlog.event.deserialization.*;
+import com.github.shyiko.mysql.binlog.io.ByteArrayInputStream;
+import org.dbsyncer.connector.mysql.deserializer.DeleteDeserializer;
+import org.dbsyncer.connector.mysql.deserializer.UpdateDeserializer;
+import org.dbsyncer.connector.mysql.deserializer.WriteDeserializer;
+
+import java.io.EOFException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * binlog事件流水线
+ * <p>1. 读取线程只负责从socket拆包，原始事件写入有界环形缓冲区，缓冲区满时阻塞读取（TCP背压）
+ * <p>2. 解析线程按序解析事件头，TABLE_MAP/FORMAT_DESCRIPTION等有状态事件直接解析，行事件按表分配到解码线程并行解码
+ * <p>3. 分发线程按binlog顺序等待解码结果，依次回调，保证增量点/GTID的提交顺序
+ *
+ * @Author AE86
+ * @Version 1.0.0
+ * @Date 2024-06-30 21:18
+ */
+public final class BinlogEventPipeline {
+
+    /**
+     * 事件头：timestamp(4) type(1) serverId(4) eventLength(4) nextPosition(4) flags(2)
+     */
+    private static final int EVENT_TYPE_OFFSET = 4;
+    private static final int EVENT_HEADER_LENGTH = 19;
+    private static final int TABLE_ID_LENGTH = 6;
+    private static final EventType[] EVENT_TYPES = EventType.values();
+
+    private final String name;
+    private final EventDeserializer eventDeserializer;
+    private final Map<Long, TableMapEventData> tableMapEventByTableId;
+    private final PacketRingBuffer packets;
+    private final BlockingQueue<Future<Event>> events;
+    private final EventDecoder[] decoders;
+    private final Consumer<Event> eventHandler;
+    private final Consumer<Exception> exceptionHandler;
+    private ChecksumType checksumType = ChecksumType.NONE;
+    private volatile boolean running;
+    private Thread parser;
+    private Thread dispatcher;
+
+    /**
+     * @param name                   线程名后缀
+     * @param eventDeserializer      事件解析器（解析线程独占）
+     * @param tableMapEventByTableId 表映射，由解析线程更新
+     * @param capacity               缓冲区最大事件数
+     * @param maxBytes               缓冲区最大字节数
+     * @param decodeThreads          行事件解码线程数，小于2时在解析线程内解码
+     * @param eventHandler           按binlog顺序回调
+     * @param exceptionHandler       异常回调
+     */
+    public BinlogEventPipeline(String name, EventDeserializer eventDeserializer, Map<Long, TableMapEventData> tableMapEventByTableId,
+                               int capacity, long maxBytes, int decodeThreads, Consumer<Event> eventHandler,
+                               Consumer<Exception> exceptionHandler) {
+        this.name = name;
+        this.eventDeserializer = eventDeserializer;
+        this.tableMapEventByTableId = tableMapEventByTableId;
+        this.packets = new PacketRingBuffer(Math.max(1, capacity), maxBytes);
+        this.events = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.eventHandler = eventHandler;
+        this.exceptionHandler = exceptionHandler;
+        if (decodeThreads > 1) {
+            this.decoders = new EventDecoder[decodeThreads];
+            for (int i = 0; i < decodeThreads; i++) {
+                decoders[i] = new EventDecoder(new StringBuilder("binlog-decoder-").append(name).append("-").append(i).toString());
+            }
+        } else {
+            this.decoders = null;
+        }
+    }
+
+    /**
+     * 创建事件解析器
+     * <p>Process event priority: RotateEvent > FormatDescriptionEvent > TableMapEvent > RowsEvent > XidEvent
+     *
+     * @param tableMapEventByTableId
+     * @return
+     */
+    public static EventDeserializer createEventDeserializer(Map<Long, TableMapEventData> tableMapEventByTableId) {
+        IdentityHashMap eventDataDeserializers = new IdentityHashMap();
+        eventDataDeserializers.put(EventType.ROTATE, new RotateEventDataDeserializer());
+        eventDataDeserializers.put(EventType.FORMAT_DESCRIPTION, new FormatDescriptionEventDataDeserializer());
+        eventDataDeserializers.put(EventType.TABLE_MAP, new TableMapEventDataDeserializer());
+        eventDataDeserializers.put(EventType.UPDATE_ROWS, new UpdateRowsEventDataDeserializer(tableMapEventByTableId));
+        eventDataDeserializers.put(EventType.WRITE_ROWS, new WriteRowsEventDataDeserializer(tableMapEventByTableId));
+        eventDataDeserializers.put(EventType.DELETE_ROWS, new DeleteRowsEventDataDeserializer(tableMapEventByTableId));
+        eventDataDeserializers.put(EventType.EXT_WRITE_ROWS, (new WriteDeserializer(tableMapEventByTableId)).setMayContainExtraInformation(true));
+        eventDataDeserializers.put(EventType.EXT_UPDATE_ROWS, (new UpdateDeserializer(tableMapEventByTableId)).setMayContainExtraInformation(true));
+        eventDataDeserializers.put(EventType.EXT_DELETE_ROWS, (new DeleteDeserializer(tableMapEventByTableId)).setMayContainExtraInformation(true));
+        eventDataDeserializers.put(EventType.XID, new XidEventDataDeserializer());
+        eventDataDeserializers.put(EventType.INTVAR, new IntVarEventDataDeserializer());
+        eventDataDeserializers.put(EventType.QUERY, new QueryEventDataDeserializer());
+        eventDataDeserializers.put(EventType.ROWS_QUERY, new RowsQueryEventDataDeserializer());
+        eventDataDeserializers.put(EventType.GTID, new GtidEventDataDeserializer());
+        eventDataDeserializers.put(EventType.PREVIOUS_GTIDS, new PreviousGtidSetDeserializer());
+        eventDataDeserializers.put(EventType.XA_PREPARE, new XAPrepareEventDataDeserializer());
+        return new EventDeserializer(new EventHeaderV4Deserializer(), new NullEventDataDeserializer(), eventDataDeserializers, tableMapEventByTableId);
+    }
+
+    public void start() {
+        running = true;
+        parser = new Thread(this::parse);
+        parser.setDaemon(false);
+        parser.setName(new StringBuilder("binlog-parser-").append(name).toString());
+        parser.start();
+        dispatcher = new Thread(this::dispatch);
+        dispatcher.setDaemon(false);
+        dispatcher.setName(new StringBuilder("binlog-dispatcher-").append(name).toString());
+        dispatcher.start();
+    }
+
+    public void stop() {
+        running = false;
+        interrupt(parser);
+        interrupt(dispatcher);
+        if (decoders != null) {
+            for (EventDecoder decoder : decoders) {
+                decoder.executor.shutdownNow();
+            }
+        }
+        join(parser);
+        join(dispatcher);
+        packets.clear();
+        events.clear();
+    }
+
+    /**
+     * 写入原始事件（不含包头和OK标记），缓冲区满时阻塞
+     *
+     * @param packet
+     * @throws InterruptedException
+     */
+    public void put(byte[] packet) throws InterruptedException {
+        packets.put(packet);
+    }
+
+    public void setChecksumType(ChecksumType checksumType) {
+        this.checksumType = checksumType;
+    }
+
+    public String getParserThreadName() {
+        return parser != null ? parser.getName() : null;
+    }
+
+    private void parse() {
+        try {
+            while (running) {
+                events.put(parse(packets.take()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            exceptionHandler.accept(e);
+        }
+    }
+
+    private Future<Event> parse(byte[] packet) throws Exception {
+        if (decoders != null && isRowMutation(packet)) {
+            long tableId = readTableId(packet);
+            TableMapEventData tableMapEventData = tableMapEventByTableId.get(tableId);
+            // 缺少表映射时交给解析线程，与原有处理保持一致
+            if (tableMapEventData != null) {
+                return decoders[(int) (tableId % decoders.length)].submit(packet, tableId, tableMapEventData, checksumType);
+            }
+        }
+        Event event = eventDeserializer.nextEvent(new ByteArrayInputStream(packet));
+        if (event == null) {
+            throw new EOFException("event data deserialization exception");
+        }
+        return CompletableFuture.completedFuture(event);
+    }
+
+    private void dispatch() {
+        try {
+            while (running) {
+                Future<Event> future = events.take();
+                Event event;
+                try {
+                    event = future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof Exception ? (Exception) cause : e;
+                }
+                eventHandler.accept(event);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            if (running) {
+                exceptionHandler.accept(e);
+            }
+        }
+    }
+
+    private boolean isRowMutation(byte[] packet) {
+        if (packet.length < EVENT_HEADER_LENGTH + TABLE_ID_LENGTH) {
+            return false;
+        }
+        int type = packet[EVENT_TYPE_OFFSET] & 0xFF;
+        if (type >= EVENT_TYPES.length) {
+            return false;
+        }
+        EventType eventType = EVENT_TYPES[type];
+        return EventType.isWrite(eventType) || EventType.isUpdate(eventType) || EventType.isDelete(eventType);
+    }
+
+    private long readTableId(byte[] packet) {
+        long tableId = 0;
+        for (int i = 0; i < TABLE_ID_LENGTH; i++) {
+            tableId |= ((long) (packet[EVENT_HEADER_LENGTH + i] & 0xFF)) << (i << 3);
+        }
+        return tableId;
+    }
+
+    private void interrupt(Thread thread) {
+        if (thread != null && thread != Thread.currentThread()) {
+            thread.interrupt();
+        }
+    }
+
+    private void join(Thread thread) {
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(3));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 行事件解码线程，独占事件解析器，解码前写入提交时刻的表映射
+     */
+    final class EventDecoder {
+        private final Map<Long, TableMapEventData> tableMap = new HashMap<>();
+        private final EventDeserializer deserializer = createEventDeserializer(tableMap);
+        private final ExecutorService executor;
+
+        EventDecoder(String threadName) {
+            this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, threadName);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        Future<Event> submit(byte[] packet, long tableId, TableMapEventData tableMapEventData, ChecksumType checksumType) {
+            return executor.submit(() -> {
+                tableMap.clear();
+                tableMap.put(tableId, tableMapEventData);
+                deserializer.setChecksumType(checksumType);
+                Event event = deserializer.nextEvent(new ByteArrayInputStream(packet));
+                if (event == null) {
+                    throw new EOFException("event data deserialization exception");
+                }
+                return event;
+            });
+        }
+    }
+
+    /**
+     * 有界环形缓冲区，按事件数和字节数限制
+     */
+    static final class PacketRingBuffer {
+        private final byte[][] items;
+        private final long maxBytes;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+        private int head;
+        private int tail;
+        private int count;
+        private long bytes;
+
+        PacketRingBuffer(int capacity, long maxBytes) {
+            this.items = new byte[capacity][];
+            this.maxBytes = maxBytes;
+        }
+
+        void put(byte[] packet) throws InterruptedException {
+            lock.lockInterruptibly();
+            try {
+                // 超大事件在缓冲区为空时允许写入
+                while (count == items.length || (count > 0 && bytes + packet.length > maxBytes)) {
+                    notFull.await();
+                }
+                items[tail] = packet;
+                tail = (tail + 1) % items.length;
+                count++;
+                bytes += packet.length;
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        byte[] take() throws InterruptedException {
+            lock.lockInterruptibly();
+            try {
+                while (count == 0) {
+                    notEmpty.await();
+                }
+                byte[] packet = items[head];
+                items[head] = null;
+                head = (head + 1) % items.length;
+                count--;
+                bytes -= packet.length;
+                notFull.signal();
+                return packet;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                for (int i = 0; i < items.length; i++) {
+                    items[i] = null;
+                }
+                head = tail = count = 0;
+                bytes = 0;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+}
@@ -19,7 +19,6 @@ import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.statement.Statement;
 import net.sf.jsqlparser.statement.alter.Alter;
-import org.dbsyncer.common.QueueOverflowException;
 import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.connector.mysql.MySQLException;
 import org.dbsyncer.connector.mysql.binlog.BinaryLogClient;
@@ -38,10 +37,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
@@ -61,8 +59,10 @@ public class MySQLListener extends AbstractDatabaseListener {
 
     private final String BINLOG_FILENAME = "fileName";
     private final String BINLOG_POSITION = "position";
+    private final String GTID_SET = "gtidSet";
+    private final String SERVER_UUID = "serverUuid";
     private final int MASTER = 0;
-    private Map<Long, TableMapEventData> tables = new HashMap<>();
+    private Map<Long, TableMapEventData> tables = new ConcurrentHashMap<>();
     private BinaryLogClient client;
     private List<Host> cluster;
     private String database;
@@ -102,6 +102,9 @@ public class MySQLListener extends AbstractDatabaseListener {
     @Override
     public void refreshEvent(ChangedOffset offset) {
         refreshSnapshot(offset.getNextFileName(), (Long) offset.getPosition());
+        if (StringUtil.isNotBlank(offset.getGtidSet())) {
+            snapshot.put(GTID_SET, offset.getGtidSet());
+        }
     }
 
     private void run() throws Exception {
@@ -117,9 +120,21 @@ public class MySQLListener extends AbstractDatabaseListener {
         final String username = config.getUsername();
         final String password = config.getPassword();
         boolean containsPos = snapshot.containsKey(BINLOG_POSITION);
+        final String gtidSet = snapshot.get(GTID_SET);
+        final String serverUuid = queryServerUuid();
         client = new BinaryLogRemoteClient(host.getIp(), host.getPort(), username, password);
-        client.setBinlogFilename(snapshot.get(BINLOG_FILENAME));
-        client.setBinlogPosition(containsPos ? Long.parseLong(snapshot.get(BINLOG_POSITION)) : 0);
+        // 故障切换或binlog已清理，原binlog文件/位置失效，按已执行的GTID集合续传，避免重新全量同步
+        if (containsPos && StringUtil.isNotBlank(gtidSet) && !isBinlogAvailable(serverUuid, snapshot.get(BINLOG_FILENAME))) {
+            logger.warn("binlog文件{}在当前节点{}已失效，按GTID集合续传:{}", snapshot.get(BINLOG_FILENAME), serverUuid, gtidSet);
+            client.setGtidSet(gtidSet);
+        } else {
+            client.setBinlogFilename(snapshot.get(BINLOG_FILENAME));
+            client.setBinlogPosition(containsPos ? Long.parseLong(snapshot.get(BINLOG_POSITION)) : 0);
+            client.setExecutedGtidSet(gtidSet);
+        }
+        if (StringUtil.isNotBlank(serverUuid)) {
+            snapshot.put(SERVER_UUID, serverUuid);
+        }
         client.setTableMapEventByTableId(tables);
         client.registerEventListener(new InnerEventListener());
         client.registerLifecycleListener(new InnerLifecycleListener());
@@ -128,10 +143,49 @@ public class MySQLListener extends AbstractDatabaseListener {
 
         if (!containsPos) {
             refreshSnapshot(client.getBinlogFilename(), client.getBinlogPosition());
+            if (StringUtil.isNotBlank(client.getGtidSet())) {
+                snapshot.put(GTID_SET, client.getGtidSet());
+            }
             super.forceFlushEvent();
         }
     }
 
+    /**
+     * 获取当前节点server_uuid（MariaDB或低版本不支持时返回空）
+     *
+     * @return
+     */
+    private String queryServerUuid() {
+        try {
+            return getConnectorInstance().execute(databaseTemplate -> databaseTemplate.queryForObject("SELECT @@server_uuid", String.class));
+        } catch (Exception e) {
+            logger.warn("获取server_uuid失败:{}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * binlog文件是否仍可用（同一节点，且未被清理）
+     *
+     * @param serverUuid
+     * @param binlogFilename
+     * @return
+     */
+    private boolean isBinlogAvailable(String serverUuid, String binlogFilename) {
+        String lastServerUuid = snapshot.get(SERVER_UUID);
+        if (StringUtil.isNotBlank(lastServerUuid) && StringUtil.isNotBlank(serverUuid) && !StringUtil.equals(lastServerUuid, serverUuid)) {
+            return false;
+        }
+        try {
+            List<Map<String, Object>> logs = getConnectorInstance().execute(databaseTemplate -> databaseTemplate.queryForList("SHOW BINARY LOGS"));
+            return logs.stream().anyMatch(log -> StringUtil.equals(binlogFilename, String.valueOf(log.get("Log_name"))));
+        } catch (Exception e) {
+            // 无法判断时，按原binlog文件/位置续传
+            logger.warn("获取binlog文件列表失败:{}", e.getMessage());
+            return true;
+        }
+    }
+
     private List<Host> readNodes(String url) {
         Matcher matcher = compile("(//)(?!(/)).+?(/)").matcher(url);
         if (matcher.find()) {
@@ -172,19 +226,10 @@ public class MySQLListener extends AbstractDatabaseListener {
 
     private void trySendEvent(ChangedEvent event) {
         try {
-            // 如果消费事件失败，重试
-            while (client.isConnected()) {
-                try {
-                    sendChangedEvent(event);
-                    break;
-                } catch (QueueOverflowException e) {
-                    try {
-                        TimeUnit.MILLISECONDS.sleep(1);
-                    } catch (InterruptedException ex) {
-                        logger.error(ex.getMessage(), ex);
-                    }
-                }
-            }
+            // 记录事件所在事务之前已执行的GTID集合（事务提交时刷新）
+            event.getChangedOffset().setGtidSet(client.getGtidSet());
+            // 缓存队列已满时阻塞等待，直到提交成功或断开连接
+            sendChangedEvent(event, client::isConnected);
         } catch (Exception e) {
             logger.error(e.getMessage(), e);
         }
@@ -275,7 +320,9 @@ public class MySQLListener extends AbstractDatabaseListener {
                 if (isFilterTable(data.getTableId())) {
                     data.getRows().forEach(m -> {
                         List<Object> after = Stream.of(m.getValue()).collect(Collectors.toList());
-                        trySendEvent(new RowChangedEvent(getTableName(data.getTableId()), ConnectorConstant.OPERTION_UPDATE, after, client.getBinlogFilename(), client.getBinlogPosition()));
+                        RowChangedEvent changedEvent = new RowChangedEvent(getTableName(data.getTableId()), ConnectorConstant.OPERTION_UPDATE, after, client.getBinlogFilename(), client.getBinlogPosition());
+                        changedEvent.setBeforeDataList(Stream.of(m.getKey()).collect(Collectors.toList()));
+                        trySendEvent(changedEvent);
                     });
                 }
                 return;
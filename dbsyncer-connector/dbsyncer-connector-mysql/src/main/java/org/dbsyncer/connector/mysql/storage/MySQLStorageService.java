@@ -27,6 +27,7 @@ import org.dbsyncer.sdk.util.DatabaseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
 import org.springframework.util.Assert;
 
 import java.io.BufferedReader;
@@ -41,6 +42,7 @@ import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -108,6 +110,25 @@ public class MySQLStorageService extends AbstractStorageService {
         return paging;
     }
 
+    @Override
+    protected void scan(String sharding, Query query, Consumer<Map> consumer) {
+        Executor executor = getExecutor(query.getType(), sharding);
+        if (executor == null) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder(executor.getQuery());
+        List<Object> args = new ArrayList<>();
+        buildQuerySqlWithParams(query, args, sql, null);
+        connectorInstance.execute(databaseTemplate -> {
+            // 流式读取，逐行返回结果集
+            databaseTemplate.setFetchSize(Integer.MIN_VALUE);
+            try (Stream<Map<String, Object>> stream = databaseTemplate.queryForStream(sql.toString(), new ColumnMapRowMapper(), args.toArray())) {
+                stream.forEach(consumer);
+            }
+            return true;
+        });
+    }
+
     @Override
     protected void delete(String sharding, Query query) {
         Executor executor = getExecutor(query.getType(), sharding);
@@ -0,0 +1,127 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+import com.github.shyiko.mysql.binlog.event.Event;
+import com.github.shyiko.mysql.binlog.event.EventHeaderV4;
+import com.github.shyiko.mysql.binlog.event.EventType;
+import com.github.shyiko.mysql.binlog.event.TableMapEventData;
+import com.github.shyiko.mysql.binlog.event.deserialization.ChecksumType;
+import org.dbsyncer.connector.mysql.binlog.BinlogEventPipeline;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 回放binlog文件，统计流水线解析吞吐（events/sec）
+ * <p>-Dbinlog.file=/var/lib/mysql/mysql-bin.000001 -Dbinlog.checksum=CRC32 -Dbinlog.threads=1,2,4
+ */
+public class BinlogEventPipelineBenchmarkTest {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private static final byte[] MAGIC_HEADER = new byte[]{(byte) 0xfe, (byte) 0x62, (byte) 0x69, (byte) 0x6e};
+    private static final int EVENT_HEADER_LENGTH = 19;
+
+    @Test
+    public void testReplay() throws Exception {
+        String path = System.getProperty("binlog.file");
+        Assume.assumeTrue("binlog.file is not set", path != null && new File(path).exists());
+        ChecksumType checksumType = ChecksumType.valueOf(System.getProperty("binlog.checksum", "CRC32").toUpperCase());
+        List<byte[]> packets = readBinlogFile(new File(path));
+        logger.info("Loaded {} events from {}", packets.size(), path);
+
+        for (String threads : System.getProperty("binlog.threads", "1,2,4").split(",")) {
+            // 预热一轮
+            replay(packets, checksumType, Integer.parseInt(threads.trim()));
+            long start = System.nanoTime();
+            long rows = replay(packets, checksumType, Integer.parseInt(threads.trim()));
+            long cost = System.nanoTime() - start;
+            logger.info("decodeThreads:{}, events:{}, rowsEvents:{}, cost:{}ms, {} events/sec", threads, packets.size(), rows,
+                    TimeUnit.NANOSECONDS.toMillis(cost), packets.size() * TimeUnit.SECONDS.toNanos(1) / Math.max(1, cost));
+        }
+    }
+
+    private long replay(List<byte[]> packets, ChecksumType checksumType, int decodeThreads) throws Exception {
+        Map<Long, TableMapEventData> tableMap = new ConcurrentHashMap<>();
+        CountDownLatch latch = new CountDownLatch(packets.size());
+        AtomicLong rows = new AtomicLong();
+        AtomicLong position = new AtomicLong();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        BinlogEventPipeline pipeline = new BinlogEventPipeline("benchmark", BinlogEventPipeline.createEventDeserializer(tableMap), tableMap,
+                1024, 64L * 1024 * 1024, decodeThreads, event -> {
+            // 分发顺序必须与binlog位置一致
+            long nextPosition = ((EventHeaderV4) event.getHeader()).getNextPosition();
+            if (nextPosition > 0 && nextPosition < position.get()) {
+                error.compareAndSet(null, new IllegalStateException("out of order at " + nextPosition));
+            }
+            position.set(Math.max(position.get(), nextPosition));
+            if (isRows(event)) {
+                rows.incrementAndGet();
+            }
+            latch.countDown();
+        }, e -> {
+            error.compareAndSet(null, e);
+            while (latch.getCount() > 0) {
+                latch.countDown();
+            }
+        });
+        pipeline.setChecksumType(checksumType);
+        pipeline.start();
+        try {
+            for (byte[] packet : packets) {
+                pipeline.put(packet);
+            }
+            latch.await();
+        } finally {
+            pipeline.stop();
+        }
+        Assert.assertNull(String.valueOf(error.get()), error.get());
+        return rows.get();
+    }
+
+    private boolean isRows(Event event) {
+        EventType type = event.getHeader().getEventType();
+        return EventType.isWrite(type) || EventType.isUpdate(type) || EventType.isDelete(type);
+    }
+
+    private List<byte[]> readBinlogFile(File file) throws IOException {
+        List<byte[]> packets = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            byte[] magic = new byte[MAGIC_HEADER.length];
+            in.readFully(magic);
+            for (int i = 0; i < magic.length; i++) {
+                if (magic[i] != MAGIC_HEADER[i]) {
+                    throw new IOException("Not a valid binary log file: " + file.getAbsolutePath());
+                }
+            }
+            byte[] header = new byte[EVENT_HEADER_LENGTH];
+            while (in.read(header, 0, 1) == 1) {
+                in.readFully(header, 1, EVENT_HEADER_LENGTH - 1);
+                // eventLength(4) little-endian at offset 9
+                int eventLength = (header[9] & 0xFF) | (header[10] & 0xFF) << 8 | (header[11] & 0xFF) << 16 | (header[12] & 0xFF) << 24;
+                byte[] packet = new byte[eventLength];
+                System.arraycopy(header, 0, packet, 0, EVENT_HEADER_LENGTH);
+                in.readFully(packet, EVENT_HEADER_LENGTH, eventLength - EVENT_HEADER_LENGTH);
+                packets.add(packet);
+            }
+        }
+        return packets;
+    }
+
+}
@@ -10,8 +10,10 @@ import org.dbsyncer.connector.oracle.schema.OracleOtherValueMapper;
 import org.dbsyncer.connector.oracle.validator.OracleConfigValidator;
 import org.dbsyncer.sdk.config.CommandConfig;
 import org.dbsyncer.sdk.config.DatabaseConfig;
+import org.dbsyncer.sdk.config.SqlBuilderConfig;
 import org.dbsyncer.sdk.connector.ConfigValidator;
 import org.dbsyncer.sdk.connector.database.AbstractDatabaseConnector;
+import org.dbsyncer.sdk.connector.database.sqlbuilder.SqlBuilderMerge;
 import org.dbsyncer.sdk.constant.DatabaseConstant;
 import org.dbsyncer.sdk.enums.ListenerTypeEnum;
 import org.dbsyncer.sdk.enums.TableTypeEnum;
@@ -40,6 +42,7 @@ public final class OracleConnector extends AbstractDatabaseConnector {
 
     private final String TYPE = "Oracle";
     private final OracleConfigValidator configValidator = new OracleConfigValidator();
+    private final SqlBuilderMerge upsertSqlBuilder = new SqlBuilderMerge(" FROM DUAL", "");
 
     public OracleConnector() {
         VALUE_MAPPERS.put(Types.OTHER, new OracleOtherValueMapper());
@@ -73,6 +76,11 @@ public final class OracleConnector extends AbstractDatabaseConnector {
         return "\"";
     }
 
+    @Override
+    public String buildUpsertSql(SqlBuilderConfig config) {
+        return upsertSqlBuilder.buildSql(config);
+    }
+
     @Override
     public String getPageSql(PageSql config) {
         // SELECT * FROM (SELECT A.*, ROWNUM RN FROM (select * from test."my_user" where "id" > ? and "uid" > ? order by "id","uid")A WHERE ROWNUM <= ?) WHERE RN > ?
@@ -7,6 +7,7 @@ import org.dbsyncer.sdk.listener.ChangedEvent;
 import org.dbsyncer.sdk.model.Field;
 
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 /**
  * @Author AE86
@@ -22,8 +23,8 @@ public class DqlOracleListener extends OracleListener {
     }
 
     @Override
-    public void sendChangedEvent(ChangedEvent event) {
-        super.sendDqlChangedEvent(event);
+    public void sendChangedEvent(ChangedEvent event, BooleanSupplier running) {
+        super.sendDqlChangedEvent(event, running);
     }
 
     @Override
@@ -11,13 +11,15 @@ import net.sf.jsqlparser.statement.alter.Alter;
 import net.sf.jsqlparser.statement.delete.Delete;
 import net.sf.jsqlparser.statement.insert.Insert;
 import net.sf.jsqlparser.statement.update.Update;
-import org.dbsyncer.common.QueueOverflowException;
+import org.dbsyncer.common.metric.TimeRegistry;
+import org.dbsyncer.common.util.NumberUtil;
 import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.connector.oracle.OracleException;
 import org.dbsyncer.connector.oracle.logminer.LogMiner;
 import org.dbsyncer.connector.oracle.logminer.RedoEvent;
 import org.dbsyncer.connector.oracle.logminer.parser.impl.DeleteSql;
 import org.dbsyncer.connector.oracle.logminer.parser.impl.InsertSql;
+import org.dbsyncer.connector.oracle.logminer.parser.impl.RedoSqlScanner;
 import org.dbsyncer.connector.oracle.logminer.parser.impl.UpdateSql;
 import org.dbsyncer.sdk.config.DatabaseConfig;
 import org.dbsyncer.sdk.constant.ConnectorConstant;
@@ -30,6 +32,7 @@ import org.dbsyncer.sdk.model.Field;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +48,13 @@ public class OracleListener extends AbstractDatabaseListener {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final String REDO_POSITION = "position";
+    private static final String FETCH_SIZE = "fetchSize";
+    private static final String MAX_POLL_INTERVAL = "maxPollInterval";
+    private static final String MAX_BATCH_SIZE = "maxBatchSize";
+    private static final String SPILL_THRESHOLD = "spillThreshold";
+    private static final String LONG_TRANSACTION_TIME = "longTransactionTime";
+    private static final String SPILL_PATH = new StringBuilder(System.getProperty("user.dir")).append(File.separatorChar).append("data")
+            .append(File.separatorChar).append("logminer").append(File.separatorChar).toString();
     private final Map<String, List<Field>> tableFiledMap = new ConcurrentHashMap<>();
     private LogMiner logMiner;
 
@@ -66,6 +76,12 @@ public class OracleListener extends AbstractDatabaseListener {
             boolean containsPos = snapshot.containsKey(REDO_POSITION);
             logMiner = new LogMiner(username, password, url, schema, driverClassName);
             logMiner.setStartScn(containsPos ? Long.parseLong(snapshot.get(REDO_POSITION)) : 0);
+            logMiner.setFetchSize(NumberUtil.toInt(config.getProperty(FETCH_SIZE), 2000));
+            logMiner.setPollInterval(200, NumberUtil.toLong(config.getProperty(MAX_POLL_INTERVAL), 5000));
+            logMiner.setBatchSize(1000, NumberUtil.toLong(config.getProperty(MAX_BATCH_SIZE), 100000));
+            logMiner.setSpillPath(SPILL_PATH + metaId);
+            logMiner.setSpillThreshold(NumberUtil.toInt(config.getProperty(SPILL_THRESHOLD), 10000));
+            logMiner.setLongTransactionTime(TimeUnit.MINUTES.toMillis(NumberUtil.toLong(config.getProperty(LONG_TRANSACTION_TIME), 10)));
             logMiner.registerEventListener((event) -> {
                 try {
                     parseEvent(event);
@@ -75,8 +91,11 @@ public class OracleListener extends AbstractDatabaseListener {
                     logger.error(e.getMessage(), e);
                 }
             });
+            // start()阻塞到挖掘结束，先注册指标
+            registerGauge();
             logMiner.start();
         } catch (Exception e) {
+            removeGauge();
             logger.error("启动失败:{}", e.getMessage());
             throw new OracleException(e);
         }
@@ -84,19 +103,8 @@ public class OracleListener extends AbstractDatabaseListener {
 
     private void trySendEvent(ChangedEvent event) {
         try {
-            // 如果消费事件失败，重试
-            while (logMiner.isConnected()) {
-                try {
-                    sendChangedEvent(event);
-                    break;
-                } catch (QueueOverflowException e) {
-                    try {
-                        TimeUnit.MILLISECONDS.sleep(1);
-                    } catch (InterruptedException ex) {
-                        logger.error(ex.getMessage(), ex);
-                    }
-                }
-            }
+            // 缓存队列已满时阻塞等待，直到提交成功或断开连接
+            sendChangedEvent(event, logMiner::isConnected);
         } catch (Exception e) {
             logger.error(e.getMessage(), e);
         }
@@ -109,13 +117,34 @@ public class OracleListener extends AbstractDatabaseListener {
      * @throws Exception
      */
     private void parseEvent(RedoEvent event) throws Exception {
+        // 快速解析LogMiner固定格式的DML，其他语句交给jsqlparser
+        RedoSqlScanner scanner = new RedoSqlScanner(event.getRedoSql());
+        if (scanner.scanTable()) {
+            String tableName = scanner.getTableName();
+            if (!tableFiledMap.containsKey(tableName)) {
+                return;
+            }
+            if (scanner.scanValues()) {
+                scanner.setFields(tableFiledMap.get(tableName));
+                RowChangedEvent rowChangedEvent = new RowChangedEvent(tableName, scanner.getOperation(), scanner.parseColumns(), null, event.getScn());
+                if (ConnectorConstant.OPERTION_UPDATE.equals(scanner.getOperation())) {
+                    rowChangedEvent.setBeforeDataList(scanner.parseBeforeColumns());
+                }
+                trySendEvent(rowChangedEvent);
+                return;
+            }
+            logger.debug("Fallback to jsqlparser, sql:{}", event.getRedoSql());
+        }
+
         Statement statement = CCJSqlParserUtil.parse(event.getRedoSql());
         if (statement instanceof Update) {
             Update update = (Update) statement;
             String tableName = getTableName(update.getTable());
             if (tableFiledMap.containsKey(tableName)) {
                 UpdateSql parser = new UpdateSql(update, tableFiledMap.get(tableName));
-                trySendEvent(new RowChangedEvent(tableName, ConnectorConstant.OPERTION_UPDATE, parser.parseColumns(), null, event.getScn()));
+                RowChangedEvent rowChangedEvent = new RowChangedEvent(tableName, ConnectorConstant.OPERTION_UPDATE, parser.parseColumns(), null, event.getScn());
+                rowChangedEvent.setBeforeDataList(parser.parseBeforeColumns());
+                trySendEvent(rowChangedEvent);
             }
             return;
         }
@@ -149,8 +178,28 @@ public class OracleListener extends AbstractDatabaseListener {
         }
     }
 
+    /**
+     * 注册挖掘窗口、批次大小和SCN延迟指标
+     */
+    private void registerGauge() {
+        if (null != timeRegistry) {
+            timeRegistry.gauge(TimeRegistry.ORACLE_LOGMINER_WINDOW + metaId, logMiner::getWindowTime);
+            timeRegistry.gauge(TimeRegistry.ORACLE_LOGMINER_BATCH_SIZE + metaId, logMiner::getBatchSize);
+            timeRegistry.gauge(TimeRegistry.ORACLE_LOGMINER_SCN_LAG + metaId, logMiner::getScnLag);
+        }
+    }
+
+    private void removeGauge() {
+        if (null != timeRegistry) {
+            timeRegistry.removeGauge(TimeRegistry.ORACLE_LOGMINER_WINDOW + metaId);
+            timeRegistry.removeGauge(TimeRegistry.ORACLE_LOGMINER_BATCH_SIZE + metaId);
+            timeRegistry.removeGauge(TimeRegistry.ORACLE_LOGMINER_SCN_LAG + metaId);
+        }
+    }
+
     @Override
     public void close() {
+        removeGauge();
         try {
             if (logMiner != null) {
                 logMiner.close();
@@ -160,6 +209,14 @@ public class OracleListener extends AbstractDatabaseListener {
         }
     }
 
+    @Override
+    public void flushEvent() {
+        if (logger.isDebugEnabled() && logMiner != null && logMiner.isConnected()) {
+            logger.debug("[{}] LogMiner window:{}ms, batchSize:{}, scnLag:{}", metaId, logMiner.getWindowTime(), logMiner.getBatchSize(), logMiner.getScnLag());
+        }
+        super.flushEvent();
+    }
+
     @Override
     public void refreshEvent(ChangedOffset offset) {
         snapshot.put(REDO_POSITION, String.valueOf(offset.getPosition()));
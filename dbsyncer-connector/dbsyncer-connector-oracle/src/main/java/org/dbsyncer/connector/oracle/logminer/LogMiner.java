@@ -8,6 +8,7 @@ import org.dbsyncer.sdk.util.DatabaseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.math.BigInteger;
 import java.sql.*;
 import java.util.List;
@@ -41,6 +42,22 @@ public class LogMiner {
     // 初始位点
     private long startScn = 0;
     private EventListener listener;
+    // 每次从V$LOGMNR_CONTENTS批量拉取的行数
+    private int fetchSize = 2000;
+    // 空闲时的最短/最长轮询间隔(ms)，连续空闲时指数退避
+    private long minPollInterval = 200;
+    private long maxPollInterval = 5000;
+    // 挖掘窗口的最小/最大SCN跨度，跟随变更量伸缩
+    private long minBatchSize = 1000;
+    private long maxBatchSize = 100000;
+    // 单个挖掘窗口的期望耗时(ms)，超过则缩小窗口
+    private long targetWindowTime = 3000;
+    private long pollInterval = minPollInterval;
+    private long batchSize = minBatchSize;
+    // 最近一次挖掘窗口耗时(ms)
+    private volatile long windowTime;
+    // 当前SCN与已挖掘SCN的差距
+    private volatile long scnLag;
 
     public LogMiner(String username, String password, String url, String schema, String driverClassName) {
         this.username = username;
@@ -59,6 +76,7 @@ public class LogMiner {
         }
         this.connection.close();
         connected = false;
+        transactionalBuffer.clear();
         lock.unlock();
     }
 
@@ -94,8 +112,14 @@ public class LogMiner {
                 ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT)) {
             // while
             while (connected) {
-                // 3.确定 endScn
-                BigInteger endScn = determineEndScn();
+                // 3.确定 endScn，窗口跨度不超过batchSize
+                long currentScn = getCurrentScn(connection);
+                BigInteger endScn = determineEndScn(currentScn);
+                if (endScn.longValue() <= startScn) {
+                    scnLag = 0;
+                    idle();
+                    continue;
+                }
 
                 // 4.是否发生redoLog切换
                 if (redoLogSwitchOccurred()) {
@@ -106,21 +130,23 @@ public class LogMiner {
                 }
 
                 // 5.start logMiner
+                final long windowStart = System.currentTimeMillis();
                 LogMinerHelper.startLogMiner(connection, BigInteger.valueOf(startScn), endScn, miningStrategy);
 
                 // 6.查询 logMiner view, 处理结果集
-                minerViewStatement.setFetchSize(2000);
+                minerViewStatement.setFetchSize(fetchSize);
                 minerViewStatement.setFetchDirection(ResultSet.FETCH_FORWARD);
                 minerViewStatement.setString(1, String.valueOf(startScn));
                 minerViewStatement.setString(2, endScn.toString());
 
                 stopWatch.start();
 
+                int rows;
                 try (ResultSet rs = minerViewStatement.executeQuery()) {
                     logger.trace("Query V$LOGMNR_CONTENTS spend time {} ms", stopWatch.getTime(TimeUnit.MILLISECONDS));
                     stopWatch.reset();
                     try{
-                        logMinerViewProcessor(rs);
+                        rows = logMinerViewProcessor(rs);
                     }catch (SQLException e){
                         if (e.getMessage().contains("ORA-00310")){
                             logger.error("ORA-00310 try continue");
@@ -131,10 +157,27 @@ public class LogMiner {
                         throw e;
                     }
                 }
+                windowTime = System.currentTimeMillis() - windowStart;
+                transactionalBuffer.checkLongTransactions();
 
                 // 7.确定新的SCN
                 startScn = Long.parseLong(endScn.toString());
-                sleepFiveSeconds();
+                scnLag = Math.max(0, currentScn - startScn);
+                logger.trace("Mining window rows:{}, batchSize:{}, spend time {} ms, scn lag {}", rows, batchSize, windowTime, scnLag);
+
+                // 8.调整下一个窗口
+                adjustBatchSize(scnLag > 0);
+                if (scnLag > 0) {
+                    // 落后于当前SCN，立即挖掘下一个窗口
+                    pollInterval = minPollInterval;
+                    continue;
+                }
+                if (rows > 0) {
+                    pollInterval = minPollInterval;
+                    sleepInMills(pollInterval);
+                    continue;
+                }
+                idle();
             }
 
         } catch (Exception e) {
@@ -154,13 +197,40 @@ public class LogMiner {
     }
 
     private void sleepFiveSeconds() {
+        sleepInMills(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void sleepInMills(long timeout) {
         try {
-            TimeUnit.SECONDS.sleep(5);
+            TimeUnit.MILLISECONDS.sleep(timeout);
         } catch (InterruptedException e) {
             logger.error(e.getMessage(), e);
         }
     }
 
+    /**
+     * 没有新的变更，等待后再挖掘，连续空闲时轮询间隔指数退避
+     */
+    private void idle() {
+        sleepInMills(pollInterval);
+        pollInterval = Math.min(maxPollInterval, pollInterval << 1);
+    }
+
+    /**
+     * 窗口耗时超过期望时缩小跨度，落后于当前SCN且耗时充裕时扩大跨度
+     *
+     * @param lagging
+     */
+    private void adjustBatchSize(boolean lagging) {
+        if (windowTime > targetWindowTime) {
+            batchSize = Math.max(minBatchSize, batchSize >> 1);
+            return;
+        }
+        if (lagging && windowTime < targetWindowTime >> 1) {
+            batchSize = Math.min(maxBatchSize, batchSize << 1);
+        }
+    }
+
     public long getCurrentScn(Connection connection) throws SQLException {
         try (Statement statement = connection.createStatement()) {
             ResultSet rs = statement.executeQuery("select CURRENT_SCN from V$DATABASE");
@@ -187,8 +257,8 @@ public class LogMiner {
         return false;
     }
 
-    private BigInteger determineEndScn() throws SQLException {
-        return BigInteger.valueOf(getCurrentScn(connection));
+    private BigInteger determineEndScn(long currentScn) {
+        return BigInteger.valueOf(Math.min(currentScn, startScn + batchSize));
     }
 
     private void initializeLogMiner() throws SQLException {
@@ -222,8 +292,10 @@ public class LogMiner {
         }
     }
 
-    private void logMinerViewProcessor(ResultSet rs) throws SQLException {
+    private int logMinerViewProcessor(ResultSet rs) throws SQLException {
+        int rows = 0;
         while (rs.next()) {
+            rows++;
             BigInteger scn = rs.getBigDecimal("SCN").toBigInteger();
             String tableName = rs.getString("TABLE_NAME");
             String segOwner = rs.getString("SEG_OWNER");
@@ -239,7 +311,7 @@ public class LogMiner {
             // Commit
             if (operationCode == LogMinerHelper.LOG_MINER_OC_COMMIT) {
                 // 将TransactionalBuffer中当前事务的DML 转移到消费者处理
-                if (transactionalBuffer.commit(txId, scn, committedScn)) {
+                if (transactionalBuffer.commit(txId, scn, committedScn, this::onCommit)) {
                     logger.debug("txId: {} commit", txId);
                 }
                 continue;
@@ -275,23 +347,27 @@ public class LogMiner {
                 // 内部维护 TransactionalBuffer，将每条DML注册到Buffer中
                 // 根据事务提交或者回滚情况决定如何处理
                 if (redoSql != null) {
-                    final RedoEvent event = new RedoEvent(scn.longValue(), operationCode, redoSql, segOwner, tableName, changeTime, txId);
-                    // Transactional Commit Callback
-                    TransactionalBuffer.CommitCallback commitCallback = (smallestScn, commitScn, counter) -> {
-                        if (smallestScn == null || scn.compareTo(smallestScn) < 0) {
-                            // 当前SCN 事务已经提交 并且 小于事务缓冲区中所有的开始SCN，所以可以更新offsetScn
-                            startScn = scn.longValue();
-                        }
-                        if (counter == 0) {
-                            updateCommittedScn(commitScn.longValue());
-                        }
-                        event.setScn(startScn < committedScn ? committedScn:startScn);
-                        listener.onEvent(event);
-                    };
-                    transactionalBuffer.registerCommitCallback(txId, scn, commitCallback);
+                    transactionalBuffer.registerEvent(txId, scn, new RedoEvent(scn.longValue(), operationCode, redoSql, segOwner, tableName, changeTime, txId));
                 }
             }
         }
+        return rows;
+    }
+
+    /**
+     * Transactional Commit Callback
+     */
+    private void onCommit(BigInteger smallestScn, BigInteger commitScn, RedoEvent event, int counter) {
+        BigInteger scn = BigInteger.valueOf(event.getScn());
+        if (smallestScn == null || scn.compareTo(smallestScn) < 0) {
+            // 当前SCN 事务已经提交 并且 小于事务缓冲区中所有的开始SCN，所以可以更新offsetScn
+            startScn = scn.longValue();
+        }
+        if (counter == 0) {
+            updateCommittedScn(commitScn.longValue());
+        }
+        event.setScn(startScn < committedScn ? committedScn:startScn);
+        listener.onEvent(event);
     }
 
     private void updateCommittedScn(long newScn) {
@@ -303,14 +379,16 @@ public class LogMiner {
         if (redoSql == null) {
             return null;
         }
-        StringBuilder redoBuilder = new StringBuilder(redoSql);
-
         // https://docs.oracle.com/cd/B19306_01/server.102/b14237/dynviews_1154.htm#REFRN30132
         // Continuation SQL flag. Possible values are:
         // 0 = indicates SQL_REDO and SQL_UNDO is contained within the same row
         // 1 = indicates that either SQL_REDO or SQL_UNDO is greater than 4000 bytes in size and is continued in the next row returned by the view
         int csf = rs.getInt("CSF");
+        if (csf != 1) {
+            return redoSql;
+        }
 
+        StringBuilder redoBuilder = new StringBuilder(redoSql.length() * 2).append(redoSql);
         while (csf == 1) {
             rs.next();
             redoBuilder.append(rs.getString("SQL_REDO"));
@@ -332,6 +410,60 @@ public class LogMiner {
         this.startScn = startScn;
     }
 
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = Math.max(1, fetchSize);
+    }
+
+    public void setPollInterval(long minPollInterval, long maxPollInterval) {
+        this.minPollInterval = Math.max(1, minPollInterval);
+        this.maxPollInterval = Math.max(this.minPollInterval, maxPollInterval);
+        this.pollInterval = this.minPollInterval;
+    }
+
+    public void setBatchSize(long minBatchSize, long maxBatchSize) {
+        this.minBatchSize = Math.max(1, minBatchSize);
+        this.maxBatchSize = Math.max(this.minBatchSize, maxBatchSize);
+        this.batchSize = this.minBatchSize;
+    }
+
+    public void setSpillPath(String spillPath) {
+        transactionalBuffer.setSpillDir(new File(spillPath));
+    }
+
+    public void setSpillThreshold(int spillThreshold) {
+        transactionalBuffer.setSpillThreshold(spillThreshold);
+    }
+
+    public void setLongTransactionTime(long longTransactionTime) {
+        transactionalBuffer.setLongTransactionTime(longTransactionTime);
+    }
+
+    public void setTargetWindowTime(long targetWindowTime) {
+        this.targetWindowTime = targetWindowTime;
+    }
+
+    /**
+     * 最近一次挖掘窗口耗时(ms)，包含启动LogMiner、查询和处理结果集
+     *
+     * @return
+     */
+    public long getWindowTime() {
+        return windowTime;
+    }
+
+    /**
+     * 当前SCN与已挖掘SCN的差距，持续增长说明挖掘跟不上变更
+     *
+     * @return
+     */
+    public long getScnLag() {
+        return scnLag;
+    }
+
+    public long getBatchSize() {
+        return batchSize;
+    }
+
     public interface EventListener {
 
         void onEvent(RedoEvent redoEvent);
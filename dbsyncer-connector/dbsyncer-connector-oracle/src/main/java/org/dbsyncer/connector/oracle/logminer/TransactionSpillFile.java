@@ -0,0 +1,135 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.connector.oracle.logminer;
+
+import org.dbsyncer.connector.oracle.OracleException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+
+/**
+ * 大事务溢写文件（单个事务独占，顺序追加，提交时顺序回放）
+ * <p>记录格式：[scn long][operationCode int][redoSql][objectOwner][objectName][sourceTime long][transactionId]
+ * <p>字符串格式：[长度int，null为-1][UTF-8字节]
+ *
+ * @Author AE86
+ * @Version 1.0.0
+ * @Date 2024-07-07 16:40
+ */
+final class TransactionSpillFile implements Closeable {
+
+    private final File file;
+
+    private DataOutputStream out;
+
+    private int count;
+
+    TransactionSpillFile(File file) {
+        this.file = file;
+        try {
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+        } catch (IOException e) {
+            throw new OracleException(e);
+        }
+    }
+
+    void append(RedoEvent event) {
+        try {
+            out.writeLong(event.getScn());
+            out.writeInt(event.getOperationCode());
+            writeString(event.getRedoSql());
+            writeString(event.getObjectOwner());
+            writeString(event.getObjectName());
+            out.writeLong(event.getSourceTime() == null ? Long.MIN_VALUE : event.getSourceTime().getTime());
+            writeString(event.getTransactionId());
+            count++;
+        } catch (IOException e) {
+            throw new OracleException(e);
+        }
+    }
+
+    /**
+     * 按写入顺序回放
+     *
+     * @param consumer
+     */
+    void replay(EventConsumer consumer) throws InterruptedException {
+        closeOutput();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+            for (int i = 0; i < count; i++) {
+                long scn = in.readLong();
+                int operationCode = in.readInt();
+                String redoSql = readString(in);
+                String objectOwner = readString(in);
+                String objectName = readString(in);
+                long sourceTime = in.readLong();
+                String transactionId = readString(in);
+                consumer.accept(new RedoEvent(scn, operationCode, redoSql, objectOwner, objectName,
+                        sourceTime == Long.MIN_VALUE ? null : new Timestamp(sourceTime), transactionId));
+            }
+        } catch (IOException e) {
+            throw new OracleException(e);
+        }
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long getBytes() {
+        return file.length();
+    }
+
+    @Override
+    public void close() {
+        closeOutput();
+        file.delete();
+    }
+
+    private void closeOutput() {
+        if (null != out) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw new OracleException(e);
+            } finally {
+                out = null;
+            }
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    interface EventConsumer {
+        void accept(RedoEvent event) throws InterruptedException;
+    }
+
+}
@@ -3,17 +3,26 @@
  */
 package org.dbsyncer.connector.oracle.logminer;
 
+import org.dbsyncer.connector.oracle.OracleException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.math.BigInteger;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
+ * 事务缓冲区
+ * <p>1. 按事务缓存DML，提交时按序回调，回滚时丢弃
+ * <p>2. 按事务开始SCN建立索引，提交时获取最小SCN的复杂度为O(log n)
+ * <p>3. 事务DML数超过溢写阈值后，转存到本地文件，提交时从文件回放，避免大事务撑爆内存
+ * <p>4. 事务持续时间超过告警阈值，定期打印告警
+ *
  * @Author AE86
  * @Version 1.0.0
  * @Date 2023-12-09 20:26
@@ -21,33 +30,95 @@ import java.util.Map;
 public class TransactionalBuffer {
     private final Logger LOGGER = LoggerFactory.getLogger(TransactionalBuffer.class);
     private final Map<String, Transaction> transactions;
+    // 开始SCN -> 事务数
+    private final TreeMap<BigInteger, Integer> firstScnIndex;
     private BigInteger lastCommittedScn;
+    // 溢写目录
+    private File spillDir;
+    // 单个事务内存缓存的DML上限，超过后溢写
+    private int spillThreshold = 10000;
+    // 长事务告警阈值(ms)
+    private long longTransactionTime = 600000;
 
     public TransactionalBuffer() {
         this.transactions = new HashMap<>();
+        this.firstScnIndex = new TreeMap<>();
         this.lastCommittedScn = BigInteger.ZERO;
     }
 
     public interface CommitCallback {
-        void execute(BigInteger smallestScn, BigInteger commitScn, int callbackNumber) throws InterruptedException;
+        void execute(BigInteger smallestScn, BigInteger commitScn, RedoEvent event, int callbackNumber) throws InterruptedException;
     }
 
     private final class Transaction {
+        private final String txId;
         private final BigInteger firstScn;
         private BigInteger lastScn;
-        private final List<CommitCallback> commitCallbacks;
+        private final long startTime;
+        private long alarmTime;
+        private List<RedoEvent> events;
+        private TransactionSpillFile spillFile;
 
-        private Transaction(BigInteger firstScn) {
+        private Transaction(String txId, BigInteger firstScn) {
+            this.txId = txId;
             this.firstScn = firstScn;
-            this.commitCallbacks = new ArrayList<>();
+            this.events = new ArrayList<>();
             this.lastScn = firstScn;
+            this.startTime = Instant.now().toEpochMilli();
+            this.alarmTime = startTime;
+        }
+
+        private void add(RedoEvent event, BigInteger scn) {
+            lastScn = scn;
+            if (spillFile != null) {
+                spillFile.append(event);
+                return;
+            }
+            events.add(event);
+            if (spillDir != null && events.size() >= spillThreshold) {
+                spill();
+            }
+        }
+
+        private void spill() {
+            if (!spillDir.exists() && !spillDir.mkdirs()) {
+                throw new OracleException("无法创建目录:" + spillDir.getAbsolutePath());
+            }
+            spillFile = new TransactionSpillFile(new File(spillDir, txId + ".tx"));
+            events.forEach(spillFile::append);
+            events = null;
+            LOGGER.warn("txId {} exceeds {} events, spill to disk, firstScn:{}", txId, spillThreshold, firstScn);
+        }
+
+        private int size() {
+            return spillFile != null ? spillFile.getCount() : events.size();
+        }
+
+        private void replay(BigInteger smallestScn, BigInteger commitScn, CommitCallback callback) throws InterruptedException {
+            final int[] counter = {size()};
+            if (spillFile != null) {
+                spillFile.replay(event -> callback.execute(smallestScn, commitScn, event, --counter[0]));
+                return;
+            }
+            for (RedoEvent event : events) {
+                callback.execute(smallestScn, commitScn, event, --counter[0]);
+            }
+        }
+
+        private void release() {
+            if (spillFile != null) {
+                spillFile.close();
+            }
         }
 
         @Override
         public String toString() {
             return "Transaction{" +
-                    "firstScn=" + firstScn +
+                    "txId=" + txId +
+                    ", firstScn=" + firstScn +
                     ", lastScn=" + lastScn +
+                    ", events=" + size() +
+                    ", spilled=" + (spillFile != null) +
                     '}';
         }
     }
@@ -57,43 +128,40 @@ public class TransactionalBuffer {
     }
 
     private BigInteger calculateSmallestScn() {
-        return transactions.isEmpty() ? null
-                : transactions.values()
-                .stream()
-                .map(transaction -> transaction.firstScn)
-                .min(BigInteger::compareTo)
-                .orElseThrow(() -> new RuntimeException("Cannot calculate smallest SCN"));
+        return firstScnIndex.isEmpty() ? null : firstScnIndex.firstKey();
     }
 
-    public void registerCommitCallback(String transactionId, BigInteger scn, CommitCallback callback) {
-        transactions.computeIfAbsent(transactionId, s -> new Transaction(scn));
-
+    public void registerEvent(String transactionId, BigInteger scn, RedoEvent event) {
         Transaction transaction = transactions.get(transactionId);
-        if (transaction != null) {
-            transaction.commitCallbacks.add(callback);
+        if (transaction == null) {
+            transaction = new Transaction(transactionId, scn);
+            transactions.put(transactionId, transaction);
+            firstScnIndex.merge(scn, 1, Integer::sum);
         }
+        transaction.add(event, scn);
     }
 
-    public boolean commit(String txId, BigInteger commitScn, long committedScn) {
-        Transaction transaction = transactions.remove(txId);
+    public boolean commit(String txId, BigInteger commitScn, long committedScn, CommitCallback callback) {
+        Transaction transaction = remove(txId);
         if (transaction == null) {
             return false;
         }
 
-        BigInteger smallestScn = calculateSmallestScn();
+        try {
+            BigInteger smallestScn = calculateSmallestScn();
 
-        if (committedScn > commitScn.longValue() || lastCommittedScn.longValue() > commitScn.longValue()) {
-            LOGGER.warn("txId {} already commit, ignore.", txId);
-            return false;
-        }
+            if (committedScn > commitScn.longValue() || lastCommittedScn.longValue() > commitScn.longValue()) {
+                LOGGER.warn("txId {} already commit, ignore.", txId);
+                return false;
+            }
 
-        int counter = transaction.commitCallbacks.size();
-        for (CommitCallback callback : transaction.commitCallbacks) {
             try {
-                callback.execute(smallestScn, commitScn, --counter);
+                transaction.replay(smallestScn, commitScn, callback);
             } catch (InterruptedException e) {
                 LOGGER.error(e.getMessage(), e);
             }
+        } finally {
+            transaction.release();
         }
 
         lastCommittedScn = commitScn;
@@ -101,7 +169,66 @@ public class TransactionalBuffer {
     }
 
     public boolean rollback(String txId) {
-        return transactions.remove(txId) != null;
+        Transaction transaction = remove(txId);
+        if (transaction == null) {
+            return false;
+        }
+        transaction.release();
+        return true;
+    }
+
+    /**
+     * 检查长事务，超过告警阈值后每隔一个阈值周期告警一次
+     */
+    public void checkLongTransactions() {
+        if (longTransactionTime <= 0 || transactions.isEmpty()) {
+            return;
+        }
+        long now = Instant.now().toEpochMilli();
+        for (Transaction transaction : transactions.values()) {
+            if (now - transaction.alarmTime >= longTransactionTime) {
+                transaction.alarmTime = now;
+                LOGGER.warn("Long running transaction {}, duration {}s, smallestScn:{}", transaction, (now - transaction.startTime) / 1000, calculateSmallestScn());
+            }
+        }
+    }
+
+    /**
+     * 释放所有未提交事务，删除溢写文件
+     */
+    public void clear() {
+        transactions.values().forEach(Transaction::release);
+        transactions.clear();
+        firstScnIndex.clear();
+    }
+
+    public void setSpillDir(File spillDir) {
+        this.spillDir = spillDir;
+        // 溢写的事务尚未提交，位点未刷新，重启后会重新挖掘，因此清空目录
+        File[] files = spillDir.listFiles((d, name) -> name.endsWith(".tx"));
+        if (files != null) {
+            for (File f : files) {
+                if (!f.delete()) {
+                    LOGGER.warn("Delete spill file failed:{}", f.getAbsolutePath());
+                }
+            }
+        }
+    }
+
+    public void setSpillThreshold(int spillThreshold) {
+        this.spillThreshold = Math.max(1, spillThreshold);
+    }
+
+    public void setLongTransactionTime(long longTransactionTime) {
+        this.longTransactionTime = longTransactionTime;
+    }
+
+    private Transaction remove(String txId) {
+        Transaction transaction = transactions.remove(txId);
+        if (transaction != null) {
+            firstScnIndex.computeIfPresent(transaction.firstScn, (k, v) -> v > 1 ? v - 1 : null);
+        }
+        return transaction;
     }
 
-}
\ No newline at end of file
+}
@@ -24,7 +24,11 @@ import java.util.Map;
  */
 public abstract class AbstractParser implements Parser {
 
-    protected Map<String, Expression> columnMap = new HashMap<>();
+    protected Map<String, OracleColumnValue> columnMap = new HashMap<>();
+    /**
+     * 更新前的字段值（update的where条件）
+     */
+    protected Map<String, OracleColumnValue> beforeColumnMap = new HashMap<>();
     protected List<Field> fields;
 
     public void findColumn(Expression expression) {
@@ -32,7 +36,7 @@ public abstract class AbstractParser implements Parser {
             IsNullExpression isNullExpression = (IsNullExpression) expression;
             Column column = (Column) isNullExpression.getLeftExpression();
             columnMap.put(StringUtil.replace(column.getColumnName(), StringUtil.DOUBLE_QUOTATION,
-                    StringUtil.EMPTY), expression);
+                    StringUtil.EMPTY), new OracleColumnValue(expression));
             return;
         }
 
@@ -40,7 +44,7 @@ public abstract class AbstractParser implements Parser {
         if (binaryExpression.getLeftExpression() instanceof Column) {
             Column column = (Column) binaryExpression.getLeftExpression();
             columnMap.put(StringUtil.replace(column.getColumnName(), StringUtil.DOUBLE_QUOTATION,
-                    StringUtil.EMPTY), binaryExpression.getRightExpression());
+                    StringUtil.EMPTY), new OracleColumnValue(binaryExpression.getRightExpression()));
             return;
         }
         findColumn(binaryExpression.getLeftExpression());
@@ -48,12 +52,30 @@ public abstract class AbstractParser implements Parser {
     }
 
     public List<Object> columnMapToData() {
+        return columnMapToData(columnMap);
+    }
+
+    /**
+     * 更新前的行数据，where条件中没有的字段取更新后的值
+     *
+     * @return 没有where条件返回null
+     */
+    public List<Object> parseBeforeColumns() {
+        if (beforeColumnMap.isEmpty()) {
+            return null;
+        }
+        Map<String, OracleColumnValue> before = new HashMap<>(columnMap);
+        before.putAll(beforeColumnMap);
+        return columnMapToData(before);
+    }
+
+    private List<Object> columnMapToData(Map<String, OracleColumnValue> columnMap) {
         List<Object> data = new LinkedList<>();
         //需要进行数据库类型
         for (Field field : fields) {
-            OracleColumnValue oracleColumnValue = new OracleColumnValue(columnMap.get(field.getName()));
+            OracleColumnValue oracleColumnValue = columnMap.get(field.getName());
             // 无效空值
-            if (oracleColumnValue.isNull()){
+            if (oracleColumnValue == null || oracleColumnValue.isNull()){
                 data.add(null);
                 continue;
             }
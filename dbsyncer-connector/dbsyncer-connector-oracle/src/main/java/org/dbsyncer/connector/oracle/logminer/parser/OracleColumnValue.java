@@ -27,51 +27,66 @@ import java.util.Objects;
 
 /**
  * Oracle 字段值解析
+ * <p>值统一保存为文本：字符串为去掉引号后的内容，函数为原始文本，并记录函数名和第一个参数，如TO_DATE('2024-01-01 00:00:00', 'YYYY-MM-DD HH24:MI:SS')
  *
  * @Author AE86
  * @Version 1.0.0
  * @Date 2024-01-09 23:02
  */
-public class OracleColumnValue extends AbstractColumnValue<Expression> {
+public class OracleColumnValue extends AbstractColumnValue<String> {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    public OracleColumnValue(Expression value) {
-        setValue(value);
-    }
+    /**
+     * 函数名（大写），非函数值为null
+     */
+    private String function;
 
-    @Override
-    public boolean isNull() {
-        if (getValue() instanceof IsNullExpression) {
-            return true;
+    /**
+     * 函数的第一个参数
+     */
+    private String argument;
+
+    public OracleColumnValue(Expression value) {
+        if (value == null || value instanceof IsNullExpression || value instanceof NullValue) {
+            return;
         }
-        if (getValue() instanceof NullValue) {
-            return true;
+        if (value instanceof StringValue) {
+            setValue(unescape(((StringValue) value).getValue()));
+            return;
+        }
+        if (value instanceof Function) {
+            Function fun = (Function) value;
+            List<String> multipartName = fun.getMultipartName();
+            ExpressionList parameters = fun.getParameters();
+            if (!CollectionUtils.isEmpty(multipartName)) {
+                this.function = Objects.toString(multipartName.get(0)).toUpperCase();
+            }
+            if (!CollectionUtils.isEmpty(parameters) && parameters.get(0) != null) {
+                Object param = parameters.get(0);
+                this.argument = param instanceof StringValue ? unescape(((StringValue) param).getValue()) : Objects.toString(param);
+            }
         }
-        return super.isNull();
+        setValue(Objects.toString(value));
+    }
+
+    public OracleColumnValue(String value, String function, String argument) {
+        setValue(value);
+        this.function = function;
+        this.argument = argument;
     }
 
     @Override
     public String asString() {
-        if (getValue() instanceof StringValue) {
-            return ((StringValue) getValue()).getValue();
-        }
-
-        String val = Objects.toString(getValue());
-        if (val.startsWith("UNISTR('")) {
+        if ("UNISTR".equals(function)) {
             try {
-                String valueSub = val.substring(8, val.length() - 2);
-                if (StringUtil.isNotBlank(valueSub)) {
-                    return decodeUnicode(valueSub);
-                } else {
-                    return StringUtil.EMPTY;
-                }
+                return StringUtil.isNotBlank(argument) ? decodeUnicode(argument) : StringUtil.EMPTY;
             } catch (Exception e) {
-                throw new RuntimeException("parse value [" + val + " ] failed ", e);
+                throw new RuntimeException("parse value [" + getValue() + " ] failed ", e);
             }
         }
 
-        return val;
+        return getValue();
     }
 
     @Override
@@ -155,32 +170,22 @@ public class OracleColumnValue extends AbstractColumnValue<Expression> {
     }
 
     private <R> R handleColumnValue(ColumnValueFunction<R> function) {
-        Function fun = (Function) getValue();
-        List<String> multipartName = fun.getMultipartName();
-        ExpressionList parameters = fun.getParameters();
-        if (CollectionUtils.isEmpty(multipartName) || CollectionUtils.isEmpty(parameters)) {
-            return null;
-        }
-
-        String nameType = Objects.toString(multipartName.get(0));
-        Object value = parameters.get(0);
-        if (nameType == null || value == null) {
+        if (this.function == null || argument == null) {
             return null;
         }
 
-        if (value instanceof StringValue) {
-            StringValue val = (StringValue) value;
-            value = val.getValue();
-        }
-
         try {
-            return function.apply(nameType, value);
+            return function.apply(this.function, argument);
         } catch (Exception e) {
             logger.error(e.getMessage(), e);
         }
         return null;
     }
 
+    private String unescape(String value) {
+        return value.indexOf('\'') < 0 ? value : StringUtil.replace(value, "''", "'");
+    }
+
     private Timestamp toDate(Object value) {
         return DateFormatUtil.stringToTimestamp(Objects.toString(value));
     }
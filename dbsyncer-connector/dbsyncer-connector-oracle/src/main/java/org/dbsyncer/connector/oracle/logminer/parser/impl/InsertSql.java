@@ -10,6 +10,7 @@ import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.statement.insert.Insert;
 import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.connector.oracle.logminer.parser.AbstractParser;
+import org.dbsyncer.connector.oracle.logminer.parser.OracleColumnValue;
 import org.dbsyncer.sdk.model.Field;
 
 /**
@@ -32,7 +33,7 @@ public class InsertSql extends AbstractParser {
         ExpressionList<Expression> values = (ExpressionList<Expression>) insert.getSelect().getValues().getExpressions();
         for (int i = 0; i < columns.size(); i++) {
             columnMap.put(StringUtil.replace(columns.get(i).getColumnName(), StringUtil.DOUBLE_QUOTATION, StringUtil.EMPTY),
-                    values.get(i));
+                    new OracleColumnValue(values.get(i)));
         }
         return columnMapToData();
     }
@@ -0,0 +1,371 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.connector.oracle.logminer.parser.impl;
+
+import org.dbsyncer.connector.oracle.logminer.parser.AbstractParser;
+import org.dbsyncer.connector.oracle.logminer.parser.OracleColumnValue;
+import org.dbsyncer.sdk.constant.ConnectorConstant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LogMiner SQL_REDO 快速解析，逐字符扫描，不构建语法树
+ * <p>只支持LogMiner生成的固定格式，其他格式返回false，由jsqlparser解析：
+ * <pre>
+ * insert into "S"."T"("A","B") values ('1',NULL);
+ * update "S"."T" set "A" = '1', "B" = NULL where "A" = '0' and "B" IS NULL and ROWID = 'AAAS...';
+ * delete from "S"."T" where "A" = '1' and "B" IS NULL and ROWID = 'AAAS...';
+ * </pre>
+ * <p>字段值支持字符串、数字、NULL，以及参数为字面量的函数，如TO_DATE/TO_TIMESTAMP/TO_TIMESTAMP_TZ/HEXTORAW/UNISTR
+ *
+ * @Author AE86
+ * @Version 1.0.0
+ * @Date 2024-07-14 10:26
+ */
+public final class RedoSqlScanner extends AbstractParser {
+
+    private static final OracleColumnValue NULL_VALUE = new OracleColumnValue(null, null, null);
+
+    private final String sql;
+
+    private final int length;
+
+    private int pos;
+
+    private String operation;
+
+    private String tableName;
+
+    public RedoSqlScanner(String sql) {
+        this.sql = sql;
+        this.length = sql == null ? 0 : sql.length();
+    }
+
+    /**
+     * 解析操作类型和表名
+     *
+     * @return 不支持的语句返回false
+     */
+    public boolean scanTable() {
+        if (matchKeyword("insert")) {
+            if (!matchKeyword("into")) {
+                return false;
+            }
+            operation = ConnectorConstant.OPERTION_INSERT;
+        } else if (matchKeyword("update")) {
+            operation = ConnectorConstant.OPERTION_UPDATE;
+        } else if (matchKeyword("delete")) {
+            if (!matchKeyword("from")) {
+                return false;
+            }
+            operation = ConnectorConstant.OPERTION_DELETE;
+        } else {
+            return false;
+        }
+
+        String name = scanIdentifier();
+        while (name != null && match('.')) {
+            name = scanIdentifier();
+        }
+        tableName = name;
+        return tableName != null;
+    }
+
+    /**
+     * 解析字段值，须先调用{@link #scanTable()}
+     *
+     * @return 不支持的格式返回false
+     */
+    public boolean scanValues() {
+        boolean scanned;
+        switch (operation) {
+            case ConnectorConstant.OPERTION_INSERT:
+                scanned = scanInsert();
+                break;
+            case ConnectorConstant.OPERTION_UPDATE:
+                scanned = scanUpdate();
+                break;
+            default:
+                scanned = matchKeyword("where") && scanConditions();
+                break;
+        }
+        return scanned && scanEnd();
+    }
+
+    @Override
+    public List<Object> parseColumns() {
+        return columnMapToData();
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    private boolean scanInsert() {
+        if (!match('(')) {
+            return false;
+        }
+        List<String> columns = new ArrayList<>();
+        do {
+            String column = scanIdentifier();
+            if (column == null) {
+                return false;
+            }
+            columns.add(column);
+        } while (match(','));
+        if (!match(')') || !matchKeyword("values") || !match('(')) {
+            return false;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0 && !match(',')) {
+                return false;
+            }
+            OracleColumnValue value = scanValue();
+            if (value == null) {
+                return false;
+            }
+            columnMap.put(columns.get(i), value);
+        }
+        return match(')');
+    }
+
+    private boolean scanUpdate() {
+        if (!matchKeyword("set")) {
+            return false;
+        }
+        do {
+            String column = scanIdentifier();
+            if (column == null || !match('=')) {
+                return false;
+            }
+            OracleColumnValue value = scanValue();
+            if (value == null) {
+                return false;
+            }
+            columnMap.put(column, value);
+        } while (match(','));
+        // 没有where条件
+        if (!matchKeyword("where")) {
+            return true;
+        }
+        return scanConditions();
+    }
+
+    /**
+     * 解析where条件，只支持and连接的等值和IS NULL条件，set中已有的字段以set为准，where条件的值为更新前的值
+     */
+    private boolean scanConditions() {
+        do {
+            String column = scanIdentifier();
+            if (column == null) {
+                return false;
+            }
+            if (matchKeyword("is")) {
+                if (!matchKeyword("null")) {
+                    return false;
+                }
+                columnMap.putIfAbsent(column, NULL_VALUE);
+                beforeColumnMap.put(column, NULL_VALUE);
+                continue;
+            }
+            if (!match('=')) {
+                return false;
+            }
+            OracleColumnValue value = scanValue();
+            if (value == null) {
+                return false;
+            }
+            columnMap.putIfAbsent(column, value);
+            beforeColumnMap.put(column, value);
+        } while (matchKeyword("and"));
+        return true;
+    }
+
+    private boolean scanEnd() {
+        match(';');
+        skipWhitespace();
+        return pos == length;
+    }
+
+    /**
+     * 解析字段值
+     *
+     * @return 不支持的格式返回null
+     */
+    private OracleColumnValue scanValue() {
+        skipWhitespace();
+        if (pos >= length) {
+            return null;
+        }
+        OracleColumnValue value;
+        char c = sql.charAt(pos);
+        if (c == '\'') {
+            String text = scanString();
+            value = text == null ? null : new OracleColumnValue(text, null, null);
+        } else if (isNumberStart(c)) {
+            value = new OracleColumnValue(scanNumber(), null, null);
+        } else if (matchKeyword("null")) {
+            value = NULL_VALUE;
+        } else {
+            value = scanFunction();
+        }
+        // 拼接表达式，如'a' || UNISTR('\4F60')
+        skipWhitespace();
+        if (value == null || sql.startsWith("||", pos)) {
+            return null;
+        }
+        return value;
+    }
+
+    /**
+     * 解析函数，参数只支持字符串和数字
+     */
+    private OracleColumnValue scanFunction() {
+        final int start = pos;
+        while (pos < length && isIdentifierPart(sql.charAt(pos))) {
+            pos++;
+        }
+        if (pos == start) {
+            return null;
+        }
+        String function = sql.substring(start, pos).toUpperCase();
+        if (!match('(')) {
+            return null;
+        }
+        String argument = null;
+        if (!match(')')) {
+            do {
+                skipWhitespace();
+                if (pos >= length) {
+                    return null;
+                }
+                char c = sql.charAt(pos);
+                String arg;
+                if (c == '\'') {
+                    arg = scanString();
+                } else if (isNumberStart(c)) {
+                    arg = scanNumber();
+                } else {
+                    return null;
+                }
+                if (arg == null) {
+                    return null;
+                }
+                if (argument == null) {
+                    argument = arg;
+                }
+            } while (match(','));
+            if (!match(')')) {
+                return null;
+            }
+        }
+        return new OracleColumnValue(sql.substring(start, pos), function, argument);
+    }
+
+    /**
+     * 解析字符串，''转义为'
+     */
+    private String scanString() {
+        final int start = ++pos;
+        StringBuilder escaped = null;
+        int from = start;
+        while (pos < length) {
+            char c = sql.charAt(pos++);
+            if (c != '\'') {
+                continue;
+            }
+            if (pos < length && sql.charAt(pos) == '\'') {
+                if (escaped == null) {
+                    escaped = new StringBuilder(pos - start + 16);
+                }
+                escaped.append(sql, from, pos);
+                from = ++pos;
+                continue;
+            }
+            if (escaped == null) {
+                return sql.substring(start, pos - 1);
+            }
+            return escaped.append(sql, from, pos - 1).toString();
+        }
+        return null;
+    }
+
+    private String scanNumber() {
+        final int start = pos++;
+        while (pos < length) {
+            char c = sql.charAt(pos);
+            if (!(c >= '0' && c <= '9') && c != '.' && c != 'E' && c != 'e' && c != '-' && c != '+') {
+                break;
+            }
+            pos++;
+        }
+        return sql.substring(start, pos);
+    }
+
+    /**
+     * 解析标识符，去掉双引号
+     */
+    private String scanIdentifier() {
+        skipWhitespace();
+        if (pos >= length) {
+            return null;
+        }
+        if (sql.charAt(pos) == '"') {
+            int end = sql.indexOf('"', pos + 1);
+            if (end < 0) {
+                return null;
+            }
+            String name = sql.substring(pos + 1, end);
+            pos = end + 1;
+            return name;
+        }
+        final int start = pos;
+        while (pos < length && isIdentifierPart(sql.charAt(pos))) {
+            pos++;
+        }
+        return pos == start ? null : sql.substring(start, pos);
+    }
+
+    private boolean matchKeyword(String keyword) {
+        skipWhitespace();
+        int end = pos + keyword.length();
+        if (end > length || !sql.regionMatches(true, pos, keyword, 0, keyword.length())) {
+            return false;
+        }
+        if (end < length && isIdentifierPart(sql.charAt(end))) {
+            return false;
+        }
+        pos = end;
+        return true;
+    }
+
+    private boolean match(char c) {
+        skipWhitespace();
+        if (pos < length && sql.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (pos < length && Character.isWhitespace(sql.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private boolean isNumberStart(char c) {
+        return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.';
+    }
+
+    private boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#';
+    }
+
+}
@@ -7,6 +7,7 @@ import net.sf.jsqlparser.statement.update.Update;
 import net.sf.jsqlparser.statement.update.UpdateSet;
 import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.connector.oracle.logminer.parser.AbstractParser;
+import org.dbsyncer.connector.oracle.logminer.parser.OracleColumnValue;
 import org.dbsyncer.sdk.model.Field;
 
 import java.util.List;
@@ -28,6 +29,7 @@ public class UpdateSql extends AbstractParser {
     @Override
     public List<Object> parseColumns() {
         findColumn(update.getWhere());
+        beforeColumnMap.putAll(columnMap);
         passerSet(update.getUpdateSets());
         return columnMapToData();
     }
@@ -35,7 +37,7 @@ public class UpdateSql extends AbstractParser {
     private void passerSet(List<UpdateSet> updateSets) {
         for (UpdateSet updateSet : updateSets) {
             String columnName = StringUtil.replace(updateSet.getColumn(0).getColumnName(), StringUtil.DOUBLE_QUOTATION, StringUtil.EMPTY);
-            columnMap.put(columnName, updateSet.getValue(0));
+            columnMap.put(columnName, new OracleColumnValue(updateSet.getValue(0)));
         }
     }
 
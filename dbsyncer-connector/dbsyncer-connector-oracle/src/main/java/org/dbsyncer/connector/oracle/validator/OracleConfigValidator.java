@@ -24,6 +24,11 @@ public class OracleConfigValidator extends AbstractDataBaseConfigValidator {
 
         String schema = params.get("schema");
         connectorConfig.setSchema(StringUtil.isBlank(schema) ? connectorConfig.getUsername().toUpperCase() : schema.toUpperCase());
+        connectorConfig.getProperties().put("fetchSize", params.get("fetchSize"));
+        connectorConfig.getProperties().put("maxPollInterval", params.get("maxPollInterval"));
+        connectorConfig.getProperties().put("maxBatchSize", params.get("maxBatchSize"));
+        connectorConfig.getProperties().put("spillThreshold", params.get("spillThreshold"));
+        connectorConfig.getProperties().put("longTransactionTime", params.get("longTransactionTime"));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,155 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.delete.Delete;
+import net.sf.jsqlparser.statement.insert.Insert;
+import net.sf.jsqlparser.statement.update.Update;
+import org.dbsyncer.connector.oracle.logminer.parser.impl.DeleteSql;
+import org.dbsyncer.connector.oracle.logminer.parser.impl.InsertSql;
+import org.dbsyncer.connector.oracle.logminer.parser.impl.RedoSqlScanner;
+import org.dbsyncer.connector.oracle.logminer.parser.impl.UpdateSql;
+import org.dbsyncer.sdk.model.Field;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL_REDO解析基准测试
+ * <p>scanner：逐字符扫描LogMiner固定格式
+ * <p>jsqlparser：构建完整语法树（原实现）
+ * <p>语料默认为redo_sql.txt，可通过-Dredo.file指定采集的SQL_REDO文件（每行一条），字段按USER_INFO表定义
+ * <p>运行main方法，结果中的ops/s即每秒解析语句数，gc.alloc.rate.norm为每条语句分配字节数
+ *
+ * @Author AE86
+ * @Version 1.0.0
+ * @Date 2024-07-14 10:26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedoSqlParserBenchmark {
+
+    private List<String> corpus;
+
+    private List<Field> fields;
+
+    private int index;
+
+    @Setup
+    public void setup() throws Exception {
+        corpus = loadCorpus();
+        fields = Arrays.asList(
+                new Field("ID", "NUMBER", Types.NUMERIC, true, 10, 0),
+                new Field("NAME", "VARCHAR2", Types.VARCHAR),
+                new Field("AGE", "NUMBER", Types.NUMERIC, false, 3, 0),
+                new Field("SALARY", "NUMBER", Types.NUMERIC, false, 10, 2),
+                new Field("BIRTHDAY", "DATE", Types.TIMESTAMP),
+                new Field("UPDATE_TIME", "TIMESTAMP", Types.TIMESTAMP),
+                new Field("REMARK", "NVARCHAR2", Types.NVARCHAR),
+                new Field("AVATAR", "RAW", Types.VARBINARY));
+
+        // 两种实现的解析结果必须一致
+        for (String sql : corpus) {
+            List<Object> expected = parseByJsqlparser(sql);
+            List<Object> actual = parseByScanner(sql);
+            if (!Objects.equals(expected, actual)) {
+                throw new IllegalStateException(String.format("Mismatch, sql:%s, jsqlparser:%s, scanner:%s", sql, expected, actual));
+            }
+        }
+    }
+
+    @Benchmark
+    public void scanner(Blackhole bh) {
+        bh.consume(parseByScanner(next()));
+    }
+
+    @Benchmark
+    public void jsqlparser(Blackhole bh) throws Exception {
+        bh.consume(parseByJsqlparser(next()));
+    }
+
+    private String next() {
+        String sql = corpus.get(index);
+        index = (index + 1) % corpus.size();
+        return sql;
+    }
+
+    private List<Object> parseByScanner(String sql) {
+        RedoSqlScanner scanner = new RedoSqlScanner(sql);
+        if (!scanner.scanTable() || !scanner.scanValues()) {
+            throw new IllegalStateException("Unsupported sql:" + sql);
+        }
+        scanner.setFields(fields);
+        return scanner.parseColumns();
+    }
+
+    private List<Object> parseByJsqlparser(String sql) throws Exception {
+        Statement statement = CCJSqlParserUtil.parse(sql);
+        if (statement instanceof Insert) {
+            return new InsertSql((Insert) statement, fields).parseColumns();
+        }
+        if (statement instanceof Update) {
+            return new UpdateSql((Update) statement, fields).parseColumns();
+        }
+        if (statement instanceof Delete) {
+            return new DeleteSql((Delete) statement, fields).parseColumns();
+        }
+        throw new IllegalStateException("Unsupported sql:" + sql);
+    }
+
+    private List<String> loadCorpus() throws IOException {
+        String path = System.getProperty("redo.file");
+        List<String> lines = new ArrayList<>();
+        if (path != null) {
+            lines.addAll(Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8));
+        } else {
+            try (InputStream in = RedoSqlParserBenchmark.class.getResourceAsStream("/redo_sql.txt");
+                 Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name())) {
+                while (scanner.hasNextLine()) {
+                    lines.add(scanner.nextLine());
+                }
+            }
+        }
+        lines.removeIf(line -> line.trim().isEmpty());
+        return lines;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RedoSqlParserBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
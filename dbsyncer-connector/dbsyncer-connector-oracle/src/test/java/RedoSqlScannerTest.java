@@ -0,0 +1,158 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.delete.Delete;
+import net.sf.jsqlparser.statement.insert.Insert;
+import net.sf.jsqlparser.statement.update.Update;
+import org.dbsyncer.connector.oracle.logminer.parser.impl.DeleteSql;
+import org.dbsyncer.connector.oracle.logminer.parser.impl.InsertSql;
+import org.dbsyncer.connector.oracle.logminer.parser.impl.RedoSqlScanner;
+import org.dbsyncer.connector.oracle.logminer.parser.impl.UpdateSql;
+import org.dbsyncer.sdk.constant.ConnectorConstant;
+import org.dbsyncer.sdk.model.Field;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * 验证SQL_REDO快速解析与jsqlparser解析结果一致，不支持的格式交给jsqlparser解析
+ */
+public class RedoSqlScannerTest {
+
+    private static final String INSERT_PREFIX = "insert into \"DBSYNCER\".\"USER_INFO\"(\"ID\",\"NAME\",\"AGE\",\"SALARY\",\"BIRTHDAY\",\"UPDATE_TIME\",\"REMARK\",\"AVATAR\") values ";
+
+    private List<Field> fields;
+
+    @Before
+    public void init() {
+        fields = Arrays.asList(
+                new Field("ID", "NUMBER", Types.NUMERIC, true, 10, 0),
+                new Field("NAME", "VARCHAR2", Types.VARCHAR),
+                new Field("AGE", "NUMBER", Types.NUMERIC, false, 3, 0),
+                new Field("SALARY", "NUMBER", Types.NUMERIC, false, 10, 2),
+                new Field("BIRTHDAY", "DATE", Types.TIMESTAMP),
+                new Field("UPDATE_TIME", "TIMESTAMP", Types.TIMESTAMP),
+                new Field("REMARK", "NVARCHAR2", Types.NVARCHAR),
+                new Field("AVATAR", "RAW", Types.VARBINARY));
+    }
+
+    @Test
+    public void testCorpus() throws Exception {
+        List<String> corpus = loadCorpus();
+        Assert.assertFalse(corpus.isEmpty());
+        for (String sql : corpus) {
+            List<Object> actual = parseByScanner(sql);
+            Assert.assertNotNull("不支持的语句:" + sql, actual);
+            Assert.assertEquals(sql, parseByJsqlparser(sql), actual);
+        }
+    }
+
+    @Test
+    public void testEscapeQuote() throws Exception {
+        String sql = INSERT_PREFIX + "('4','o''neil','30','1',NULL,NULL,'a''''b',NULL);";
+        List<Object> columns = assertSame(sql);
+        Assert.assertEquals("o'neil", columns.get(1));
+        Assert.assertEquals("a''b", columns.get(6));
+    }
+
+    @Test
+    public void testIsNull() throws Exception {
+        String sql = "delete from \"DBSYNCER\".\"USER_INFO\" where \"ID\" = '3' and \"NAME\" = 'wangwu' and \"AGE\" IS NULL and \"SALARY\" = '0' and \"BIRTHDAY\" IS NULL and \"UPDATE_TIME\" IS NULL and \"REMARK\" IS NULL and \"AVATAR\" IS NULL and ROWID = 'AAAS5kAAHAAAAFbAAC';";
+        List<Object> columns = assertSame(sql);
+        Assert.assertEquals("wangwu", columns.get(1));
+        Assert.assertNull(columns.get(2));
+        Assert.assertNull(columns.get(4));
+        Assert.assertNull(columns.get(6));
+    }
+
+    @Test
+    public void testFunction() throws Exception {
+        String sql = "update \"DBSYNCER\".\"USER_INFO\" set \"UPDATE_TIME\" = TO_TIMESTAMP('2024-07-14 10:26:02.456'), \"REMARK\" = UNISTR('\\4F60\\597D') where \"ID\" = '2' and \"BIRTHDAY\" = TO_DATE('1999-12-31 23:59:59', 'YYYY-MM-DD HH24:MI:SS') and ROWID = 'AAAS5kAAHAAAAFbAAB';";
+        List<Object> columns = assertSame(sql);
+        Assert.assertTrue(columns.get(4) instanceof Timestamp);
+        Assert.assertTrue(columns.get(5) instanceof Timestamp);
+        Assert.assertEquals("你好", columns.get(6));
+    }
+
+    @Test
+    public void testFallbackConcat() throws Exception {
+        // 拼接表达式由jsqlparser解析
+        String sql = INSERT_PREFIX + "('5','a' || UNISTR('\\4F60'),'30','1',NULL,NULL,NULL,NULL);";
+        assertFallback(sql, ConnectorConstant.OPERTION_INSERT);
+    }
+
+    @Test
+    public void testFallbackOr() throws Exception {
+        // 只支持and连接的条件
+        String sql = "delete from \"DBSYNCER\".\"USER_INFO\" where \"ID\" = '1' or \"ID\" = '2';";
+        assertFallback(sql, ConnectorConstant.OPERTION_DELETE);
+    }
+
+    private List<Object> assertSame(String sql) throws Exception {
+        List<Object> actual = parseByScanner(sql);
+        Assert.assertNotNull("不支持的语句:" + sql, actual);
+        Assert.assertEquals(parseByJsqlparser(sql), actual);
+        return actual;
+    }
+
+    private void assertFallback(String sql, String operation) throws Exception {
+        RedoSqlScanner scanner = new RedoSqlScanner(sql);
+        Assert.assertTrue(scanner.scanTable());
+        Assert.assertEquals(operation, scanner.getOperation());
+        Assert.assertEquals("USER_INFO", scanner.getTableName());
+        Assert.assertFalse(scanner.scanValues());
+        Assert.assertEquals(fields.size(), parseByJsqlparser(sql).size());
+    }
+
+    /**
+     * @return 不支持的格式返回null
+     */
+    private List<Object> parseByScanner(String sql) {
+        RedoSqlScanner scanner = new RedoSqlScanner(sql);
+        if (!scanner.scanTable() || !scanner.scanValues()) {
+            return null;
+        }
+        scanner.setFields(fields);
+        return scanner.parseColumns();
+    }
+
+    private List<Object> parseByJsqlparser(String sql) throws Exception {
+        Statement statement = CCJSqlParserUtil.parse(sql);
+        if (statement instanceof Insert) {
+            return new InsertSql((Insert) statement, fields).parseColumns();
+        }
+        if (statement instanceof Update) {
+            return new UpdateSql((Update) statement, fields).parseColumns();
+        }
+        if (statement instanceof Delete) {
+            return new DeleteSql((Delete) statement, fields).parseColumns();
+        }
+        throw new IllegalStateException("Unsupported sql:" + sql);
+    }
+
+    private List<String> loadCorpus() throws Exception {
+        List<String> lines = new ArrayList<>();
+        try (InputStream in = RedoSqlScannerTest.class.getResourceAsStream("/redo_sql.txt");
+             Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name())) {
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine();
+                if (!line.trim().isEmpty()) {
+                    lines.add(line);
+                }
+            }
+        }
+        return lines;
+    }
+
+}
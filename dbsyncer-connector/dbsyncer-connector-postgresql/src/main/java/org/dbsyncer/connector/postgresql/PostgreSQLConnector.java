@@ -10,20 +10,29 @@ import org.dbsyncer.connector.postgresql.schema.PostgreSQLOtherValueMapper;
 import org.dbsyncer.connector.postgresql.validator.PostgreSQLConfigValidator;
 import org.dbsyncer.sdk.config.CommandConfig;
 import org.dbsyncer.sdk.config.DatabaseConfig;
+import org.dbsyncer.sdk.config.SqlBuilderConfig;
 import org.dbsyncer.sdk.connector.ConfigValidator;
 import org.dbsyncer.sdk.connector.database.AbstractDatabaseConnector;
+import org.dbsyncer.sdk.connector.database.sqlbuilder.SqlBuilderUpsertOnConflict;
 import org.dbsyncer.sdk.constant.DatabaseConstant;
 import org.dbsyncer.sdk.enums.ListenerTypeEnum;
 import org.dbsyncer.sdk.enums.TableTypeEnum;
 import org.dbsyncer.sdk.listener.DatabaseQuartzListener;
 import org.dbsyncer.sdk.listener.Listener;
+import org.dbsyncer.sdk.model.Field;
 import org.dbsyncer.sdk.model.PageSql;
 import org.dbsyncer.sdk.model.Table;
 import org.dbsyncer.sdk.plugin.ReaderContext;
+import org.dbsyncer.sdk.util.BulkLoadUtil;
 import org.dbsyncer.sdk.util.PrimaryKeyUtil;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
 import java.sql.Types;
 import java.util.List;
 
@@ -40,6 +49,7 @@ public final class PostgreSQLConnector extends AbstractDatabaseConnector {
 
     private final String TYPE = "PostgreSQL";
     private final PostgreSQLConfigValidator configValidator = new PostgreSQLConfigValidator();
+    private final SqlBuilderUpsertOnConflict upsertSqlBuilder = new SqlBuilderUpsertOnConflict();
 
     public PostgreSQLConnector() {
         VALUE_MAPPERS.put(Types.BIT, new PostgreSQLBitValueMapper());
@@ -73,6 +83,11 @@ public final class PostgreSQLConnector extends AbstractDatabaseConnector {
         return "\"";
     }
 
+    @Override
+    public String buildUpsertSql(SqlBuilderConfig config) {
+        return upsertSqlBuilder.buildSql(config);
+    }
+
     @Override
     public String getPageSql(PageSql config) {
         // select * from test."my_user" where "id" > ? and "uid" > ? order by "id","uid" limit ? OFFSET ?
@@ -147,4 +162,40 @@ public final class PostgreSQLConnector extends AbstractDatabaseConnector {
         return true;
     }
 
+    @Override
+    protected boolean enableBulkLoad(DatabaseConfig config) {
+        return true;
+    }
+
+    @Override
+    protected int bulkLoad(Connection connection, String tableName, List<Field> fields, List<Object[]> rows) throws Exception {
+        // COPY test."my_user" ("id","name") FROM STDIN WITH (FORMAT csv)
+        String sql = new StringBuilder("COPY ").append(tableName).append(" ").append(BulkLoadUtil.buildColumns(this, fields))
+                .append(" FROM STDIN WITH (FORMAT csv)").toString();
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        return (int) copyManager.copyIn(sql, new ByteArrayInputStream(encode(rows)));
+    }
+
+    /**
+     * CSV格式：非空值加双引号（空字符串与null区分），null不输出，二进制值按bytea十六进制格式输出
+     */
+    private byte[] encode(List<Object[]> rows) {
+        StringBuilder buf = new StringBuilder();
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    buf.append(',');
+                }
+                if (null == row[i]) {
+                    continue;
+                }
+                // bytea十六进制格式：\x0a1b
+                String text = row[i] instanceof byte[] ? "\\x" + BulkLoadUtil.toText(row[i]) : BulkLoadUtil.toText(row[i]);
+                buf.append('"').append(StringUtil.replace(text, "\"", "\"\"")).append('"');
+            }
+            buf.append('\n');
+        }
+        return buf.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
 }
\ No newline at end of file
@@ -3,7 +3,6 @@
  */
 package org.dbsyncer.connector.postgresql.cdc;
 
-import org.dbsyncer.common.QueueOverflowException;
 import org.dbsyncer.common.util.BooleanUtil;
 import org.dbsyncer.connector.postgresql.decoder.MessageDecoder;
 import org.dbsyncer.connector.postgresql.PostgreSQLException;
@@ -287,18 +286,8 @@ public class PostgreSQLListener extends AbstractDatabaseListener {
                     RowChangedEvent event = messageDecoder.processMessage(msg);
                     if (event != null) {
                         event.setPosition(lsn.asString());
-                        while (connected){
-                            try {
-                                sendChangedEvent(event);
-                                break;
-                            } catch (QueueOverflowException ex) {
-                                try {
-                                    TimeUnit.MILLISECONDS.sleep(1);
-                                } catch (InterruptedException exe) {
-                                    logger.error(exe.getMessage(), exe);
-                                }
-                            }
-                        }
+                        // 缓存队列已满时阻塞等待，直到提交成功或断开连接
+                        sendChangedEvent(event, () -> connected);
                     }
 
                     // feedback
@@ -144,6 +144,15 @@ public class PgOutputMessageDecoder extends AbstractMessageDecoder {
                 case "O":
                     List<Object> data = new ArrayList<>();
                     readTupleData(tableId, buffer, data);
+                    // 更新主键或REPLICA IDENTITY FULL时，先是更新前的行（K-只有主键，O-整行），后是更新后的行
+                    if (MessageTypeEnum.UPDATE == type && !"N".equals(newTuple) && buffer.hasRemaining() && 'N' == (char) buffer.get()) {
+                        List<Object> before = data;
+                        data = new ArrayList<>();
+                        readTupleData(tableId, buffer, data);
+                        RowChangedEvent event = new RowChangedEvent(tableId.tableName, type.name(), data);
+                        event.setBeforeDataList(before.isEmpty() ? null : before);
+                        return event;
+                    }
                     return new RowChangedEvent(tableId.tableName, type.name(), data);
 
                 default:
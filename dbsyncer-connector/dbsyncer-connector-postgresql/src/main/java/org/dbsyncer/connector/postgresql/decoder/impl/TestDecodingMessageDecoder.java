@@ -15,7 +15,9 @@ import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @Author AE86
@@ -26,6 +28,10 @@ public class TestDecodingMessageDecoder extends AbstractMessageDecoder {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
+    private static final String OLD_KEY = "old-key:";
+
+    private static final String NEW_TUPLE = "new-tuple:";
+
     @Override
     public RowChangedEvent processMessage(ByteBuffer buffer) {
         if (!buffer.hasArray()) {
@@ -67,21 +73,41 @@ public class TestDecodingMessageDecoder extends AbstractMessageDecoder {
         lexer.skip(1);
 
         List<Object> data = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        // 更新主键时，先输出更新前的主键（old-key），再输出更新后的行（new-tuple）
+        Map<String, Object> oldKey = null;
+        boolean readingOldKey = false;
         while (lexer.hasNext()) {
             String name = parseName(lexer);
             if ("(no-tuple-data)".equals(name)) {
                 // 删除时,无主键,不能同步
                 return null;
             }
+            if (name.startsWith(OLD_KEY)) {
+                name = name.substring(OLD_KEY.length()).trim();
+                oldKey = new HashMap<>();
+                readingOldKey = true;
+            } else if (name.startsWith(NEW_TUPLE)) {
+                name = name.substring(NEW_TUPLE.length()).trim();
+                readingOldKey = false;
+            }
             String type = parseType(lexer);
             lexer.skip(1);
             String value = parseValue(lexer);
+            if (readingOldKey) {
+                oldKey.put(name, resolveValue(type, value));
+                continue;
+            }
+            names.add(name);
             data.add(resolveValue(type, value));
         }
 
         RowChangedEvent event = null;
         switch (eventType) {
             case ConnectorConstant.OPERTION_UPDATE:
+                event = new RowChangedEvent(table, eventType, data);
+                event.setBeforeDataList(getBeforeData(names, data, oldKey));
+                break;
             case ConnectorConstant.OPERTION_INSERT:
             case ConnectorConstant.OPERTION_DELETE:
                 event = new RowChangedEvent(table, eventType, data);
@@ -93,6 +119,22 @@ public class TestDecodingMessageDecoder extends AbstractMessageDecoder {
         return event;
     }
 
+    /**
+     * 更新前的行数据，主键取old-key的值，其他字段取更新后的值
+     */
+    private List<Object> getBeforeData(List<String> names, List<Object> data, Map<String, Object> oldKey) {
+        if (null == oldKey) {
+            return null;
+        }
+        List<Object> before = new ArrayList<>(data);
+        for (int i = 0; i < names.size(); i++) {
+            if (oldKey.containsKey(names.get(i))) {
+                before.set(i, oldKey.get(names.get(i)));
+            }
+        }
+        return before;
+    }
+
     private String parseName(Lexer lexer) {
         if (lexer.current() == ' ') {
             lexer.skip(1);
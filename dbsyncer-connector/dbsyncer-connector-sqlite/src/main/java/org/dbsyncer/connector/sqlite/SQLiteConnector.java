@@ -6,9 +6,11 @@ package org.dbsyncer.connector.sqlite;
 import org.dbsyncer.common.util.CollectionUtils;
 import org.dbsyncer.connector.sqlite.validator.SQLiteConfigValidator;
 import org.dbsyncer.sdk.config.DatabaseConfig;
+import org.dbsyncer.sdk.config.SqlBuilderConfig;
 import org.dbsyncer.sdk.connector.ConfigValidator;
 import org.dbsyncer.sdk.connector.database.AbstractDatabaseConnector;
 import org.dbsyncer.sdk.connector.database.DatabaseConnectorInstance;
+import org.dbsyncer.sdk.connector.database.sqlbuilder.SqlBuilderUpsertOnConflict;
 import org.dbsyncer.sdk.constant.DatabaseConstant;
 import org.dbsyncer.sdk.enums.ListenerTypeEnum;
 import org.dbsyncer.sdk.enums.TableTypeEnum;
@@ -38,6 +40,7 @@ public final class SQLiteConnector extends AbstractDatabaseConnector {
 
     private final String TYPE = "SQLite";
     private final SQLiteConfigValidator configValidator = new SQLiteConfigValidator();
+    private final SqlBuilderUpsertOnConflict upsertSqlBuilder = new SqlBuilderUpsertOnConflict();
 
     @Override
     public String getConnectorType() {
@@ -65,6 +68,11 @@ public final class SQLiteConnector extends AbstractDatabaseConnector {
         return null;
     }
 
+    @Override
+    public String buildUpsertSql(SqlBuilderConfig config) {
+        return upsertSqlBuilder.buildSql(config);
+    }
+
     @Override
     public String getPageSql(PageSql config) {
         // select * from "my_user" where "id" > ? and "uid" > ? order by "id","uid" limit ? OFFSET ?
@@ -3,15 +3,20 @@
  */
 package org.dbsyncer.connector.sqlserver;
 
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions;
+import com.microsoft.sqlserver.jdbc.SQLServerConnection;
 import org.dbsyncer.common.util.CollectionUtils;
 import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.connector.sqlserver.cdc.SqlServerListener;
 import org.dbsyncer.connector.sqlserver.validator.SqlServerConfigValidator;
 import org.dbsyncer.sdk.config.CommandConfig;
 import org.dbsyncer.sdk.config.DatabaseConfig;
+import org.dbsyncer.sdk.config.SqlBuilderConfig;
 import org.dbsyncer.sdk.connector.ConfigValidator;
 import org.dbsyncer.sdk.connector.database.AbstractDatabaseConnector;
 import org.dbsyncer.sdk.connector.database.DatabaseConnectorInstance;
+import org.dbsyncer.sdk.connector.database.sqlbuilder.SqlBuilderMerge;
 import org.dbsyncer.sdk.constant.ConnectorConstant;
 import org.dbsyncer.sdk.constant.DatabaseConstant;
 import org.dbsyncer.sdk.enums.ListenerTypeEnum;
@@ -23,6 +28,12 @@ import org.dbsyncer.sdk.model.PageSql;
 import org.dbsyncer.sdk.model.Table;
 import org.dbsyncer.sdk.plugin.ReaderContext;
 
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.Connection;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +56,7 @@ public final class SqlServerConnector extends AbstractDatabaseConnector {
 
     private final String TYPE = "SqlServer";
     private final SqlServerConfigValidator configValidator = new SqlServerConfigValidator();
+    private final SqlBuilderMerge upsertSqlBuilder = new SqlBuilderMerge("", ";");
 
     @Override
     public String getConnectorType() {
@@ -76,6 +88,11 @@ public final class SqlServerConnector extends AbstractDatabaseConnector {
         return null;
     }
 
+    @Override
+    public String buildUpsertSql(SqlBuilderConfig config) {
+        return upsertSqlBuilder.buildSql(config);
+    }
+
     @Override
     public String getPageSql(PageSql config) {
         List<String> primaryKeys = buildPrimaryKeys(config.getPrimaryKeys());
@@ -144,10 +161,68 @@ public final class SqlServerConnector extends AbstractDatabaseConnector {
                     + targetCommand.get(ConnectorConstant.OPERTION_INSERT)
                     + String.format(SET_TABLE_IDENTITY_OFF, config.getSchema(), tableName);
             targetCommand.put(ConnectorConstant.OPERTION_INSERT, insert);
+            // MERGE语句以分号结束
+            String upsert = targetCommand.get(ConnectorConstant.OPERTION_UPSERT);
+            if (StringUtil.isNotBlank(upsert)) {
+                targetCommand.put(ConnectorConstant.OPERTION_UPSERT, String.format(SET_TABLE_IDENTITY_ON, config.getSchema(), tableName) + upsert
+                        + StringUtil.substring(String.format(SET_TABLE_IDENTITY_OFF, config.getSchema(), tableName), 1));
+            }
         }
         return targetCommand;
     }
 
+    @Override
+    protected boolean enableBulkLoad(DatabaseConfig config) {
+        return true;
+    }
+
+    @Override
+    protected int bulkLoad(Connection connection, String tableName, List<Field> fields, List<Object[]> rows) throws Exception {
+        SQLServerBulkCopyOptions options = new SQLServerBulkCopyOptions();
+        // 保留标识列和null值，与insert语义一致；整批在一个事务内提交
+        options.setKeepIdentity(true);
+        options.setKeepNulls(true);
+        options.setUseInternalTransaction(true);
+        try (SQLServerBulkCopy bulkCopy = new SQLServerBulkCopy(connection.unwrap(SQLServerConnection.class))) {
+            bulkCopy.setBulkCopyOptions(options);
+            bulkCopy.setDestinationTableName(tableName);
+            for (int i = 0; i < fields.size(); i++) {
+                bulkCopy.addColumnMapping(i + 1, fields.get(i).getName());
+            }
+            bulkCopy.writeToServer(toRowSet(fields, rows));
+        }
+        return rows.size();
+    }
+
+    /**
+     * 行数据转为结果集，按目标字段类型、长度和精度写入
+     */
+    private CachedRowSet toRowSet(List<Field> fields, List<Object[]> rows) throws SQLException {
+        final int size = fields.size();
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(size);
+        for (int i = 0; i < size; i++) {
+            Field f = fields.get(i);
+            metaData.setColumnName(i + 1, f.getName());
+            metaData.setColumnType(i + 1, f.getType());
+            metaData.setPrecision(i + 1, Math.max(0, f.getColumnSize()));
+            metaData.setScale(i + 1, Math.max(0, f.getRatio()));
+            metaData.setNullable(i + 1, ResultSetMetaData.columnNullable);
+        }
+        CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+        rowSet.setMetaData(metaData);
+        for (Object[] row : rows) {
+            rowSet.moveToInsertRow();
+            for (int i = 0; i < size; i++) {
+                rowSet.updateObject(i + 1, row[i]);
+            }
+            rowSet.insertRow();
+        }
+        rowSet.moveToCurrentRow();
+        rowSet.beforeFirst();
+        return rowSet;
+    }
+
     private String convertKey(String key) {
         return new StringBuilder("[").append(key).append("]").toString();
     }
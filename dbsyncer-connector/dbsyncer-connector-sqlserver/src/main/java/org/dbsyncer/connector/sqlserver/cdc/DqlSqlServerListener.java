@@ -5,6 +5,8 @@ package org.dbsyncer.connector.sqlserver.cdc;
 
 import org.dbsyncer.sdk.listener.ChangedEvent;
 
+import java.util.function.BooleanSupplier;
+
 /**
  * @Author AE86
  * @Version 1.0.0
@@ -19,7 +21,7 @@ public class DqlSqlServerListener extends SqlServerListener {
     }
 
     @Override
-    public void sendChangedEvent(ChangedEvent event) {
-        super.sendDqlChangedEvent(event);
+    public void sendChangedEvent(ChangedEvent event, BooleanSupplier running) {
+        super.sendDqlChangedEvent(event, running);
     }
 }
\ No newline at end of file
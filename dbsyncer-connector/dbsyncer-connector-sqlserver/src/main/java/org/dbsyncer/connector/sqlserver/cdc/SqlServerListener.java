@@ -4,7 +4,6 @@
 package org.dbsyncer.connector.sqlserver.cdc;
 
 import com.microsoft.sqlserver.jdbc.SQLServerException;
-import org.dbsyncer.common.QueueOverflowException;
 import org.dbsyncer.common.util.CollectionUtils;
 import org.dbsyncer.connector.sqlserver.model.SqlServerChangeTable;
 import org.dbsyncer.connector.sqlserver.SqlServerException;
@@ -61,7 +60,7 @@ public class SqlServerListener extends AbstractDatabaseListener {
     /**
      * https://learn.microsoft.com/zh-cn/previous-versions/sql/sql-server-2008/bb510627(v=sql.100)?redirectedfrom=MSDN
      */
-    private static final String GET_ALL_CHANGES_FOR_TABLE = "select * from cdc.[fn_cdc_get_all_changes_#](?, ?, N'all update old') order by [__$start_lsn] ASC, [__$seqval] ASC";
+    private static final String GET_ALL_CHANGES_FOR_TABLE = "select * from cdc.[fn_cdc_get_all_changes_#](?, ?, N'all update old') order by [__$start_lsn] ASC, [__$seqval] ASC, [__$operation] ASC";
 
     private static final String LSN_POSITION = "position";
     private static final int OFFSET_COLUMNS = 4;
@@ -250,18 +249,21 @@ public class SqlServerListener extends AbstractDatabaseListener {
             }, rs -> {
                 int columnCount = rs.getMetaData().getColumnCount();
                 List<Object> row = null;
+                // 更新前的行数据，紧接着的是更新后的行数据
+                List<Object> before = null;
                 List<CDCEvent> data = new ArrayList<>();
                 while (rs.next()) {
-                    // skip update before
                     final int operation = rs.getInt(3);
-                    if (TableOperationEnum.isUpdateBefore(operation)) {
-                        continue;
-                    }
                     row = new ArrayList<>(columnCount - OFFSET_COLUMNS);
                     for (int i = OFFSET_COLUMNS + 1; i <= columnCount; i++) {
                         row.add(rs.getObject(i));
                     }
-                    data.add(new CDCEvent(changeTable.getTableName(), operation, row));
+                    if (TableOperationEnum.isUpdateBefore(operation)) {
+                        before = row;
+                        continue;
+                    }
+                    data.add(new CDCEvent(changeTable.getTableName(), operation, row, TableOperationEnum.isUpdateAfter(operation) ? before : null));
+                    before = null;
                 }
                 return data;
             });
@@ -273,18 +275,8 @@ public class SqlServerListener extends AbstractDatabaseListener {
     }
 
     private void trySendEvent(RowChangedEvent event){
-        while (connected){
-            try {
-                sendChangedEvent(event);
-                break;
-            } catch (QueueOverflowException ex) {
-                try {
-                    TimeUnit.MILLISECONDS.sleep(1);
-                } catch (InterruptedException exe) {
-                    logger.error(exe.getMessage(), exe);
-                }
-            }
-        }
+        // 缓存队列已满时阻塞等待，直到提交成功或断开连接
+        sendChangedEvent(event, () -> connected);
     }
 
     private void parseEvent(List<CDCEvent> list, Lsn stopLsn) {
@@ -293,7 +285,9 @@ public class SqlServerListener extends AbstractDatabaseListener {
             boolean isEnd = i == size - 1;
             CDCEvent event = list.get(i);
             if (TableOperationEnum.isUpdateAfter(event.getCode())) {
-                trySendEvent(new RowChangedEvent(event.getTableName(), ConnectorConstant.OPERTION_UPDATE, event.getRow(), null, (isEnd ? stopLsn : null)));
+                RowChangedEvent rowChangedEvent = new RowChangedEvent(event.getTableName(), ConnectorConstant.OPERTION_UPDATE, event.getRow(), null, (isEnd ? stopLsn : null));
+                rowChangedEvent.setBeforeDataList(event.getBeforeRow());
+                trySendEvent(rowChangedEvent);
                 continue;
             }
 
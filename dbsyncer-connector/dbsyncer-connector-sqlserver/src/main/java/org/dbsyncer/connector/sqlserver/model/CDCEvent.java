@@ -10,11 +10,18 @@ public final class CDCEvent {
     private String tableName;
     private int code;
     private List<Object> row;
+    // 更新前的行数据
+    private List<Object> beforeRow;
 
     public CDCEvent(String tableName, int code, List<Object> row) {
+        this(tableName, code, row, null);
+    }
+
+    public CDCEvent(String tableName, int code, List<Object> row, List<Object> beforeRow) {
         this.tableName = tableName;
         this.code = code;
         this.row = row;
+        this.beforeRow = beforeRow;
     }
 
     public String getTableName() {
@@ -28,4 +35,8 @@ public final class CDCEvent {
     public List<Object> getRow() {
         return row;
     }
+
+    public List<Object> getBeforeRow() {
+        return beforeRow;
+    }
 }
\ No newline at end of file
@@ -3,10 +3,14 @@
  */
 package org.dbsyncer.manager.impl;
 
+import org.dbsyncer.common.config.FullSyncConfig;
+import org.dbsyncer.common.util.CollectionUtils;
+import org.dbsyncer.common.util.JsonUtil;
 import org.dbsyncer.common.util.NumberUtil;
 import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.sdk.util.PrimaryKeyUtil;
 import org.dbsyncer.manager.AbstractPuller;
+import org.dbsyncer.parser.CheckpointService;
 import org.dbsyncer.parser.ParserComponent;
 import org.dbsyncer.parser.ProfileComponent;
 import org.dbsyncer.parser.enums.ParserEnum;
@@ -17,6 +21,7 @@ import org.dbsyncer.parser.model.Mapping;
 import org.dbsyncer.parser.model.Meta;
 import org.dbsyncer.parser.model.TableGroup;
 import org.dbsyncer.parser.model.Task;
+import org.dbsyncer.parser.model.TaskRange;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationListener;
@@ -25,12 +30,17 @@ import org.springframework.util.Assert;
 
 import javax.annotation.Resource;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * 全量同步
@@ -50,9 +60,15 @@ public final class FullPuller extends AbstractPuller implements ApplicationListe
     @Resource
     private ProfileComponent profileComponent;
 
+    @Resource
+    private CheckpointService checkpointService;
+
     @Resource
     private LogService logService;
 
+    @Resource
+    private FullSyncConfig fullSyncConfig;
+
     private Map<String, Task> map = new ConcurrentHashMap<>();
 
     @Override
@@ -117,27 +133,129 @@ public final class FullPuller extends AbstractPuller implements ApplicationListe
         String cursorValue = snapshot.get(ParserEnum.CURSOR.getCode());
         task.setCursors(PrimaryKeyUtil.getLastCursors(cursorValue));
         task.setTableGroupIndex(NumberUtil.toInt(snapshot.get(ParserEnum.TABLE_GROUP_INDEX.getCode()), ParserEnum.TABLE_GROUP_INDEX.getDefaultValue()));
+        // 主键分段同步点
+        String ranges = snapshot.get(ParserEnum.RANGES.getCode());
+        task.setRanges(StringUtil.isNotBlank(ranges) ? JsonUtil.jsonToArray(ranges, TaskRange.class) : null);
         flush(task);
 
-        int i = task.getTableGroupIndex();
-        while (i < list.size()) {
-            parserComponent.execute(task, mapping, list.get(i), executor);
-            if (!task.isRunning()) {
-                break;
+        // 表级并行同步
+        int parallelism = Math.min(fullSyncConfig.getTableParallelism(), mapping.getThreadNum());
+        if (parallelism > 1) {
+            doParallelTask(task, mapping, list, executor, parallelism, snapshot);
+        } else {
+            int i = task.getTableGroupIndex();
+            while (i < list.size()) {
+                parserComponent.execute(task, mapping, list.get(i), executor);
+                if (!task.isRunning()) {
+                    break;
+                }
+                task.setPageIndex(ParserEnum.PAGE_INDEX.getDefaultValue());
+                task.setCursors(null);
+                task.setRanges(null);
+                task.setTableGroupIndex(++i);
+                flush(task);
             }
-            task.setPageIndex(ParserEnum.PAGE_INDEX.getDefaultValue());
-            task.setCursors(null);
-            task.setTableGroupIndex(++i);
-            flush(task);
         }
 
         // 记录结束时间
         task.setEndTime(Instant.now().toEpochMilli());
         task.setTableGroupIndex(ParserEnum.TABLE_GROUP_INDEX.getDefaultValue());
         flush(task);
+        // 同步结束，持久化统计信息
+        profileComponent.editConfigModel(profileComponent.getMeta(task.getId()));
+    }
+
+    /**
+     * 表级并行同步，每张表独立记录同步点，已完成的表重启后跳过
+     */
+    private void doParallelTask(Task task, Mapping mapping, List<TableGroup> list, Executor executor, int parallelism, Map<String, String> snapshot) {
+        // 恢复已完成的表（兼容按顺序同步的同步点）
+        String completed = snapshot.get(ParserEnum.COMPLETED_TABLE_GROUPS.getCode());
+        if (StringUtil.isNotBlank(completed)) {
+            task.getCompletedTableGroups().addAll(Arrays.asList(StringUtil.split(completed, StringUtil.COMMA)));
+        }
+        for (int i = 0; i < task.getTableGroupIndex() && i < list.size(); i++) {
+            task.getCompletedTableGroups().add(list.get(i).getId());
+        }
+        String tableGroupTasks = snapshot.get(ParserEnum.TABLE_GROUP_TASKS.getCode());
+        final Map<String, Object> checkpoints = StringUtil.isNotBlank(tableGroupTasks) ? JsonUtil.parseMap(tableGroupTasks) : new HashMap<>();
+        // 按顺序同步中断的表，从其同步点继续
+        int index = task.getTableGroupIndex();
+        if (index < list.size() && !checkpoints.containsKey(list.get(index).getId()) && isSerialCheckpoint(task)) {
+            Map<String, Object> checkpoint = new HashMap<>();
+            checkpoint.put(ParserEnum.PAGE_INDEX.getCode(), task.getPageIndex());
+            checkpoint.put(ParserEnum.CURSOR.getCode(), StringUtil.join(task.getCursors(), ","));
+            if (!CollectionUtils.isEmpty(task.getRanges())) {
+                checkpoint.put(ParserEnum.RANGES.getCode(), task.getRanges());
+            }
+            checkpoints.put(list.get(index).getId(), checkpoint);
+        }
+        task.setPageIndex(ParserEnum.PAGE_INDEX.getDefaultValue());
+        task.setCursors(null);
+        task.setRanges(null);
+
+        ExecutorService tableExecutor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (TableGroup tableGroup : list) {
+                if (!task.getCompletedTableGroups().contains(tableGroup.getId())) {
+                    futures.add(tableExecutor.submit(() -> doTableGroupTask(task, mapping, tableGroup, executor, (Map) checkpoints.get(tableGroup.getId()))));
+                }
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    logger.error(e.getCause().getMessage(), e.getCause());
+                    logService.log(LogType.SystemLog.ERROR, e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            tableExecutor.shutdown();
+        }
+
+        // 全部完成，清除同步点
+        if (task.isRunning() && task.getTableGroupTasks().isEmpty() && list.stream().allMatch(t -> task.getCompletedTableGroups().contains(t.getId()))) {
+            task.getCompletedTableGroups().clear();
+        }
+    }
+
+    private boolean isSerialCheckpoint(Task task) {
+        return null != task.getCursors() || task.getPageIndex() != ParserEnum.PAGE_INDEX.getDefaultValue() || !CollectionUtils.isEmpty(task.getRanges());
+    }
+
+    private void doTableGroupTask(Task task, Mapping mapping, TableGroup tableGroup, Executor executor, Map checkpoint) {
+        final String tableGroupId = tableGroup.getId();
+        Task tableGroupTask = task.newTableGroupTask(tableGroupId);
+        tableGroupTask.setPageIndex(ParserEnum.PAGE_INDEX.getDefaultValue());
+        if (null != checkpoint) {
+            tableGroupTask.setPageIndex(NumberUtil.toInt(String.valueOf(checkpoint.get(ParserEnum.PAGE_INDEX.getCode())), ParserEnum.PAGE_INDEX.getDefaultValue()));
+            Object cursor = checkpoint.get(ParserEnum.CURSOR.getCode());
+            tableGroupTask.setCursors(null != cursor ? PrimaryKeyUtil.getLastCursors(String.valueOf(cursor)) : null);
+            Object ranges = checkpoint.get(ParserEnum.RANGES.getCode());
+            tableGroupTask.setRanges(null != ranges ? JsonUtil.jsonToArray(JsonUtil.objToJson(ranges), TaskRange.class) : null);
+        }
+        task.getTableGroupTasks().put(tableGroupId, tableGroupTask);
+        try {
+            parserComponent.execute(tableGroupTask, mapping, tableGroup, executor);
+            if (tableGroupTask.isRunning()) {
+                task.getCompletedTableGroups().add(tableGroupId);
+                task.getTableGroupTasks().remove(tableGroupId);
+            }
+        } finally {
+            flush(task);
+        }
     }
 
-    private void flush(Task task) {
+    private synchronized void flush(Task t) {
+        // 表任务刷新到所属驱动任务
+        Task task = t;
+        if (null != t.getParent()) {
+            task = t.getParent();
+            task.setEndTime(t.getEndTime());
+        }
         Meta meta = profileComponent.getMeta(task.getId());
         Assert.notNull(meta, "检查meta为空.");
 
@@ -154,7 +272,21 @@ public final class FullPuller extends AbstractPuller implements ApplicationListe
         snapshot.put(ParserEnum.PAGE_INDEX.getCode(), String.valueOf(task.getPageIndex()));
         snapshot.put(ParserEnum.CURSOR.getCode(), StringUtil.join(task.getCursors(), ","));
         snapshot.put(ParserEnum.TABLE_GROUP_INDEX.getCode(), String.valueOf(task.getTableGroupIndex()));
-        profileComponent.editConfigModel(meta);
+        snapshot.put(ParserEnum.RANGES.getCode(), CollectionUtils.isEmpty(task.getRanges()) ? StringUtil.EMPTY : JsonUtil.objToJson(task.getRanges()));
+        snapshot.put(ParserEnum.COMPLETED_TABLE_GROUPS.getCode(), StringUtil.join(task.getCompletedTableGroups(), StringUtil.COMMA));
+        Map<String, Map<String, Object>> checkpoints = new HashMap<>();
+        task.getTableGroupTasks().forEach((tableGroupId, tableGroupTask) -> {
+            Map<String, Object> checkpoint = new HashMap<>();
+            checkpoint.put(ParserEnum.PAGE_INDEX.getCode(), tableGroupTask.getPageIndex());
+            checkpoint.put(ParserEnum.CURSOR.getCode(), StringUtil.join(tableGroupTask.getCursors(), ","));
+            if (!CollectionUtils.isEmpty(tableGroupTask.getRanges())) {
+                checkpoint.put(ParserEnum.RANGES.getCode(), tableGroupTask.getRanges());
+            }
+            checkpoints.put(tableGroupId, checkpoint);
+        });
+        snapshot.put(ParserEnum.TABLE_GROUP_TASKS.getCode(), checkpoints.isEmpty() ? StringUtil.EMPTY : JsonUtil.objToJson(checkpoints));
+        // 高频刷新只写同步点日志
+        checkpointService.save(meta.getId(), snapshot);
     }
 
 }
\ No newline at end of file
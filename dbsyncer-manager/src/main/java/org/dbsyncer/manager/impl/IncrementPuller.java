@@ -3,10 +3,12 @@
  */
 package org.dbsyncer.manager.impl;
 
+import org.dbsyncer.common.metric.TimeRegistry;
 import org.dbsyncer.common.util.CollectionUtils;
 import org.dbsyncer.connector.base.ConnectorFactory;
 import org.dbsyncer.manager.AbstractPuller;
 import org.dbsyncer.manager.ManagerException;
+import org.dbsyncer.parser.CheckpointService;
 import org.dbsyncer.parser.LogService;
 import org.dbsyncer.parser.LogType;
 import org.dbsyncer.parser.ProfileComponent;
@@ -64,12 +66,18 @@ public final class IncrementPuller extends AbstractPuller implements Application
     @Resource
     private ScheduledTaskService scheduledTaskService;
 
+    @Resource
+    private TimeRegistry timeRegistry;
+
     @Resource
     private ConnectorFactory connectorFactory;
 
     @Resource
     private ProfileComponent profileComponent;
 
+    @Resource
+    private CheckpointService checkpointService;
+
     @Resource
     private LogService logService;
 
@@ -99,7 +107,11 @@ public final class IncrementPuller extends AbstractPuller implements Application
                 meta.setEndTime(now);
                 profileComponent.editConfigModel(meta);
                 map.putIfAbsent(metaId, getListener(mapping, connector, list, meta));
-                map.get(metaId).start();
+                Listener listener = map.get(metaId);
+                if (listener instanceof AbstractListener) {
+                    timeRegistry.gauge(TimeRegistry.LISTENER_BLOCKED_TIME + metaId, ((AbstractListener) listener)::getBlockedTime);
+                }
+                listener.start();
             } catch (Exception e) {
                 close(metaId);
                 logService.log(LogType.TableGroupLog.INCREMENT_FAILED, e.getMessage());
@@ -113,6 +125,7 @@ public final class IncrementPuller extends AbstractPuller implements Application
 
     @Override
     public void close(String metaId) {
+        timeRegistry.removeGauge(TimeRegistry.LISTENER_BLOCKED_TIME + metaId);
         Listener listener = map.get(metaId);
         if (null != listener) {
             bufferActuatorRouter.unbind(metaId);
@@ -155,13 +168,13 @@ public final class IncrementPuller extends AbstractPuller implements Application
         if (ListenerTypeEnum.isTiming(listenerType) && listener instanceof AbstractQuartzListener) {
             AbstractQuartzListener quartzListener = (AbstractQuartzListener) listener;
             quartzListener.setCommands(list.stream().map(t -> new TableGroupQuartzCommand(t.getSourceTable(), t.getCommand())).collect(Collectors.toList()));
-            quartzListener.register(new QuartzConsumer().init(bufferActuatorRouter, profileComponent, logService, meta.getId(), mapping, list));
+            quartzListener.register(new QuartzConsumer().init(bufferActuatorRouter, profileComponent, checkpointService, logService, meta.getId(), mapping, list));
         }
 
         // 基于日志抽取
         if (ListenerTypeEnum.isLog(listenerType) && listener instanceof AbstractListener) {
             AbstractListener abstractListener = (AbstractListener) listener;
-            abstractListener.register(new LogConsumer().init(bufferActuatorRouter, profileComponent, logService, meta.getId(), mapping, list));
+            abstractListener.register(new LogConsumer().init(bufferActuatorRouter, profileComponent, checkpointService, logService, meta.getId(), mapping, list));
         }
 
         if (listener instanceof AbstractListener) {
@@ -179,6 +192,7 @@ public final class IncrementPuller extends AbstractPuller implements Application
             abstractListener.setConnectorService(connectorFactory.getConnectorService(connectorConfig.getConnectorType()));
             abstractListener.setConnectorInstance(connectorFactory.connect(connectorConfig));
             abstractListener.setScheduledTaskService(scheduledTaskService);
+            abstractListener.setTimeRegistry(timeRegistry);
             abstractListener.setConnectorConfig(connectorConfig);
             abstractListener.setListenerConfig(listenerConfig);
             abstractListener.setFilterTable(filterTable);
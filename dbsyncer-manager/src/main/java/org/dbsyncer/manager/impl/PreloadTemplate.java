@@ -8,6 +8,7 @@ import org.dbsyncer.common.util.CollectionUtils;
 import org.dbsyncer.common.util.JsonUtil;
 import org.dbsyncer.connector.base.ConnectorFactory;
 import org.dbsyncer.manager.ManagerFactory;
+import org.dbsyncer.parser.CheckpointService;
 import org.dbsyncer.parser.LogService;
 import org.dbsyncer.parser.LogType;
 import org.dbsyncer.parser.ProfileComponent;
@@ -73,6 +74,9 @@ public final class PreloadTemplate implements ApplicationListener<ContextRefresh
     @Resource
     private LogService logService;
 
+    @Resource
+    private CheckpointService checkpointService;
+
     @Resource
     private Executor generalExecutor;
 
@@ -157,6 +161,13 @@ public final class PreloadTemplate implements ApplicationListener<ContextRefresh
                 String json = (String) map.get(ConfigConstant.CONFIG_MODEL_JSON);
                 ConfigModel model = (ConfigModel) commandEnum.getCommandExecutor().execute(new PreloadCommand(profileComponent, json));
                 if (null != model) {
+                    // 同步点以日志为准
+                    if (model instanceof Meta) {
+                        Map<String, String> snapshot = checkpointService.get(model.getId());
+                        if (null != snapshot) {
+                            ((Meta) model).setSnapshot(snapshot);
+                        }
+                    }
                     operationTemplate.cache(model, commandEnum.getGroupStrategyEnum());
                 }
             });
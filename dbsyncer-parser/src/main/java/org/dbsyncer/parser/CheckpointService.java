@@ -0,0 +1,40 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.parser;
+
+import java.util.Map;
+
+/**
+ * 同步点服务，独立于Meta配置持久化增量/全量同步点
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2024/6/22 21:16
+ */
+public interface CheckpointService {
+
+    /**
+     * 保存同步点快照
+     *
+     * @param metaId
+     * @param snapshot
+     */
+    void save(String metaId, Map<String, String> snapshot);
+
+    /**
+     * 获取最新同步点快照
+     *
+     * @param metaId
+     * @return 不存在返回null
+     */
+    Map<String, String> get(String metaId);
+
+    /**
+     * 删除同步点
+     *
+     * @param metaId
+     */
+    void remove(String metaId);
+
+}
@@ -3,6 +3,7 @@
  */
 package org.dbsyncer.parser.consumer;
 
+import org.dbsyncer.parser.CheckpointService;
 import org.dbsyncer.parser.LogService;
 import org.dbsyncer.parser.LogType;
 import org.dbsyncer.parser.ProfileComponent;
@@ -25,14 +26,16 @@ import java.util.Map;
 public abstract class AbstractConsumer<E extends ChangedEvent> implements Watcher {
     private BufferActuatorRouter bufferActuatorRouter;
     private ProfileComponent profileComponent;
+    private CheckpointService checkpointService;
     private LogService logService;
     private String metaId;
     protected Mapping mapping;
     protected List<TableGroup> tableGroups;
 
-    public AbstractConsumer init(BufferActuatorRouter bufferActuatorRouter, ProfileComponent profileComponent, LogService logService, String metaId, Mapping mapping, List<TableGroup> tableGroups) {
+    public AbstractConsumer init(BufferActuatorRouter bufferActuatorRouter, ProfileComponent profileComponent, CheckpointService checkpointService, LogService logService, String metaId, Mapping mapping, List<TableGroup> tableGroups) {
         this.bufferActuatorRouter = bufferActuatorRouter;
         this.profileComponent = profileComponent;
+        this.checkpointService = checkpointService;
         this.logService = logService;
         this.metaId = metaId;
         this.mapping = mapping;
@@ -67,7 +70,8 @@ public abstract class AbstractConsumer<E extends ChangedEvent> implements Watche
         Meta meta = profileComponent.getMeta(metaId);
         if (meta != null) {
             meta.setSnapshot(snapshot);
-            profileComponent.editConfigModel(meta);
+            // 只写同步点日志，Meta配置在状态变更时持久化
+            checkpointService.save(metaId, snapshot);
         }
     }
 
@@ -48,6 +48,9 @@ public final class LogConsumer extends AbstractConsumer<RowChangedEvent> {
             final Map<String, Object> changedRow = picker.getColumns(event.getDataList());
             if (picker.filter(changedRow)) {
                 event.setChangedRow(changedRow);
+                if (!CollectionUtils.isEmpty(event.getBeforeDataList())) {
+                    event.setBeforeRow(picker.getColumns(event.getBeforeDataList()));
+                }
                 execute(picker.getTableGroup().getId(), event);
             }
         });
@@ -22,7 +22,22 @@ public enum ParserEnum {
     /**
      * 执行的表映射关系索引
      */
-    TABLE_GROUP_INDEX("tableGroupIndex", 0);
+    TABLE_GROUP_INDEX("tableGroupIndex", 0),
+
+    /**
+     * 主键分段同步点
+     */
+    RANGES("ranges", 0),
+
+    /**
+     * 表级并行同步：已完成的表映射关系
+     */
+    COMPLETED_TABLE_GROUPS("completedTableGroups", 0),
+
+    /**
+     * 表级并行同步：同步中的表同步点
+     */
+    TABLE_GROUP_TASKS("tableGroupTasks", 0);
 
     /**
      * 编码
@@ -7,6 +7,8 @@ import org.dbsyncer.common.config.BufferActuatorConfig;
 import org.dbsyncer.common.metric.TimeRegistry;
 import org.dbsyncer.common.scheduled.ScheduledTaskJob;
 import org.dbsyncer.common.scheduled.ScheduledTaskService;
+import org.dbsyncer.common.util.StringUtil;
+import org.dbsyncer.common.util.UUIDUtil;
 import org.dbsyncer.parser.ProfileComponent;
 import org.dbsyncer.parser.enums.MetaEnum;
 import org.dbsyncer.parser.model.Meta;
@@ -17,19 +19,33 @@ import org.springframework.util.Assert;
 import javax.annotation.Resource;
 import java.lang.reflect.ParameterizedType;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Queue;
+import java.util.Objects;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * 任务缓存执行器
  * <p>1. 任务优先进入缓存队列
  * <p>2. 将任务分区合并，批量执行
+ * <p>3. 配置多个消费通道时，按哈希值分配任务，各通道独立消费（哈希值相同的任务按序执行）
+ * <p>4. 支持定时消费和事件驱动消费（有任务立即唤醒，凑批达到上限或等待超时后执行），也可由共享线程池驱动消费（有任务时提交一次批处理）
+ * <p>5. 缓存队列已满时提交线程阻塞等待空闲容量（背压），超时后按提交失败处理
+ * <p>6. 多通道时屏障任务（如表结构修改）等待所有通道执行完已提交的任务后入队，执行完毕前阻塞后续任务提交
  *
  * @author AE86
  * @version 1.0.0
@@ -38,10 +54,23 @@ import java.util.concurrent.locks.ReentrantLock;
 public abstract class AbstractBufferActuator<Request extends BufferRequest, Response extends BufferResponse> implements BufferActuator, ScheduledTaskJob {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
+    /**
+     * 队列已满时每次持有读锁等待的最长时间(毫秒)，间隙中屏障任务可获取写锁
+     */
+    private static final long OFFER_SLICE_MILLISECOND = 10;
     private Class<Response> responseClazz;
-    private Lock taskLock;
     private BufferActuatorConfig config;
-    private BlockingQueue<Request> queue;
+    private List<BufferLane> lanes;
+    /**
+     * 屏障锁，提交普通任务持有读锁，提交屏障任务持有写锁
+     */
+    private ReadWriteLock fenceLock;
+    /**
+     * 屏障任务等待通道执行完毕，通道执行中任务数归零时唤醒
+     */
+    private final Lock idleLock = new ReentrantLock();
+    private final Condition idleCondition = idleLock.newCondition();
+    private volatile boolean awaitingIdle;
 
     @Resource
     private ScheduledTaskService scheduledTaskService;
@@ -72,16 +101,50 @@ public abstract class AbstractBufferActuator<Request extends BufferRequest, Resp
     protected void buildConfig() {
         Assert.notNull(config, "请先配置缓存执行器，setConfig(BufferActuatorConfig config)");
         buildQueueConfig();
-        scheduledTaskService.start(config.getBufferPeriodMillisecond(), this);
+        startLanes(UUIDUtil.getUUID());
     }
 
     /**
-     * 初始化缓存队列配置
+     * 初始化缓存队列配置（每个消费通道平分队列容量）
      */
     protected void buildQueueConfig() {
-        taskLock = new ReentrantLock();
-        this.queue = new LinkedBlockingQueue(config.getBufferQueueCapacity());
-        logger.info("{} initialized with queue capacity: {}", this.getClass().getSimpleName(), config.getBufferQueueCapacity());
+        int laneCount = Math.max(1, config.getBufferLaneCount());
+        int laneCapacity = Math.max(1, config.getBufferQueueCapacity() / laneCount);
+        List<BufferLane> list = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            list.add(new BufferLane(i, laneCapacity));
+        }
+        this.lanes = list;
+        this.fenceLock = new ReentrantReadWriteLock();
+        logger.info("{} initialized with queue capacity: {}, lanes: {}", this.getClass().getSimpleName(), config.getBufferQueueCapacity(), laneCount);
+    }
+
+    /**
+     * 启动消费通道（定时任务或事件驱动线程）
+     *
+     * @param taskKey 任务唯一key，多通道时追加通道序号
+     */
+    protected void startLanes(String taskKey) {
+        lanes.forEach(lane -> lane.start(lanes.size() == 1 ? taskKey : taskKey + StringUtil.UNDERLINE + lane.index));
+        gauge(timeRegistry);
+    }
+
+    /**
+     * 停止消费通道
+     */
+    protected void stopLanes() {
+        if (lanes != null) {
+            lanes.forEach(BufferLane::stop);
+        }
+    }
+
+    /**
+     * 消费通道共享线程池，不为空时由共享线程池驱动消费通道，不再启动通道线程或定时任务
+     *
+     * @return
+     */
+    protected Executor getLaneExecutor() {
+        return null;
     }
 
     /**
@@ -92,6 +155,26 @@ public abstract class AbstractBufferActuator<Request extends BufferRequest, Resp
      */
     protected abstract String getPartitionKey(Request request);
 
+    /**
+     * 生成消费通道哈希值（哈希值相同的任务进入同一个通道，按序执行）
+     *
+     * @param request
+     * @return
+     */
+    protected int getLaneHash(Request request) {
+        return Objects.hashCode(getPartitionKey(request));
+    }
+
+    /**
+     * 是否屏障任务（多通道时，屏障任务之前提交的任务全部执行完毕后才执行，屏障任务执行完毕后才允许提交后续任务）
+     *
+     * @param request
+     * @return
+     */
+    protected boolean isBarrier(Request request) {
+        return false;
+    }
+
     /**
      * 分区
      *
@@ -154,6 +237,24 @@ public abstract class AbstractBufferActuator<Request extends BufferRequest, Resp
      */
     protected abstract void offerFailed(BlockingQueue<Request> queue, Request request);
 
+    /**
+     * 驱动已停止，丢弃任务
+     *
+     * @param request
+     */
+    protected void offerDropped(Request request) {
+
+    }
+
+    /**
+     * 缓存队列已满时最长阻塞等待时间(毫秒)，0-不等待，直接按提交失败处理
+     *
+     * @return
+     */
+    protected long getOfferTimeoutMillisecond() {
+        return config.getBufferOfferTimeoutMillisecond();
+    }
+
     /**
      * 统计消费 TPS
      *
@@ -164,36 +265,91 @@ public abstract class AbstractBufferActuator<Request extends BufferRequest, Resp
 
     }
 
+    /**
+     * 注册消费通道指标
+     *
+     * @param timeRegistry
+     */
+    protected void gauge(TimeRegistry timeRegistry) {
+
+    }
+
     @Override
     public void offer(BufferRequest request) {
-        if (queue.offer((Request) request)) {
+        BufferLane lane = route((Request) request);
+        if (isFence((Request) request)) {
+            if (offerBarrier((Request) request)) {
+                return;
+            }
+            if (!isRunning(request)) {
+                offerDropped((Request) request);
+                return;
+            }
+            offerFailed(lane.queue, (Request) request);
+            return;
+        }
+        Lock lock = fenceLock.readLock();
+        lock.lock();
+        try {
+            if (lane.offer((Request) request)) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!isRunning(request)) {
+            offerDropped((Request) request);
             return;
         }
-        if (isRunning(request)) {
-            offerFailed(queue, (Request) request);
+        // 等待消费通道释放容量，分段持有读锁，不阻塞屏障任务
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(getOfferTimeoutMillisecond());
+        long remaining;
+        while (!Thread.currentThread().isInterrupted() && (remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())) > 0) {
+            lock.lock();
+            try {
+                if (lane.offer((Request) request, Math.min(remaining, OFFER_SLICE_MILLISECOND))) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
         }
+        offerFailed(lane.queue, (Request) request);
     }
 
-    @Override
-    public void run() {
-        boolean locked = false;
+    /**
+     * 提交任务到缓存队列，队列已满返回false
+     *
+     * @param request
+     * @return
+     */
+    protected boolean offerQueue(Request request) {
+        if (isFence(request)) {
+            return offerBarrier(request);
+        }
+        Lock lock = fenceLock.readLock();
+        lock.lock();
         try {
-            locked = taskLock.tryLock();
-            if (locked) {
-                submit();
-            }
-        } catch (Exception e) {
-            logger.error(e.getMessage(), e);
+            return route(request).offer(request);
         } finally {
-            if (locked) {
-                taskLock.unlock();
-            }
+            lock.unlock();
         }
     }
 
     @Override
-    public Queue getQueue() {
-        return queue;
+    public void run() {
+        lanes.forEach(BufferLane::run);
+    }
+
+    @Override
+    public int getQueueSize() {
+        int size = 0;
+        for (BufferLane lane : lanes) {
+            size += lane.queue.size();
+        }
+        return size;
     }
 
     @Override
@@ -201,37 +357,428 @@ public abstract class AbstractBufferActuator<Request extends BufferRequest, Resp
         return config.getBufferQueueCapacity();
     }
 
-    private void submit() throws IllegalAccessException, InstantiationException {
-        if (queue.isEmpty()) {
-            return;
+    /**
+     * 获取消费通道数
+     *
+     * @return
+     */
+    public int getLaneSize() {
+        return lanes.size();
+    }
+
+    /**
+     * 获取消费通道堆积任务数
+     *
+     * @param index 通道序号
+     * @return
+     */
+    public int getLaneQueueSize(int index) {
+        return lanes.get(index).queue.size();
+    }
+
+    /**
+     * 是否已消费完毕（所有通道执行中任务数为0，包括队列中和已取出未执行完毕的任务）
+     *
+     * @return
+     */
+    public boolean isIdle() {
+        for (BufferLane lane : lanes) {
+            if (!lane.isIdle()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isFence(Request request) {
+        return lanes.size() > 1 && isBarrier(request);
+    }
+
+    /**
+     * 提交屏障任务
+     * <p>1. 持有写锁，阻塞后续任务提交
+     * <p>2. 等待所有通道执行完已提交的任务后，屏障任务入队
+     * <p>3. 等待屏障任务执行完毕后释放写锁
+     *
+     * @param request
+     * @return 驱动停止、等待超时或线程中断，且屏障任务未执行时返回false
+     */
+    private boolean offerBarrier(Request request) {
+        Lock lock = fenceLock.writeLock();
+        lock.lock();
+        try {
+            BufferLane lane = route(request);
+            if (!awaitIdle(request, true) || !lane.offer(request)) {
+                return false;
+            }
+            if (awaitIdle(request, true)) {
+                return true;
+            }
+            // 屏障任务未被消费，撤回后按提交失败处理；已被消费则等待其执行完毕
+            if (lane.remove(request)) {
+                return false;
+            }
+            logger.warn("屏障任务执行中，等待执行完毕, metaId={}", request.getMetaId());
+            return awaitIdle(request, false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 等待所有通道执行完毕
+     *
+     * @param request
+     * @param timed   是否限制最长等待时间
+     * @return 驱动停止、超时或线程中断返回false
+     */
+    private boolean awaitIdle(Request request, boolean timed) {
+        final long periodNanos = TimeUnit.MILLISECONDS.toNanos(config.getBufferPeriodMillisecond());
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getBufferBarrierTimeoutMillisecond());
+        idleLock.lock();
+        awaitingIdle = true;
+        try {
+            while (!isIdle()) {
+                if (!isRunning(request)) {
+                    return false;
+                }
+                long remaining = timed ? deadline - System.nanoTime() : periodNanos;
+                if (remaining <= 0) {
+                    logger.warn("等待消费通道执行完毕超时{}ms, metaId={}", config.getBufferBarrierTimeoutMillisecond(), request.getMetaId());
+                    return false;
+                }
+                // 通道执行中任务数归零时唤醒，定期检查驱动状态
+                idleCondition.awaitNanos(Math.min(remaining, periodNanos));
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            awaitingIdle = false;
+            idleLock.unlock();
+        }
+    }
+
+    /**
+     * 通道执行中任务数归零，唤醒等待中的屏障任务
+     */
+    private void signalIdle() {
+        if (awaitingIdle) {
+            idleLock.lock();
+            try {
+                idleCondition.signalAll();
+            } finally {
+                idleLock.unlock();
+            }
         }
+    }
 
+    private BufferLane route(Request request) {
+        if (lanes.size() == 1) {
+            return lanes.get(0);
+        }
+        int hash = getLaneHash(request);
+        hash ^= (hash >>> 16);
+        return lanes.get((hash & Integer.MAX_VALUE) % lanes.size());
+    }
+
+    private void submit(BufferLane lane, Request head) throws IllegalAccessException, InstantiationException {
         AtomicLong batchCounter = new AtomicLong();
         Map<String, Response> map = new LinkedHashMap<>();
-        while (!queue.isEmpty() && batchCounter.get() < config.getBufferPullCount()) {
-            Request poll = queue.poll();
-            String key = getPartitionKey(poll);
-            if (!map.containsKey(key)) {
-                map.putIfAbsent(key, responseClazz.newInstance());
-            }
-            Response response = map.get(key);
-            partition(poll, response);
-            batchCounter.incrementAndGet();
-
-            Request next = queue.peek();
-            if (null != next && skipPartition(next, response)) {
-                break;
+        // 已从队列取出的任务数，执行完毕（或异常）后从执行中任务数扣减
+        int taken = 1;
+        try {
+            Request poll = head;
+            while (null != poll) {
+                String key = getPartitionKey(poll);
+                if (!map.containsKey(key)) {
+                    map.putIfAbsent(key, responseClazz.newInstance());
+                }
+                Response response = map.get(key);
+                partition(poll, response);
+                if (batchCounter.incrementAndGet() >= config.getBufferPullCount()) {
+                    break;
+                }
+
+                Request next = lane.queue.peek();
+                if (null == next || skipPartition(next, response)) {
+                    break;
+                }
+                poll = lane.queue.poll();
+                if (null != poll) {
+                    taken++;
+                }
             }
-        }
 
-        process(map);
+            process(map);
+        } finally {
+            lane.release(taken);
+        }
         map.clear();
         meter(timeRegistry, batchCounter.get());
         map = null;
         batchCounter = null;
     }
 
+    protected BufferActuatorConfig getConfig() {
+        return config;
+    }
+
     public void setConfig(BufferActuatorConfig config) {
         this.config = config;
     }
+
+    /**
+     * 消费通道（独立队列，定时消费或事件驱动消费）
+     */
+    private final class BufferLane implements ScheduledTaskJob {
+
+        private final int index;
+
+        private final BlockingQueue<Request> queue;
+
+        private final Lock taskLock = new ReentrantLock();
+
+        private final Lock lingerLock = new ReentrantLock();
+
+        private final Condition arrived = lingerLock.newCondition();
+
+        private volatile boolean lingering;
+
+        private volatile boolean running;
+
+        /**
+         * 共享线程池驱动消费时，是否已提交批处理（每个通道同时只提交一个，保证按序执行）
+         */
+        private final AtomicBoolean dispatched = new AtomicBoolean();
+
+        private Executor laneExecutor;
+
+        /**
+         * 执行中任务数（提交入队前递增，执行完毕后递减），为0表示队列为空且没有执行中的任务
+         */
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private String taskKey;
+
+        private Thread worker;
+
+        BufferLane(int index, int capacity) {
+            this.index = index;
+            this.queue = new LinkedBlockingQueue<>(capacity);
+        }
+
+        void start(String taskKey) {
+            this.taskKey = taskKey;
+            Executor executor = getLaneExecutor();
+            if (null != executor) {
+                laneExecutor = executor;
+                running = true;
+                // 启动前已入队的任务
+                dispatch();
+                return;
+            }
+            if (!config.isBufferEventDriven()) {
+                scheduledTaskService.start(taskKey, config.getBufferPeriodMillisecond(), this);
+                return;
+            }
+            running = true;
+            worker = new Thread(this::listen);
+            worker.setName(new StringBuilder(AbstractBufferActuator.this.getClass().getSimpleName()).append("-lane").append(index).append(StringUtil.SYMBOL).append(taskKey).toString());
+            worker.setDaemon(true);
+            worker.start();
+            logger.info("[linger={}], Started lane [{}]", config.getBufferLingerMillisecond(), worker.getName());
+        }
+
+        void stop() {
+            if (laneExecutor != null) {
+                running = false;
+                return;
+            }
+            if (worker != null) {
+                running = false;
+                worker.interrupt();
+                return;
+            }
+            if (taskKey != null) {
+                scheduledTaskService.stop(taskKey);
+            }
+        }
+
+        boolean offer(Request request) {
+            inFlight.incrementAndGet();
+            if (queue.offer(request)) {
+                signal();
+                dispatch();
+                return true;
+            }
+            release(1);
+            return false;
+        }
+
+        boolean offer(Request request, long timeout) throws InterruptedException {
+            inFlight.incrementAndGet();
+            boolean offered = false;
+            try {
+                offered = queue.offer(request, timeout, TimeUnit.MILLISECONDS);
+            } finally {
+                if (offered) {
+                    signal();
+                    dispatch();
+                } else {
+                    release(1);
+                }
+            }
+            return offered;
+        }
+
+        /**
+         * 凑批等待期间，队列达到单次消费上限时提前唤醒
+         */
+        void signal() {
+            if (lingering && queue.size() >= config.getBufferPullCount() - 1) {
+                lingerLock.lock();
+                try {
+                    arrived.signal();
+                } finally {
+                    lingerLock.unlock();
+                }
+            }
+        }
+
+        /**
+         * 共享线程池驱动消费时，队列有任务且未提交批处理则提交一次批处理
+         */
+        void dispatch() {
+            if (null == laneExecutor || !running || queue.isEmpty() || !dispatched.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                laneExecutor.execute(this::consume);
+            } catch (RejectedExecutionException e) {
+                dispatched.set(false);
+                logger.error("Lane [{}] dispatch rejected: {}", taskKey, e.getMessage());
+            }
+        }
+
+        /**
+         * 每次只执行一批，剩余任务重新提交，共享线程池中各表执行器轮流消费
+         */
+        private void consume() {
+            try {
+                taskLock.lock();
+                try {
+                    drain(queue.poll());
+                } finally {
+                    taskLock.unlock();
+                }
+            } catch (Exception e) {
+                logger.error(e.getMessage(), e);
+            } finally {
+                dispatched.set(false);
+                dispatch();
+            }
+        }
+
+        /**
+         * 撤回未消费的任务
+         */
+        boolean remove(Request request) {
+            if (queue.remove(request)) {
+                release(1);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 扣减执行中任务数，归零时唤醒等待中的屏障任务
+         */
+        void release(int count) {
+            if (inFlight.addAndGet(-count) == 0) {
+                signalIdle();
+            }
+        }
+
+        boolean isIdle() {
+            return inFlight.get() == 0;
+        }
+
+        @Override
+        public void run() {
+            // 事件驱动消费由通道线程执行，共享线程池驱动消费由共享线程池执行
+            if (worker != null || laneExecutor != null) {
+                return;
+            }
+            boolean locked = false;
+            try {
+                locked = taskLock.tryLock();
+                if (locked) {
+                    drain(queue.poll());
+                }
+            } catch (Exception e) {
+                logger.error(e.getMessage(), e);
+            } finally {
+                if (locked) {
+                    taskLock.unlock();
+                }
+            }
+        }
+
+        private void listen() {
+            while (running) {
+                try {
+                    Request head = queue.poll(config.getBufferPeriodMillisecond(), TimeUnit.MILLISECONDS);
+                    if (null == head) {
+                        continue;
+                    }
+                    linger();
+                    taskLock.lock();
+                    try {
+                        drain(head);
+                    } finally {
+                        taskLock.unlock();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    logger.error(e.getMessage(), e);
+                }
+            }
+        }
+
+        /**
+         * 等待凑批，直到队列达到单次消费上限或超过最长等待时间
+         */
+        private void linger() {
+            long lingerNanos = TimeUnit.MILLISECONDS.toNanos(config.getBufferLingerMillisecond());
+            if (lingerNanos <= 0) {
+                return;
+            }
+            final long deadline = System.nanoTime() + lingerNanos;
+            final int threshold = config.getBufferPullCount() - 1;
+            lingerLock.lock();
+            try {
+                lingering = true;
+                long remaining;
+                while (queue.size() < threshold && (remaining = deadline - System.nanoTime()) > 0) {
+                    arrived.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                // 停止消费，保留中断标记，已取出的任务继续执行
+                Thread.currentThread().interrupt();
+            } finally {
+                lingering = false;
+                lingerLock.unlock();
+            }
+        }
+
+        private void drain(Request head) throws InstantiationException, IllegalAccessException {
+            if (null != head) {
+                submit(this, head);
+            }
+        }
+    }
 }
\ No newline at end of file
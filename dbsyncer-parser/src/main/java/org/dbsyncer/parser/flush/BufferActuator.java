@@ -1,6 +1,5 @@
 package org.dbsyncer.parser.flush;
 
-import java.util.Queue;
 import java.util.concurrent.Executor;
 
 /**
@@ -18,11 +17,11 @@ public interface BufferActuator {
     void offer(BufferRequest request);
 
     /**
-     * 获取缓存队列
+     * 获取缓存队列堆积任务数
      *
      * @return
      */
-    Queue getQueue();
+    int getQueueSize();
 
     /**
      * 获取缓存队列容量
@@ -0,0 +1,89 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.parser.flush;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 限流执行器（共享线程池中限制最大并发任务数，超出的任务排队等待）
+ *
+ * @Author AE86
+ * @Version 1.0.0
+ * @Date 2024-06-22 22:10
+ */
+public final class LimitedExecutor implements Executor {
+
+    private final Executor executor;
+
+    private final int maxConcurrency;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger activeCount = new AtomicInteger();
+
+    private final LongAdder completedTaskCount = new LongAdder();
+
+    public LimitedExecutor(Executor executor, int maxConcurrency) {
+        this.executor = executor;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        tasks.offer(command);
+        dispatch();
+    }
+
+    private void dispatch() {
+        for (; ; ) {
+            int active = activeCount.get();
+            if (active >= maxConcurrency || tasks.isEmpty()) {
+                return;
+            }
+            if (!activeCount.compareAndSet(active, active + 1)) {
+                continue;
+            }
+            Runnable task = tasks.poll();
+            if (null == task) {
+                activeCount.decrementAndGet();
+                continue;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        completedTaskCount.increment();
+                        activeCount.decrementAndGet();
+                        dispatch();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                activeCount.decrementAndGet();
+                throw e;
+            }
+        }
+    }
+
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public long getCompletedTaskCount() {
+        return completedTaskCount.sum();
+    }
+
+    public int getQueueSize() {
+        return tasks.size();
+    }
+}
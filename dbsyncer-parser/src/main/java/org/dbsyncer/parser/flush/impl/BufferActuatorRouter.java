@@ -4,29 +4,46 @@
 package org.dbsyncer.parser.flush.impl;
 
 import org.dbsyncer.common.config.TableGroupBufferConfig;
+import org.dbsyncer.common.scheduled.ScheduledTaskJob;
+import org.dbsyncer.common.scheduled.ScheduledTaskService;
 import org.dbsyncer.sdk.listener.ChangedEvent;
-import org.dbsyncer.parser.flush.BufferActuator;
 import org.dbsyncer.parser.model.WriterRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * 缓存执行器路由
+ * <p>1. 表默认由通用执行器消费
+ * <p>2. 定时统计表吞吐量，热点表晋升为独立的表执行器，空闲或更冷的表执行器回收后降级到通用执行器
+ * <p>3. 晋升时待通用执行器处理完该表积压任务后再启动表执行器，降级时表执行器必须已消费完毕，保证按序执行
  *
  * @Version 1.0.0
  * @Author AE86
  * @Date 2023-11-12 01:32
  */
 @Component
-public final class BufferActuatorRouter implements DisposableBean {
+public final class BufferActuatorRouter implements ScheduledTaskJob, DisposableBean {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
@@ -37,69 +54,297 @@ public final class BufferActuatorRouter implements DisposableBean {
     private TableGroupBufferActuator tableGroupBufferActuator;
 
     @Resource
-    private BufferActuator generalBufferActuator;
+    private GeneralBufferActuator generalBufferActuator;
+
+    @Resource
+    private ScheduledTaskService scheduledTaskService;
+
+    @Autowired(required = false)
+    @Qualifier("tableGroupExecutor")
+    private ForkJoinPool tableGroupExecutor;
+
+    @Resource
+    private OffsetWatermark offsetWatermark;
 
     /**
      * 驱动缓存执行路由列表
      */
-    private final Map<String, Map<String, TableGroupBufferActuator>> router = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Route>> router = new ConcurrentHashMap<>();
+
+    /**
+     * 晋升次数
+     */
+    private final AtomicLong promotionCount = new AtomicLong();
+
+    /**
+     * 回收次数
+     */
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    @PostConstruct
+    private void init() {
+        scheduledTaskService.start(tableGroupBufferConfig.getRebalancePeriodMillisecond(), this);
+    }
 
     public void execute(String metaId, String tableGroupId, ChangedEvent event) {
-        if (router.containsKey(metaId) && router.get(metaId).containsKey(tableGroupId)) {
-            router.get(metaId).get(tableGroupId).offer(new WriterRequest(tableGroupId, event));
+        WriterRequest request = new WriterRequest(tableGroupId, event);
+        Map<String, Route> routes = router.get(metaId);
+        Route route = routes != null ? routes.get(tableGroupId) : null;
+        if (null == route) {
+            generalBufferActuator.offer(request);
             return;
         }
-        generalBufferActuator.offer(new WriterRequest(tableGroupId, event));
+
+        route.hits.increment();
+        Lock lock = route.lock.readLock();
+        lock.lock();
+        try {
+            TableGroupBufferActuator actuator = route.actuator;
+            if (null != actuator) {
+                actuator.offer(request);
+                return;
+            }
+            generalBufferActuator.offer(request);
+        } finally {
+            lock.unlock();
+        }
     }
 
     public void bind(String metaId, String tableGroupId) {
-        router.computeIfAbsent(metaId, k -> new ConcurrentHashMap<>());
+        router.computeIfAbsent(metaId, k -> new ConcurrentHashMap<>()).computeIfAbsent(tableGroupId, Route::new);
+    }
 
-        // TODO 暂定执行器上限，待替换为LRU模型
-        if (router.get(metaId).size() >= tableGroupBufferConfig.getMaxBufferActuatorSize()) {
-            return;
+    public void unbind(String metaId) {
+        Map<String, Route> routes = router.remove(metaId);
+        if (null != routes) {
+            routes.values().forEach(route -> {
+                route.stop();
+                generalBufferActuator.clearPending(route.tableGroupId);
+            });
         }
+        offsetWatermark.clear(metaId);
+    }
 
-        router.get(metaId).computeIfAbsent(tableGroupId, k -> {
-            TableGroupBufferActuator newBufferActuator = null;
+    @Override
+    public void run() {
+        router.forEach((metaId, routes) -> {
             try {
-                newBufferActuator = (TableGroupBufferActuator) tableGroupBufferActuator.clone();
-                newBufferActuator.setTableGroupId(tableGroupId);
-                newBufferActuator.buildConfig();
-            } catch (CloneNotSupportedException ex) {
-                logger.error(ex.getMessage(), ex);
+                rebalance(metaId, routes);
+            } catch (Exception e) {
+                logger.error(e.getMessage(), e);
             }
-            return newBufferActuator;
         });
     }
 
-    public void unbind(String metaId) {
-        if (router.containsKey(metaId)) {
-            router.get(metaId).values().forEach(TableGroupBufferActuator::stop);
-            router.remove(metaId);
-        }
-    }
-
     @Override
     public void destroy() {
-        router.values().forEach(map -> map.values().forEach(TableGroupBufferActuator::stop));
+        router.values().forEach(map -> map.values().forEach(Route::stop));
         router.clear();
     }
 
     public AtomicLong getQueueSize() {
         AtomicLong total = new AtomicLong();
-        router.values().forEach(map -> map.values().forEach(actuator -> total.addAndGet(actuator.getQueue().size())));
+        getActuators().forEach(actuator -> total.addAndGet(actuator.getQueueSize()));
         return total;
     }
 
     public AtomicLong getQueueCapacity() {
         AtomicLong total = new AtomicLong();
-        router.values().forEach(map -> map.values().forEach(actuator -> total.addAndGet(actuator.getQueueCapacity())));
+        getActuators().forEach(actuator -> total.addAndGet(actuator.getQueueCapacity()));
         return total;
     }
 
+    /**
+     * 获取表执行器工作线程数
+     *
+     * @return
+     */
+    public long getThreadSize() {
+        if (null != tableGroupExecutor) {
+            return tableGroupExecutor.getPoolSize();
+        }
+        return getActuators().stream().map(TableGroupBufferActuator::getExecutor).filter(e -> e instanceof ThreadPoolTaskExecutor)
+                .mapToLong(e -> ((ThreadPoolTaskExecutor) e).getPoolSize()).sum();
+    }
+
+    public int getActuatorSize() {
+        return getActuators().size();
+    }
+
+    public long getPromotionCount() {
+        return promotionCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
     public Map<String, Map<String, TableGroupBufferActuator>> getRouter() {
-        return Collections.unmodifiableMap(router);
+        Map<String, Map<String, TableGroupBufferActuator>> map = new ConcurrentHashMap<>();
+        router.forEach((metaId, routes) -> routes.forEach((tableGroupId, route) -> {
+            TableGroupBufferActuator actuator = route.actuator;
+            if (null != actuator) {
+                map.computeIfAbsent(metaId, k -> new ConcurrentHashMap<>()).put(tableGroupId, actuator);
+            }
+        }));
+        return Collections.unmodifiableMap(map);
+    }
+
+    private List<TableGroupBufferActuator> getActuators() {
+        List<TableGroupBufferActuator> list = new ArrayList<>();
+        router.values().forEach(routes -> routes.values().forEach(route -> {
+            TableGroupBufferActuator actuator = route.actuator;
+            if (null != actuator) {
+                list.add(actuator);
+            }
+        }));
+        return list;
+    }
+
+    /**
+     * 按吞吐量重新分配表执行器
+     *
+     * @param metaId
+     * @param routes
+     */
+    private void rebalance(String metaId, Map<String, Route> routes) {
+        final long now = Instant.now().toEpochMilli();
+        final long maxIdleMillis = tableGroupBufferConfig.getMaxIdleSecond() * 1000L;
+        List<Route> dedicated = new ArrayList<>();
+        List<Route> candidates = new ArrayList<>();
+        routes.values().forEach(route -> {
+            route.stat(now);
+            // 1、通用执行器已处理完积压任务，启动表执行器
+            if (route.promoting && generalBufferActuator.getPending(route.tableGroupId) == 0) {
+                route.actuator.start();
+                route.promoting = false;
+            }
+            if (null == route.actuator) {
+                if (route.score > 0) {
+                    candidates.add(route);
+                }
+                return;
+            }
+            // 2、回收空闲表执行器
+            if (now - route.lastActiveTime >= maxIdleMillis && demote(route)) {
+                logger.info("Evicted idle buffer actuator, metaId:{}, tableGroupId:{}", metaId, route.tableGroupId);
+                return;
+            }
+            dedicated.add(route);
+        });
+
+        // 3、热点表晋升，执行器已满时淘汰吞吐量更低的表执行器
+        candidates.sort(Comparator.comparingDouble((Route r) -> r.score).reversed());
+        dedicated.sort(Comparator.comparingDouble(r -> r.score));
+        final int maxSize = tableGroupBufferConfig.getMaxBufferActuatorSize();
+        for (Route candidate : candidates) {
+            if (dedicated.size() >= maxSize) {
+                Route victim = dedicated.stream().filter(r -> candidate.score > r.score * 2).findFirst().orElse(null);
+                if (null == victim || !demote(victim)) {
+                    break;
+                }
+                dedicated.remove(victim);
+                logger.info("Evicted buffer actuator, metaId:{}, tableGroupId:{}, score:{}", metaId, victim.tableGroupId, victim.score);
+            }
+            if (promote(candidate)) {
+                dedicated.add(candidate);
+                logger.info("Promoted buffer actuator, metaId:{}, tableGroupId:{}, score:{}", metaId, candidate.tableGroupId, candidate.score);
+            }
+        }
+    }
+
+    private boolean promote(Route route) {
+        Lock lock = route.lock.writeLock();
+        lock.lock();
+        try {
+            if (null != route.actuator) {
+                return false;
+            }
+            TableGroupBufferActuator newBufferActuator = (TableGroupBufferActuator) tableGroupBufferActuator.clone();
+            newBufferActuator.setTableGroupId(route.tableGroupId);
+            newBufferActuator.buildConfig();
+            route.actuator = newBufferActuator;
+            route.promoting = true;
+            route.lastActiveTime = Instant.now().toEpochMilli();
+            promotionCount.incrementAndGet();
+        } catch (CloneNotSupportedException ex) {
+            logger.error(ex.getMessage(), ex);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+
+        if (generalBufferActuator.getPending(route.tableGroupId) == 0) {
+            route.actuator.start();
+            route.promoting = false;
+        }
+        return true;
+    }
+
+    private boolean demote(Route route) {
+        Lock lock = route.lock.writeLock();
+        if (!lock.tryLock()) {
+            return false;
+        }
+        try {
+            TableGroupBufferActuator actuator = route.actuator;
+            // 执行中任务数不为0（持有写锁，不会有新任务提交），下次再回收
+            if (null == actuator || !actuator.isIdle()) {
+                return false;
+            }
+            route.actuator = null;
+            route.promoting = false;
+            actuator.stop();
+            evictionCount.incrementAndGet();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 表路由
+     */
+    private static final class Route {
+
+        private final String tableGroupId;
+
+        private final LongAdder hits = new LongAdder();
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private volatile TableGroupBufferActuator actuator;
+
+        /**
+         * 等待通用执行器处理完积压任务
+         */
+        private volatile boolean promoting;
+
+        /**
+         * 吞吐量得分（按统计周期衰减）
+         */
+        private double score;
+
+        private long lastActiveTime = Instant.now().toEpochMilli();
+
+        Route(String tableGroupId) {
+            this.tableGroupId = tableGroupId;
+        }
+
+        void stat(long now) {
+            long count = hits.sumThenReset();
+            score = score / 2 + count;
+            if (count > 0) {
+                lastActiveTime = now;
+            }
+        }
+
+        void stop() {
+            TableGroupBufferActuator a = actuator;
+            if (null != a) {
+                a.stop();
+            }
+        }
     }
 
-}
\ No newline at end of file
+}
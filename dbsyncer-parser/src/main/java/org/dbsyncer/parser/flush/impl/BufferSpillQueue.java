@@ -0,0 +1,186 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.parser.flush.impl;
+
+import org.dbsyncer.parser.flush.impl.WriterRequestCodec.SpilledRequest;
+import org.dbsyncer.parser.model.WriterRequest;
+import org.dbsyncer.storage.binlog.BinlogSpillQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 溢写队列
+ * <p>1. 缓存队列已满时进入溢写状态，任务按序追加到磁盘，提交线程不再等待
+ * <p>2. 溢写期间的新任务同样追加到磁盘，保证与已溢写任务的顺序
+ * <p>3. 定时回放，缓存队列有空闲时按序提交，磁盘任务全部回放后退出溢写状态
+ *
+ * @Author AE86
+ * @Version 1.0.0
+ * @Date 2024-06-23 10:12
+ */
+final class BufferSpillQueue {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final BinlogSpillQueue queue;
+
+    private final int batchCount;
+
+    /**
+     * 已从磁盘读取，等待提交到缓存队列的任务
+     */
+    private final Deque<SpilledRequest> replaying = new ArrayDeque<>();
+
+    private final Lock replayLock = new ReentrantLock();
+
+    private final Object lock = new Object();
+
+    private volatile boolean spilling;
+
+    private volatile int replayingSize;
+
+    /**
+     * 最近回放任务的溢写时间
+     */
+    private volatile long replayTime;
+
+    BufferSpillQueue(String path, long segmentSize, int batchCount) {
+        this.queue = new BinlogSpillQueue(path, segmentSize);
+        this.batchCount = Math.max(1, batchCount);
+    }
+
+    /**
+     * 溢写状态下追加到磁盘
+     *
+     * @param request
+     * @return 非溢写状态返回false
+     */
+    boolean offerIfSpilling(WriterRequest request) {
+        if (!spilling) {
+            return false;
+        }
+        synchronized (lock) {
+            if (!spilling) {
+                return false;
+            }
+            append(request);
+            return true;
+        }
+    }
+
+    /**
+     * 缓存队列已满，进入溢写状态
+     *
+     * @param request
+     */
+    void spill(WriterRequest request) {
+        synchronized (lock) {
+            if (!spilling) {
+                spilling = true;
+                replayTime = Instant.now().toEpochMilli();
+                logger.warn("Buffer queue is full, spill to disk.");
+            }
+            append(request);
+        }
+    }
+
+    /**
+     * 按序回放，缓存队列已满时停止，下次继续
+     *
+     * @param offer   提交到缓存队列
+     * @param running 驱动是否运行中，已停止的任务丢弃
+     * @param dropped 丢弃任务
+     */
+    void replay(Predicate<WriterRequest> offer, Predicate<WriterRequest> running, Consumer<WriterRequest> dropped) {
+        if (!spilling || !replayLock.tryLock()) {
+            return;
+        }
+        try {
+            for (; ; ) {
+                if (replaying.isEmpty()) {
+                    List<byte[]> list = queue.poll(batchCount);
+                    list.forEach(bytes -> replaying.addLast(WriterRequestCodec.decode(bytes)));
+                }
+                replayingSize = replaying.size();
+                if (replaying.isEmpty()) {
+                    synchronized (lock) {
+                        if (queue.size() == 0) {
+                            spilling = false;
+                            logger.info("Replayed all spilled requests.");
+                            return;
+                        }
+                    }
+                    continue;
+                }
+                SpilledRequest head = replaying.peekFirst();
+                if (running.test(head.getRequest())) {
+                    if (!offer.test(head.getRequest())) {
+                        return;
+                    }
+                    replayTime = head.getSpillTime();
+                } else {
+                    dropped.accept(head.getRequest());
+                }
+                replaying.pollFirst();
+            }
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+        } finally {
+            replayingSize = replaying.size();
+            replayLock.unlock();
+        }
+    }
+
+    /**
+     * 将缓冲区刷到文件
+     */
+    void flush() {
+        queue.flush();
+    }
+
+    void close() {
+        queue.close();
+    }
+
+    /**
+     * 溢写堆积任务数
+     *
+     * @return
+     */
+    long getSize() {
+        return queue.size() + replayingSize;
+    }
+
+    /**
+     * 溢写字节数
+     *
+     * @return
+     */
+    long getBytes() {
+        return queue.getBytes();
+    }
+
+    /**
+     * 回放延迟（毫秒），非溢写状态为0
+     *
+     * @return
+     */
+    long getReplayLag() {
+        return spilling ? Math.max(0, Instant.now().toEpochMilli() - replayTime) : 0;
+    }
+
+    private void append(WriterRequest request) {
+        queue.append(WriterRequestCodec.encode(request, Instant.now().toEpochMilli()));
+    }
+
+}
@@ -4,17 +4,20 @@
 package org.dbsyncer.parser.flush.impl;
 
 import org.dbsyncer.common.QueueOverflowException;
+import org.dbsyncer.common.config.BinlogRecorderConfig;
 import org.dbsyncer.common.config.GeneralBufferConfig;
 import org.dbsyncer.common.metric.TimeRegistry;
 import org.dbsyncer.common.model.Result;
+import org.dbsyncer.common.scheduled.ScheduledTaskJob;
+import org.dbsyncer.common.scheduled.ScheduledTaskService;
 import org.dbsyncer.common.util.CollectionUtils;
 import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.connector.base.ConnectorFactory;
 import org.dbsyncer.parser.ParserComponent;
 import org.dbsyncer.parser.ProfileComponent;
 import org.dbsyncer.parser.ddl.DDLParser;
-import org.dbsyncer.parser.event.RefreshOffsetEvent;
 import org.dbsyncer.parser.flush.AbstractBufferActuator;
+import org.dbsyncer.parser.flush.BufferRequest;
 import org.dbsyncer.parser.model.*;
 import org.dbsyncer.parser.strategy.FlushStrategy;
 import org.dbsyncer.parser.util.ConvertUtil;
@@ -24,24 +27,35 @@ import org.dbsyncer.plugin.enums.ProcessEnum;
 import org.dbsyncer.plugin.impl.IncrementPluginContext;
 import org.dbsyncer.sdk.config.DDLConfig;
 import org.dbsyncer.sdk.connector.ConnectorInstance;
+import org.dbsyncer.sdk.constant.ConnectorConstant;
 import org.dbsyncer.sdk.enums.ChangedEventTypeEnum;
 import org.dbsyncer.sdk.model.ConnectorConfig;
+import org.dbsyncer.sdk.model.Field;
 import org.dbsyncer.sdk.model.MetaInfo;
+import org.dbsyncer.sdk.util.PrimaryKeyUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
- * 通用执行器（单线程消费，多线程批量写，按序执行）
+ * 通用执行器（单线程消费或按表主键哈希多通道消费，多线程批量写，按序执行）
  *
  * @Version 1.0.0
  * @Author AE86
@@ -74,15 +88,76 @@ public class GeneralBufferActuator extends AbstractBufferActuator<WriterRequest,
     private FlushStrategy flushStrategy;
 
     @Resource
-    private ApplicationContext applicationContext;
+    private DDLParser ddlParser;
 
     @Resource
-    private DDLParser ddlParser;
+    private BinlogRecorderConfig binlogRecorderConfig;
+
+    @Resource
+    private ScheduledTaskService scheduledTaskService;
+
+    @Resource
+    private OffsetWatermark offsetWatermark;
+
+    /**
+     * 相对路径/data/spill/general
+     */
+    private static final String SPILL_PATH = new StringBuilder(System.getProperty("user.dir")).append(File.separatorChar).append("data")
+            .append(File.separatorChar).append("spill").append(File.separatorChar).append("general").append(File.separatorChar).toString();
+
+    /**
+     * 溢写队列（未开启为空）
+     */
+    private BufferSpillQueue spillQueue;
+
+    /**
+     * 表主键缓存（用于计算消费通道）
+     */
+    private final Map<String, List<String>> primaryKeys = new ConcurrentHashMap<>();
+
+    /**
+     * 表待处理任务数（用于表执行器晋升时等待积压任务处理完成）
+     */
+    private final Map<String, LongAdder> pending = new ConcurrentHashMap<>();
 
     @PostConstruct
     public void init() {
         setConfig(generalBufferConfig);
+        if (binlogRecorderConfig.isEnabled()) {
+            spillQueue = new BufferSpillQueue(SPILL_PATH, binlogRecorderConfig.getSegmentSize(), binlogRecorderConfig.getBatchCount());
+        }
         buildConfig();
+        if (null != spillQueue) {
+            scheduledTaskService.start(binlogRecorderConfig.getReaderPeriodMillisecond(), (ScheduledTaskJob) () -> spillQueue.replay(this::offerQueue, this::isRunning, this::offerDropped));
+            scheduledTaskService.start(binlogRecorderConfig.getWriterPeriodMillisecond(), (ScheduledTaskJob) () -> spillQueue.flush());
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (null != spillQueue) {
+            spillQueue.close();
+        }
+    }
+
+    @Override
+    public void offer(BufferRequest request) {
+        WriterRequest writerRequest = (WriterRequest) request;
+        writerRequest.setPrimaryKeyChanged(isPrimaryKeyChanged(writerRequest));
+        writerRequest.setSequence(offsetWatermark.register(writerRequest.getChangedOffset()));
+        LongAdder counter = pending.computeIfAbsent(writerRequest.getTableGroupId(), k -> new LongAdder());
+        counter.increment();
+        try {
+            // 溢写期间按序追加到磁盘
+            if (null != spillQueue && spillQueue.offerIfSpilling(writerRequest)) {
+                return;
+            }
+            super.offer(request);
+        } catch (RuntimeException e) {
+            counter.decrement();
+            offsetWatermark.discard(writerRequest.getMetaId(), writerRequest.getSequence());
+            throw e;
+        }
     }
 
     @Override
@@ -91,29 +166,96 @@ public class GeneralBufferActuator extends AbstractBufferActuator<WriterRequest,
     }
 
     @Override
-    protected void partition(WriterRequest request, WriterResponse response) {
-        if (!CollectionUtils.isEmpty(request.getRow())) {
-            response.addData(request.getRow());
+    protected int getLaneHash(WriterRequest request) {
+        // 按表和主键值分配消费通道，同一行数据的Insert > Delete > Insert始终进入同一通道
+        int hash = Objects.hashCode(request.getTableGroupId());
+        if (ChangedEventTypeEnum.isDDL(request.getTypeEnum()) || CollectionUtils.isEmpty(request.getRow())) {
+            return hash;
         }
-        if (request.getChangedOffset() != null) {
-            response.addChangedOffset(request.getChangedOffset());
+        Map row = request.getRow();
+        for (String pk : getPrimaryKeys(request.getTableGroupId())) {
+            hash = 31 * hash + Objects.hashCode(row.get(pk));
         }
+        return hash;
+    }
+
+    @Override
+    protected boolean isBarrier(WriterRequest request) {
+        // 表结构修改，或修改主键（新旧主键可能分配到不同通道）
+        return ChangedEventTypeEnum.isDDL(request.getTypeEnum()) || request.isPrimaryKeyChanged();
+    }
+
+    @Override
+    protected void partition(WriterRequest request, WriterResponse response) {
         if (!response.isMerged()) {
             response.setTableGroupId(request.getTableGroupId());
             response.setEvent(request.getEvent());
             response.setTypeEnum(request.getTypeEnum());
             response.setSql(request.getSql());
+            if (isCoalescible(request)) {
+                response.enableCoalesce();
+            }
             response.setMerged(true);
         }
+        response.incrementRequestCount();
+        if (!CollectionUtils.isEmpty(request.getRow())) {
+            if (response.isCoalesced()) {
+                response.coalesce(getPrimaryKeyValues(request), request.getEvent(), request.getRow());
+            } else {
+                response.addData(request.getRow());
+            }
+        }
+        if (request.getChangedOffset() != null) {
+            response.addChangedOffset(request.getChangedOffset());
+            response.addSequence(request.getSequence());
+        }
     }
 
     @Override
     protected boolean skipPartition(WriterRequest nextRequest, WriterResponse response) {
+        // 合并模式，同一批次内只处理可按主键合并的事件
+        if (response.isCoalesced() || isCoalescible(nextRequest)) {
+            return response.isCoalesced() != isCoalescible(nextRequest);
+        }
         // 并发场景，同一条数据可能连续触发Insert > Delete > Insert，批处理任务中出现不同事件时，跳过分区处理
         // 跳过表结构修改事件（保证表结构修改原子性）
         return !StringUtil.equals(nextRequest.getEvent(), response.getEvent()) || ChangedEventTypeEnum.isDDL(response.getTypeEnum());
     }
 
+    @Override
+    protected void process(Map<String, WriterResponse> map) {
+        // 合并模式，按删除、新增、更新拆分批次
+        Map<String, WriterResponse> batchMap = new LinkedHashMap<>();
+        map.forEach((key, response) -> {
+            if (!response.isCoalesced()) {
+                batchMap.put(key, response);
+                return;
+            }
+            List<WriterResponse> batches = splitCoalescedResponse(response);
+            // 变更相互抵消，无需执行
+            if (CollectionUtils.isEmpty(batches)) {
+                return;
+            }
+            for (int i = 0; i < batches.size(); i++) {
+                batchMap.put(key + StringUtil.UNDERLINE + i, batches.get(i));
+            }
+        });
+        try {
+            super.process(batchMap);
+        } finally {
+            map.values().forEach(response -> {
+                LongAdder counter = pending.get(response.getTableGroupId());
+                if (null != counter) {
+                    counter.add(-response.getRequestCount());
+                }
+                // 刷新增量点（低水位）
+                if (!CollectionUtils.isEmpty(response.getOffsetList())) {
+                    offsetWatermark.complete(response.getOffsetList().get(0).getMetaId(), response.getSequenceList());
+                }
+            });
+        }
+    }
+
     @Override
     public void pull(WriterResponse response) {
         // 0、获取配置信息
@@ -154,27 +296,59 @@ public class GeneralBufferActuator extends AbstractBufferActuator<WriterRequest,
         // 5、批量执行同步
         Result result = parserComponent.writeBatch(context, getExecutor());
 
-        // 6.发布刷新增量点事件
-        applicationContext.publishEvent(new RefreshOffsetEvent(applicationContext, response.getOffsetList()));
-
-        // 7、持久化同步结果
+        // 6、持久化同步结果（执行完毕后按低水位刷新增量点）
         result.setTableGroupId(tableGroup.getId());
         result.setTargetTableGroupName(context.getTargetTableName());
         flushStrategy.flushIncrementData(mapping.getMetaId(), result, response.getEvent());
 
-        // 8、执行批量处理后的
+        // 7、执行批量处理后的
         pluginFactory.process(group.getPlugin(), context, ProcessEnum.AFTER);
     }
 
     @Override
     protected void offerFailed(BlockingQueue<WriterRequest> queue, WriterRequest request) {
+        if (null != spillQueue) {
+            spillQueue.spill(request);
+            return;
+        }
         throw new QueueOverflowException("缓存队列已满");
     }
 
+    @Override
+    protected void offerDropped(WriterRequest request) {
+        LongAdder counter = pending.get(request.getTableGroupId());
+        if (null != counter) {
+            counter.decrement();
+        }
+        offsetWatermark.discard(request.getMetaId(), request.getSequence());
+    }
+
+    @Override
+    protected long getOfferTimeoutMillisecond() {
+        // 开启溢写时不等待，直接写入磁盘
+        return null != spillQueue ? 0 : super.getOfferTimeoutMillisecond();
+    }
+
     @Override
     protected void meter(TimeRegistry timeRegistry, long count) {
         // 统计执行器同步效率TPS
         timeRegistry.meter(TimeRegistry.GENERAL_BUFFER_ACTUATOR_TPS).add(count);
+        timeRegistry.meter(TimeRegistry.GENERAL_BUFFER_ACTUATOR_BATCH).add(1);
+    }
+
+    @Override
+    protected void gauge(TimeRegistry timeRegistry) {
+        int laneSize = getLaneSize();
+        timeRegistry.gauge(TimeRegistry.GENERAL_BUFFER_ACTUATOR_LANE_SIZE, () -> laneSize);
+        for (int i = 0; i < laneSize; i++) {
+            final int index = i;
+            timeRegistry.gauge(TimeRegistry.GENERAL_BUFFER_ACTUATOR_LANE_QUEUE + i, () -> getLaneQueueSize(index));
+        }
+        if (null != spillQueue) {
+            timeRegistry.gauge(TimeRegistry.GENERAL_BUFFER_ACTUATOR_SPILL_SIZE, spillQueue::getSize);
+            timeRegistry.gauge(TimeRegistry.GENERAL_BUFFER_ACTUATOR_SPILL_BYTES, spillQueue::getBytes);
+            timeRegistry.gauge(TimeRegistry.GENERAL_BUFFER_ACTUATOR_SPILL_LAG, spillQueue::getReplayLag);
+        }
     }
 
     @Override
@@ -182,10 +356,125 @@ public class GeneralBufferActuator extends AbstractBufferActuator<WriterRequest,
         return generalExecutor;
     }
 
+    /**
+     * 获取表待处理任务数
+     *
+     * @param tableGroupId
+     * @return
+     */
+    public long getPending(String tableGroupId) {
+        LongAdder counter = pending.get(tableGroupId);
+        return null == counter ? 0 : Math.max(0, counter.sum());
+    }
+
+    /**
+     * 清除表待处理任务数（驱动停止后，队列满被丢弃的任务不再处理）
+     *
+     * @param tableGroupId
+     */
+    public void clearPending(String tableGroupId) {
+        pending.remove(tableGroupId);
+    }
+
     public TableGroup getTableGroup(String tableGroupId) {
         return profileComponent.getTableGroup(tableGroupId);
     }
 
+    /**
+     * 是否可按主键合并（开启合并模式，且为有主键表的增删改事件）
+     *
+     * @param request
+     * @return
+     */
+    private boolean isCoalescible(WriterRequest request) {
+        if (!getConfig().isBufferCoalesce() || ChangedEventTypeEnum.isDDL(request.getTypeEnum()) || CollectionUtils.isEmpty(request.getRow())) {
+            return false;
+        }
+        return CoalescedRow.isSupported(request.getEvent()) && !CollectionUtils.isEmpty(getPrimaryKeys(request.getTableGroupId()));
+    }
+
+    /**
+     * 是否修改了主键（更新事件，且连接器提供了变更前行数据）
+     * <p>提供变更前行数据的连接器：MySQL（binlog）、Oracle（LogMiner，where条件）、SqlServer（CDC）、PostgreSQL（pgoutput和test_decoding，主键变更时输出旧主键）
+     * <p>其他连接器（定时抽取、文件、ES等）修改主键时按新主键分配通道，多通道不保证同一行按序执行
+     *
+     * @param request
+     * @return
+     */
+    private boolean isPrimaryKeyChanged(WriterRequest request) {
+        Map before = request.getBeforeRow();
+        Map after = request.getRow();
+        if (CollectionUtils.isEmpty(before) || CollectionUtils.isEmpty(after) || !ConnectorConstant.OPERTION_UPDATE.equals(request.getEvent())) {
+            return false;
+        }
+        for (String pk : getPrimaryKeys(request.getTableGroupId())) {
+            if (!Objects.deepEquals(before.get(pk), after.get(pk))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Object[] getPrimaryKeyValues(WriterRequest request) {
+        List<String> pks = getPrimaryKeys(request.getTableGroupId());
+        Object[] values = new Object[pks.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = request.getRow().get(pks.get(i));
+        }
+        return values;
+    }
+
+    /**
+     * 拆分合并后的数据，按删除、新增、更新顺序返回（增量点在原批次执行完毕后统一刷新）
+     *
+     * @param response
+     * @return
+     */
+    private List<WriterResponse> splitCoalescedResponse(WriterResponse response) {
+        WriterResponse delete = newResponse(response, ConnectorConstant.OPERTION_DELETE);
+        WriterResponse insert = newResponse(response, ConnectorConstant.OPERTION_INSERT);
+        WriterResponse update = newResponse(response, ConnectorConstant.OPERTION_UPDATE);
+        response.getCoalescedRows().forEach(row -> {
+            if (row.isDeleteRequired()) {
+                delete.addData(row.getRow());
+            }
+            if (row.isInsertRequired()) {
+                insert.addData(row.getRow());
+            }
+            if (row.isUpdateRequired()) {
+                update.addData(row.getRow());
+            }
+        });
+        return Stream.of(delete, insert, update).filter(r -> r.getTaskSize() > 0).collect(Collectors.toList());
+    }
+
+    private WriterResponse newResponse(WriterResponse response, String event) {
+        WriterResponse newResponse = new WriterResponse();
+        newResponse.setTableGroupId(response.getTableGroupId());
+        newResponse.setTypeEnum(response.getTypeEnum());
+        newResponse.setSql(response.getSql());
+        newResponse.setEvent(event);
+        newResponse.setMerged(true);
+        return newResponse;
+    }
+
+    /**
+     * 获取表主键
+     *
+     * @param tableGroupId
+     * @return
+     */
+    private List<String> getPrimaryKeys(String tableGroupId) {
+        return primaryKeys.computeIfAbsent(tableGroupId, k -> {
+            TableGroup tableGroup = getTableGroup(k);
+            if (null == tableGroup || null == tableGroup.getSourceTable()) {
+                return Collections.EMPTY_LIST;
+            }
+            List<Field> fields = PrimaryKeyUtil.findPrimaryKeyFields(tableGroup.getSourceTable().getColumn());
+            return fields.stream().map(f -> f.isUnmodifiabled() ? f.getLabelName() : f.getName()).collect(Collectors.toList());
+        });
+    }
+
     /**
      * 解析DDL
      *
@@ -225,9 +514,9 @@ public class GeneralBufferActuator extends AbstractBufferActuator<WriterRequest,
 
                 // 5.持久化存储 & 更新缓存配置
                 profileComponent.editTableGroup(tableGroup);
+                primaryKeys.remove(tableGroup.getId());
 
-                // 6.发布更新事件，持久化增量数据
-                applicationContext.publishEvent(new RefreshOffsetEvent(applicationContext, response.getOffsetList()));
+                // 6.持久化增量数据
                 flushStrategy.flushIncrementData(mapping.getMetaId(), result, response.getEvent());
                 return;
             }
@@ -0,0 +1,139 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.parser.flush.impl;
+
+import org.dbsyncer.common.util.CollectionUtils;
+import org.dbsyncer.parser.event.RefreshOffsetEvent;
+import org.dbsyncer.sdk.model.ChangedOffset;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 增量点低水位
+ * <p>1. 任务提交时按驱动分配递增序号，记录为执行中
+ * <p>2. 多通道（或多个执行器）乱序执行完毕后，只刷新小于最小执行中序号的已完成增量点，保证重启后不会跳过未执行的任务
+ *
+ * @Version 1.0.0
+ * @Author AE86
+ * @Date 2024-07-21 10:18
+ */
+@Component
+public final class OffsetWatermark {
+
+    @Resource
+    private ApplicationContext applicationContext;
+
+    private final Map<String, Watermark> watermarks = new ConcurrentHashMap<>();
+
+    /**
+     * 登记执行中的增量点
+     *
+     * @param offset
+     * @return 序号
+     */
+    public long register(ChangedOffset offset) {
+        return watermarks.computeIfAbsent(offset.getMetaId(), k -> new Watermark()).register(offset);
+    }
+
+    /**
+     * 放弃执行中的增量点（提交失败或丢弃的任务，不阻塞后续增量点刷新）
+     *
+     * @param metaId
+     * @param sequence
+     */
+    public void discard(String metaId, long sequence) {
+        Watermark watermark = watermarks.get(metaId);
+        if (null != watermark) {
+            watermark.discard(sequence);
+        }
+    }
+
+    /**
+     * 标记执行完毕，低水位推进时发布刷新增量点事件
+     *
+     * @param metaId
+     * @param sequences
+     */
+    public void complete(String metaId, Collection<Long> sequences) {
+        Watermark watermark = watermarks.get(metaId);
+        if (null != watermark && !CollectionUtils.isEmpty(sequences)) {
+            watermark.complete(sequences);
+        }
+    }
+
+    /**
+     * 清除驱动低水位（驱动停止后，未执行的任务不再处理）
+     *
+     * @param metaId
+     */
+    public void clear(String metaId) {
+        watermarks.remove(metaId);
+    }
+
+    private final class Watermark {
+
+        private long sequence;
+
+        /**
+         * 执行中的增量点
+         */
+        private final NavigableMap<Long, ChangedOffset> running = new TreeMap<>();
+
+        /**
+         * 已完成，等待低水位推进的增量点
+         */
+        private final NavigableMap<Long, ChangedOffset> completed = new TreeMap<>();
+
+        synchronized long register(ChangedOffset offset) {
+            running.put(++sequence, offset);
+            return sequence;
+        }
+
+        synchronized void discard(long seq) {
+            if (null != running.remove(seq)) {
+                advance();
+            }
+        }
+
+        synchronized void complete(Collection<Long> sequences) {
+            boolean changed = false;
+            for (Long seq : sequences) {
+                ChangedOffset offset = running.remove(seq);
+                if (null != offset) {
+                    completed.put(seq, offset);
+                    changed = true;
+                }
+            }
+            if (changed) {
+                advance();
+            }
+        }
+
+        /**
+         * 刷新低水位以下最新的增量点，持有锁发布，保证同一驱动的增量点按序刷新
+         */
+        private void advance() {
+            NavigableMap<Long, ChangedOffset> done = running.isEmpty() ? completed : completed.headMap(running.firstKey(), false);
+            ChangedOffset offset = null;
+            for (ChangedOffset o : done.values()) {
+                if (o.isRefreshOffset()) {
+                    offset = o;
+                }
+            }
+            done.clear();
+            if (null != offset) {
+                applicationContext.publishEvent(new RefreshOffsetEvent(applicationContext, Collections.singletonList(offset)));
+            }
+        }
+    }
+
+}
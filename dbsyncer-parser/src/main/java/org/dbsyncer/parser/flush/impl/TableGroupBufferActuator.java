@@ -4,12 +4,15 @@
 package org.dbsyncer.parser.flush.impl;
 
 import org.dbsyncer.common.config.TableGroupBufferConfig;
-import org.dbsyncer.common.scheduled.ScheduledTaskService;
+import org.dbsyncer.common.metric.TimeRegistry;
 import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.common.util.ThreadPoolUtil;
 import org.dbsyncer.common.util.UUIDUtil;
 import org.dbsyncer.parser.flush.BufferRequest;
+import org.dbsyncer.parser.flush.LimitedExecutor;
 import org.dbsyncer.sdk.spi.TableGroupBufferActuatorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import javax.annotation.Resource;
@@ -27,10 +30,14 @@ public class TableGroupBufferActuator extends GeneralBufferActuator implements C
     @Resource
     private TableGroupBufferConfig tableGroupBufferConfig;
 
-    @Resource
-    private ScheduledTaskService scheduledTaskService;
+    /**
+     * 共享工作线程池，未开启时不存在
+     */
+    @Autowired(required = false)
+    @Qualifier("tableGroupExecutor")
+    private Executor tableGroupExecutor;
 
-    private ThreadPoolTaskExecutor threadPoolTaskExecutor;
+    private Executor executor;
 
     private String taskKey;
 
@@ -50,7 +57,7 @@ public class TableGroupBufferActuator extends GeneralBufferActuator implements C
 
     @Override
     public Executor getExecutor() {
-        return threadPoolTaskExecutor;
+        return executor;
     }
 
     @Override
@@ -58,13 +65,37 @@ public class TableGroupBufferActuator extends GeneralBufferActuator implements C
         super.setConfig(tableGroupBufferConfig);
         super.buildQueueConfig();
         taskKey = UUIDUtil.getUUID();
+        running = true;
+        // 共享线程池，按表限制最大并发数
+        if (tableGroupBufferConfig.isSharedExecutor()) {
+            executor = new LimitedExecutor(tableGroupExecutor, tableGroupBufferConfig.getMaxThreadSize());
+            return;
+        }
         int coreSize = tableGroupBufferConfig.getThreadCoreSize();
         int maxSize = tableGroupBufferConfig.getMaxThreadSize();
         int queueCapacity = tableGroupBufferConfig.getThreadQueueCapacity();
         String threadNamePrefix = new StringBuilder("TableGroupExecutor-").append(tableGroupId).append(StringUtil.SYMBOL).toString();
-        threadPoolTaskExecutor = ThreadPoolUtil.newThreadPoolTaskExecutor(coreSize, maxSize, queueCapacity, 30, threadNamePrefix);
-        running = true;
-        scheduledTaskService.start(taskKey, tableGroupBufferConfig.getBufferPeriodMillisecond(), this);
+        executor = ThreadPoolUtil.newThreadPoolTaskExecutor(coreSize, maxSize, queueCapacity, 30, threadNamePrefix);
+    }
+
+    /**
+     * 共享线程池模式下，消费通道由共享线程池驱动，不为每张表启动通道线程或定时任务
+     */
+    @Override
+    protected Executor getLaneExecutor() {
+        return tableGroupBufferConfig.isSharedExecutor() ? tableGroupExecutor : null;
+    }
+
+    /**
+     * 启动消费（晋升后待通用执行器处理完积压任务再启动）
+     */
+    public void start() {
+        super.startLanes(taskKey);
+    }
+
+    @Override
+    protected void gauge(TimeRegistry timeRegistry) {
+        // 表执行器数量多，不注册消费通道指标
     }
 
     @Override
@@ -74,10 +105,10 @@ public class TableGroupBufferActuator extends GeneralBufferActuator implements C
 
     public void stop() {
         running = false;
-        if (threadPoolTaskExecutor != null) {
-            threadPoolTaskExecutor.shutdown();
+        if (executor instanceof ThreadPoolTaskExecutor) {
+            ((ThreadPoolTaskExecutor) executor).shutdown();
         }
-        scheduledTaskService.stop(taskKey);
+        super.stopLanes();
     }
 
     public String getTableGroupId() {
@@ -0,0 +1,396 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.parser.flush.impl;
+
+import com.google.protobuf.ByteString;
+import org.dbsyncer.parser.ParserException;
+import org.dbsyncer.parser.model.WriterRequest;
+import org.dbsyncer.sdk.constant.ConnectorConstant;
+import org.dbsyncer.sdk.enums.ChangedEventTypeEnum;
+import org.dbsyncer.sdk.model.ChangedOffset;
+import org.dbsyncer.storage.binlog.proto.BinlogMap;
+import org.dbsyncer.storage.binlog.proto.BinlogMessage;
+import org.dbsyncer.storage.binlog.proto.EventEnum;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 溢写任务编解码
+ * <p>格式：[溢写时间][事件类型][事件][sql][增量偏移量][列名和值类型][BinlogMessage][增量点序号][是否修改主键]
+ * <p>行数据按BinlogMessage序列化，值类型随列记录，回放后与原始数据类型一致（不支持的类型转为字符串）
+ *
+ * @Author AE86
+ * @Version 1.0.0
+ * @Date 2024-06-23 10:12
+ */
+final class WriterRequestCodec {
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte SHORT = 4;
+    private static final byte BYTE = 5;
+    private static final byte FLOAT = 6;
+    private static final byte DOUBLE = 7;
+    private static final byte BOOLEAN = 8;
+    private static final byte BIG_DECIMAL = 9;
+    private static final byte BIG_INTEGER = 10;
+    private static final byte BYTES = 11;
+    private static final byte BIT_SET = 12;
+    private static final byte TIMESTAMP = 13;
+    private static final byte DATE = 14;
+    private static final byte TIME = 15;
+    private static final byte UTIL_DATE = 16;
+    private static final byte LOCAL_DATE_TIME = 17;
+    private static final byte LOCAL_DATE = 18;
+    private static final byte LOCAL_TIME = 19;
+    private static final byte OFFSET_DATE_TIME = 20;
+
+    private WriterRequestCodec() {
+    }
+
+    static byte[] encode(WriterRequest request, long spillTime) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(spillTime);
+            writeString(out, request.getTypeEnum() != null ? request.getTypeEnum().name() : null);
+            writeString(out, request.getEvent());
+            writeString(out, request.getSql());
+
+            ChangedOffset offset = request.getChangedOffset();
+            writeString(out, offset.getMetaId());
+            writeString(out, offset.getNextFileName());
+            writeValue(out, offset.getPosition());
+            writeString(out, offset.getGtidSet());
+            out.writeBoolean(offset.isRefreshOffset());
+
+            BinlogMessage.Builder builder = BinlogMessage.newBuilder()
+                    .setTableGroupId(request.getTableGroupId())
+                    .setEvent(toEventEnum(request.getEvent()));
+            Map<String, Object> row = request.getRow();
+            if (null == row) {
+                out.writeInt(-1);
+            } else {
+                BinlogMap.Builder data = BinlogMap.newBuilder();
+                out.writeInt(row.size());
+                for (Map.Entry<String, Object> e : row.entrySet()) {
+                    byte type = typeOf(e.getValue());
+                    writeString(out, e.getKey());
+                    out.writeByte(type);
+                    if (NULL != type) {
+                        data.putRow(e.getKey(), serialize(type, e.getValue()));
+                    }
+                }
+                builder.setData(data);
+            }
+            byte[] message = builder.build().toByteArray();
+            out.writeInt(message.length);
+            out.write(message);
+            out.writeLong(request.getSequence());
+            out.writeBoolean(request.isPrimaryKeyChanged());
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new ParserException(e);
+        }
+    }
+
+    static SpilledRequest decode(byte[] bytes) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            long spillTime = in.readLong();
+            String typeEnum = readString(in);
+            String event = readString(in);
+            String sql = readString(in);
+
+            ChangedOffset offset = new ChangedOffset();
+            offset.setMetaId(readString(in));
+            offset.setNextFileName(readString(in));
+            offset.setPosition(readValue(in));
+            offset.setGtidSet(readString(in));
+            offset.setRefreshOffset(in.readBoolean());
+
+            int columns = in.readInt();
+            String[] names = new String[Math.max(columns, 0)];
+            byte[] types = new byte[Math.max(columns, 0)];
+            for (int i = 0; i < columns; i++) {
+                names[i] = readString(in);
+                types[i] = in.readByte();
+            }
+            byte[] message = new byte[in.readInt()];
+            in.readFully(message);
+            BinlogMessage binlogMessage = BinlogMessage.parseFrom(message);
+
+            Map<String, Object> row = null;
+            if (columns >= 0) {
+                row = new LinkedHashMap<>(columns * 2);
+                Map<String, ByteString> data = binlogMessage.getData().getRowMap();
+                for (int i = 0; i < columns; i++) {
+                    row.put(names[i], NULL == types[i] ? null : deserialize(types[i], data.get(names[i])));
+                }
+            }
+            ChangedEventTypeEnum type = null != typeEnum ? ChangedEventTypeEnum.valueOf(typeEnum) : null;
+            WriterRequest request = new WriterRequest(binlogMessage.getTableGroupId(), type, event, sql, row, offset);
+            // 兼容旧版本溢写文件
+            if (in.available() > 0) {
+                request.setSequence(in.readLong());
+                request.setPrimaryKeyChanged(in.readBoolean());
+            }
+            return new SpilledRequest(request, spillTime);
+        } catch (IOException e) {
+            throw new ParserException(e);
+        }
+    }
+
+    private static EventEnum toEventEnum(String event) {
+        if (ConnectorConstant.OPERTION_INSERT.equals(event)) {
+            return EventEnum.INSERT;
+        }
+        if (ConnectorConstant.OPERTION_DELETE.equals(event)) {
+            return EventEnum.DELETE;
+        }
+        return EventEnum.UPDATE;
+    }
+
+    private static byte typeOf(Object v) {
+        if (null == v) {
+            return NULL;
+        }
+        if (v instanceof String) {
+            return STRING;
+        }
+        if (v instanceof Integer) {
+            return INTEGER;
+        }
+        if (v instanceof Long) {
+            return LONG;
+        }
+        if (v instanceof Short) {
+            return SHORT;
+        }
+        if (v instanceof Byte) {
+            return BYTE;
+        }
+        if (v instanceof Float) {
+            return FLOAT;
+        }
+        if (v instanceof Double) {
+            return DOUBLE;
+        }
+        if (v instanceof Boolean) {
+            return BOOLEAN;
+        }
+        if (v instanceof BigDecimal) {
+            return BIG_DECIMAL;
+        }
+        if (v instanceof BigInteger) {
+            return BIG_INTEGER;
+        }
+        if (v instanceof byte[]) {
+            return BYTES;
+        }
+        if (v instanceof BitSet) {
+            return BIT_SET;
+        }
+        // 子类在前
+        if (v instanceof Timestamp) {
+            return TIMESTAMP;
+        }
+        if (v instanceof Date) {
+            return DATE;
+        }
+        if (v instanceof Time) {
+            return TIME;
+        }
+        if (v instanceof java.util.Date) {
+            return UTIL_DATE;
+        }
+        if (v instanceof LocalDateTime) {
+            return LOCAL_DATE_TIME;
+        }
+        if (v instanceof LocalDate) {
+            return LOCAL_DATE;
+        }
+        if (v instanceof LocalTime) {
+            return LOCAL_TIME;
+        }
+        if (v instanceof OffsetDateTime) {
+            return OFFSET_DATE_TIME;
+        }
+        return STRING;
+    }
+
+    private static ByteString serialize(byte type, Object v) {
+        switch (type) {
+            case INTEGER:
+                return ByteString.copyFrom(ByteBuffer.allocate(4).putInt(0, (Integer) v));
+            case LONG:
+                return ByteString.copyFrom(ByteBuffer.allocate(8).putLong(0, (Long) v));
+            case SHORT:
+                return ByteString.copyFrom(ByteBuffer.allocate(2).putShort(0, (Short) v));
+            case BYTE:
+                return ByteString.copyFrom(new byte[]{(Byte) v});
+            case FLOAT:
+                return ByteString.copyFrom(ByteBuffer.allocate(4).putFloat(0, (Float) v));
+            case DOUBLE:
+                return ByteString.copyFrom(ByteBuffer.allocate(8).putDouble(0, (Double) v));
+            case BOOLEAN:
+                return ByteString.copyFrom(new byte[]{(byte) ((Boolean) v ? 1 : 0)});
+            case BYTES:
+                return ByteString.copyFrom((byte[]) v);
+            case BIT_SET:
+                return ByteString.copyFrom(((BitSet) v).toByteArray());
+            case TIMESTAMP:
+                Timestamp timestamp = (Timestamp) v;
+                ByteBuffer buffer = ByteBuffer.allocate(12);
+                buffer.putLong(timestamp.getTime()).putInt(timestamp.getNanos());
+                return ByteString.copyFrom(buffer.array());
+            case DATE:
+            case TIME:
+            case UTIL_DATE:
+                return ByteString.copyFrom(ByteBuffer.allocate(8).putLong(0, ((java.util.Date) v).getTime()));
+            default:
+                // 字符串、数字及时间类型按文本存储
+                return ByteString.copyFrom(String.valueOf(v), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Object deserialize(byte type, ByteString v) {
+        if (null == v) {
+            return null;
+        }
+        switch (type) {
+            case INTEGER:
+                return v.asReadOnlyByteBuffer().getInt();
+            case LONG:
+                return v.asReadOnlyByteBuffer().getLong();
+            case SHORT:
+                return v.asReadOnlyByteBuffer().getShort();
+            case BYTE:
+                return v.byteAt(0);
+            case FLOAT:
+                return v.asReadOnlyByteBuffer().getFloat();
+            case DOUBLE:
+                return v.asReadOnlyByteBuffer().getDouble();
+            case BOOLEAN:
+                return v.byteAt(0) == 1;
+            case BIG_DECIMAL:
+                return new BigDecimal(v.toStringUtf8());
+            case BIG_INTEGER:
+                return new BigInteger(v.toStringUtf8());
+            case BYTES:
+                return v.toByteArray();
+            case BIT_SET:
+                return BitSet.valueOf(v.toByteArray());
+            case TIMESTAMP:
+                ByteBuffer buffer = v.asReadOnlyByteBuffer();
+                Timestamp timestamp = new Timestamp(buffer.getLong());
+                timestamp.setNanos(buffer.getInt());
+                return timestamp;
+            case DATE:
+                return new Date(v.asReadOnlyByteBuffer().getLong());
+            case TIME:
+                return new Time(v.asReadOnlyByteBuffer().getLong());
+            case UTIL_DATE:
+                return new java.util.Date(v.asReadOnlyByteBuffer().getLong());
+            case LOCAL_DATE_TIME:
+                return LocalDateTime.parse(v.toStringUtf8());
+            case LOCAL_DATE:
+                return LocalDate.parse(v.toStringUtf8());
+            case LOCAL_TIME:
+                return LocalTime.parse(v.toStringUtf8());
+            case OFFSET_DATE_TIME:
+                return OffsetDateTime.parse(v.toStringUtf8());
+            default:
+                return v.toStringUtf8();
+        }
+    }
+
+    /**
+     * 增量偏移量(文件位置/LSN/SCN等)
+     */
+    private static void writeValue(DataOutputStream out, Object v) throws IOException {
+        byte type = typeOf(v);
+        out.writeByte(type);
+        if (NULL != type) {
+            byte[] b = serialize(type, v).toByteArray();
+            out.writeInt(b.length);
+            out.write(b);
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        if (NULL == type) {
+            return null;
+        }
+        byte[] b = new byte[in.readInt()];
+        in.readFully(b);
+        return deserialize(type, ByteString.copyFrom(b));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (null == value) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] b = new byte[length];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    static final class SpilledRequest {
+
+        private final WriterRequest request;
+
+        /**
+         * 溢写时间
+         */
+        private final long spillTime;
+
+        SpilledRequest(WriterRequest request, long spillTime) {
+            this.request = request;
+            this.spillTime = spillTime;
+        }
+
+        WriterRequest getRequest() {
+            return request;
+        }
+
+        long getSpillTime() {
+            return spillTime;
+        }
+    }
+
+}
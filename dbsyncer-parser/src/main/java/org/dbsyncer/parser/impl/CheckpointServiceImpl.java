@@ -0,0 +1,86 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.parser.impl;
+
+import org.dbsyncer.common.config.CheckpointConfig;
+import org.dbsyncer.common.scheduled.ScheduledTaskJob;
+import org.dbsyncer.common.scheduled.ScheduledTaskService;
+import org.dbsyncer.parser.CheckpointService;
+import org.dbsyncer.storage.checkpoint.CheckpointLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 基于同步点日志持久化，定时刷盘（组提交）和压缩
+ * <p>写入后进程崩溃(kill -9)不丢失；操作系统崩溃最多丢失一个刷盘间隔内的同步点，重启后从较早的位置重新同步（至少一次）
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2024/6/22 21:16
+ */
+@Component
+public class CheckpointServiceImpl implements CheckpointService, ScheduledTaskJob {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * 相对路径/data/checkpoint
+     */
+    private static final String PATH = new StringBuilder(System.getProperty("user.dir")).append(File.separatorChar).append("data")
+            .append(File.separatorChar).append("checkpoint").append(File.separatorChar).toString();
+
+    @Resource
+    private CheckpointConfig checkpointConfig;
+
+    @Resource
+    private ScheduledTaskService scheduledTaskService;
+
+    private CheckpointLog checkpointLog;
+
+    @PostConstruct
+    private void init() {
+        checkpointLog = new CheckpointLog(PATH, checkpointConfig.getCapacity());
+        scheduledTaskService.start(checkpointConfig.getSyncPeriodMillisecond(), this);
+    }
+
+    @Override
+    public void save(String metaId, Map<String, String> snapshot) {
+        checkpointLog.put(metaId, snapshot);
+    }
+
+    @Override
+    public Map<String, String> get(String metaId) {
+        Map<String, String> snapshot = checkpointLog.get(metaId);
+        return null != snapshot ? new LinkedHashMap<>(snapshot) : null;
+    }
+
+    @Override
+    public void remove(String metaId) {
+        checkpointLog.remove(metaId);
+    }
+
+    @Override
+    public void run() {
+        try {
+            checkpointLog.sync();
+            checkpointLog.compactIfNecessary(checkpointConfig.getCompactRatio());
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    private void destroy() {
+        checkpointLog.close();
+    }
+
+}
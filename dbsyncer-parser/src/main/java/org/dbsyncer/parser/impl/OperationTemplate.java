@@ -6,11 +6,13 @@ package org.dbsyncer.parser.impl;
 import org.dbsyncer.common.util.CollectionUtils;
 import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.parser.CacheService;
+import org.dbsyncer.parser.CheckpointService;
 import org.dbsyncer.parser.ParserException;
 import org.dbsyncer.parser.command.impl.PersistenceCommand;
 import org.dbsyncer.parser.enums.CommandEnum;
 import org.dbsyncer.parser.enums.GroupStrategyEnum;
 import org.dbsyncer.parser.model.ConfigModel;
+import org.dbsyncer.parser.model.Meta;
 import org.dbsyncer.parser.model.OperationConfig;
 import org.dbsyncer.parser.model.QueryConfig;
 import org.dbsyncer.parser.strategy.GroupStrategy;
@@ -47,6 +49,9 @@ public final class OperationTemplate {
     @Resource
     private CacheService cacheService;
 
+    @Resource
+    private CheckpointService checkpointService;
+
     public <T> List<T> queryAll(Class<T> valueType) {
         try {
             ConfigModel configModel = (ConfigModel) valueType.newInstance();
@@ -100,6 +105,10 @@ public final class OperationTemplate {
         CommandEnum cmd = config.getCommandEnum();
         Assert.notNull(cmd, "CommandEnum can not be null.");
         cmd.getCommandExecutor().execute(new PersistenceCommand(storageService, params));
+        // 同步点以日志为准，修改Meta配置(如重置同步点)时一并写入
+        if (model instanceof Meta) {
+            checkpointService.save(model.getId(), ((Meta) model).getSnapshot());
+        }
 
         // 3、缓存
         cache(model, config.getGroupStrategyEnum());
@@ -135,6 +144,9 @@ public final class OperationTemplate {
         }
         cacheService.remove(id);
         storageService.remove(StorageEnum.CONFIG, id);
+        if (model instanceof Meta) {
+            checkpointService.remove(id);
+        }
     }
 
     public String getGroupId(ConfigModel model, GroupStrategyEnum strategy) {
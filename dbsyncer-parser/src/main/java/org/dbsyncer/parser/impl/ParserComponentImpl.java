@@ -3,11 +3,14 @@
  */
 package org.dbsyncer.parser.impl;
 
+import org.dbsyncer.common.config.FullSyncConfig;
 import org.dbsyncer.common.model.Result;
 import org.dbsyncer.common.util.CollectionUtils;
 import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.connector.base.ConnectorFactory;
 import org.dbsyncer.parser.ParserComponent;
+import org.dbsyncer.parser.ParserException;
+import org.dbsyncer.parser.enums.ParserEnum;
 import org.dbsyncer.parser.ProfileComponent;
 import org.dbsyncer.parser.event.FullRefreshEvent;
 import org.dbsyncer.parser.model.*;
@@ -20,7 +23,9 @@ import org.dbsyncer.plugin.impl.FullPluginContext;
 import org.dbsyncer.sdk.config.CommandConfig;
 import org.dbsyncer.sdk.config.WriterBatchConfig;
 import org.dbsyncer.sdk.connector.ConnectorInstance;
+import org.dbsyncer.sdk.connector.RowHandler;
 import org.dbsyncer.sdk.constant.ConnectorConstant;
+import org.dbsyncer.sdk.model.CompactRow;
 import org.dbsyncer.sdk.model.ConnectorConfig;
 import org.dbsyncer.sdk.model.Field;
 import org.dbsyncer.sdk.model.MetaInfo;
@@ -30,16 +35,35 @@ import org.dbsyncer.sdk.util.PrimaryKeyUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
+import org.springframework.util.LinkedCaseInsensitiveMap;
 
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Types;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author AE86
@@ -66,6 +90,11 @@ public class ParserComponentImpl implements ParserComponent {
     @Resource
     private ApplicationContext applicationContext;
 
+    @Resource
+    private FullSyncConfig fullSyncConfig;
+
+    private volatile ThreadPoolExecutor rangeExecutor;
+
     @Override
     public MetaInfo getMetaInfo(String connectorId, String tableName) {
         Connector connector = profileComponent.getConnector(connectorId);
@@ -151,6 +180,19 @@ public class ParserComponentImpl implements ParserComponent {
         context.setPageSize(mapping.getReadNum());
         // 0、插件前置处理
         pluginFactory.process(group.getPlugin(), context, ProcessEnum.BEFORE);
+        context.setBulkLoad(isBulkLoad(task, context));
+
+        // 主键分段模式
+        if (isRangeSplit(task, context, primaryKeys)) {
+            executeRanges(task, group, tableGroup.getId(), picker, primaryKeys.get(0), context, executor);
+            return;
+        }
+
+        // 流水线模式
+        if (fullSyncConfig.isPipelined()) {
+            executePipelined(task, group, tableGroup.getId(), picker, primaryKeys, context, executor);
+            return;
+        }
 
         for (; ; ) {
             if (!task.isRunning()) {
@@ -158,25 +200,22 @@ public class ParserComponentImpl implements ParserComponent {
                 break;
             }
 
-            // 1、获取数据源数据
+            // 1、获取数据源数据，2、映射字段
             context.setArgs(new ArrayList<>());
             context.setCursors(task.getCursors());
             context.setPageIndex(task.getPageIndex());
-            Result reader = connectorFactory.reader(context.getSourceConnectorInstance(), context);
-            List<Map> source = reader.getSuccessData();
-            if (CollectionUtils.isEmpty(source)) {
+            FullPage page = readPage(context, group, picker, primaryKeys, task.getPageIndex());
+            if (null == page) {
                 logger.info("完成全量同步任务:{}, [{}] >> [{}]", metaId, sTableName, tTableName);
                 break;
             }
-
-            // 2、映射字段
-            List<Map> target = picker.pickTargetData(source);
+            List<Map> target = page.target;
 
             // 3、参数转换
             ConvertUtil.convert(group.getConvert(), target);
 
             // 4、插件转换
-            context.setSourceList(source);
+            context.setSourceList(page.source);
             context.setTargetList(target);
             pluginFactory.process(group.getPlugin(), context, ProcessEnum.CONVERT);
 
@@ -185,8 +224,8 @@ public class ParserComponentImpl implements ParserComponent {
             Result result = writeBatch(context, executor);
 
             // 6、更新结果
-            task.setPageIndex(task.getPageIndex() + 1);
-            task.setCursors(PrimaryKeyUtil.getLastCursors(source, primaryKeys));
+            task.setPageIndex(page.pageIndex);
+            task.setCursors(page.cursors);
             result.setTableGroupId(tableGroup.getId());
             result.setTargetTableGroupName(tTableName);
             flush(task, result);
@@ -195,13 +234,395 @@ public class ParserComponentImpl implements ParserComponent {
             pluginFactory.process(group.getPlugin(), context, ProcessEnum.AFTER);
 
             // 8、判断尾页
-            if (source.size() < context.getPageIndex()) {
+            if (page.last) {
                 logger.info("完成全量:{}, [{}] >> [{}]", metaId, sTableName, tTableName);
                 break;
             }
         }
     }
 
+    /**
+     * 流水线全量同步
+     * <p>读取线程预读下一页数据（映射字段、参数转换），当前线程写入目标源，读写之间通过有界队列交接
+     * <p>每页数据写入完成后才更新同步点，中断后从最后一次写入成功的页继续同步
+     */
+    private void executePipelined(Task task, TableGroup group, String tableGroupId, Picker picker, List<String> primaryKeys, FullPluginContext context, Executor executor) {
+        final String metaId = task.getId();
+        final String sTableName = context.getSourceTableName();
+        final String tTableName = context.getTargetTableName();
+        final BlockingQueue<FullPage> pages = new ArrayBlockingQueue<>(Math.max(1, fullSyncConfig.getPipelineQueueCapacity()));
+        final AtomicBoolean closed = new AtomicBoolean();
+        final AtomicReference<Exception> error = new AtomicReference<>();
+        final FullPluginContext readerContext = newReaderContext(context);
+        final int beginPageIndex = task.getPageIndex();
+        final Object[] beginCursors = task.getCursors();
+
+        Thread worker = new Thread(() -> {
+            int pageIndex = beginPageIndex;
+            Object[] cursors = beginCursors;
+            try {
+                while (task.isRunning() && !closed.get()) {
+                    // 1、获取数据源数据，2、映射字段
+                    readerContext.setArgs(new ArrayList<>());
+                    readerContext.setCursors(cursors);
+                    readerContext.setPageIndex(pageIndex);
+                    FullPage page = readPage(readerContext, group, picker, primaryKeys, pageIndex);
+                    if (null == page) {
+                        break;
+                    }
+
+                    // 3、参数转换
+                    ConvertUtil.convert(group.getConvert(), page.target);
+
+                    pageIndex = page.pageIndex;
+                    cursors = page.cursors;
+                    if (!handOff(pages, page, closed) || page.last) {
+                        break;
+                    }
+                }
+            } catch (Exception e) {
+                error.set(e);
+            } finally {
+                handOff(pages, FullPage.END, closed);
+            }
+        });
+        worker.setName(new StringBuilder("full-reader-").append(metaId).toString());
+        worker.setDaemon(true);
+        worker.start();
+
+        try {
+            for (; ; ) {
+                if (!task.isRunning()) {
+                    logger.warn("任务被中止:{}", metaId);
+                    break;
+                }
+                FullPage page = pages.poll(100, TimeUnit.MILLISECONDS);
+                if (null == page) {
+                    continue;
+                }
+                if (FullPage.END == page) {
+                    if (null != error.get()) {
+                        throw new ParserException(error.get().getMessage(), error.get());
+                    }
+                    logger.info("完成全量同步任务:{}, [{}] >> [{}]", metaId, sTableName, tTableName);
+                    break;
+                }
+
+                // 4、插件转换
+                context.setSourceList(page.source);
+                context.setTargetList(page.target);
+                pluginFactory.process(group.getPlugin(), context, ProcessEnum.CONVERT);
+
+                // 5、写入目标源
+                context.setTargetFields(picker.getTargetFields());
+                Result result = writeBatch(context, executor);
+
+                // 6、写入完成，更新同步点
+                task.setPageIndex(page.pageIndex);
+                task.setCursors(page.cursors);
+                result.setTableGroupId(tableGroupId);
+                result.setTargetTableGroupName(tTableName);
+                flush(task, result);
+
+                // 7、同步完成后通知插件做后置处理
+                pluginFactory.process(group.getPlugin(), context, ProcessEnum.AFTER);
+
+                // 8、判断尾页
+                if (page.last) {
+                    logger.info("完成全量:{}, [{}] >> [{}]", metaId, sTableName, tTableName);
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closed.set(true);
+        }
+    }
+
+    /**
+     * 是否批量导入（首次同步且目标表为空）
+     */
+    private boolean isBulkLoad(Task task, FullPluginContext context) {
+        if (!fullSyncConfig.isBulkLoad() || !CollectionUtils.isEmpty(task.getRanges())) {
+            return false;
+        }
+        if (null != task.getCursors() || task.getPageIndex() != ParserEnum.PAGE_INDEX.getDefaultValue()) {
+            return false;
+        }
+        return connectorFactory.isSupportedBulkLoad(context.getTargetConnectorInstance(), context.getTargetTableName());
+    }
+
+    /**
+     * 是否按主键分段同步（单一数字主键，首次同步或上次按分段同步中断）
+     */
+    private boolean isRangeSplit(Task task, FullPluginContext context, List<String> primaryKeys) {
+        if (!CollectionUtils.isEmpty(task.getRanges())) {
+            return true;
+        }
+        if (fullSyncConfig.getRangeSplitCount() <= 1 || !context.isSupportedCursor() || primaryKeys.size() != 1) {
+            return false;
+        }
+        if (null != task.getCursors() || task.getPageIndex() != ParserEnum.PAGE_INDEX.getDefaultValue()) {
+            return false;
+        }
+        if (!isIntegerPrimaryKey(context.getSourceTable(), primaryKeys.get(0))) {
+            return false;
+        }
+        task.setRanges(splitRanges(context));
+        return !CollectionUtils.isEmpty(task.getRanges());
+    }
+
+    /**
+     * 主键是否为整数类型（字符、小数主键不能按数值等分）
+     */
+    private boolean isIntegerPrimaryKey(Table sourceTable, String primaryKey) {
+        if (null == sourceTable || CollectionUtils.isEmpty(sourceTable.getColumn())) {
+            return false;
+        }
+        for (Field field : sourceTable.getColumn()) {
+            if (!StringUtil.equals(field.getName(), primaryKey)) {
+                continue;
+            }
+            switch (field.getType()) {
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                case Types.BIGINT:
+                    return true;
+                case Types.NUMERIC:
+                case Types.DECIMAL:
+                    return field.getRatio() == 0;
+                default:
+                    return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按主键最小值和最大值等分主键分段边界
+     */
+    private List<TaskRange> splitRanges(FullPluginContext context) {
+        final int splitCount = fullSyncConfig.getRangeSplitCount();
+        final long count = connectorFactory.getCount(context.getSourceConnectorInstance(), context.getCommand());
+        if (count < Math.max(splitCount, fullSyncConfig.getRangeSplitMinRows())) {
+            return null;
+        }
+        Object[] minMax = connectorFactory.getPrimaryKeyRange(context.getSourceConnectorInstance(), context.getCommand());
+        if (null == minMax) {
+            return null;
+        }
+
+        BigInteger min = new BigDecimal(String.valueOf(minMax[0])).toBigInteger();
+        BigInteger span = new BigDecimal(String.valueOf(minMax[1])).toBigInteger().subtract(min);
+        BigInteger parts = BigInteger.valueOf(splitCount);
+        List<String> bounds = new ArrayList<>();
+        BigInteger last = null;
+        for (int i = 1; i < splitCount; i++) {
+            BigInteger bound = min.add(span.multiply(BigInteger.valueOf(i)).divide(parts));
+            if (null == last || bound.compareTo(last) > 0) {
+                bounds.add(bound.toString());
+                last = bound;
+            }
+        }
+        if (bounds.isEmpty()) {
+            return null;
+        }
+
+        List<TaskRange> ranges = new ArrayList<>();
+        String lower = null;
+        for (String bound : bounds) {
+            ranges.add(new TaskRange(lower, bound));
+            lower = bound;
+        }
+        ranges.add(new TaskRange(lower, null));
+        logger.info("全量同步主键分段:{}, count:{}, min:{}, max:{}, bounds:{}", context.getSourceTableName(), count, minMax[0], minMax[1], bounds);
+        return ranges;
+    }
+
+    /**
+     * 主键分段并行同步，每个分段独立读写并记录同步点，所有表的分段共用分段线程池
+     */
+    private void executeRanges(Task task, TableGroup group, String tableGroupId, Picker picker, String primaryKey, FullPluginContext context, Executor executor) {
+        List<TaskRange> ranges = new ArrayList<>();
+        task.getRanges().forEach(range -> {
+            if (!range.isFinished()) {
+                ranges.add(range);
+            }
+        });
+        if (ranges.isEmpty()) {
+            return;
+        }
+
+        final ExecutorService rangeExecutor = getRangeExecutor();
+        List<Future<?>> futures = new ArrayList<>();
+        Exception error = null;
+        try {
+            ranges.forEach(range -> futures.add(rangeExecutor.submit(() -> executeRange(task, range, group, tableGroupId, picker, primaryKey, context, executor))));
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    logger.error(e.getCause().getMessage(), e.getCause());
+                    if (null == error) {
+                        error = (Exception) e.getCause();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // 排队中的分段不再执行，执行中的分段由task.isRunning()中止
+            futures.forEach(future -> future.cancel(false));
+        }
+        if (null != error) {
+            throw new ParserException(error.getMessage(), error);
+        }
+        if (task.isRunning()) {
+            logger.info("完成全量同步任务:{}, [{}] >> [{}]", task.getId(), context.getSourceTableName(), context.getTargetTableName());
+        }
+    }
+
+    private void executeRange(Task task, TaskRange range, TableGroup group, String tableGroupId, Picker picker, String primaryKey, FullPluginContext context, Executor executor) {
+        final FullPluginContext rangeContext = copyContext(context);
+        final List<String> primaryKeys = Collections.singletonList(primaryKey);
+        final String upper = range.getUpper();
+        Object[] cursors = PrimaryKeyUtil.getLastCursors(StringUtil.isNotBlank(range.getCursor()) ? range.getCursor() : range.getLower());
+        while (!range.isFinished()) {
+            if (!task.isRunning()) {
+                logger.warn("任务被中止:{}", task.getId());
+                break;
+            }
+
+            // 1、流式读取分段数据，2、映射字段，超出分段结束主键的数据留给下一个分段
+            rangeContext.setArgs(new ArrayList<>());
+            rangeContext.setCursors(cursors);
+            rangeContext.setPageIndex(ParserEnum.PAGE_INDEX.getDefaultValue());
+            FullPage page = readPage(rangeContext, group, picker, primaryKeys, ParserEnum.PAGE_INDEX.getDefaultValue(), upper);
+            boolean last = null == page || page.last;
+
+            Result result = new Result();
+            if (null != page) {
+                // 3、参数转换
+                ConvertUtil.convert(group.getConvert(), page.target);
+
+                // 4、插件转换
+                rangeContext.setSourceList(page.source);
+                rangeContext.setTargetList(page.target);
+                pluginFactory.process(group.getPlugin(), rangeContext, ProcessEnum.CONVERT);
+
+                // 5、写入目标源
+                rangeContext.setTargetFields(picker.getTargetFields());
+                result = writeBatch(rangeContext, executor);
+                cursors = page.cursors;
+                range.setCursor(StringUtil.join(cursors, ","));
+            }
+
+            // 6、写入完成，更新分段同步点
+            range.setFinished(last);
+            result.setTableGroupId(tableGroupId);
+            result.setTargetTableGroupName(rangeContext.getTargetTableName());
+            synchronized (task) {
+                flush(task, result);
+            }
+
+            // 7、同步完成后通知插件做后置处理
+            if (null != page) {
+                pluginFactory.process(group.getPlugin(), rangeContext, ProcessEnum.AFTER);
+            }
+        }
+    }
+
+    private static int compareCursor(String value, String bound) {
+        return new BigDecimal(value).compareTo(new BigDecimal(bound));
+    }
+
+    /**
+     * 分段线程池，首次分段同步时创建，线程数有界，超出的分段排队等待
+     */
+    private ExecutorService getRangeExecutor() {
+        if (null == rangeExecutor) {
+            synchronized (this) {
+                if (null == rangeExecutor) {
+                    int size = Math.max(1, fullSyncConfig.getRangeThreadSize());
+                    rangeExecutor = new ThreadPoolExecutor(size, size, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new CustomizableThreadFactory("FullRangeExecutor-"));
+                    rangeExecutor.allowCoreThreadTimeOut(true);
+                }
+            }
+        }
+        return rangeExecutor;
+    }
+
+    @PreDestroy
+    private void destroy() {
+        if (null != rangeExecutor) {
+            rangeExecutor.shutdownNow();
+        }
+    }
+
+    private FullPluginContext copyContext(FullPluginContext context) {
+        FullPluginContext copy = newReaderContext(context);
+        copy.setTargetConnectorInstance(context.getTargetConnectorInstance());
+        copy.setTargetTableName(context.getTargetTableName());
+        copy.setEvent(context.getEvent());
+        copy.setBatchSize(context.getBatchSize());
+        copy.setPluginExtInfo(context.getPluginExtInfo());
+        copy.setForceUpdate(context.isForceUpdate());
+        copy.setTargetFields(context.getTargetFields());
+        copy.setTerminated(context.isTerminated());
+        copy.setBulkLoad(context.isBulkLoad());
+        return copy;
+    }
+
+    private FullPluginContext newReaderContext(FullPluginContext context) {
+        FullPluginContext readerContext = new FullPluginContext();
+        readerContext.setSourceConnectorInstance(context.getSourceConnectorInstance());
+        readerContext.setSourceTableName(context.getSourceTableName());
+        readerContext.setCommand(context.getCommand());
+        readerContext.setSourceTable(context.getSourceTable());
+        readerContext.setSupportedCursor(context.isSupportedCursor());
+        readerContext.setPageSize(context.getPageSize());
+        return readerContext;
+    }
+
+    /**
+     * 流式读取一页数据，逐行映射为目标字段，不保留整页的数据源结果集（插件需要数据源数据时才保留）
+     *
+     * @return 空页返回null
+     */
+    private FullPage readPage(FullPluginContext context, TableGroup group, Picker picker, List<String> primaryKeys, int pageIndex) {
+        return readPage(context, group, picker, primaryKeys, pageIndex, null);
+    }
+
+    /**
+     * 流式读取一页数据，主键超出上界的数据行不映射（分段同步时留给下一个分段）
+     *
+     * @param upper 主键上界，为空时不限制
+     * @return 空页返回null
+     */
+    private FullPage readPage(FullPluginContext context, TableGroup group, Picker picker, List<String> primaryKeys, int pageIndex, String upper) {
+        PageRowHandler handler = new PageRowHandler(picker, primaryKeys, null != group.getPlugin(), upper);
+        connectorFactory.readerStream(context.getSourceConnectorInstance(), context, handler);
+        if (handler.target.isEmpty()) {
+            return null;
+        }
+        boolean last = handler.exceeded || handler.rows < context.getPageSize();
+        return new FullPage(handler.source, handler.target, pageIndex + 1, handler.cursors, last);
+    }
+
+    private boolean handOff(BlockingQueue<FullPage> pages, FullPage page, AtomicBoolean closed) {
+        try {
+            while (!closed.get()) {
+                if (pages.offer(page, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
     @Override
     public Result writeBatch(PluginContext context, Executor executor) {
         final Result result = new Result();
@@ -221,7 +642,7 @@ public class ParserComponentImpl implements ParserComponent {
         int total = dataList.size();
         // 单次任务
         if (total <= batchSize) {
-            return connectorFactory.writer(context.getTargetConnectorInstance(), new WriterBatchConfig(tableName, event, command, fields, dataList, context.isForceUpdate()));
+            return write(context, new WriterBatchConfig(tableName, event, command, fields, dataList, context.isForceUpdate()));
         }
 
         // 批量任务, 拆分
@@ -243,7 +664,7 @@ public class ParserComponentImpl implements ParserComponent {
 
             executor.execute(() -> {
                 try {
-                    Result w = connectorFactory.writer(context.getTargetConnectorInstance(), new WriterBatchConfig(tableName, event, command, fields, data, context.isForceUpdate()));
+                    Result w = write(context, new WriterBatchConfig(tableName, event, command, fields, data, context.isForceUpdate()));
                     result.addSuccessData(w.getSuccessData());
                     result.addFailData(w.getFailData());
                     result.getError().append(w.getError());
@@ -255,13 +676,45 @@ public class ParserComponentImpl implements ParserComponent {
             });
         }
         try {
-            latch.await();
+            // 在共享线程池中等待时补偿工作线程，避免所有工作线程都在等待写入任务
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                @Override
+                public boolean block() throws InterruptedException {
+                    latch.await();
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return latch.getCount() == 0;
+                }
+            });
         } catch (InterruptedException e) {
             logger.error(e.getMessage());
         }
         return result;
     }
 
+    /**
+     * 写入目标源，批量导入失败时改用批量写入，并关闭当前表后续的批量导入
+     * <p>批量导入前会按目标字段类型转换行数据，因此传入行数据的副本，失败时用原始行数据批量写入，避免重复转换
+     * <p>紧凑行数据复制为紧凑行数据，批量导入时仍按下标读取字段值
+     */
+    private Result write(PluginContext context, WriterBatchConfig config) {
+        if (context instanceof FullPluginContext && ((FullPluginContext) context).isBulkLoad()) {
+            try {
+                List<Map> rows = new ArrayList<>(config.getData().size());
+                config.getData().forEach(row -> rows.add(row instanceof CompactRow ? ((CompactRow) row).copy() : new HashMap<>(row)));
+                WriterBatchConfig bulkConfig = new WriterBatchConfig(config.getTableName(), config.getEvent(), config.getCommand(), config.getFields(), rows, config.isForceUpdate());
+                return connectorFactory.writerBulk(context.getTargetConnectorInstance(), bulkConfig);
+            } catch (Exception e) {
+                ((FullPluginContext) context).setBulkLoad(false);
+                logger.warn("批量导入[{}]失败, 改用批量写入:{}", config.getTableName(), e.getMessage());
+            }
+        }
+        return connectorFactory.writer(context.getTargetConnectorInstance(), config);
+    }
+
     /**
      * 更新缓存
      *
@@ -286,4 +739,110 @@ public class ParserComponentImpl implements ParserComponent {
         return profileComponent.getConnector(connectorId).getConfig();
     }
 
+    /**
+     * 逐行接收数据源数据，映射为目标字段并记录最后一行的主键值
+     */
+    private static final class PageRowHandler implements RowHandler {
+
+        private final Picker picker;
+
+        private final List<String> primaryKeys;
+
+        private final boolean keepSource;
+
+        private final String upper;
+
+        private final List<Map> source;
+
+        private final List<Map> target = new ArrayList<>();
+
+        private List<String> columnNames;
+
+        private int[] indexes;
+
+        private int[] primaryKeyIndexes;
+
+        private Object[] cursors;
+
+        /**
+         * 读取的数据行数（包含超出上界的数据行）
+         */
+        private int rows;
+
+        /**
+         * 是否读到主键超出上界的数据行
+         */
+        private boolean exceeded;
+
+        PageRowHandler(Picker picker, List<String> primaryKeys, boolean keepSource, String upper) {
+            this.picker = picker;
+            this.primaryKeys = primaryKeys;
+            this.keepSource = keepSource;
+            this.upper = upper;
+            this.source = keepSource ? new ArrayList<>() : Collections.emptyList();
+        }
+
+        @Override
+        public void columns(List<String> columnNames) {
+            this.columnNames = columnNames;
+            this.indexes = picker.getSourceIndexes(columnNames);
+            this.primaryKeyIndexes = new int[primaryKeys.size()];
+            for (int i = 0; i < primaryKeyIndexes.length; i++) {
+                primaryKeyIndexes[i] = Picker.indexOf(columnNames, primaryKeys.get(i));
+            }
+        }
+
+        @Override
+        public void handle(Object[] row) {
+            rows++;
+            // 数据按主键升序读取，超出上界后的数据行都不处理
+            if (exceeded || (null != upper && compareCursor(String.valueOf(primaryKeyIndexes[0] < 0 ? null : row[primaryKeyIndexes[0]]), upper) > 0)) {
+                exceeded = true;
+                return;
+            }
+            target.add(picker.pickTargetData(indexes, row));
+            if (keepSource) {
+                Map<String, Object> map = new LinkedCaseInsensitiveMap<>(columnNames.size());
+                for (int i = 0; i < columnNames.size(); i++) {
+                    map.put(columnNames.get(i), row[i]);
+                }
+                source.add(map);
+            }
+            Object[] last = new Object[primaryKeyIndexes.length];
+            for (int i = 0; i < primaryKeyIndexes.length; i++) {
+                last[i] = primaryKeyIndexes[i] < 0 ? null : row[primaryKeyIndexes[i]];
+            }
+            cursors = last;
+        }
+    }
+
+    /**
+     * 流水线交接的分页数据
+     */
+    private static final class FullPage {
+
+        static final FullPage END = new FullPage(null, null, 0, null, true);
+
+        final List<Map> source;
+
+        final List<Map> target;
+
+        /**
+         * 写入完成后的同步点
+         */
+        final int pageIndex;
+
+        final Object[] cursors;
+
+        final boolean last;
+
+        FullPage(List<Map> source, List<Map> target, int pageIndex, Object[] cursors, boolean last) {
+            this.source = source;
+            this.target = target;
+            this.pageIndex = pageIndex;
+            this.cursors = cursors;
+            this.last = last;
+        }
+    }
+
 }
\ No newline at end of file
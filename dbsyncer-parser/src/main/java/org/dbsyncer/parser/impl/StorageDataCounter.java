@@ -0,0 +1,319 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.parser.impl;
+
+import org.dbsyncer.common.scheduled.ScheduledTaskJob;
+import org.dbsyncer.common.scheduled.ScheduledTaskService;
+import org.dbsyncer.common.util.CollectionUtils;
+import org.dbsyncer.common.util.StringUtil;
+import org.dbsyncer.parser.ProfileComponent;
+import org.dbsyncer.parser.model.Meta;
+import org.dbsyncer.sdk.constant.ConfigConstant;
+import org.dbsyncer.sdk.constant.ConnectorConstant;
+import org.dbsyncer.sdk.enums.StorageEnum;
+import org.dbsyncer.sdk.filter.Query;
+import org.dbsyncer.sdk.storage.StorageService;
+import org.dbsyncer.storage.enums.StorageDataStatusEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * 同步数据计数器（驱动 × 状态 × 事件）
+ * <p>写入同步数据时增量累加，定时随Meta持久化
+ * <p>启动后首次使用时从存储统计重建（Meta快照在两次持久化之间停机会落后于存储），任一统计失败时从Meta快照恢复，不覆盖快照
+ * <p>统计期间同一驱动的累加等待统计完成后执行，写入同步数据前先累加，保证统计结果不包含之后累加的数据
+ *
+ * @Author AE86
+ * @Version 1.0.0
+ * @Date 2024-06-16 20:12
+ */
+@Component
+public final class StorageDataCounter implements ScheduledTaskJob {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Resource
+    private ProfileComponent profileComponent;
+
+    @Resource
+    private StorageService storageService;
+
+    @Resource
+    private ScheduledTaskService scheduledTaskService;
+
+    private final Map<String, DataCount> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 驱动统计锁，同一驱动只统计一次
+     */
+    private final Map<String, Object> loadLocks = new ConcurrentHashMap<>();
+
+    private static final StorageDataStatusEnum[] STATUS = {StorageDataStatusEnum.FAIL, StorageDataStatusEnum.SUCCESS};
+
+    private static final String[] EVENTS = {ConnectorConstant.OPERTION_INSERT, ConnectorConstant.OPERTION_UPDATE, ConnectorConstant.OPERTION_DELETE};
+
+    /**
+     * 其他事件
+     */
+    private static final int OTHER_EVENT = EVENTS.length;
+
+    @PostConstruct
+    private void init() {
+        scheduledTaskService.start(10000, this);
+    }
+
+    /**
+     * 累加同步数据数
+     *
+     * @param metaId
+     * @param success
+     * @param event
+     * @param count
+     */
+    public void add(String metaId, boolean success, String event, long count) {
+        if (StringUtil.isBlank(metaId) || count == 0) {
+            return;
+        }
+        getDataCount(metaId).add(success ? 1 : 0, indexOfEvent(event), count);
+    }
+
+    /**
+     * 删除同步数据后扣减
+     *
+     * @param metaId
+     * @param success
+     * @param event
+     * @param count
+     */
+    public void remove(String metaId, boolean success, String event, long count) {
+        add(metaId, success, event, -count);
+    }
+
+    /**
+     * 清空同步数据后重置
+     *
+     * @param metaId
+     */
+    public void reset(String metaId) {
+        DataCount dataCount = new DataCount();
+        dataCount.changed.set(true);
+        counters.put(metaId, dataCount);
+    }
+
+    /**
+     * 按条件删除同步数据后，从存储统计重建
+     *
+     * @param metaId
+     */
+    public void rebuild(String metaId) {
+        synchronized (getLoadLock(metaId)) {
+            // 先移除，统计期间的累加等待统计完成
+            counters.remove(metaId);
+            counters.put(metaId, load(metaId));
+        }
+    }
+
+    public long getSuccess() {
+        return sum(c -> c.sumStatus(1));
+    }
+
+    public long getFail() {
+        return sum(c -> c.sumStatus(0));
+    }
+
+    public long getInsert() {
+        return sum(c -> c.sumEvent(0));
+    }
+
+    public long getUpdate() {
+        return sum(c -> c.sumEvent(1));
+    }
+
+    public long getDelete() {
+        return sum(c -> c.sumEvent(2));
+    }
+
+    /**
+     * 持久化有变更的计数
+     */
+    @Override
+    public void run() {
+        counters.forEach((metaId, dataCount) -> {
+            if (!dataCount.changed.compareAndSet(true, false)) {
+                return;
+            }
+            Meta meta = profileComponent.getMeta(metaId);
+            // 驱动已删除
+            if (null == meta) {
+                counters.remove(metaId);
+                loadLocks.remove(metaId);
+                return;
+            }
+            try {
+                meta.setDataCount(dataCount.snapshot());
+                profileComponent.editConfigModel(meta);
+            } catch (Exception e) {
+                dataCount.changed.set(true);
+                logger.error(e.getMessage(), e);
+            }
+        });
+    }
+
+    private long sum(ToLongFunction<DataCount> function) {
+        List<Meta> metaAll = profileComponent.getMetaAll();
+        if (CollectionUtils.isEmpty(metaAll)) {
+            return 0;
+        }
+        return metaAll.stream().mapToLong(meta -> function.applyAsLong(getDataCount(meta.getId()))).sum();
+    }
+
+    private DataCount getDataCount(String metaId) {
+        DataCount dataCount = counters.get(metaId);
+        if (null != dataCount) {
+            return dataCount;
+        }
+        // 统计存储需多次查询，不在computeIfAbsent中执行，避免阻塞同一哈希桶的其他驱动
+        synchronized (getLoadLock(metaId)) {
+            dataCount = counters.get(metaId);
+            if (null == dataCount) {
+                dataCount = load(metaId);
+                counters.put(metaId, dataCount);
+            }
+            return dataCount;
+        }
+    }
+
+    private Object getLoadLock(String metaId) {
+        return loadLocks.computeIfAbsent(metaId, k -> new Object());
+    }
+
+    private DataCount load(String metaId) {
+        Meta meta = profileComponent.getMeta(metaId);
+        DataCount dataCount = new DataCount();
+        try {
+            for (int s = 0; s < STATUS.length; s++) {
+                long total = count(metaId, STATUS[s], null);
+                long events = 0;
+                for (int e = 0; e < EVENTS.length; e++) {
+                    long c = count(metaId, STATUS[s], EVENTS[e]);
+                    dataCount.add(s, e, c);
+                    events += c;
+                }
+                dataCount.add(s, OTHER_EVENT, total - events);
+            }
+            // 全部统计成功才覆盖快照
+            dataCount.changed.set(null != meta);
+        } catch (Exception e) {
+            logger.error("统计同步数据失败，从快照恢复, metaId={}, {}", metaId, e.getMessage());
+            dataCount = new DataCount();
+            if (null != meta && !CollectionUtils.isEmpty(meta.getDataCount())) {
+                dataCount.restore(meta.getDataCount());
+            }
+            dataCount.changed.set(false);
+        }
+        return dataCount;
+    }
+
+    private long count(String metaId, StorageDataStatusEnum status, String event) {
+        Query query = new Query(1, 1);
+        query.setType(StorageEnum.DATA);
+        query.setMetaId(metaId);
+        query.addFilter(ConfigConstant.DATA_SUCCESS, status.getValue());
+        if (null != event) {
+            query.addFilter(ConfigConstant.DATA_EVENT, event);
+        }
+        // 存储繁忙或不可用时抛出异常，不返回0
+        return storageService.count(query);
+    }
+
+    private int indexOfEvent(String event) {
+        for (int i = 0; i < EVENTS.length; i++) {
+            if (StringUtil.equals(EVENTS[i], event)) {
+                return i;
+            }
+        }
+        return OTHER_EVENT;
+    }
+
+    static final class DataCount {
+
+        /**
+         * [状态][事件]
+         */
+        private final LongAdder[][] matrix = new LongAdder[STATUS.length][OTHER_EVENT + 1];
+
+        private final AtomicBoolean changed = new AtomicBoolean();
+
+        DataCount() {
+            for (LongAdder[] row : matrix) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = new LongAdder();
+                }
+            }
+        }
+
+        void add(int status, int event, long count) {
+            matrix[status][event].add(count);
+            changed.set(true);
+        }
+
+        long sumStatus(int status) {
+            long sum = 0;
+            for (LongAdder adder : matrix[status]) {
+                sum += adder.sum();
+            }
+            return sum;
+        }
+
+        long sumEvent(int event) {
+            long sum = 0;
+            for (LongAdder[] row : matrix) {
+                sum += row[event].sum();
+            }
+            return sum;
+        }
+
+        /**
+         * 快照，key=状态_事件
+         */
+        Map<String, Long> snapshot() {
+            Map<String, Long> map = new LinkedHashMap<>();
+            for (int s = 0; s < matrix.length; s++) {
+                for (int e = 0; e < matrix[s].length; e++) {
+                    map.put(key(s, e), matrix[s][e].sum());
+                }
+            }
+            return map;
+        }
+
+        void restore(Map snapshot) {
+            for (int s = 0; s < matrix.length; s++) {
+                for (int e = 0; e < matrix[s].length; e++) {
+                    // 反序列化后可能为Integer
+                    Object value = snapshot.get(key(s, e));
+                    if (value instanceof Number) {
+                        matrix[s][e].add(((Number) value).longValue());
+                    }
+                }
+            }
+        }
+
+        private String key(int status, int event) {
+            String name = event < EVENTS.length ? EVENTS[event] : "OTHER";
+            return STATUS[status].getValue() + StringUtil.UNDERLINE + name;
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.parser.model;
+
+import org.dbsyncer.common.util.StringUtil;
+import org.dbsyncer.sdk.constant.ConnectorConstant;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 按主键合并的行变更
+ * <p>INSERT > UPDATE 合并为 INSERT，INSERT > DELETE 相互抵消，UPDATE > UPDATE 保留最新值，UPDATE > DELETE 合并为 DELETE
+ * <p>DELETE > INSERT 拆分为 DELETE 和 INSERT，执行时先删除后新增
+ *
+ * @Author AE86
+ * @Version 1.0.0
+ * @Date 2024-06-16 21:30
+ */
+public final class CoalescedRow {
+
+    /**
+     * 合并前目标行是否存在（首个事件非新增）
+     */
+    private final boolean existed;
+
+    /**
+     * 合并期间是否出现过删除
+     */
+    private boolean deleted;
+
+    /**
+     * 合并后目标行是否存在（最后事件非删除）
+     */
+    private boolean exists;
+
+    /**
+     * 最新行数据
+     */
+    private Map row;
+
+    public CoalescedRow(String event, Map row) {
+        this.existed = !StringUtil.equals(ConnectorConstant.OPERTION_INSERT, event);
+        merge(event, row);
+    }
+
+    public static boolean isSupported(String event) {
+        return StringUtil.equals(ConnectorConstant.OPERTION_INSERT, event)
+                || StringUtil.equals(ConnectorConstant.OPERTION_UPDATE, event)
+                || StringUtil.equals(ConnectorConstant.OPERTION_DELETE, event);
+    }
+
+    public void merge(String event, Map row) {
+        if (StringUtil.equals(ConnectorConstant.OPERTION_DELETE, event)) {
+            this.deleted = true;
+            this.exists = false;
+            this.row = row;
+            return;
+        }
+        // 更新事件合并到最新行数据（兼容只包含变更列的行数据）
+        if (StringUtil.equals(ConnectorConstant.OPERTION_UPDATE, event) && exists && null != this.row) {
+            Map merged = new HashMap(this.row);
+            merged.putAll(row);
+            this.row = merged;
+            return;
+        }
+        this.exists = true;
+        this.row = row;
+    }
+
+    public boolean isDeleteRequired() {
+        return existed && (deleted || !exists);
+    }
+
+    public boolean isInsertRequired() {
+        return exists && (!existed || deleted);
+    }
+
+    public boolean isUpdateRequired() {
+        return exists && existed && !deleted;
+    }
+
+    public Map getRow() {
+        return row;
+    }
+}
@@ -29,6 +29,10 @@ public class Meta extends ConfigModel {
     private AtomicLong success;
     private AtomicLong fail;
     private Map<String, String> snapshot;
+    /**
+     * 同步数据计数快照，key=状态_事件
+     */
+    private Map<String, Long> dataCount = new LinkedHashMap<>();
     private long beginTime;
     private long endTime;
 
@@ -103,6 +107,14 @@ public class Meta extends ConfigModel {
         this.snapshot = snapshot;
     }
 
+    public Map<String, Long> getDataCount() {
+        return dataCount;
+    }
+
+    public void setDataCount(Map<String, Long> dataCount) {
+        this.dataCount = dataCount;
+    }
+
     public long getBeginTime() {
         return beginTime;
     }
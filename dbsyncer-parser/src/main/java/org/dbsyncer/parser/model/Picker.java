@@ -2,7 +2,9 @@ package org.dbsyncer.parser.model;
 
 import org.dbsyncer.common.util.CollectionUtils;
 import org.dbsyncer.common.util.StringUtil;
+import org.dbsyncer.sdk.model.CompactRow;
 import org.dbsyncer.sdk.model.Field;
+import org.dbsyncer.sdk.model.RowSchema;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -18,6 +20,19 @@ public class Picker {
     private List<Field> sourceFields = new ArrayList<>();
     private List<Field> targetFields = new ArrayList<>();
 
+    /**
+     * 目标行数据结构
+     */
+    private final RowSchema targetSchema;
+
+    /**
+     * 预先计算的映射关系：数据源字段下标 > 目标字段下标，同一目标字段映射多个数据源字段时合并值
+     */
+    private final int[] pickSourceIndexes;
+    private final String[] pickSourceNames;
+    private final int[] pickTargetIndexes;
+    private final boolean[] pickMerged;
+
     public Picker(List<FieldMapping> fieldMapping) {
         if (!CollectionUtils.isEmpty(fieldMapping)) {
             fieldMapping.forEach(m -> {
@@ -29,24 +44,118 @@ public class Picker {
                 }
             });
         }
+
+        this.targetSchema = new RowSchema(getTargetFields().stream().map(Field::getName).collect(Collectors.toList()));
+        final int sFieldSize = sourceFields.size();
+        final int tFieldSize = targetFields.size();
+        List<Integer> sourceIndexes = new ArrayList<>();
+        Field tField = null;
+        for (int k = 0; k < sFieldSize; k++) {
+            if (k < tFieldSize) {
+                tField = targetFields.get(k);
+            }
+            if (null != sourceFields.get(k) && null != tField) {
+                sourceIndexes.add(k);
+            }
+        }
+        final int size = sourceIndexes.size();
+        this.pickSourceIndexes = new int[size];
+        this.pickSourceNames = new String[size];
+        this.pickTargetIndexes = new int[size];
+        this.pickMerged = new boolean[size];
+        boolean[] mapped = new boolean[targetSchema.size()];
+        for (int i = 0; i < size; i++) {
+            int k = sourceIndexes.get(i);
+            Field sField = sourceFields.get(k);
+            int t = targetSchema.indexOf(targetFields.get(Math.min(k, tFieldSize - 1)).getName());
+            pickSourceIndexes[i] = k;
+            pickSourceNames[i] = sField.isUnmodifiabled() ? sField.getLabelName() : sField.getName();
+            pickTargetIndexes[i] = t;
+            pickMerged[i] = mapped[t];
+            mapped[t] = true;
+        }
     }
 
     public List<Map> pickTargetData(List<Map> source) {
         List<Map> targetMapList = new ArrayList<>();
         if (!CollectionUtils.isEmpty(source)) {
             final int size = source.size();
-            final int sFieldSize = sourceFields.size();
-            final int tFieldSize = targetFields.size();
-            Map<String, Object> target = null;
+            final int pickSize = pickSourceNames.length;
             for (int i = 0; i < size; i++) {
-                target = new HashMap<>();
-                exchange(sFieldSize, tFieldSize, sourceFields, targetFields, source.get(i), target);
+                Map row = source.get(i);
+                CompactRow target = new CompactRow(targetSchema);
+                for (int p = 0; p < pickSize; p++) {
+                    pick(target, p, row.get(pickSourceNames[p]));
+                }
                 targetMapList.add(target);
             }
         }
         return targetMapList;
     }
 
+    /**
+     * 按列名解析数据源字段在行数据中的下标，不存在返回-1
+     *
+     * @param columnNames 结果集列名
+     * @return
+     */
+    public int[] getSourceIndexes(List<String> columnNames) {
+        final int sFieldSize = sourceFields.size();
+        int[] indexes = new int[sFieldSize];
+        for (int k = 0; k < sFieldSize; k++) {
+            Field sField = sourceFields.get(k);
+            indexes[k] = null == sField ? -1 : indexOf(columnNames, sField.isUnmodifiabled() ? sField.getLabelName() : sField.getName());
+        }
+        return indexes;
+    }
+
+    /**
+     * 按数据源字段下标映射行数据（流式读取）
+     *
+     * @param indexes {@link #getSourceIndexes(List)}
+     * @param row 行数据
+     * @return
+     */
+    public Map pickTargetData(int[] indexes, Object[] row) {
+        CompactRow target = new CompactRow(targetSchema);
+        final int pickSize = pickSourceIndexes.length;
+        for (int p = 0; p < pickSize; p++) {
+            int index = indexes[pickSourceIndexes[p]];
+            pick(target, p, index < 0 ? null : row[index]);
+        }
+        return target;
+    }
+
+    private void pick(CompactRow target, int p, Object v) {
+        final int t = pickTargetIndexes[p];
+        // 映射值
+        if (!pickMerged[p]) {
+            target.set(t, v);
+            return;
+        }
+        // 合并值
+        target.set(t, new StringBuilder(StringUtil.toString(target.get(t))).append(StringUtil.toString(v)).toString());
+    }
+
+    /**
+     * 列名下标（优先精确匹配，其次忽略大小写）
+     *
+     * @param columnNames
+     * @param name
+     * @return
+     */
+    public static int indexOf(List<String> columnNames, String name) {
+        int index = columnNames.indexOf(name);
+        if (index < 0) {
+            for (int i = 0; i < columnNames.size(); i++) {
+                if (StringUtil.equalsIgnoreCase(columnNames.get(i), name)) {
+                    return i;
+                }
+            }
+        }
+        return index;
+    }
+
     public Map pickSourceData(Map target) {
         Map<String, Object> source = new HashMap<>();
         if (!CollectionUtils.isEmpty(target)) {
@@ -92,6 +201,15 @@ public class Picker {
         return Collections.unmodifiableList(fields);
     }
 
+    /**
+     * 目标行数据结构，写入目标源时按下标读取字段值
+     *
+     * @return
+     */
+    public RowSchema getTargetSchema() {
+        return targetSchema;
+    }
+
     public Map<String, Field> getTargetFieldMap() {
         return targetFields.stream().filter(f -> null != f).collect(Collectors.toMap(Field::getName, f -> f, (k1, k2) -> k1));
     }
@@ -1,5 +1,10 @@
 package org.dbsyncer.parser.model;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class Task {
 
     private String id;
@@ -12,6 +17,28 @@ public class Task {
 
     private Object[] cursors;
 
+    private List<TaskRange> ranges;
+
+    /**
+     * 表级并行同步：所属驱动任务
+     */
+    private Task parent;
+
+    /**
+     * 表级并行同步：同步的表映射关系
+     */
+    private String tableGroupId;
+
+    /**
+     * 表级并行同步：已完成的表映射关系
+     */
+    private final Set<String> completedTableGroups = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 表级并行同步：同步中的表任务
+     */
+    private final Map<String, Task> tableGroupTasks = new ConcurrentHashMap<>();
+
     private long beginTime;
 
     private long endTime;
@@ -29,7 +56,20 @@ public class Task {
     }
 
     public boolean isRunning() {
-        return StateEnum.RUNNING == state;
+        return StateEnum.RUNNING == state && (null == parent || parent.isRunning());
+    }
+
+    /**
+     * 创建表任务
+     *
+     * @param tableGroupId
+     * @return
+     */
+    public Task newTableGroupTask(String tableGroupId) {
+        Task task = new Task(id);
+        task.parent = this;
+        task.tableGroupId = tableGroupId;
+        return task;
     }
 
     public String getId() {
@@ -64,6 +104,30 @@ public class Task {
         this.cursors = cursors;
     }
 
+    public List<TaskRange> getRanges() {
+        return ranges;
+    }
+
+    public void setRanges(List<TaskRange> ranges) {
+        this.ranges = ranges;
+    }
+
+    public Task getParent() {
+        return parent;
+    }
+
+    public String getTableGroupId() {
+        return tableGroupId;
+    }
+
+    public Set<String> getCompletedTableGroups() {
+        return completedTableGroups;
+    }
+
+    public Map<String, Task> getTableGroupTasks() {
+        return tableGroupTasks;
+    }
+
     public long getBeginTime() {
         return beginTime;
     }
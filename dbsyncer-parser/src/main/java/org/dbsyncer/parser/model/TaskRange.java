@@ -0,0 +1,71 @@
+package org.dbsyncer.parser.model;
+
+/**
+ * 全量同步主键分段，按区间 (lower, upper] 读取，每个分段独立记录同步点
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2024/6/24 22:16
+ */
+public class TaskRange {
+
+    /**
+     * 起始主键（不包含），为空表示从第一行开始
+     */
+    private String lower;
+
+    /**
+     * 结束主键（包含），为空表示读到最后一行
+     */
+    private String upper;
+
+    /**
+     * 已写入的最后一行主键
+     */
+    private volatile String cursor;
+
+    /**
+     * 是否完成
+     */
+    private volatile boolean finished;
+
+    public TaskRange() {
+    }
+
+    public TaskRange(String lower, String upper) {
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    public String getLower() {
+        return lower;
+    }
+
+    public void setLower(String lower) {
+        this.lower = lower;
+    }
+
+    public String getUpper() {
+        return upper;
+    }
+
+    public void setUpper(String upper) {
+        this.upper = upper;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public void setFinished(boolean finished) {
+        this.finished = finished;
+    }
+}
@@ -1,6 +1,7 @@
 package org.dbsyncer.parser.model;
 
 import org.dbsyncer.parser.flush.BufferRequest;
+import org.dbsyncer.sdk.enums.ChangedEventTypeEnum;
 import org.dbsyncer.sdk.listener.ChangedEvent;
 import org.dbsyncer.sdk.model.ChangedOffset;
 
@@ -17,15 +18,40 @@ public class WriterRequest extends AbstractWriter implements BufferRequest {
 
     private ChangedOffset changedOffset;
 
+    /**
+     * 变更前行数据（部分连接器支持，用于判断是否修改主键，不溢写）
+     */
+    private transient Map beforeRow;
+
+    /**
+     * 是否修改了主键
+     */
+    private boolean primaryKeyChanged;
+
+    /**
+     * 增量点序号
+     */
+    private long sequence;
+
     public WriterRequest(String tableGroupId, ChangedEvent event) {
         setTypeEnum(event.getType());
         setTableGroupId(tableGroupId);
         setEvent(event.getEvent());
         setSql(event.getSql());
         this.row = event.getChangedRow();
+        this.beforeRow = event.getBeforeRow();
         this.changedOffset = event.getChangedOffset();
     }
 
+    public WriterRequest(String tableGroupId, ChangedEventTypeEnum typeEnum, String event, String sql, Map row, ChangedOffset changedOffset) {
+        setTypeEnum(typeEnum);
+        setTableGroupId(tableGroupId);
+        setEvent(event);
+        setSql(sql);
+        this.row = row;
+        this.changedOffset = changedOffset;
+    }
+
     @Override
     public String getMetaId() {
         return changedOffset.getMetaId();
@@ -39,4 +65,24 @@ public class WriterRequest extends AbstractWriter implements BufferRequest {
         return changedOffset;
     }
 
+    public Map getBeforeRow() {
+        return beforeRow;
+    }
+
+    public boolean isPrimaryKeyChanged() {
+        return primaryKeyChanged;
+    }
+
+    public void setPrimaryKeyChanged(boolean primaryKeyChanged) {
+        this.primaryKeyChanged = primaryKeyChanged;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
 }
\ No newline at end of file
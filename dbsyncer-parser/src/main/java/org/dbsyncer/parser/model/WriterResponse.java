@@ -4,6 +4,10 @@ import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.parser.flush.BufferResponse;
 import org.dbsyncer.sdk.model.ChangedOffset;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -19,11 +23,26 @@ public class WriterResponse extends AbstractWriter implements BufferResponse {
 
     private List<ChangedOffset> offsetList = new LinkedList<>();
 
+    /**
+     * 分区请求的增量点序号
+     */
+    private transient List<Long> sequenceList = new ArrayList<>();
+
     private transient boolean isMerged;
 
+    /**
+     * 按主键合并的变更数据（合并模式）
+     */
+    private transient Map<PrimaryKey, CoalescedRow> coalescedRows;
+
+    /**
+     * 分区请求数
+     */
+    private transient int requestCount;
+
     @Override
     public int getTaskSize() {
-        return dataList.size();
+        return isCoalesced() ? coalescedRows.size() : dataList.size();
     }
 
     @Override
@@ -35,10 +54,48 @@ public class WriterResponse extends AbstractWriter implements BufferResponse {
         dataList.add(data);
     }
 
+    public void coalesce(Object[] primaryKeyValues, String event, Map data) {
+        PrimaryKey key = new PrimaryKey(primaryKeyValues);
+        CoalescedRow row = coalescedRows.get(key);
+        if (null == row) {
+            coalescedRows.put(key, new CoalescedRow(event, data));
+            return;
+        }
+        row.merge(event, data);
+    }
+
+    public void enableCoalesce() {
+        coalescedRows = new LinkedHashMap<>();
+    }
+
+    public boolean isCoalesced() {
+        return coalescedRows != null;
+    }
+
+    public Collection<CoalescedRow> getCoalescedRows() {
+        return coalescedRows.values();
+    }
+
+    public void incrementRequestCount() {
+        requestCount++;
+    }
+
+    public int getRequestCount() {
+        return requestCount;
+    }
+
     public void addChangedOffset(ChangedOffset changedOffset) {
         offsetList.add(changedOffset);
     }
 
+    public void addSequence(long sequence) {
+        sequenceList.add(sequence);
+    }
+
+    public List<Long> getSequenceList() {
+        return sequenceList;
+    }
+
     public List<Map> getDataList() {
         return dataList;
     }
@@ -54,4 +111,32 @@ public class WriterResponse extends AbstractWriter implements BufferResponse {
     public void setMerged(boolean merged) {
         isMerged = merged;
     }
+
+    /**
+     * 合并主键，按值比较（byte[]等数组类型的主键值按内容比较）
+     */
+    private static final class PrimaryKey {
+
+        private final Object[] values;
+
+        private final int hash;
+
+        PrimaryKey(Object[] values) {
+            this.values = values;
+            this.hash = Arrays.deepHashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            return o instanceof PrimaryKey && Arrays.deepEquals(values, ((PrimaryKey) o).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
\ No newline at end of file
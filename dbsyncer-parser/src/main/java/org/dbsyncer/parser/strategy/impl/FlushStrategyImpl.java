@@ -11,6 +11,7 @@ import org.dbsyncer.parser.LogService;
 import org.dbsyncer.parser.LogType;
 import org.dbsyncer.parser.ProfileComponent;
 import org.dbsyncer.parser.flush.BufferActuator;
+import org.dbsyncer.parser.impl.StorageDataCounter;
 import org.dbsyncer.parser.model.Meta;
 import org.dbsyncer.parser.model.StorageRequest;
 import org.dbsyncer.parser.model.SystemConfig;
@@ -55,6 +56,9 @@ public final class FlushStrategyImpl implements FlushStrategy {
     @Resource
     private BufferActuator storageBufferActuator;
 
+    @Resource
+    private StorageDataCounter storageDataCounter;
+
     @Override
     public void flushFullData(String metaId, Result result, String event) {
         // 不记录全量数据, 只记录增量同步数据, 将异常记录到系统日志中
@@ -79,6 +83,8 @@ public final class FlushStrategyImpl implements FlushStrategy {
     }
 
     private void asyncWrite(String metaId, String tableGroupId, String targetTableGroupName, String event, boolean success, List<Map> data, String error) {
+        // 先累加再写入，首次累加时从存储统计，统计结果不包含本批数据
+        storageDataCounter.add(metaId, success, event, data.size());
         long now = Instant.now().toEpochMilli();
         data.forEach(r -> {
             Map<String, Object> row = new HashMap();
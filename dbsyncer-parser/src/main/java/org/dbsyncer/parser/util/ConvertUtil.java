@@ -1,8 +1,11 @@
 package org.dbsyncer.parser.util;
 
 import org.dbsyncer.common.util.CollectionUtils;
+import org.dbsyncer.parser.convert.Handler;
 import org.dbsyncer.parser.model.Convert;
 import org.dbsyncer.parser.enums.ConvertEnum;
+import org.dbsyncer.sdk.model.CompactRow;
+import org.dbsyncer.sdk.model.RowSchema;
 
 import java.util.List;
 import java.util.Map;
@@ -20,6 +23,27 @@ public abstract class ConvertUtil {
      */
     public static void convert(List<Convert> convert, List<Map> data) {
         if (!CollectionUtils.isEmpty(convert) && !CollectionUtils.isEmpty(data)) {
+            // 紧凑行数据，每批只解析一次转换字段下标和处理器
+            Map first = data.get(0);
+            if (first instanceof CompactRow) {
+                final RowSchema schema = ((CompactRow) first).getSchema();
+                final int size = convert.size();
+                final int[] indexes = new int[size];
+                final Handler[] handlers = new Handler[size];
+                for (int i = 0; i < size; i++) {
+                    Convert c = convert.get(i);
+                    indexes[i] = schema.indexOf(c.getName());
+                    handlers[i] = ConvertEnum.getHandler(c.getConvertCode());
+                }
+                data.forEach(row -> {
+                    if (CompactRow.isSchema(row, schema)) {
+                        convert(convert, indexes, handlers, (CompactRow) row);
+                        return;
+                    }
+                    convert(convert, row);
+                });
+                return;
+            }
             data.forEach(row -> convert(convert, row));
         }
     }
@@ -51,4 +75,18 @@ public abstract class ConvertUtil {
         }
     }
 
+    private static void convert(List<Convert> convert, int[] indexes, Handler[] handlers, CompactRow row) {
+        final int size = indexes.length;
+        Convert c = null;
+        for (int i = 0; i < size; i++) {
+            c = convert.get(i);
+            // 转换字段不在目标字段中，按字段名读写
+            if (indexes[i] < 0) {
+                row.put(c.getName(), handlers[i].handle(c.getArgs(), row.get(c.getName())));
+                continue;
+            }
+            row.set(indexes[i], handlers[i].handle(c.getArgs(), row.get(indexes[i])));
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+import org.dbsyncer.common.util.StringUtil;
+import org.dbsyncer.parser.model.Convert;
+import org.dbsyncer.parser.model.FieldMapping;
+import org.dbsyncer.parser.model.Picker;
+import org.dbsyncer.parser.util.ConvertUtil;
+import org.dbsyncer.sdk.model.CompactRow;
+import org.dbsyncer.sdk.model.Field;
+import org.dbsyncer.sdk.model.RowSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 写入链路行数据基准测试：映射字段 > 参数转换 > 生成批量写入参数
+ * <p>mapPath：每行HashMap，按字段名读写（原实现）
+ * <p>compactPath：紧凑行数据，按预先计算的下标读写
+ * <p>运行main方法，结果中的ops/s即每秒处理行数，gc.alloc.rate.norm为每行分配字节数
+ *
+ * @Author AE86
+ * @Version 1.0.0
+ * @Date 2024-06-28 22:10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PickerBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"10", "40"})
+    private int columns;
+
+    private Picker picker;
+
+    private List<Field> sourceFields;
+
+    private List<Field> targetFields;
+
+    private List<Convert> convert;
+
+    private List<Map> source;
+
+    @Setup
+    public void setup() {
+        sourceFields = new ArrayList<>();
+        targetFields = new ArrayList<>();
+        List<FieldMapping> fieldMapping = new ArrayList<>();
+        for (int i = 0; i < columns; i++) {
+            Field s = new Field("s_col_" + i, "VARCHAR", Types.VARCHAR);
+            Field t = new Field("t_col_" + i, "VARCHAR", Types.VARCHAR);
+            sourceFields.add(s);
+            targetFields.add(t);
+            fieldMapping.add(new FieldMapping(s, t));
+        }
+        picker = new Picker(fieldMapping);
+
+        Convert c = new Convert();
+        c.setName("t_col_1");
+        c.setConvertCode("APPEND");
+        c.setArgs("_x");
+        convert = Collections.singletonList(c);
+
+        source = new ArrayList<>(ROWS);
+        for (int r = 0; r < ROWS; r++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < columns; i++) {
+                row.put("s_col_" + i, "value_" + r + "_" + i);
+            }
+            source.add(row);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapPath(Blackhole bh) {
+        List<Map> target = new ArrayList<>(ROWS);
+        for (Map row : source) {
+            Map<String, Object> t = new HashMap<>();
+            exchange(row, t);
+            target.add(t);
+        }
+        for (Map row : target) {
+            ConvertUtil.convert(convert, row);
+        }
+        for (Map row : target) {
+            Object[] args = new Object[targetFields.size()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = row.get(targetFields.get(i).getName());
+            }
+            bh.consume(args);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void compactPath(Blackhole bh) {
+        List<Map> target = picker.pickTargetData(source);
+        ConvertUtil.convert(convert, target);
+        RowSchema schema = picker.getTargetSchema();
+        int[] indexes = schema.indexOf(targetFields);
+        for (Map row : target) {
+            CompactRow compactRow = (CompactRow) row;
+            Object[] args = new Object[indexes.length];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = compactRow.get(indexes[i]);
+            }
+            bh.consume(args);
+        }
+    }
+
+    /**
+     * 原按字段名映射实现
+     */
+    private void exchange(Map source, Map<String, Object> target) {
+        final int size = sourceFields.size();
+        for (int k = 0; k < size; k++) {
+            Object v = source.get(sourceFields.get(k).getName());
+            String tFieldName = targetFields.get(k).getName();
+            if (!target.containsKey(tFieldName)) {
+                target.put(tFieldName, v);
+                continue;
+            }
+            target.put(tFieldName, StringUtil.toString(target.get(tFieldName)) + StringUtil.toString(v));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PickerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -26,6 +26,11 @@ public final class FullPluginContext extends AbstractPluginContext implements Re
 
     private int pageSize;
 
+    /**
+     * 是否批量导入目标源（首次同步且目标表为空），导入失败后关闭
+     */
+    private volatile boolean bulkLoad;
+
     @Override
     public ModelEnum getModelEnum() {
         return ModelEnum.FULL;
@@ -84,4 +89,12 @@ public final class FullPluginContext extends AbstractPluginContext implements Re
     public void setPageSize(int pageSize) {
         this.pageSize = pageSize;
     }
+
+    public boolean isBulkLoad() {
+        return bulkLoad;
+    }
+
+    public void setBulkLoad(boolean bulkLoad) {
+        this.bulkLoad = bulkLoad;
+    }
 }
\ No newline at end of file
@@ -53,6 +53,21 @@ public class DatabaseConfig extends ConnectorConfig {
      */
     private long keepAlive = 60000;
 
+    /**
+     * 最小空闲连接数（后台预热）
+     */
+    private int minIdle = 2;
+
+    /**
+     * 获取连接最长等待时间(ms)
+     */
+    private long maxWait = 30000;
+
+    /**
+     * 每个连接缓存的预编译语句数（0-不缓存）
+     */
+    private int statementCacheSize = 32;
+
     /**
      * sql
      */
@@ -127,6 +142,30 @@ public class DatabaseConfig extends ConnectorConfig {
         this.keepAlive = keepAlive;
     }
 
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    public void setMinIdle(int minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    public long getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(long maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
     public List<SqlTable> getSqlTables() {
         return sqlTables;
     }
@@ -24,7 +24,7 @@ public class WriterBatchConfig {
      */
     private List<Field> fields;
     /**
-     * 集合数据
+     * 集合数据（全量、增量同步为紧凑行数据{@link org.dbsyncer.sdk.model.CompactRow}，可按下标读取字段值）
      */
     private List<Map> data;
     /**
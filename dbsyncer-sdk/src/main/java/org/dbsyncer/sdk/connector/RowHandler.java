@@ -0,0 +1,32 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.sdk.connector;
+
+import java.util.List;
+
+/**
+ * 流式读取数据行回调
+ *
+ * @Author AE86
+ * @Version 1.0.0
+ * @Date 2024-06-26 21:40
+ */
+public interface RowHandler {
+
+    /**
+     * 列名（读取数据行前回调一次）
+     *
+     * @param columnNames
+     */
+    default void columns(List<String> columnNames) {
+    }
+
+    /**
+     * 数据行（按列序号，与列名顺序一致）
+     *
+     * @param row
+     */
+    void handle(Object[] row);
+
+}
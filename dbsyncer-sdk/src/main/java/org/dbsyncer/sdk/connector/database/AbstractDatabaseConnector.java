@@ -10,6 +10,7 @@ import org.dbsyncer.sdk.SdkException;
 import org.dbsyncer.sdk.config.*;
 import org.dbsyncer.sdk.connector.AbstractConnector;
 import org.dbsyncer.sdk.connector.ConnectorInstance;
+import org.dbsyncer.sdk.connector.RowHandler;
 import org.dbsyncer.sdk.connector.database.ds.SimpleConnection;
 import org.dbsyncer.sdk.constant.ConnectorConstant;
 import org.dbsyncer.sdk.constant.DatabaseConstant;
@@ -25,6 +26,9 @@ import org.dbsyncer.sdk.util.PrimaryKeyUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.jdbc.support.rowset.ResultSetWrappingSqlRowSet;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.jdbc.support.rowset.SqlRowSetMetaData;
@@ -33,7 +37,9 @@ import org.springframework.util.Assert;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -144,6 +150,17 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
         }
     }
 
+    @Override
+    public Object[] getPrimaryKeyRange(DatabaseConnectorInstance connectorInstance, Map<String, String> command) {
+        String queryRangeSql = CollectionUtils.isEmpty(command) ? null : command.get(ConnectorConstant.OPERTION_QUERY_RANGE);
+        if (StringUtil.isBlank(queryRangeSql)) {
+            return null;
+        }
+
+        Object[] range = connectorInstance.execute(databaseTemplate -> databaseTemplate.query(queryRangeSql, (ResultSetExtractor<Object[]>) rs -> rs.next() ? new Object[]{rs.getObject(1), rs.getObject(2)} : null));
+        return null == range || null == range[0] || null == range[1] ? null : range;
+    }
+
     @Override
     public Result reader(DatabaseConnectorInstance connectorInstance, ReaderContext context) {
         // 1、获取select SQL
@@ -162,6 +179,41 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
         return new Result(list);
     }
 
+    @Override
+    public void readerStream(DatabaseConnectorInstance connectorInstance, ReaderContext context, RowHandler handler) {
+        // 1、获取select SQL
+        boolean supportedCursor = enableCursor() && context.isSupportedCursor() && null != context.getCursors();
+        String queryKey = supportedCursor ? ConnectorConstant.OPERTION_QUERY_CURSOR : ConnectorConstant.OPERTION_QUERY;
+        final String querySql = context.getCommand().get(queryKey);
+        Assert.hasText(querySql, "查询语句不能为空.");
+
+        // 2、设置参数
+        Collections.addAll(context.getArgs(), supportedCursor ? getPageCursorArgs(context) : getPageArgs(context));
+
+        // 3、执行SQL，按fetchSize逐批拉取，逐行回调
+        final int fetchSize = getStreamFetchSize(context);
+        connectorInstance.execute(databaseTemplate -> {
+            databaseTemplate.setFetchSize(fetchSize);
+            return databaseTemplate.query(querySql, (ResultSetExtractor<Object>) rs -> {
+                ResultSetMetaData metaData = rs.getMetaData();
+                final int columnCount = metaData.getColumnCount();
+                List<String> columnNames = new ArrayList<>(columnCount);
+                for (int i = 1; i <= columnCount; i++) {
+                    columnNames.add(JdbcUtils.lookupColumnName(metaData, i));
+                }
+                handler.columns(columnNames);
+                while (rs.next()) {
+                    Object[] row = new Object[columnCount];
+                    for (int i = 0; i < columnCount; i++) {
+                        row[i] = JdbcUtils.getResultSetValue(rs, i + 1);
+                    }
+                    handler.handle(row);
+                }
+                return null;
+            }, context.getArgs().toArray());
+        });
+    }
+
     @Override
     public Result writer(DatabaseConnectorInstance connectorInstance, WriterBatchConfig config) {
         String event = config.getEvent();
@@ -197,11 +249,12 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
             execute = connectorInstance.execute(databaseTemplate -> databaseTemplate.batchUpdate(executeSql, batchRows(fields, data)));
         } catch (Exception e) {
             if (config.isForceUpdate()) {
-                data.forEach(row -> forceUpdate(result, connectorInstance, config, pkFields, row));
+                forceUpdate(result, connectorInstance, config, pkFields, data);
             }
         }
 
         if (null != execute) {
+            List<Map> retry = new ArrayList<>();
             int batchSize = execute.length;
             for (int i = 0; i < batchSize; i++) {
                 if (execute[i] == 1 || execute[i] == -2) {
@@ -209,13 +262,99 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
                     continue;
                 }
                 if (config.isForceUpdate()) {
-                    forceUpdate(result, connectorInstance, config, pkFields, data.get(i));
+                    retry.add(data.get(i));
                 }
             }
+            if (!retry.isEmpty()) {
+                forceUpdate(result, connectorInstance, config, pkFields, retry);
+            }
         }
         return result;
     }
 
+    @Override
+    public boolean isSupportedBulkLoad(DatabaseConnectorInstance connectorInstance, String tableName) {
+        if (!enableBulkLoad(connectorInstance.getConfig())) {
+            return false;
+        }
+        // 目标表为空才批量导入，避免与已有数据冲突导致整批失败
+        final String sql = "SELECT 1 FROM " + buildQuotedTableName(connectorInstance.getConfig(), tableName);
+        try {
+            Boolean empty = connectorInstance.execute(databaseTemplate -> databaseTemplate.execute((ConnectionCallback<Boolean>) conn -> {
+                try (Statement statement = conn.createStatement()) {
+                    statement.setMaxRows(1);
+                    try (ResultSet rs = statement.executeQuery(sql)) {
+                        return !rs.next();
+                    }
+                }
+            }));
+            return Boolean.TRUE.equals(empty);
+        } catch (Exception e) {
+            logger.warn("检查目标表[{}]是否为空失败, 不使用批量导入:{}", tableName, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public Result writerBulk(DatabaseConnectorInstance connectorInstance, WriterBatchConfig config) {
+        List<Map> data = config.getData();
+        if (CollectionUtils.isEmpty(config.getFields()) || CollectionUtils.isEmpty(data)) {
+            throw new SdkException("writer fields or data can not be empty.");
+        }
+        final List<Field> fields = new ArrayList<>(config.getFields());
+        final String tableName = buildQuotedTableName(connectorInstance.getConfig(), config.getTableName());
+        final List<Object[]> rows = batchRows(fields, data);
+        connectorInstance.execute(databaseTemplate -> databaseTemplate.execute((ConnectionCallback<Integer>) conn -> {
+            try {
+                return bulkLoad(conn, tableName, fields, rows);
+            } catch (SQLException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new SQLException(e.getMessage(), e);
+            }
+        }));
+
+        Result result = new Result();
+        result.addSuccessData(data);
+        return result;
+    }
+
+    /**
+     * 是否启用批量导入（由具体数据库实现）
+     *
+     * @param config
+     * @return
+     */
+    protected boolean enableBulkLoad(DatabaseConfig config) {
+        return false;
+    }
+
+    /**
+     * 批量导入数据
+     *
+     * @param connection 连接
+     * @param tableName 带架构名的表名，例如：`test`.`my_user`
+     * @param fields 目标字段
+     * @param rows 按目标字段顺序排列的行数据
+     * @return 导入行数
+     * @throws Exception
+     */
+    protected int bulkLoad(Connection connection, String tableName, List<Field> fields, List<Object[]> rows) throws Exception {
+        throw new SdkException("Unsupported method.");
+    }
+
+    /**
+     * 带架构名和引号的表名
+     *
+     * @param config
+     * @param tableName
+     * @return
+     */
+    protected String buildQuotedTableName(DatabaseConfig config, String tableName) {
+        String quotation = buildSqlWithQuotation();
+        return new StringBuilder(getSchemaWithQuotation(config)).append(quotation).append(buildTableName(tableName)).append(quotation).toString();
+    }
+
     @Override
     public Map<String, String> getSourceCommand(CommandConfig commandConfig) {
         Table table = commandConfig.getTable();
@@ -247,6 +386,10 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
         }
         // 获取查询总数SQL
         map.put(ConnectorConstant.OPERTION_QUERY_COUNT, getQueryCountSql(commandConfig, primaryKeys, schema, queryFilterSql));
+        // 单一主键，获取主键范围SQL
+        if (primaryKeys.size() == 1) {
+            buildSql(map, SqlBuilderEnum.QUERY_RANGE, config);
+        }
         return map;
     }
 
@@ -276,6 +419,7 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
         buildSql(map, SqlBuilderEnum.UPDATE, config);
         buildSql(map, SqlBuilderEnum.DELETE, config);
         buildSql(map, SqlBuilderEnum.QUERY_EXIST, config);
+        buildSql(map, SqlBuilderEnum.UPSERT, config);
         return map;
     }
 
@@ -570,9 +714,25 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
     }
 
     private List<Object[]> batchRows(List<Field> fields, List<Map> data) {
+        // 紧凑行数据，每批只解析一次字段下标
+        Map first = data.get(0);
+        if (first instanceof CompactRow) {
+            final RowSchema schema = ((CompactRow) first).getSchema();
+            final int[] indexes = schema.indexOf(fields);
+            return data.stream().map(row -> CompactRow.isSchema(row, schema) ? batchRow(fields, indexes, (CompactRow) row) : batchRow(fields, row)).collect(Collectors.toList());
+        }
         return data.stream().map(row -> batchRow(fields, row)).collect(Collectors.toList());
     }
 
+    private Object[] batchRow(List<Field> fields, int[] indexes, CompactRow row) {
+        final int size = fields.size();
+        Object[] args = new Object[size];
+        for (int i = 0; i < size; i++) {
+            args[i] = indexes[i] >= 0 ? row.get(indexes[i]) : row.get(fields.get(i).getName());
+        }
+        return args;
+    }
+
     private Object[] batchRow(List<Field> fields, Map row) {
         final int size = fields.size();
         Object[] args = new Object[size];
@@ -582,6 +742,36 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
         return args;
     }
 
+    /**
+     * 覆盖写入失败的数据，优先整批执行插入或更新SQL，不支持或执行失败时逐行判断存在后更新或插入
+     */
+    private void forceUpdate(Result result, DatabaseConnectorInstance connectorInstance, WriterBatchConfig config, List<Field> pkFields,
+                             List<Map> data) {
+        if (!isUpdate(config.getEvent()) && !isInsert(config.getEvent())) {
+            return;
+        }
+        final String upsertSql = config.getCommand().get(ConnectorConstant.OPERTION_UPSERT);
+        if (StringUtil.isNotBlank(upsertSql)) {
+            try {
+                final List<Field> fields = new ArrayList<>(config.getFields());
+                int[] execute = connectorInstance.execute(databaseTemplate -> databaseTemplate.batchUpdate(upsertSql, batchRows(fields, data)));
+                logger.warn("{}表执行{}失败, 重新执行{}, {}条", config.getTableName(), config.getEvent(), ConnectorConstant.OPERTION_UPSERT, data.size());
+                for (int i = 0; i < data.size(); i++) {
+                    // MySQL更新返回2，值未变化返回0
+                    if (i < execute.length && execute[i] != Statement.EXECUTE_FAILED) {
+                        result.getSuccessData().add(data.get(i));
+                        continue;
+                    }
+                    forceUpdate(result, connectorInstance, config, pkFields, data.get(i));
+                }
+                return;
+            } catch (Exception e) {
+                logger.warn("{}表执行{}失败, 逐行覆盖写入:{}", config.getTableName(), ConnectorConstant.OPERTION_UPSERT, e.getMessage());
+            }
+        }
+        data.forEach(row -> forceUpdate(result, connectorInstance, config, pkFields, row));
+    }
+
     private void forceUpdate(Result result, DatabaseConnectorInstance connectorInstance, WriterBatchConfig config, List<Field> pkFields,
                              Map row) {
         if (isUpdate(config.getEvent()) || isInsert(config.getEvent())) {
@@ -678,6 +868,9 @@ public abstract class AbstractDatabaseConnector extends AbstractConnector implem
             result.addSuccessData(Collections.singletonList(successMap));
         } catch (Exception e) {
             result.getError().append(String.format("执行ddl: %s, 异常：%s", config.getSql(), e.getMessage()));
+        } finally {
+            // 表结构可能已变更，缓存的预编译语句失效
+            connectorInstance.evictStatements();
         }
         return result;
     }
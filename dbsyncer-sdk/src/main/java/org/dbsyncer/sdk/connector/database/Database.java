@@ -5,6 +5,7 @@ package org.dbsyncer.sdk.connector.database;
 
 import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.sdk.SdkException;
+import org.dbsyncer.sdk.config.SqlBuilderConfig;
 import org.dbsyncer.sdk.model.Field;
 import org.dbsyncer.sdk.model.PageSql;
 import org.dbsyncer.sdk.plugin.ReaderContext;
@@ -61,6 +62,16 @@ public interface Database {
         return primaryKeys;
     }
 
+    /**
+     * 获取插入或更新SQL（主键存在则更新，否则插入），参数顺序与插入SQL一致，返回空表示不支持
+     *
+     * @param config
+     * @return
+     */
+    default String buildUpsertSql(SqlBuilderConfig config) {
+        return StringUtil.EMPTY;
+    }
+
     /**
      * 获取分页SQL
      *
@@ -97,6 +108,16 @@ public interface Database {
         throw new SdkException("Unsupported override method getPageCursorArgs:" + getClass().getName());
     }
 
+    /**
+     * 流式读取的fetchSize（默认按分页大小，最多1000行一次网络往返）
+     *
+     * @param context
+     * @return
+     */
+    default int getStreamFetchSize(ReaderContext context) {
+        return Math.max(1, Math.min(context.getPageSize(), 1000));
+    }
+
     /**
      * 健康检查
      *
@@ -21,7 +21,7 @@ public class DatabaseConnectorInstance implements ConnectorInstance<DatabaseConf
 
     public DatabaseConnectorInstance(DatabaseConfig config) {
         this.config = config;
-        this.dataSource = new SimpleDataSource(config.getDriverClassName(), config.getUrl(), config.getUsername(), config.getPassword(), config.getMaxActive(), config.getKeepAlive());
+        this.dataSource = new SimpleDataSource(config.getDriverClassName(), config.getUrl(), config.getUsername(), config.getPassword(), config.getMaxActive(), config.getKeepAlive(), config.getMinIdle(), config.getMaxWait(), config.getStatementCacheSize());
     }
 
     public <T> T execute(HandleCallback callback) {
@@ -64,6 +64,17 @@ public class DatabaseConnectorInstance implements ConnectorInstance<DatabaseConf
         dataSource.close();
     }
 
+    /**
+     * 淘汰连接池中的缓存语句
+     */
+    public void evictStatements() {
+        dataSource.evictStatements();
+    }
+
+    public SimpleDataSource getDataSource() {
+        return dataSource;
+    }
+
     @Override
     public Object clone() throws CloneNotSupportedException {
         return super.clone();
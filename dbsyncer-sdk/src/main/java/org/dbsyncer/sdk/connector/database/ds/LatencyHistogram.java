@@ -0,0 +1,83 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.sdk.connector.database.ds;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时分布统计（固定区间，无锁累加）
+ *
+ * @Author AE86
+ * @Version 1.0.0
+ * @Date 2024-07-02 21:40
+ */
+public final class LatencyHistogram {
+
+    /**
+     * 区间上限(ms)，最后一个区间为超过最大上限
+     */
+    private static final long[] BOUNDS = {1, 5, 10, 50, 100, 500, 1000};
+
+    private final LongAdder[] counts = new LongAdder[BOUNDS.length + 1];
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        totalNanos.add(nanos);
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        for (int i = 0; i < BOUNDS.length; i++) {
+            if (millis < BOUNDS[i]) {
+                counts[i].increment();
+                return;
+            }
+        }
+        counts[BOUNDS.length].increment();
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder c : counts) {
+            count += c.sum();
+        }
+        return count;
+    }
+
+    /**
+     * 平均耗时(ms)
+     *
+     * @return
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.sum()) / 1000D / count;
+    }
+
+    /**
+     * 非空区间分布，例如：<1ms:1024 <5ms:3 >=1000ms:1
+     *
+     * @return
+     */
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < counts.length; i++) {
+            long c = counts[i].sum();
+            if (c == 0) {
+                continue;
+            }
+            if (buf.length() > 0) {
+                buf.append(" ");
+            }
+            buf.append(i < BOUNDS.length ? "<" + BOUNDS[i] : ">=" + BOUNDS[BOUNDS.length - 1]).append("ms:").append(c);
+        }
+        return buf.toString();
+    }
+}
@@ -21,6 +21,8 @@ import java.sql.Savepoint;
 import java.sql.Statement;
 import java.sql.Struct;
 import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Executor;
@@ -28,11 +30,38 @@ import java.util.concurrent.Executor;
 public class SimpleConnection implements Connection {
     private final Connection connection;
     private final long ACTIVE_TIME = Instant.now().toEpochMilli();
+    // 最近一次确认连接可用的时间（归还或检测通过）
+    private volatile long lastValidTime = ACTIVE_TIME;
     private boolean oracleDriver;
+    // 预编译语句缓存（按SQL，最近最少使用淘汰），连接同一时刻只被一个线程使用
+    private final Map<String, SimplePreparedStatement> statementCache;
+    private final StatementCacheCounter statementCacheCounter;
+    // 缓存语句对应的表结构版本，执行DDL后版本变化，缓存语句失效
+    private long statementVersion;
+    // 是否借出过，预热创建的连接借出前为false
+    private volatile boolean lent;
 
     public SimpleConnection(Connection connection, boolean oracleDriver) {
+        this(connection, oracleDriver, 0, null);
+    }
+
+    public SimpleConnection(Connection connection, boolean oracleDriver, int statementCacheSize, StatementCacheCounter statementCacheCounter) {
         this.connection = connection;
         this.oracleDriver = oracleDriver;
+        this.statementCacheCounter = null != statementCacheCounter ? statementCacheCounter : new StatementCacheCounter();
+        this.statementCache = statementCacheSize <= 0 ? null : new LinkedHashMap<String, SimplePreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SimplePreparedStatement> eldest) {
+                if (size() <= statementCacheSize) {
+                    return false;
+                }
+                // 借出中的语句归还时关闭
+                if (!eldest.getValue().isInUse()) {
+                    eldest.getValue().closeStatement();
+                }
+                return true;
+            }
+        };
     }
 
     @Override
@@ -42,7 +71,24 @@ public class SimpleConnection implements Connection {
 
     @Override
     public PreparedStatement prepareStatement(String sql) throws SQLException {
-        return connection.prepareStatement(sql);
+        if (null == statementCache) {
+            return connection.prepareStatement(sql);
+        }
+        SimplePreparedStatement statement = statementCache.get(sql);
+        if (null != statement && !statement.isInUse()) {
+            statementCacheCounter.hit();
+            statement.setInUse(true);
+            return statement;
+        }
+        statementCacheCounter.miss();
+        // 相同SQL的语句借出中，不缓存
+        if (null != statement) {
+            return connection.prepareStatement(sql);
+        }
+        statement = new SimplePreparedStatement(this, sql, connection.prepareStatement(sql));
+        statement.setInUse(true);
+        statementCache.put(sql, statement);
+        return statement;
     }
 
     @Override
@@ -77,9 +123,68 @@ public class SimpleConnection implements Connection {
 
     @Override
     public void close() {
+        if (null != statementCache) {
+            statementCache.values().forEach(SimplePreparedStatement::closeStatement);
+            statementCache.clear();
+        }
         DatabaseUtil.close(connection);
     }
 
+    /**
+     * 归还到连接池时调用，关闭未归还的缓存语句
+     */
+    public void clearStatements() {
+        if (null == statementCache) {
+            return;
+        }
+        Iterator<SimplePreparedStatement> iterator = statementCache.values().iterator();
+        while (iterator.hasNext()) {
+            SimplePreparedStatement statement = iterator.next();
+            if (statement.isInUse()) {
+                statement.setInUse(false);
+                statement.closeStatement();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 表结构版本变化时关闭全部缓存语句（DDL执行后，已预编译的语句可能引用旧的表结构）
+     *
+     * @param version 连接池当前表结构版本
+     */
+    public void evictStatements(long version) {
+        if (statementVersion == version) {
+            return;
+        }
+        statementVersion = version;
+        if (null != statementCache) {
+            statementCache.values().forEach(SimplePreparedStatement::closeStatement);
+            statementCache.clear();
+        }
+    }
+
+    /**
+     * 归还缓存语句
+     *
+     * @param statement
+     */
+    void releaseStatement(SimplePreparedStatement statement) {
+        statement.setInUse(false);
+        // 已淘汰或不可复用
+        if (!statement.isReusable() || statementCache.get(statement.getSql()) != statement) {
+            statementCache.remove(statement.getSql(), statement);
+            statement.closeStatement();
+            return;
+        }
+        try {
+            statement.reset();
+        } catch (SQLException e) {
+            statementCache.remove(statement.getSql(), statement);
+            statement.closeStatement();
+        }
+    }
+
     @Override
     public boolean isClosed() throws SQLException {
         return connection.isClosed();
@@ -318,6 +423,22 @@ public class SimpleConnection implements Connection {
         return ACTIVE_TIME;
     }
 
+    public long getLastValidTime() {
+        return lastValidTime;
+    }
+
+    public void setLastValidTime(long lastValidTime) {
+        this.lastValidTime = lastValidTime;
+    }
+
+    public boolean isLent() {
+        return lent;
+    }
+
+    public void setLent(boolean lent) {
+        this.lent = lent;
+    }
+
     public boolean isOracleDriver() {
         return oracleDriver;
     }
@@ -9,78 +9,116 @@ import org.dbsyncer.sdk.util.DatabaseUtil;
 
 import javax.sql.DataSource;
 import java.io.PrintWriter;
+import java.lang.ref.WeakReference;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.time.Instant;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
+/**
+ * 数据库连接池
+ * <p>1. 借出、归还连接无锁：空闲连接存放在无锁双端队列（后进先出），等待中的线程通过SynchronousQueue直接交接归还或新建的连接
+ * <p>2. 新建连接由后台线程异步创建，不阻塞借出路径；空闲连接不足最小空闲数时后台预热
+ * <p>3. 只检测长时间未使用的连接，后台定时回收过期连接和检测空闲连接
+ * <p>4. 连接数达到上限时最多等待maxWait，超时抛出异常
+ */
 public class SimpleDataSource implements DataSource, AutoCloseable {
 
-    //从缓存队列获取连接次数
-    private final int MAX_PULL_TIME = 20;
-    // 有效检测时间（秒），默认10s
-    private final int VALID_TIMEOUT_SECONDS = 10;
-    // 获取连接锁
-    private final ReentrantLock lock = new ReentrantLock();
+    // 有效检测时间（秒）
+    private static final int VALID_TIMEOUT_SECONDS = 3;
+    // 连接超过该时间(ms)未使用，借出前检测是否有效
+    private static final long VALID_IDLE_MILLIS = 30000;
+    // 后台维护间隔(ms)
+    private static final long HOUSEKEEPING_PERIOD_MILLIS = 5000;
+    // 等待交接连接的单次超时(ms)，超时后重新检查空闲队列
+    private static final long POLL_MILLIS = 10;
+    // 后台维护线程（所有连接池共用）
+    private static final ScheduledExecutorService HOUSEKEEPER = Executors.newSingleThreadScheduledExecutor(newThreadFactory("SimpleDataSource-housekeeper"));
+    // 异步创建连接线程（所有连接池共用）
+    private static final ExecutorService CREATOR = Executors.newCachedThreadPool(newThreadFactory("SimpleDataSource-creator"));
+
     private String driverClassName;
     private String url;
     private String username;
     private String password;
-    // 连接池队列
-    private BlockingQueue<SimpleConnection> pool;
-    // 活跃连接数
-    private AtomicInteger activeNum;
+    // 空闲连接
+    private final Deque<SimpleConnection> idle = new ConcurrentLinkedDeque<>();
+    // 连接交接
+    private final SynchronousQueue<SimpleConnection> handoff = new SynchronousQueue<>();
+    // 连接总数（含创建中）
+    private final AtomicInteger totalNum = new AtomicInteger();
+    // 借出连接数
+    private final AtomicInteger activeNum = new AtomicInteger();
+    // 创建中的连接数
+    private final AtomicInteger creatingNum = new AtomicInteger();
+    // 等待连接的线程数
+    private final AtomicInteger pendingNum = new AtomicInteger();
+    // 获取连接耗时分布
+    private final LatencyHistogram borrowHistogram = new LatencyHistogram();
+    // 语句缓存命中统计
+    private final StatementCacheCounter statementCacheCounter = new StatementCacheCounter();
+    // 表结构版本，执行DDL后递增，连接借出时淘汰旧版本的缓存语句
+    private final AtomicLong statementVersion = new AtomicLong();
     // 最大连接数
     private int maxActive;
     // 连接有效期(ms)
     private long keepAlive;
+    // 最小空闲连接数
+    private int minIdle;
+    // 获取连接最长等待时间(ms)
+    private long maxWait;
+    // 每个连接缓存的预编译语句数
+    private int statementCacheSize;
     // 是否是Oracle连接
     private boolean oracleDriver;
+    // 最近一次创建连接是否成功，成功后才后台预热，避免错误配置或数据库不可用时反复重连
+    private volatile boolean warmed;
+    // 最近一次创建连接失败
+    private volatile Exception createError;
+    private volatile long createErrorTime;
+    private volatile boolean closed;
+    private final ScheduledFuture<?> housekeeping;
 
     public SimpleDataSource(String driverClassName, String url, String username, String password, int maxActive, long keepAlive) {
+        this(driverClassName, url, username, password, maxActive, keepAlive, 0, 30000, 0);
+    }
+
+    public SimpleDataSource(String driverClassName, String url, String username, String password, int maxActive, long keepAlive, int minIdle, long maxWait,
+                            int statementCacheSize) {
         this.driverClassName = driverClassName;
         this.url = url;
         this.username = username;
         this.password = password;
         this.maxActive = maxActive;
         this.keepAlive = keepAlive;
+        this.minIdle = Math.min(Math.max(0, minIdle), maxActive);
+        this.maxWait = maxWait;
+        this.statementCacheSize = statementCacheSize;
         oracleDriver = StringUtil.equals(driverClassName, "oracle.jdbc.OracleDriver");
-        activeNum = new AtomicInteger(0);
-        pool = new LinkedBlockingQueue<>(maxActive);
+        Housekeeper housekeeper = new Housekeeper(this);
+        housekeeping = HOUSEKEEPER.scheduleWithFixedDelay(housekeeper, HOUSEKEEPING_PERIOD_MILLIS, HOUSEKEEPING_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+        housekeeper.future = housekeeping;
     }
 
     @Override
     public Connection getConnection() throws SQLException {
+        final long start = System.nanoTime();
         try {
-            lock.lock();
-            //如果当前连接数大于或等于最大连接数
-            if (activeNum.get() >= maxActive) {
-                throw new SdkException(String.format("数据库连接数超过上限%d，url=%s", maxActive, url));
-            }
-            int time = MAX_PULL_TIME;
-            while (time-- > 0){
-                SimpleConnection poll = pool.poll();
-                if (null == poll) {
-                    return createConnection();
-                }
-                // 连接无效或过期, 直接关闭连接
-                if (!poll.isValid(VALID_TIMEOUT_SECONDS) || isExpired(poll)) {
-                    closeQuietly(poll);
-                    continue;
-                }
-                // 返回缓存连接
-                return poll;
-            }
-
-            // 兜底方案，保证一定能获取连接
-            return createConnection();
+            return borrow(start);
         } finally {
-            lock.unlock();
+            borrowHistogram.record(System.nanoTime() - start);
         }
     }
 
@@ -126,30 +164,257 @@ public class SimpleDataSource implements DataSource, AutoCloseable {
 
     @Override
     public void close() {
-        pool.forEach(c -> c.close());
+        closed = true;
+        housekeeping.cancel(false);
+        drainIdle();
     }
 
     public void close(Connection connection) {
         if (connection != null && connection instanceof SimpleConnection) {
             SimpleConnection simpleConnection = (SimpleConnection) connection;
+            activeNum.decrementAndGet();
             // 连接过期
-            if (isExpired(simpleConnection)) {
+            if (closed || isExpired(simpleConnection)) {
                 closeQuietly(simpleConnection);
+                fill();
                 return;
             }
 
             // 回收连接
-            pool.offer(simpleConnection);
+            simpleConnection.clearStatements();
+            simpleConnection.evictStatements(statementVersion.get());
+            simpleConnection.setLastValidTime(Instant.now().toEpochMilli());
+            recycle(simpleConnection);
+        }
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getMaxActive() {
+        return maxActive;
+    }
+
+    public int getActiveNum() {
+        return activeNum.get();
+    }
+
+    public int getIdleNum() {
+        return Math.max(0, totalNum.get() - activeNum.get() - creatingNum.get());
+    }
+
+    public int getPendingNum() {
+        return pendingNum.get();
+    }
+
+    public LatencyHistogram getBorrowHistogram() {
+        return borrowHistogram;
+    }
+
+    public StatementCacheCounter getStatementCacheCounter() {
+        return statementCacheCounter;
+    }
+
+    /**
+     * 淘汰所有连接的缓存语句，执行DDL后调用
+     * <p>空闲连接在下次借出时淘汰，借出中的连接在归还时淘汰
+     */
+    public void evictStatements() {
+        statementVersion.incrementAndGet();
+    }
+
+    private SimpleConnection borrow(long start) {
+        // 1、空闲连接
+        SimpleConnection connection = pollIdle();
+        if (null != connection) {
+            return lend(connection);
+        }
+
+        // 2、等待归还或新建连接
+        pendingNum.incrementAndGet();
+        try {
+            final long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWait);
+            for (; ; ) {
+                if (closed) {
+                    throw new SdkException(String.format("数据库连接池已关闭，url=%s", url));
+                }
+                // 等待期间创建连接失败
+                Exception error = createError;
+                if (null != error && createErrorTime >= start && creatingNum.get() == 0) {
+                    throw new SdkException(error);
+                }
+                fill();
+                connection = pollIdle();
+                if (null == connection) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new SdkException(String.format("获取数据库连接超时%dms，连接数上限%d，活跃连接数%d，url=%s", maxWait, maxActive, activeNum.get(), url));
+                    }
+                    connection = check(handoff.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(POLL_MILLIS)), TimeUnit.NANOSECONDS));
+                }
+                if (null != connection) {
+                    return lend(connection);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SdkException(e);
+        } finally {
+            pendingNum.decrementAndGet();
+        }
+    }
+
+    private SimpleConnection lend(SimpleConnection connection) {
+        connection.evictStatements(statementVersion.get());
+        connection.setLent(true);
+        activeNum.incrementAndGet();
+        return connection;
+    }
+
+    private SimpleConnection pollIdle() {
+        SimpleConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            connection = check(connection);
+            if (null != connection) {
+                return connection;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 检测连接，过期或长时间未使用且无效时关闭连接
+     *
+     * @param connection
+     * @return 可用连接，否则返回null
+     */
+    private SimpleConnection check(SimpleConnection connection) {
+        if (null == connection) {
+            return null;
+        }
+        if (isExpired(connection) || (isIdleTooLong(connection) && !isValid(connection))) {
+            closeQuietly(connection);
+            return null;
+        }
+        return connection;
+    }
+
+    private void recycle(SimpleConnection connection) {
+        // 优先交给等待中的线程
+        if (pendingNum.get() > 0 && handoff.offer(connection)) {
+            return;
         }
+        idle.offerFirst(connection);
+    }
+
+    /**
+     * 补充连接：等待线程数或最小空闲数不足时，异步创建连接
+     */
+    private void fill() {
+        for (; ; ) {
+            int total = totalNum.get();
+            int wanted = Math.max(pendingNum.get(), warmed ? minIdle - getIdleNum() : 0);
+            if (closed || total >= maxActive || creatingNum.get() >= wanted) {
+                return;
+            }
+            if (totalNum.compareAndSet(total, total + 1)) {
+                creatingNum.incrementAndGet();
+                CREATOR.execute(this::createAsync);
+            }
+        }
+    }
+
+    private void createAsync() {
+        SimpleConnection connection;
+        try {
+            connection = createConnection();
+        } catch (Exception e) {
+            createError = e;
+            createErrorTime = System.nanoTime();
+            creatingNum.decrementAndGet();
+            totalNum.decrementAndGet();
+            // 预热中途失败，停止预热，关闭未借出的预热连接，等待下次成功借出后重新预热
+            if (warmed) {
+                warmed = false;
+                closeUnlent();
+            }
+            return;
+        }
+        createError = null;
+        warmed = true;
+        creatingNum.decrementAndGet();
+        if (closed) {
+            closeQuietly(connection);
+            return;
+        }
+        recycle(connection);
+        // 放入空闲队列前连接池已关闭
+        if (closed) {
+            drainIdle();
+        }
+    }
+
+    private void drainIdle() {
+        SimpleConnection c;
+        while ((c = idle.pollFirst()) != null) {
+            closeQuietly(c);
+        }
+    }
+
+    /**
+     * 关闭从未借出的空闲连接
+     */
+    private void closeUnlent() {
+        for (SimpleConnection connection : idle) {
+            if (!connection.isLent() && idle.remove(connection)) {
+                closeQuietly(connection);
+            }
+        }
+    }
+
+    /**
+     * 后台维护：回收过期连接，检测长时间未使用的连接，预热最小空闲连接
+     */
+    private void housekeeping() {
+        for (SimpleConnection connection : idle) {
+            if (isExpired(connection)) {
+                if (idle.remove(connection)) {
+                    closeQuietly(connection);
+                }
+                continue;
+            }
+            if (isIdleTooLong(connection) && idle.remove(connection)) {
+                if (isValid(connection)) {
+                    connection.setLastValidTime(Instant.now().toEpochMilli());
+                    idle.offerLast(connection);
+                    continue;
+                }
+                closeQuietly(connection);
+            }
+        }
+        fill();
     }
 
     private void closeQuietly(SimpleConnection connection) {
         if (connection != null) {
             connection.close();
-            activeNum.decrementAndGet();
+            totalNum.decrementAndGet();
         }
     }
 
+    private boolean isValid(SimpleConnection connection) {
+        try {
+            return connection.isValid(VALID_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isIdleTooLong(SimpleConnection connection) {
+        return connection.getLastValidTime() + VALID_IDLE_MILLIS < Instant.now().toEpochMilli();
+    }
+
     /**
      * 连接是否过期
      *
@@ -166,15 +431,47 @@ public class SimpleDataSource implements DataSource, AutoCloseable {
      * @return
      * @throws SQLException
      */
-    private SimpleConnection createConnection() {
-        SimpleConnection simpleConnection = null;
-        try {
-            simpleConnection = new SimpleConnection(DatabaseUtil.getConnection(driverClassName, url, username, password), oracleDriver);
-            activeNum.incrementAndGet();
-        } catch (SQLException e) {
-            throw new SdkException(e);
+    private SimpleConnection createConnection() throws SQLException {
+        return new SimpleConnection(DatabaseUtil.getConnection(driverClassName, url, username, password), oracleDriver, statementCacheSize, statementCacheCounter);
+    }
+
+    private static ThreadFactory newThreadFactory(String prefix) {
+        final AtomicInteger number = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + number.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * 后台维护任务，弱引用连接池，连接池未关闭就被回收时自动取消
+     */
+    private static final class Housekeeper implements Runnable {
+
+        private final WeakReference<SimpleDataSource> reference;
+
+        private volatile ScheduledFuture<?> future;
+
+        Housekeeper(SimpleDataSource dataSource) {
+            this.reference = new WeakReference<>(dataSource);
+        }
+
+        @Override
+        public void run() {
+            SimpleDataSource dataSource = reference.get();
+            if (null == dataSource) {
+                if (null != future) {
+                    future.cancel(false);
+                }
+                return;
+            }
+            try {
+                dataSource.housekeeping();
+            } catch (Exception e) {
+                // 下次继续维护
+            }
         }
-        return simpleConnection;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.sdk.connector.database.ds;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 语句缓存命中统计（连接池内所有连接共用）
+ *
+ * @Author AE86
+ * @Version 1.0.0
+ * @Date 2024-07-04 21:20
+ */
+public final class StatementCacheCounter {
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    public void hit() {
+        hits.increment();
+    }
+
+    public void miss() {
+        misses.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.sdk.connector.database.sqlbuilder;
+
+import org.dbsyncer.sdk.config.SqlBuilderConfig;
+import org.dbsyncer.sdk.connector.database.AbstractSqlBuilder;
+import org.dbsyncer.sdk.connector.database.Database;
+import org.dbsyncer.sdk.model.Field;
+
+import java.util.List;
+
+/**
+ * 插入或更新SQL（Oracle、SqlServer）
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2024/7/6 20:35
+ */
+public class SqlBuilderMerge extends AbstractSqlBuilder {
+
+    /**
+     * 数据源子查询的FROM子句，例如Oracle：FROM DUAL
+     */
+    private final String from;
+
+    /**
+     * 语句结束符，例如SqlServer：;
+     */
+    private final String end;
+
+    public SqlBuilderMerge(String from, String end) {
+        this.from = from;
+        this.end = end;
+    }
+
+    @Override
+    public String buildSql(SqlBuilderConfig config) {
+        Database database = config.getDatabase();
+        String quotation = database.buildSqlWithQuotation();
+        List<Field> fields = config.getFields();
+        List<String> primaryKeys = database.buildPrimaryKeys(config.getPrimaryKeys());
+
+        StringBuilder using = new StringBuilder();
+        StringBuilder set = new StringBuilder();
+        StringBuilder fs = new StringBuilder();
+        StringBuilder vs = new StringBuilder();
+        int size = fields.size();
+        for (int i = 0; i < size; i++) {
+            Field f = fields.get(i);
+            String name = quotation + database.buildFieldName(f) + quotation;
+            if (i > 0) {
+                using.append(", ");
+                fs.append(", ");
+                vs.append(", ");
+            }
+            using.append("? ").append(name);
+            fs.append(name);
+            vs.append("S.").append(name);
+            if (!f.isPk()) {
+                set.append(set.length() > 0 ? ", " : "").append("T.").append(name).append("=S.").append(name);
+            }
+        }
+        StringBuilder on = new StringBuilder();
+        for (String pk : primaryKeys) {
+            String name = quotation + pk + quotation;
+            on.append(on.length() > 0 ? " AND " : "").append("T.").append(name).append("=S.").append(name);
+        }
+
+        // MERGE INTO "USER" T USING (SELECT ? "ID", ? "USERNAME" FROM DUAL) S ON (T."ID"=S."ID")
+        // WHEN MATCHED THEN UPDATE SET T."USERNAME"=S."USERNAME" WHEN NOT MATCHED THEN INSERT ("ID", "USERNAME") VALUES (S."ID", S."USERNAME")
+        StringBuilder sql = new StringBuilder(database.generateUniqueCode());
+        sql.append("MERGE INTO ").append(config.getSchema());
+        sql.append(quotation).append(database.buildTableName(config.getTableName())).append(quotation);
+        sql.append(" T USING (SELECT ").append(using).append(from).append(") S ON (").append(on).append(")");
+        if (set.length() > 0) {
+            sql.append(" WHEN MATCHED THEN UPDATE SET ").append(set);
+        }
+        sql.append(" WHEN NOT MATCHED THEN INSERT (").append(fs).append(") VALUES (").append(vs).append(")");
+        sql.append(end);
+        return sql.toString();
+    }
+
+}
@@ -0,0 +1,44 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.sdk.connector.database.sqlbuilder;
+
+import org.dbsyncer.common.util.StringUtil;
+import org.dbsyncer.sdk.config.SqlBuilderConfig;
+import org.dbsyncer.sdk.connector.database.Database;
+
+import java.util.List;
+
+/**
+ * 查询单一主键最小值和最大值，用于按主键分段同步
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2024/7/21 16:20
+ */
+public class SqlBuilderQueryRange extends SqlBuilderQuery {
+
+    @Override
+    public String buildSql(SqlBuilderConfig config) {
+        Database database = config.getDatabase();
+        String quotation = database.buildSqlWithQuotation();
+        String tableName = config.getTableName();
+        String schema = config.getSchema();
+        String queryFilter = config.getQueryFilter();
+        List<String> primaryKeys = database.buildPrimaryKeys(config.getPrimaryKeys());
+        String primaryKey = new StringBuilder(quotation).append(primaryKeys.get(0)).append(quotation).toString();
+
+        // SELECT MIN("ID"), MAX("ID") FROM "USER"
+        StringBuilder sql = new StringBuilder();
+        sql.append("SELECT MIN(").append(primaryKey).append("), MAX(").append(primaryKey).append(") FROM ");
+        sql.append(schema);
+        sql.append(quotation);
+        sql.append(database.buildTableName(tableName));
+        sql.append(quotation);
+        if (StringUtil.isNotBlank(queryFilter)) {
+            sql.append(queryFilter);
+        }
+        return sql.toString();
+    }
+
+}
@@ -0,0 +1,23 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.sdk.connector.database.sqlbuilder;
+
+import org.dbsyncer.sdk.config.SqlBuilderConfig;
+import org.dbsyncer.sdk.connector.database.AbstractSqlBuilder;
+
+/**
+ * 插入或更新SQL，由数据库方言实现{@link org.dbsyncer.sdk.connector.database.Database#buildUpsertSql(SqlBuilderConfig)}
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2024/7/6 20:12
+ */
+public class SqlBuilderUpsert extends AbstractSqlBuilder {
+
+    @Override
+    public String buildSql(SqlBuilderConfig config) {
+        return config.getDatabase().buildUpsertSql(config);
+    }
+
+}
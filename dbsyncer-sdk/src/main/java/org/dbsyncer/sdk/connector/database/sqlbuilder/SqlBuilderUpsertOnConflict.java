@@ -0,0 +1,51 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.sdk.connector.database.sqlbuilder;
+
+import org.dbsyncer.sdk.config.SqlBuilderConfig;
+import org.dbsyncer.sdk.connector.database.Database;
+import org.dbsyncer.sdk.model.Field;
+import org.dbsyncer.sdk.util.PrimaryKeyUtil;
+
+import java.util.List;
+
+/**
+ * 插入或更新SQL（PostgreSQL、SQLite）
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2024/7/6 20:26
+ */
+public class SqlBuilderUpsertOnConflict extends SqlBuilderInsert {
+
+    @Override
+    public String buildSql(SqlBuilderConfig config) {
+        Database database = config.getDatabase();
+        String quotation = database.buildSqlWithQuotation();
+        List<Field> fields = config.getFields();
+        List<String> primaryKeys = database.buildPrimaryKeys(config.getPrimaryKeys());
+
+        // INSERT INTO "USER"("ID","USERNAME","AGE") VALUES (?,?,?) ON CONFLICT ("ID") DO UPDATE SET "USERNAME"=EXCLUDED."USERNAME","AGE"=EXCLUDED."AGE"
+        StringBuilder sql = new StringBuilder(super.buildSql(config));
+        sql.append(" ON CONFLICT (");
+        PrimaryKeyUtil.buildSql(sql, primaryKeys, quotation, ",", "", true);
+        sql.append(")");
+        boolean first = true;
+        for (Field f : fields) {
+            if (f.isPk()) {
+                continue;
+            }
+            sql.append(first ? " DO UPDATE SET " : ",");
+            String name = quotation + database.buildFieldName(f) + quotation;
+            sql.append(name).append("=EXCLUDED.").append(name);
+            first = false;
+        }
+        // 只有主键字段，已存在则忽略
+        if (first) {
+            sql.append(" DO NOTHING");
+        }
+        return sql.toString();
+    }
+
+}
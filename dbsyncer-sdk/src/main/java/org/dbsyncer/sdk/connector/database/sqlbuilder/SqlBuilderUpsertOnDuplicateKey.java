@@ -0,0 +1,50 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.sdk.connector.database.sqlbuilder;
+
+import org.dbsyncer.sdk.config.SqlBuilderConfig;
+import org.dbsyncer.sdk.connector.database.Database;
+import org.dbsyncer.sdk.model.Field;
+
+import java.util.List;
+
+/**
+ * 插入或更新SQL（MySQL）
+ *
+ * @author AE86
+ * @version 1.0.0
+ * @date 2024/7/6 20:18
+ */
+public class SqlBuilderUpsertOnDuplicateKey extends SqlBuilderInsert {
+
+    @Override
+    public String buildSql(SqlBuilderConfig config) {
+        Database database = config.getDatabase();
+        String quotation = database.buildSqlWithQuotation();
+        List<Field> fields = config.getFields();
+
+        // INSERT INTO `USER`(`ID`,`USERNAME`,`AGE`) VALUES (?,?,?) ON DUPLICATE KEY UPDATE `USERNAME`=VALUES(`USERNAME`),`AGE`=VALUES(`AGE`)
+        StringBuilder sql = new StringBuilder(super.buildSql(config));
+        sql.append(" ON DUPLICATE KEY UPDATE ");
+        boolean first = true;
+        for (Field f : fields) {
+            if (f.isPk()) {
+                continue;
+            }
+            if (!first) {
+                sql.append(",");
+            }
+            String name = quotation + database.buildFieldName(f) + quotation;
+            sql.append(name).append("=VALUES(").append(name).append(")");
+            first = false;
+        }
+        // 只有主键字段，保持原值
+        if (first) {
+            String pk = quotation + database.buildPrimaryKeys(config.getPrimaryKeys()).get(0) + quotation;
+            sql.append(pk).append("=").append(pk);
+        }
+        return sql.toString();
+    }
+
+}
@@ -47,9 +47,19 @@ public class ConnectorConstant {
      */
     public static final String OPERTION_QUERY_COUNT = "QUERY_COUNT";
 
+    /**
+     * 查询单一主键最小值和最大值
+     */
+    public static final String OPERTION_QUERY_RANGE = "QUERY_RANGE";
+
     /**
      * 查询数据行是否存在
      */
     public static final String OPERTION_QUERY_EXIST = "QUERY_COUNT_EXIST";
 
+    /**
+     * 插入或更新（主键存在则更新，否则插入）
+     */
+    public static final String OPERTION_UPSERT = "UPSERT";
+
 }
\ No newline at end of file
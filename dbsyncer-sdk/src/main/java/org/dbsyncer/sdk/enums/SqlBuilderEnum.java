@@ -8,7 +8,9 @@ import org.dbsyncer.sdk.connector.database.sqlbuilder.SqlBuilderQuery;
 import org.dbsyncer.sdk.connector.database.sqlbuilder.SqlBuilderQueryCount;
 import org.dbsyncer.sdk.connector.database.sqlbuilder.SqlBuilderQueryExist;
 import org.dbsyncer.sdk.connector.database.sqlbuilder.SqlBuilderQueryCursor;
+import org.dbsyncer.sdk.connector.database.sqlbuilder.SqlBuilderQueryRange;
 import org.dbsyncer.sdk.connector.database.sqlbuilder.SqlBuilderUpdate;
+import org.dbsyncer.sdk.connector.database.sqlbuilder.SqlBuilderUpsert;
 
 /**
  * @author AE86
@@ -41,10 +43,18 @@ public enum SqlBuilderEnum {
      * 查询总数
      */
     QUERY_COUNT(ConnectorConstant.OPERTION_QUERY_COUNT, new SqlBuilderQueryCount()),
+    /**
+     * 查询单一主键最小值和最大值
+     */
+    QUERY_RANGE(ConnectorConstant.OPERTION_QUERY_RANGE, new SqlBuilderQueryRange()),
     /**
      * 查询行数据是否存在
      */
-    QUERY_EXIST(ConnectorConstant.OPERTION_QUERY_EXIST, new SqlBuilderQueryExist());
+    QUERY_EXIST(ConnectorConstant.OPERTION_QUERY_EXIST, new SqlBuilderQueryExist()),
+    /**
+     * 插入或更新SQL生成器（由数据库方言实现）
+     */
+    UPSERT(ConnectorConstant.OPERTION_UPSERT, new SqlBuilderUpsert());
 
     /**
      * SQL构造器名称
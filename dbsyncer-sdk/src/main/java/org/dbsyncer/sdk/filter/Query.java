@@ -37,6 +37,11 @@ public class Query {
 
     private int pageSize = 20;
 
+    /**
+     * 游标，返回上一页最后一条记录之后的数据，忽略pageNum（限Disk使用）
+     */
+    private String cursor;
+
     /**
      * 修改时间和创建默认降序返回
      */
@@ -115,6 +120,14 @@ public class Query {
         this.pageSize = pageSize;
     }
 
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
     public SortEnum getSort() {
         return sort;
     }
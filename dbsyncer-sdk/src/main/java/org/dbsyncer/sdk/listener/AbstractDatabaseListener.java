@@ -20,6 +20,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
 
 /**
  * @author AE86
@@ -35,20 +36,22 @@ public abstract class AbstractDatabaseListener extends AbstractListener<Database
     private Map<String, List<DqlMapper>> dqlMap = new ConcurrentHashMap<>();
 
     /**
-     * 发送增量事件
+     * 发送增量事件，缓存队列已满时阻塞等待，直到提交成功或监听已停止
      *
      * @param event
+     * @param running 监听是否运行中
      */
-    protected void sendChangedEvent(ChangedEvent event) {
-        changeEvent(event);
+    protected void sendChangedEvent(ChangedEvent event, BooleanSupplier running) {
+        trySendEvent(event, running);
     }
 
     /**
-     * 发送DQL增量事件
+     * 发送DQL增量事件，每个自定义SQL的事件单独阻塞提交，避免队列已满时重复查询和发送
      *
      * @param event
+     * @param running 监听是否运行中
      */
-    protected void sendDqlChangedEvent(ChangedEvent event) {
+    protected void sendDqlChangedEvent(ChangedEvent event, BooleanSupplier running) {
         if (null == event) {
             return;
         }
@@ -76,7 +79,7 @@ public abstract class AbstractDatabaseListener extends AbstractListener<Database
                 processed = true;
             }
             changedEvent.setSourceTableName(dqlMapper.sqlName);
-            changeEvent(changedEvent);
+            trySendEvent(changedEvent, running);
         }
     }
 
@@ -3,6 +3,8 @@
  */
 package org.dbsyncer.sdk.listener;
 
+import org.dbsyncer.common.QueueOverflowException;
+import org.dbsyncer.common.metric.TimeRegistry;
 import org.dbsyncer.common.util.CollectionUtils;
 import org.dbsyncer.common.scheduled.ScheduledTaskService;
 import org.dbsyncer.sdk.config.ListenerConfig;
@@ -21,6 +23,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
 
 /**
  * @version 1.0.0
@@ -31,9 +36,14 @@ public abstract class AbstractListener<C extends ConnectorInstance> implements L
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final int FLUSH_DELAYED_SECONDS = 20;
+    /**
+     * 提交耗时超过1毫秒视为被阻塞（未阻塞时只是入队操作）
+     */
+    private final long BLOCKED_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
     protected ConnectorInstance connectorInstance;
     protected ConnectorService connectorService;
     protected ScheduledTaskService scheduledTaskService;
+    protected TimeRegistry timeRegistry;
     protected ConnectorConfig connectorConfig;
     protected ListenerConfig listenerConfig;
     protected Set<String> filterTable;
@@ -41,6 +51,14 @@ public abstract class AbstractListener<C extends ConnectorInstance> implements L
     protected Map<String, String> snapshot;
     protected String metaId;
     private Watcher watcher;
+    /**
+     * 提交事件被阻塞的总时长(纳秒)
+     */
+    private final LongAdder blockedNanos = new LongAdder();
+    /**
+     * 上次输出日志时的阻塞总时长(纳秒)
+     */
+    private final AtomicLong reportedBlockedNanos = new AtomicLong();
 
     @Override
     public void register(Watcher watcher) {
@@ -80,6 +98,7 @@ public abstract class AbstractListener<C extends ConnectorInstance> implements L
 
     @Override
     public void flushEvent() {
+        reportBlockedTime();
         // 20s内更新，执行写入
         if (watcher.getMetaUpdateTime() > Timestamp.valueOf(LocalDateTime.now().minusSeconds(FLUSH_DELAYED_SECONDS)).getTime()) {
             if (!CollectionUtils.isEmpty(snapshot)) {
@@ -102,6 +121,47 @@ public abstract class AbstractListener<C extends ConnectorInstance> implements L
         watcher.errorEvent(e);
     }
 
+    /**
+     * 提交事件，缓存队列已满时阻塞等待
+     * <p>执行器限时阻塞等待空闲容量，超时后继续重试，直到提交成功、监听已停止或线程被中断，期间不再读取新的增量事件
+     *
+     * @param event
+     * @param running 监听是否运行中
+     */
+    protected void trySendEvent(ChangedEvent event, BooleanSupplier running) {
+        final long start = System.nanoTime();
+        boolean overflow = false;
+        try {
+            while (running.getAsBoolean()) {
+                try {
+                    changeEvent(event);
+                    break;
+                } catch (QueueOverflowException e) {
+                    overflow = true;
+                }
+                // 线程已中断，限时等待会立即失败，不再重试
+                if (Thread.currentThread().isInterrupted()) {
+                    logger.warn("[{}] 线程已中断，停止提交事件", metaId);
+                    break;
+                }
+            }
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (overflow || elapsed >= BLOCKED_THRESHOLD_NANOS) {
+                blockedNanos.add(elapsed);
+            }
+        }
+    }
+
+    /**
+     * 获取提交事件被阻塞的总时长(毫秒)，持续增长说明目标源写入是瓶颈
+     *
+     * @return
+     */
+    public long getBlockedTime() {
+        return TimeUnit.NANOSECONDS.toMillis(blockedNanos.sum());
+    }
+
     protected void sleepInMills(long timeout) {
         try {
             TimeUnit.MILLISECONDS.sleep(timeout);
@@ -110,6 +170,14 @@ public abstract class AbstractListener<C extends ConnectorInstance> implements L
         }
     }
 
+    private void reportBlockedTime() {
+        long total = blockedNanos.sum();
+        long delta = total - reportedBlockedNanos.getAndSet(total);
+        if (delta > 0) {
+            logger.warn("[{}] 缓存队列已满，提交事件阻塞{}ms，累计{}ms", metaId, TimeUnit.NANOSECONDS.toMillis(delta), TimeUnit.NANOSECONDS.toMillis(total));
+        }
+    }
+
     /**
      * 如果允许监听该事件，则触发事件通知
      *
@@ -138,6 +206,10 @@ public abstract class AbstractListener<C extends ConnectorInstance> implements L
         this.scheduledTaskService = scheduledTaskService;
     }
 
+    public void setTimeRegistry(TimeRegistry timeRegistry) {
+        this.timeRegistry = timeRegistry;
+    }
+
     public void setConnectorConfig(ConnectorConfig connectorConfig) {
         this.connectorConfig = connectorConfig;
     }
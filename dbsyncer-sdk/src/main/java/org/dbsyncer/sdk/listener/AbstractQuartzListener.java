@@ -3,7 +3,6 @@
  */
 package org.dbsyncer.sdk.listener;
 
-import org.dbsyncer.common.QueueOverflowException;
 import org.dbsyncer.common.model.Result;
 import org.dbsyncer.common.scheduled.ScheduledTaskJob;
 import org.dbsyncer.common.util.CollectionUtils;
@@ -21,7 +20,6 @@ import org.slf4j.LoggerFactory;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
@@ -175,19 +173,8 @@ public abstract class AbstractQuartzListener extends AbstractListener implements
     }
 
     private void trySendEvent(ChangedEvent event){
-        // 如果消费事件失败，重试
-        while (running){
-            try {
-                changeEvent(event);
-                break;
-            } catch (QueueOverflowException e) {
-                try {
-                    TimeUnit.MILLISECONDS.sleep(1);
-                } catch (InterruptedException ex) {
-                    logger.error(ex.getMessage(), ex);
-                }
-            }
-        }
+        // 缓存队列已满时阻塞等待，直到提交成功或停止监听
+        trySendEvent(event, () -> running);
     }
 
     public void setCommands(List<TableGroupQuartzCommand> commands) {
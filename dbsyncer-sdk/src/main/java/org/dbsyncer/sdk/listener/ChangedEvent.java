@@ -52,6 +52,13 @@ public interface ChangedEvent {
      */
     Map<String, Object> getChangedRow();
 
+    /**
+     * 获取变更前行数据（仅部分连接器的更新事件支持，可能为空）
+     *
+     * @return
+     */
+    Map<String, Object> getBeforeRow();
+
     /**
      * 获取增量偏移量
      *
@@ -33,6 +33,10 @@ public abstract class CommonChangedEvent implements ChangedEvent {
      * 变更行数据
      */
     private Map<String, Object> changedRow;
+    /**
+     * 变更前行数据
+     */
+    private Map<String, Object> beforeRow;
     /**
      * 增量偏移量
      */
@@ -74,6 +78,15 @@ public abstract class CommonChangedEvent implements ChangedEvent {
         this.changedRow = changedRow;
     }
 
+    @Override
+    public Map<String, Object> getBeforeRow() {
+        return beforeRow;
+    }
+
+    public void setBeforeRow(Map<String, Object> beforeRow) {
+        this.beforeRow = beforeRow;
+    }
+
     @Override
     public ChangedOffset getChangedOffset() {
         return changedOffset;
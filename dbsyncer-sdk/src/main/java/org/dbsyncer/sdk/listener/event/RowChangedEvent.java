@@ -16,6 +16,10 @@ import java.util.List;
  */
 public class RowChangedEvent extends CommonChangedEvent {
     private List<Object> dataList;
+    /**
+     * 变更前行数据（更新事件，部分连接器支持）
+     */
+    private List<Object> beforeDataList;
 
     public RowChangedEvent(String sourceTableName, String event, List<Object> data) {
         this(sourceTableName, event, data, null, null);
@@ -33,6 +37,14 @@ public class RowChangedEvent extends CommonChangedEvent {
         return dataList;
     }
 
+    public List<Object> getBeforeDataList() {
+        return beforeDataList;
+    }
+
+    public void setBeforeDataList(List<Object> beforeDataList) {
+        this.beforeDataList = beforeDataList;
+    }
+
     @Override
     public ChangedEventTypeEnum getType() {
         return ChangedEventTypeEnum.ROW;
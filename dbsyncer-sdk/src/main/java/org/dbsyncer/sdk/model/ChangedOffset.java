@@ -20,6 +20,10 @@ public final class ChangedOffset {
      * 增量偏移量
      */
     private Object position;
+    /**
+     * 已执行的GTID集合（MySQL）
+     */
+    private String gtidSet;
     /**
      * 是否触发刷新增量点事件
      */
@@ -49,6 +53,14 @@ public final class ChangedOffset {
         this.position = position;
     }
 
+    public String getGtidSet() {
+        return gtidSet;
+    }
+
+    public void setGtidSet(String gtidSet) {
+        this.gtidSet = gtidSet;
+    }
+
     public boolean isRefreshOffset() {
         return refreshOffset;
     }
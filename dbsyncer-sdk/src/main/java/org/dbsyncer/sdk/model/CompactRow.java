@@ -0,0 +1,268 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.sdk.model;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 紧凑行数据
+ * <p>按{@link RowSchema}下标存储字段值，同一批行数据共享字段结构，不再为每行分配HashMap节点
+ * <p>同时实现Map接口，插件、存储等按字段名读写时直接使用，结构外的字段按需存入扩展Map
+ *
+ * @Author AE86
+ * @Version 1.0.0
+ * @Date 2024-06-28 22:10
+ */
+public final class CompactRow extends AbstractMap<String, Object> implements Serializable {
+
+    private final RowSchema schema;
+
+    private final Object[] values;
+
+    /**
+     * 已删除的结构字段（按需创建）
+     */
+    private BitSet removed;
+
+    /**
+     * 结构外的字段（按需创建）
+     */
+    private Map<String, Object> extra;
+
+    public CompactRow(RowSchema schema) {
+        this.schema = schema;
+        this.values = new Object[schema.size()];
+    }
+
+    private CompactRow(CompactRow row) {
+        this.schema = row.schema;
+        this.values = row.values.clone();
+        this.removed = null != row.removed ? (BitSet) row.removed.clone() : null;
+        this.extra = null != row.extra ? new HashMap<>(row.extra) : null;
+    }
+
+    /**
+     * 复制行数据（共享字段结构，复制字段值）
+     *
+     * @return
+     */
+    public CompactRow copy() {
+        return new CompactRow(this);
+    }
+
+    /**
+     * 是否为指定结构的紧凑行数据，是则可以按下标读写
+     *
+     * @param row
+     * @param schema
+     * @return
+     */
+    public static boolean isSchema(Map row, RowSchema schema) {
+        return row instanceof CompactRow && ((CompactRow) row).schema == schema;
+    }
+
+    public RowSchema getSchema() {
+        return schema;
+    }
+
+    public Object get(int index) {
+        return values[index];
+    }
+
+    public void set(int index, Object value) {
+        values[index] = value;
+        if (null != removed) {
+            removed.clear(index);
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = values.length;
+        if (null != removed) {
+            size -= removed.cardinality();
+        }
+        if (null != extra) {
+            size += extra.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int index = schema.indexOf(key);
+        if (index >= 0) {
+            return null == removed || !removed.get(index);
+        }
+        return null != extra && extra.containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = schema.indexOf(key);
+        if (index >= 0) {
+            return values[index];
+        }
+        return null != extra ? extra.get(key) : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int index = schema.indexOf(key);
+        if (index >= 0) {
+            Object old = values[index];
+            set(index, value);
+            return old;
+        }
+        if (null == extra) {
+            extra = new HashMap<>();
+        }
+        return extra.put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int index = schema.indexOf(key);
+        if (index >= 0) {
+            Object old = values[index];
+            values[index] = null;
+            if (null == removed) {
+                removed = new BitSet(values.length);
+            }
+            removed.set(index);
+            return old;
+        }
+        return null != extra ? extra.remove(key) : null;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        if (null == removed) {
+            removed = new BitSet(values.length);
+        }
+        removed.set(0, values.length);
+        extra = null;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return CompactRow.this.size();
+            }
+        };
+    }
+
+    private int nextSlot(int from) {
+        return null == removed ? from : removed.nextClearBit(from);
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+
+        private int next = nextSlot(0);
+
+        private int last = -1;
+
+        private Iterator<Entry<String, Object>> extraIterator;
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length || extraIterator().hasNext();
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (next < values.length) {
+                last = next;
+                next = nextSlot(next + 1);
+                return new SlotEntry(last);
+            }
+            if (!extraIterator().hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = -1;
+            return extraIterator().next();
+        }
+
+        @Override
+        public void remove() {
+            if (last >= 0) {
+                CompactRow.this.remove(schema.getName(last));
+                last = -1;
+                return;
+            }
+            extraIterator().remove();
+        }
+
+        private Iterator<Entry<String, Object>> extraIterator() {
+            if (null == extraIterator) {
+                extraIterator = null != extra ? extra.entrySet().iterator() : Collections.emptyIterator();
+            }
+            return extraIterator;
+        }
+    }
+
+    private final class SlotEntry implements Entry<String, Object> {
+
+        private final int index;
+
+        SlotEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return schema.getName(index);
+        }
+
+        @Override
+        public Object getValue() {
+            return values[index];
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object old = values[index];
+            set(index, value);
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry e = (Entry) o;
+            return Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.sdk.model;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 行数据结构（字段名与下标的映射），同一批行数据共享一个实例
+ *
+ * @Author AE86
+ * @Version 1.0.0
+ * @Date 2024-06-28 22:10
+ */
+public final class RowSchema implements Serializable {
+
+    private final String[] names;
+
+    private final Map<String, Integer> indexes;
+
+    public RowSchema(List<String> names) {
+        this.names = names.toArray(new String[0]);
+        this.indexes = new HashMap<>(this.names.length * 2);
+        for (int i = 0; i < this.names.length; i++) {
+            indexes.putIfAbsent(this.names[i], i);
+        }
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * 字段下标，不存在返回-1
+     *
+     * @param name
+     * @return
+     */
+    public int indexOf(Object name) {
+        Integer index = indexes.get(name);
+        return null == index ? -1 : index;
+    }
+
+    /**
+     * 批量解析字段下标，不存在返回-1
+     *
+     * @param fields
+     * @return
+     */
+    public int[] indexOf(List<Field> fields) {
+        final int size = fields.size();
+        int[] array = new int[size];
+        for (int i = 0; i < size; i++) {
+            Field f = fields.get(i);
+            array[i] = null == f ? -1 : indexOf(f.getName());
+        }
+        return array;
+    }
+}
@@ -4,12 +4,14 @@
 package org.dbsyncer.sdk.spi;
 
 import org.dbsyncer.common.model.Result;
+import org.dbsyncer.common.util.CollectionUtils;
 import org.dbsyncer.sdk.SdkException;
 import org.dbsyncer.sdk.config.CommandConfig;
 import org.dbsyncer.sdk.config.DDLConfig;
 import org.dbsyncer.sdk.config.WriterBatchConfig;
 import org.dbsyncer.sdk.connector.ConfigValidator;
 import org.dbsyncer.sdk.connector.ConnectorInstance;
+import org.dbsyncer.sdk.connector.RowHandler;
 import org.dbsyncer.sdk.enums.ListenerTypeEnum;
 import org.dbsyncer.sdk.listener.Listener;
 import org.dbsyncer.sdk.model.ConnectorConfig;
@@ -18,6 +20,7 @@ import org.dbsyncer.sdk.model.Table;
 import org.dbsyncer.sdk.plugin.ReaderContext;
 import org.dbsyncer.sdk.storage.StorageService;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -122,6 +125,17 @@ public interface ConnectorService<I extends ConnectorInstance, C extends Connect
      */
     long getCount(I connectorInstance, Map<String, String> command);
 
+    /**
+     * 获取单一主键的最小值和最大值，用于按主键分段同步
+     *
+     * @param connectorInstance
+     * @param command
+     * @return [最小值, 最大值]，不支持或没有数据返回null
+     */
+    default Object[] getPrimaryKeyRange(I connectorInstance, Map<String, String> command) {
+        return null;
+    }
+
     /**
      * 分页获取数据源数据
      *
@@ -131,6 +145,30 @@ public interface ConnectorService<I extends ConnectorInstance, C extends Connect
      */
     Result reader(I connectorInstance, ReaderContext context);
 
+    /**
+     * 流式分页获取数据源数据，逐行回调（默认读取整页后逐行回调）
+     *
+     * @param connectorInstance
+     * @param context
+     * @param handler
+     */
+    default void readerStream(I connectorInstance, ReaderContext context, RowHandler handler) {
+        List<Map> data = reader(connectorInstance, context).getSuccessData();
+        if (CollectionUtils.isEmpty(data)) {
+            return;
+        }
+        List<String> columnNames = new ArrayList<>(data.get(0).keySet());
+        handler.columns(columnNames);
+        final int size = columnNames.size();
+        data.forEach(map -> {
+            Object[] row = new Object[size];
+            for (int i = 0; i < size; i++) {
+                row[i] = map.get(columnNames.get(i));
+            }
+            handler.handle(row);
+        });
+    }
+
     /**
      * 批量写入目标源数据
      *
@@ -140,6 +178,28 @@ public interface ConnectorService<I extends ConnectorInstance, C extends Connect
      */
     Result writer(I connectorInstance, WriterBatchConfig connectorConfig);
 
+    /**
+     * 目标表是否支持批量导入（仅用于首次全量同步，目标表为空时才启用）
+     *
+     * @param connectorInstance
+     * @param tableName
+     * @return
+     */
+    default boolean isSupportedBulkLoad(I connectorInstance, String tableName) {
+        return false;
+    }
+
+    /**
+     * 批量导入目标源数据（LOAD DATA / COPY / BulkCopy），整批成功或失败，失败时由调用方改用{@link #writer}写入
+     *
+     * @param connectorInstance
+     * @param connectorConfig
+     * @return
+     */
+    default Result writerBulk(I connectorInstance, WriterBatchConfig connectorConfig) {
+        throw new SdkException("Unsupported method.");
+    }
+
     /**
      * 执行DDL命令
      *
@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * @Author AE86
@@ -37,6 +38,8 @@ public abstract class AbstractStorageService implements StorageService, Disposab
 
     protected abstract Paging select(String sharding, Query query);
 
+    protected abstract void scan(String sharding, Query query, Consumer<Map> consumer);
+
     protected abstract void delete(String sharding, Query query);
 
     protected abstract void deleteAll(String sharding);
@@ -77,6 +80,40 @@ public abstract class AbstractStorageService implements StorageService, Disposab
         return new Paging(query.getPageNum(), query.getPageSize());
     }
 
+    @Override
+    public long count(Query query) {
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(3, TimeUnit.SECONDS);
+            if (!locked) {
+                throw new SdkException("统计数据超时，存储繁忙");
+            }
+            query.setQueryTotal(true);
+            String sharding = getSharding(query.getType(), query.getMetaId());
+            return select(sharding, query).getTotal();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SdkException(e);
+        } catch (NullExecutorException e) {
+            throw new SdkException("存储表不存在或已删除");
+        } finally {
+            if (locked) {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void scan(Query query, Consumer<Map> consumer) {
+        // 遍历耗时较长，不加锁，避免阻塞分页查询
+        try {
+            String sharding = getSharding(query.getType(), query.getMetaId());
+            scan(sharding, query, consumer);
+        } catch (NullExecutorException e) {
+            // 存储表不存在或已删除，请重试
+        }
+    }
+
     @Override
     public void delete(Query query) {
         BooleanFilter q = query.getBooleanFilter();
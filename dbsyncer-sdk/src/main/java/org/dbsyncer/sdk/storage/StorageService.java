@@ -10,6 +10,7 @@ import org.dbsyncer.sdk.filter.Query;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 /**
  * 存储服务（支持记录配置/日志/同步数据）
@@ -33,6 +34,23 @@ public interface StorageService {
      */
     Paging query(Query query);
 
+    /**
+     * 统计满足条件的数据总数
+     *
+     * @param query
+     * @return
+     * @throws org.dbsyncer.sdk.SdkException 存储繁忙、不存在或线程中断时抛出，不返回0
+     */
+    long count(Query query);
+
+    /**
+     * 遍历所有满足条件的数据（流式读取，内存占用与数据量无关，不分页不排序）
+     *
+     * @param query
+     * @param consumer
+     */
+    void scan(Query query, Consumer<Map> consumer);
+
     /**
      * 根据条件删除
      *
@@ -0,0 +1,91 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.sdk.util;
+
+import org.dbsyncer.common.util.StringUtil;
+import org.dbsyncer.sdk.connector.database.Database;
+import org.dbsyncer.sdk.model.Field;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 批量导入（LOAD DATA / COPY）文本格式工具
+ *
+ * @Author AE86
+ * @Version 1.0.0
+ * @Date 2024-07-04 22:18
+ */
+public abstract class BulkLoadUtil {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private BulkLoadUtil() {
+    }
+
+    /**
+     * 导入字段，例如：(`id`,`name`)
+     *
+     * @param database
+     * @param fields
+     * @return
+     */
+    public static String buildColumns(Database database, List<Field> fields) {
+        final String quotation = database.buildSqlWithQuotation();
+        StringBuilder columns = new StringBuilder("(");
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                columns.append(StringUtil.COMMA);
+            }
+            columns.append(quotation).append(database.buildFieldName(fields.get(i))).append(quotation);
+        }
+        return columns.append(")").toString();
+    }
+
+    /**
+     * 字段值转文本，null返回null，二进制值转为十六进制（不带前缀，由具体数据库解码）
+     *
+     * @param val
+     * @return
+     */
+    public static String toText(Object val) {
+        if (null == val) {
+            return null;
+        }
+        if (val instanceof String) {
+            return (String) val;
+        }
+        if (val instanceof BigDecimal) {
+            return ((BigDecimal) val).toPlainString();
+        }
+        if (val instanceof Boolean) {
+            return (Boolean) val ? "1" : "0";
+        }
+        if (val instanceof byte[]) {
+            return toHex((byte[]) val);
+        }
+        // java.sql.Timestamp/Date/Time按数据库格式输出，其余日期类型转为Timestamp
+        if (val instanceof Date && !(val instanceof Timestamp || val instanceof java.sql.Date || val instanceof java.sql.Time)) {
+            return new Timestamp(((Date) val).getTime()).toString();
+        }
+        return val.toString();
+    }
+
+    /**
+     * 二进制值转十六进制小写字符串
+     *
+     * @param bytes
+     * @return
+     */
+    public static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+        }
+        return hex.toString();
+    }
+
+}
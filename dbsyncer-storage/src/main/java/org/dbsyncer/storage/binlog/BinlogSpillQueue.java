@@ -0,0 +1,221 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.storage.binlog;
+
+import org.dbsyncer.storage.StorageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 分段磁盘队列（先进先出，单写单读）
+ * <p>记录格式：[长度int][数据]，按序追加到分段文件，写满后滚动到新文件，读取完毕的分段文件立即删除
+ * <p>写入先进入缓冲区，{@link #flush()}或读取当前写入分段时刷到文件
+ * <p>溢写的数据尚未同步，增量点未刷新，重启后从上次增量点重新读取，因此启动时清空目录
+ *
+ * @Author AE86
+ * @Version 1.0.0
+ * @Date 2024-06-23 10:12
+ */
+public final class BinlogSpillQueue implements Closeable {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private static final String SUFFIX = ".seg";
+
+    private final File dir;
+
+    private final long segmentSize;
+
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    private Segment writeSegment;
+
+    private DataOutputStream out;
+
+    private DataInputStream in;
+
+    /**
+     * 当前读取分段已读记录数
+     */
+    private long readCount;
+
+    private long sequence;
+
+    private volatile long size;
+
+    private volatile long bytes;
+
+    private boolean dirty;
+
+    public BinlogSpillQueue(String path, long segmentSize) {
+        this.dir = new File(path);
+        this.segmentSize = segmentSize;
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new StorageException("无法创建目录:" + dir.getAbsolutePath());
+        }
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+        if (files != null) {
+            for (File f : files) {
+                if (!f.delete()) {
+                    logger.warn("Delete spill segment failed:{}", f.getAbsolutePath());
+                }
+            }
+        }
+    }
+
+    /**
+     * 追加记录
+     *
+     * @param data
+     */
+    public synchronized void append(byte[] data) {
+        try {
+            if (null == writeSegment || writeSegment.bytes >= segmentSize) {
+                roll();
+            }
+            out.writeInt(data.length);
+            out.write(data);
+            writeSegment.count++;
+            writeSegment.bytes += 4 + data.length;
+            bytes += 4 + data.length;
+            size++;
+            dirty = true;
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    /**
+     * 按序读取记录
+     *
+     * @param max 最多读取记录数
+     * @return
+     */
+    public synchronized List<byte[]> poll(int max) {
+        List<byte[]> list = new ArrayList<>(Math.min(max, (int) Math.min(size, Integer.MAX_VALUE)));
+        try {
+            while (list.size() < max && size > 0) {
+                Segment head = segments.peekFirst();
+                // 当前分段已读完，删除并切换到下一个分段
+                if (readCount >= head.count) {
+                    closeQuietly(in);
+                    in = null;
+                    readCount = 0;
+                    segments.pollFirst();
+                    bytes -= head.bytes;
+                    if (!head.file.delete()) {
+                        logger.warn("Delete spill segment failed:{}", head.file.getAbsolutePath());
+                    }
+                    continue;
+                }
+                if (head == writeSegment) {
+                    flush();
+                }
+                if (null == in) {
+                    in = new DataInputStream(new BufferedInputStream(new FileInputStream(head.file)));
+                }
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                readCount++;
+                size--;
+                list.add(data);
+            }
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+        return list;
+    }
+
+    /**
+     * 将缓冲区刷到文件
+     */
+    public synchronized void flush() {
+        if (dirty && null != out) {
+            try {
+                out.flush();
+                dirty = false;
+            } catch (IOException e) {
+                throw new StorageException(e);
+            }
+        }
+    }
+
+    /**
+     * 未读取记录数
+     *
+     * @return
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * 分段文件总字节数
+     *
+     * @return
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public synchronized void close() {
+        closeQuietly(in);
+        closeQuietly(out);
+        in = null;
+        out = null;
+        segments.forEach(s -> s.file.delete());
+        segments.clear();
+        writeSegment = null;
+        size = 0;
+        bytes = 0;
+    }
+
+    private void roll() throws IOException {
+        if (null != out) {
+            out.flush();
+            out.close();
+        }
+        dirty = false;
+        File file = new File(dir, String.format("%020d", ++sequence) + SUFFIX);
+        writeSegment = new Segment(file);
+        segments.addLast(writeSegment);
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+    }
+
+    private void closeQuietly(Closeable closeable) {
+        if (null != closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                logger.error(e.getMessage());
+            }
+        }
+    }
+
+    static final class Segment {
+        private final File file;
+        private long count;
+        private long bytes;
+
+        Segment(File file) {
+            this.file = file;
+        }
+    }
+
+}
@@ -0,0 +1,371 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+package org.dbsyncer.storage.checkpoint;
+
+import org.dbsyncer.storage.StorageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * 同步点日志（追加写，内存映射文件）
+ * <p>记录格式：[长度int][CRC32 int][数据]，数据为key和同步点快照，空快照表示删除
+ * <p>启动时顺序回放，遇到长度为0或CRC校验失败的记录即为文件末尾（进程崩溃导致的半条记录被丢弃）
+ * <p>写入映射内存后即可在进程崩溃(kill -9)后恢复，{@link #sync()}将脏页刷到磁盘，防止操作系统崩溃丢失
+ * <p>文件空间不足时压缩：只保留每个key的最新快照，写入临时文件后原子替换
+ *
+ * @Author AE86
+ * @Version 1.0.0
+ * @Date 2024-06-22 21:16
+ */
+public final class CheckpointLog implements Closeable {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private static final String FILE_NAME = "checkpoint.log";
+
+    private static final String TEMP_FILE_NAME = "checkpoint.log.tmp";
+
+    /**
+     * 记录头：长度 + CRC
+     */
+    private static final int HEADER_SIZE = 8;
+
+    private final Path file;
+
+    private final Path tempFile;
+
+    /**
+     * key的最新快照
+     */
+    private final Map<String, Map<String, String>> latest = new ConcurrentHashMap<>();
+
+    private int capacity;
+
+    private FileChannel channel;
+
+    private MappedByteBuffer buffer;
+
+    private volatile boolean dirty;
+
+    private boolean closed;
+
+    public CheckpointLog(String path, int capacity) {
+        File dir = new File(path);
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new StorageException("无法创建目录:" + dir.getAbsolutePath());
+        }
+        this.file = dir.toPath().resolve(FILE_NAME);
+        this.tempFile = dir.toPath().resolve(TEMP_FILE_NAME);
+        this.capacity = capacity;
+        try {
+            // 压缩未完成，原文件仍有效
+            Files.deleteIfExists(tempFile);
+            if (Files.exists(file)) {
+                this.capacity = (int) Math.max(capacity, Files.size(file));
+            }
+            map(file);
+            recover();
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    /**
+     * 追加同步点快照
+     *
+     * @param key
+     * @param snapshot
+     */
+    public synchronized void put(String key, Map<String, String> snapshot) {
+        if (null == snapshot || snapshot.isEmpty()) {
+            remove(key);
+            return;
+        }
+        Map<String, String> copy = Collections.unmodifiableMap(new LinkedHashMap<>(snapshot));
+        append(encode(key, copy));
+        latest.put(key, copy);
+    }
+
+    /**
+     * 删除同步点
+     *
+     * @param key
+     */
+    public synchronized void remove(String key) {
+        if (latest.remove(key) != null) {
+            append(encode(key, Collections.emptyMap()));
+        }
+    }
+
+    public Map<String, String> get(String key) {
+        return latest.get(key);
+    }
+
+    /**
+     * 刷盘（组提交）
+     * <p>与压缩、关闭互斥，避免对已释放的内存映射刷盘导致JVM崩溃
+     */
+    public synchronized void sync() {
+        if (dirty && !closed) {
+            dirty = false;
+            buffer.force();
+        }
+    }
+
+    /**
+     * 已使用空间超过阈值时压缩
+     *
+     * @param ratio
+     */
+    public synchronized void compactIfNecessary(double ratio) {
+        if (!closed && buffer.position() > capacity * ratio) {
+            compact(0);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            buffer.force();
+            unmap(buffer);
+            channel.close();
+        } catch (IOException e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    private void append(byte[] data) {
+        if (closed) {
+            throw new StorageException("Checkpoint log is closed.");
+        }
+        int size = HEADER_SIZE + data.length;
+        // 预留4字节结束标记
+        if (buffer.remaining() < size + 4) {
+            compact(size + 4);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        int position = buffer.position();
+        // 先写数据和CRC，最后写长度，保证读到有效长度时记录完整
+        buffer.position(position + 4);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(data);
+        buffer.putInt(buffer.position(), 0);
+        buffer.putInt(position, data.length);
+        dirty = true;
+    }
+
+    /**
+     * 压缩：写入每个key的最新快照到临时文件，原子替换原文件
+     *
+     * @param required 额外需要的空间
+     */
+    private void compact(int required) {
+        try {
+            int live = 0;
+            Map<String, byte[]> records = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, String>> e : latest.entrySet()) {
+                byte[] data = encode(e.getKey(), e.getValue());
+                records.put(e.getKey(), data);
+                live += HEADER_SIZE + data.length;
+            }
+            // 有效数据超过一半时扩容
+            while (live + required > capacity / 2) {
+                capacity <<= 1;
+            }
+
+            ByteBuffer out = ByteBuffer.allocate(live);
+            for (byte[] data : records.values()) {
+                CRC32 crc = new CRC32();
+                crc.update(data, 0, data.length);
+                out.putInt(data.length);
+                out.putInt((int) crc.getValue());
+                out.put(data);
+            }
+            out.flip();
+            try (FileChannel tmp = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (out.hasRemaining()) {
+                    tmp.write(out);
+                }
+                tmp.truncate(live);
+                tmp.force(true);
+            }
+
+            int position = buffer.position();
+            buffer.force();
+            // 重新映射前不可访问内存映射
+            closed = true;
+            unmap(buffer);
+            channel.close();
+            boolean moved = false;
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                moved = true;
+            } finally {
+                // 替换失败时重新映射原文件，保证后续写入和刷盘可用
+                map(file);
+                closed = false;
+                buffer.position(moved ? live : position);
+                if (!moved) {
+                    Files.deleteIfExists(tempFile);
+                }
+            }
+            dirty = false;
+            logger.info("Compact checkpoint log, keys:{}, size:{}, capacity:{}", records.size(), live, capacity);
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    private void map(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * 回放日志，定位写入位置
+     */
+    private void recover() {
+        int position = 0;
+        int count = 0;
+        while (position + HEADER_SIZE <= capacity) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > capacity) {
+                break;
+            }
+            byte[] data = new byte[length];
+            buffer.position(position + HEADER_SIZE);
+            buffer.get(data);
+            CRC32 crc = new CRC32();
+            crc.update(data, 0, length);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                logger.warn("Checkpoint log has a broken record at {}, truncated.", position);
+                break;
+            }
+            decode(data);
+            position += HEADER_SIZE + length;
+            count++;
+        }
+        // 清除末尾的半条记录
+        buffer.position(position);
+        if (position + 4 <= capacity) {
+            buffer.putInt(position, 0);
+        }
+        logger.info("Recover checkpoint log, records:{}, keys:{}, position:{}", count, latest.size(), position);
+    }
+
+    private byte[] encode(String key, Map<String, String> snapshot) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeString(out, key);
+            out.writeInt(snapshot.size());
+            for (Map.Entry<String, String> e : snapshot.entrySet()) {
+                writeString(out, e.getKey());
+                writeString(out, e.getValue());
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    private void decode(byte[] data) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            String key = readString(in);
+            int size = in.readInt();
+            if (size == 0) {
+                latest.remove(key);
+                return;
+            }
+            Map<String, String> snapshot = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                snapshot.put(readString(in), readString(in));
+            }
+            latest.put(key, Collections.unmodifiableMap(snapshot));
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        if (null == value) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] b = new byte[length];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 释放内存映射，否则Windows下无法替换文件
+     *
+     * @param buffer
+     */
+    private void unmap(MappedByteBuffer buffer) {
+        try {
+            // jdk9+
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (NoSuchMethodException e) {
+            // jdk8
+            try {
+                Method cleaner = buffer.getClass().getMethod("cleaner");
+                cleaner.setAccessible(true);
+                Object c = cleaner.invoke(buffer);
+                if (null != c) {
+                    c.getClass().getMethod("clean").invoke(c);
+                }
+            } catch (Exception ex) {
+                logger.debug("Unmap checkpoint log failed:{}", ex.getMessage());
+            }
+        } catch (Exception e) {
+            logger.debug("Unmap checkpoint log failed:{}", e.getMessage());
+        }
+    }
+
+}
@@ -15,6 +15,7 @@ import org.apache.lucene.search.highlight.QueryScorer;
 import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
 import org.dbsyncer.common.model.Paging;
 import org.dbsyncer.common.util.CollectionUtils;
+import org.dbsyncer.common.util.NumberUtil;
 import org.dbsyncer.sdk.constant.ConfigConstant;
 import org.dbsyncer.sdk.enums.FilterEnum;
 import org.dbsyncer.sdk.enums.OperationEnum;
@@ -37,6 +38,10 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * 将数据存储在磁盘，基于lucene实现
@@ -49,6 +54,27 @@ public class DiskStorageService extends AbstractStorageService {
 
     private Map<String, Shard> shards = new ConcurrentHashMap();
 
+    /**
+     * 定时提交间隔(毫秒)
+     */
+    private static final String COMMIT_INTERVAL = "dbsyncer.storage.disk.commit-interval-millisecond";
+
+    /**
+     * 未提交文档数上限
+     */
+    private static final String COMMIT_MAX_DOCS = "dbsyncer.storage.disk.commit-max-docs";
+
+    private long commitIntervalMillis;
+
+    private int commitMaxDocs;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * 配置分片，写入后立即提交
+     */
+    private String configSharding;
+
     /**
      * 相对路径/data/
      */
@@ -57,9 +83,22 @@ public class DiskStorageService extends AbstractStorageService {
 
     @Override
     public void init(Properties properties) {
+        commitIntervalMillis = NumberUtil.toLong(properties.getProperty(COMMIT_INTERVAL), 1000L);
+        commitMaxDocs = NumberUtil.toInt(properties.getProperty(COMMIT_MAX_DOCS), 10000);
+        configSharding = getSharding(StorageEnum.CONFIG, null);
         // 创建配置和日志索引shard
-        getShard(getSharding(StorageEnum.CONFIG, null));
+        getShard(configSharding);
         getShard(getSharding(StorageEnum.LOG, null));
+
+        // 定时提交数据和日志分片
+        if (commitIntervalMillis > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "DiskStorageService-commit");
+                t.setDaemon(true);
+                return t;
+            });
+            scheduler.scheduleWithFixedDelay(() -> shards.values().forEach(Shard::maybeCommit), commitIntervalMillis, commitIntervalMillis, TimeUnit.MILLISECONDS);
+        }
     }
 
     @Override
@@ -69,11 +108,13 @@ public class DiskStorageService extends AbstractStorageService {
             int pageNum = query.getPageNum() <= 0 ? 1 : query.getPageNum();
             int pageSize = query.getPageSize() <= 0 ? 20 : query.getPageSize();
             boolean desc = query.getSort().isDesc();
-            // 根据修改时间 > 创建时间排序
+            // 根据修改时间 > 创建时间 > 主键排序，保证游标分页稳定
             Sort sort = new Sort(new SortField(ConfigConstant.CONFIG_MODEL_UPDATE_TIME, SortField.Type.LONG, desc),
-                    new SortField(ConfigConstant.CONFIG_MODEL_CREATE_TIME, SortField.Type.LONG, desc));
+                    new SortField(ConfigConstant.CONFIG_MODEL_CREATE_TIME, SortField.Type.LONG, desc),
+                    new SortField(DocumentUtil.SORT_ID, SortField.Type.STRING, desc));
             Option option = new Option();
             option.setQueryTotal(query.isQueryTotal());
+            option.setCursor(query.getCursor());
             option.setFieldResolverMap(query.getFieldResolverMap());
             // 设置参数
             BooleanFilter baseQuery = query.getBooleanFilter();
@@ -102,6 +143,25 @@ public class DiskStorageService extends AbstractStorageService {
         }
     }
 
+    @Override
+    protected void scan(String sharding, Query query, Consumer<Map> consumer) {
+        try {
+            Option option = new Option();
+            option.setFieldResolverMap(query.getFieldResolverMap());
+            BooleanFilter baseQuery = query.getBooleanFilter();
+            List<AbstractFilter> filters = baseQuery.getFilters();
+            List<BooleanFilter> clauses = baseQuery.getClauses();
+            if (CollectionUtils.isEmpty(clauses) && CollectionUtils.isEmpty(filters)) {
+                option.setQuery(new MatchAllDocsQuery());
+            } else {
+                option.setQuery(buildQuery(filters, clauses, new HashSet<>()));
+            }
+            getShard(sharding).scan(option, consumer);
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+
     @Override
     protected void delete(String sharding, Query query) {
         Shard shard = getShard(sharding);
@@ -145,6 +205,10 @@ public class DiskStorageService extends AbstractStorageService {
 
     @Override
     public void destroy() throws Exception {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        // 关闭前提交所有未持久化的写入
         for (Map.Entry<String, Shard> m : shards.entrySet()) {
             m.getValue().close();
         }
@@ -242,7 +306,13 @@ public class DiskStorageService extends AbstractStorageService {
      * @throws IOException
      */
     private Shard getShard(String sharding) {
-        return shards.computeIfAbsent(sharding, k -> new Shard(PATH + k));
+        return shards.computeIfAbsent(sharding, k -> {
+            // 配置数据每次写入都需持久化，数据和日志按时间间隔或文档数批量提交
+            if (k.equals(configSharding)) {
+                return new Shard(PATH + k);
+            }
+            return new Shard(PATH + k, commitIntervalMillis, commitMaxDocs);
+        });
     }
 
     interface ExecuteMapper {
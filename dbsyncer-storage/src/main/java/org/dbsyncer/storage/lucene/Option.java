@@ -32,6 +32,11 @@ public class Option {
      */
     private boolean queryTotal;
 
+    /**
+     * 游标（上一页最后一条记录），基于searchAfter深度分页
+     */
+    private String cursor;
+
     /**
      * 返回值转换器
      */
@@ -90,6 +95,14 @@ public class Option {
         this.queryTotal = queryTotal;
     }
 
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
     public Map<String, FieldResolver> getFieldResolverMap() {
         return fieldResolverMap;
     }
@@ -8,38 +8,58 @@ import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.cn.smart.SmartChineseAnalyzer;
 import org.apache.lucene.document.Document;
-import org.apache.lucene.index.DirectoryReader;
-import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.Weight;
 import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.store.Lock;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IOUtils;
 import org.dbsyncer.common.model.Paging;
+import org.dbsyncer.common.util.StringUtil;
 import org.dbsyncer.storage.StorageException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
+ * 索引分片
+ * <p>写入先缓存在IndexWriter，通过SearcherManager刷新读取器实现近实时查询
+ * <p>提交策略：commitIntervalMillis为0时每次写入后提交；否则累计未提交文档数达到commitMaxDocs时提交，其余由{@link #maybeCommit()}按时间间隔提交，
+ * 需要持久化时调用{@link #commit()}
+ * <p>进程崩溃后只恢复到最后一次提交，之后未提交的写入全部丢失
+ *
  * @Author AE86
  * @Version 1.0.0
  * @Date 2019-11-12 20:29
@@ -56,15 +76,44 @@ public class Shard {
 
     private IndexWriter indexWriter;
 
-    private IndexReader indexReader;
+    private SearcherManager searcherManager;
 
     private IndexWriterConfig config;
 
-    private final Object LOCK = new Object();
+    /**
+     * 定时提交间隔(ms)，0-每次写入后提交
+     */
+    private final long commitIntervalMillis;
+
+    /**
+     * 未提交文档数达到该值立即提交
+     */
+    private final int commitMaxDocs;
+
+    /**
+     * 最后一次写入的操作序号
+     */
+    private final AtomicLong lastSeqNo = new AtomicLong(-1);
+
+    /**
+     * 已提交（持久化）的操作序号
+     */
+    private volatile long committedSeqNo = -1;
+
+    /**
+     * 未提交的文档数
+     */
+    private final AtomicLong pendingDocs = new AtomicLong();
 
-    private static final int MAX_SIZE = 10000;
+    private volatile long lastCommitTime = System.currentTimeMillis();
 
     public Shard(String path) {
+        this(path, 0, 0);
+    }
+
+    public Shard(String path, long commitIntervalMillis, int commitMaxDocs) {
+        this.commitIntervalMillis = commitIntervalMillis;
+        this.commitMaxDocs = commitMaxDocs;
         try {
             // 索引存放的位置，设置在当前目录中
             Path dir = Paths.get(path);
@@ -79,26 +128,25 @@ public class Shard {
     }
 
     public void insertBatch(List<Document> docs) {
-        execute(docs, () -> indexWriter.addDocuments(docs));
+        execute(docs, docs.size(), () -> indexWriter.addDocuments(docs));
     }
 
     public void update(Term term, Document doc) {
         if (null != term) {
-            execute(doc, () -> indexWriter.updateDocument(term, doc));
+            execute(doc, 1, () -> indexWriter.updateDocument(term, doc));
         }
     }
 
     public void deleteBatch(Term... terms) {
         if (null != terms) {
-            execute(terms, () -> indexWriter.deleteDocuments(terms));
+            execute(terms, terms.length, () -> indexWriter.deleteDocuments(terms));
         }
     }
 
     public void delete(Query query) {
         try {
-            indexWriter.deleteDocuments(query);
-            indexWriter.flush();
-            indexWriter.commit();
+            updateSeqNo(indexWriter.deleteDocuments(query), 1);
+            commit();
             indexWriter.forceMergeDeletes();
             indexWriter.deleteUnusedFiles();
         } catch (IOException e) {
@@ -106,6 +154,54 @@ public class Shard {
         }
     }
 
+    /**
+     * 提交未持久化的写入（持久化点）
+     *
+     * @throws IOException
+     */
+    public void commit() throws IOException {
+        if (!isDirty()) {
+            return;
+        }
+        synchronized (this) {
+            if (!isDirty()) {
+                return;
+            }
+            long docs = pendingDocs.get();
+            // 返回本次提交包含的最后一个操作序号
+            long seqNo = indexWriter.commit();
+            committedSeqNo = seqNo < 0 ? lastSeqNo.get() : seqNo;
+            pendingDocs.addAndGet(-docs);
+            lastCommitTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 距离上次提交超过提交间隔时提交
+     */
+    public void maybeCommit() {
+        if (isDirty() && System.currentTimeMillis() - lastCommitTime >= commitIntervalMillis) {
+            try {
+                commit();
+            } catch (IOException e) {
+                logger.error(String.format("索引提交异常：%s", indexPath.getAbsolutePath()), e);
+            }
+        }
+    }
+
+    /**
+     * 是否有未提交的写入
+     *
+     * @return
+     */
+    public boolean isDirty() {
+        return lastSeqNo.get() > committedSeqNo;
+    }
+
+    public long getCommittedSeqNo() {
+        return committedSeqNo;
+    }
+
     public void deleteAll() {
         // Fix Bug: this IndexReader is closed. 直接删除文件
         try {
@@ -119,44 +215,165 @@ public class Shard {
 
     public void close() throws IOException {
         indexWriter.commit();
-        indexReader.close();
+        searcherManager.close();
         indexWriter.close();
     }
 
+    /**
+     * 获取近实时读取器（包含未提交的写入），使用完需调用{@link #release(IndexSearcher)}
+     *
+     * @return
+     * @throws IOException
+     */
     public IndexSearcher getSearcher() throws IOException {
-        // 复用索引读取器
-        IndexReader changeReader = DirectoryReader.openIfChanged((DirectoryReader) indexReader, indexWriter, true);
-        if (null != changeReader) {
-            indexReader.close();
-            indexReader = null;
-            synchronized (LOCK) {
-                if (null == indexReader) {
-                    indexReader = changeReader;
-                }
-            }
-        }
-        return new IndexSearcher(indexReader);
+        // 复用索引读取器，有变更时才刷新
+        searcherManager.maybeRefreshBlocking();
+        return searcherManager.acquire();
     }
 
+    public void release(IndexSearcher searcher) throws IOException {
+        searcherManager.release(searcher);
+    }
+
+    /**
+     * 分页查询
+     * <p>指定游标时，基于searchAfter从游标位置向后查询pageSize条，忽略pageNum，适合深度分页
+     * <p>未指定游标时，查询前pageNum*pageSize条后截取当前页
+     * <p>返回下一页游标（当前页最后一条记录）
+     *
+     * @param option
+     * @param pageNum
+     * @param pageSize
+     * @param sort
+     * @return
+     * @throws IOException
+     */
     public Paging query(Option option, int pageNum, int pageSize, Sort sort) throws IOException {
         final IndexSearcher searcher = getSearcher();
-        final TopDocs topDocs = getTopDocs(searcher, option.getQuery(), MAX_SIZE, sort);
-        Paging paging = new Paging(pageNum, pageSize);
-        paging.setTotal(topDocs.totalHits.value);
-        if (option.isQueryTotal()) {
+        try {
+            Paging paging = new Paging(pageNum, pageSize);
+            if (option.isQueryTotal()) {
+                paging.setTotal(searcher.count(option.getQuery()));
+                return paging;
+            }
+
+            int begin = 0;
+            TopDocs topDocs;
+            if (StringUtil.isNotBlank(option.getCursor())) {
+                topDocs = getTopDocs(searcher, option.getQuery(), pageSize, sort, parseCursor(option.getCursor(), sort));
+            } else {
+                begin = (pageNum - 1) * pageSize;
+                topDocs = getTopDocs(searcher, option.getQuery(), Math.max(pageNum * pageSize, 1), sort, null);
+            }
+            // 超过命中数阈值时，totalHits为下限值
+            TotalHits totalHits = topDocs.totalHits;
+            paging.setTotal(totalHits.relation == TotalHits.Relation.EQUAL_TO ? totalHits.value : searcher.count(option.getQuery()));
+
+            List<Map> data = search(searcher, topDocs, option, begin);
+            paging.setData(data);
+            ScoreDoc[] docs = topDocs.scoreDocs;
+            if (docs.length > begin) {
+                paging.setCursor(toCursor(docs[docs.length - 1], sort));
+            }
             return paging;
+        } finally {
+            release(searcher);
         }
+    }
 
-        List<Map> data = search(searcher, topDocs, option, pageNum, pageSize);
-        paging.setData(data);
-        return paging;
+    /**
+     * 流式遍历所有匹配的文档（索引顺序），基于同一读取器快照，内存占用与数据量无关
+     *
+     * @param option
+     * @param consumer
+     * @throws IOException
+     */
+    public void scan(Option option, Consumer<Map> consumer) throws IOException {
+        final IndexSearcher searcher = getSearcher();
+        try {
+            Weight weight = searcher.createWeight(searcher.rewrite(option.getQuery()), ScoreMode.COMPLETE_NO_SCORES, 1f);
+            for (LeafReaderContext context : searcher.getIndexReader().leaves()) {
+                Scorer scorer = weight.scorer(context);
+                if (null == scorer) {
+                    continue;
+                }
+                Bits liveDocs = context.reader().getLiveDocs();
+                DocIdSetIterator iterator = scorer.iterator();
+                for (int doc = iterator.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = iterator.nextDoc()) {
+                    // 跳过已删除的文档
+                    if (null != liveDocs && !liveDocs.get(doc)) {
+                        continue;
+                    }
+                    consumer.accept(toMap(context.reader().document(doc), option));
+                }
+            }
+        } finally {
+            release(searcher);
+        }
     }
 
-    private TopDocs getTopDocs(IndexSearcher searcher, Query query, int maxSize, Sort sort) throws IOException {
+    private TopDocs getTopDocs(IndexSearcher searcher, Query query, int maxSize, Sort sort, ScoreDoc after) throws IOException {
         if (null != sort) {
-            return searcher.search(query, maxSize, sort);
+            return searcher.searchAfter(after, query, maxSize, sort);
+        }
+        return searcher.searchAfter(after, query, maxSize);
+    }
+
+    /**
+     * 生成游标：排序值,文档号
+     *
+     * @param scoreDoc
+     * @param sort
+     * @return
+     */
+    private String toCursor(ScoreDoc scoreDoc, Sort sort) {
+        StringBuilder cursor = new StringBuilder();
+        if (null == sort) {
+            cursor.append(scoreDoc.score).append(StringUtil.COMMA);
+        } else {
+            for (Object value : ((FieldDoc) scoreDoc).fields) {
+                if (value instanceof BytesRef) {
+                    cursor.append(Base64.getUrlEncoder().encodeToString(((BytesRef) value).utf8ToString().getBytes(StandardCharsets.UTF_8)));
+                } else if (null != value) {
+                    cursor.append(value);
+                }
+                cursor.append(StringUtil.COMMA);
+            }
+        }
+        return cursor.append(scoreDoc.doc).toString();
+    }
+
+    private ScoreDoc parseCursor(String cursor, Sort sort) {
+        String[] values = cursor.split(StringUtil.COMMA, -1);
+        int doc = Integer.parseInt(values[values.length - 1]);
+        if (null == sort) {
+            return new ScoreDoc(doc, Float.parseFloat(values[0]));
+        }
+        SortField[] sortFields = sort.getSort();
+        if (values.length != sortFields.length + 1) {
+            throw new StorageException(String.format("无效的游标:%s", cursor));
+        }
+        Object[] fields = new Object[sortFields.length];
+        for (int i = 0; i < sortFields.length; i++) {
+            fields[i] = parseCursorValue(sortFields[i].getType(), values[i]);
+        }
+        return new FieldDoc(doc, Float.NaN, fields);
+    }
+
+    private Object parseCursorValue(SortField.Type type, String value) {
+        if (StringUtil.isBlank(value)) {
+            return null;
+        }
+        switch (type) {
+            case LONG:
+                return Long.parseLong(value);
+            case INT:
+                return Integer.parseInt(value);
+            case STRING:
+                return new BytesRef(new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8));
+            default:
+                throw new StorageException(String.format("不支持的游标排序类型:%s", type));
         }
-        return searcher.search(query, maxSize);
     }
 
     /**
@@ -165,65 +382,58 @@ public class Shard {
      * @param searcher
      * @param topDocs
      * @param option
-     * @param pageNum
-     * @param pageSize
+     * @param begin 起始位置
      * @throws IOException
      */
-    private List<Map> search(IndexSearcher searcher, TopDocs topDocs, Option option, int pageNum, int pageSize) throws IOException {
+    private List<Map> search(IndexSearcher searcher, TopDocs topDocs, Option option, int begin) throws IOException {
         ScoreDoc[] docs = topDocs.scoreDocs;
-        int total = docs.length;
-        int begin = (pageNum - 1) * pageSize;
-        int end = pageNum * pageSize;
-
-        // 判断边界
-        begin = begin > total ? total : begin;
-        end = end > total ? total : end;
+        int end = docs.length;
 
         List<Map> list = new ArrayList<>();
-        Document doc = null;
-        Map r = null;
-        IndexableField f = null;
-        Iterator<IndexableField> iterator = null;
         while (begin < end) {
             // 取得对应的文档对象
-            doc = searcher.doc(docs[begin++].doc);
-            iterator = doc.iterator();
-            r = new LinkedHashMap<>();
-            while (iterator.hasNext()) {
-                f = iterator.next();
-
-                // 开启高亮
-                if (option.isEnableHighLightSearch()) {
-                    try {
-                        final String key = f.name();
-                        if (option.getHighLightKeys().contains(key)) {
-                            String content = doc.get(key);
-                            TokenStream tokenStream = analyzer.tokenStream("", content);
-                            content = option.getHighlighter().getBestFragment(tokenStream, content);
-                            r.put(key, content);
-                            continue;
-                        }
-                    } catch (InvalidTokenOffsetsException e) {
-                        e.printStackTrace();
+            list.add(toMap(searcher.doc(docs[begin++].doc), option));
+        }
+        return list;
+    }
+
+    private Map toMap(Document doc, Option option) throws IOException {
+        Map r = new LinkedHashMap<>();
+        IndexableField f = null;
+        Iterator<IndexableField> iterator = doc.iterator();
+        while (iterator.hasNext()) {
+            f = iterator.next();
+
+            // 开启高亮
+            if (option.isEnableHighLightSearch()) {
+                try {
+                    final String key = f.name();
+                    if (option.getHighLightKeys().contains(key)) {
+                        String content = doc.get(key);
+                        TokenStream tokenStream = analyzer.tokenStream("", content);
+                        content = option.getHighlighter().getBestFragment(tokenStream, content);
+                        r.put(key, content);
+                        continue;
                     }
+                } catch (InvalidTokenOffsetsException e) {
+                    e.printStackTrace();
                 }
-
-                // 解析value类型
-                r.put(f.name(), option.getFieldResolver(f.name()).getValue(f));
             }
-            list.add(r);
+
+            // 解析value类型
+            r.put(f.name(), option.getFieldResolver(f.name()).getValue(f));
         }
-        return list;
+        return r;
     }
 
-    private void execute(Object value, Callback callback) {
+    private void execute(Object value, int docs, Callback callback) {
         if (value == null) {
             return;
         }
 
         if (indexWriter.isOpen()) {
             try {
-                doExecute(callback);
+                doExecute(docs, callback);
             } catch (IOException e) {
                 // 程序异常导致文件锁未关闭 java.nio.channels.ClosedChannelException
                 logger.error(String.format("索引异常：%s", indexPath.getAbsolutePath()), e);
@@ -234,20 +444,29 @@ public class Shard {
         // 索引异常关闭
         try {
             reopen();
-            doExecute(callback);
+            doExecute(docs, callback);
         } catch (IOException e) {
             // 重试失败打印异常数据
             logger.error(value.toString());
         }
     }
 
-    private void doExecute(Callback callback) throws IOException {
-        callback.execute();
-        indexWriter.flush();
-        indexWriter.commit();
+    private void doExecute(int docs, Callback callback) throws IOException {
+        updateSeqNo(callback.execute(), docs);
+        if (commitIntervalMillis <= 0 || pendingDocs.get() >= commitMaxDocs) {
+            commit();
+        }
+    }
+
+    private void updateSeqNo(long seqNo, int docs) {
+        pendingDocs.addAndGet(docs);
+        lastSeqNo.accumulateAndGet(seqNo, Math::max);
     }
 
     private void reopen() throws IOException {
+        if (null != searcherManager) {
+            IOUtils.closeWhileHandlingException(searcherManager);
+        }
         Lock writeLock = directory.obtainLock(IndexWriter.WRITE_LOCK_NAME);
         if (writeLock != null) {
             IOUtils.close(writeLock); // release write lock
@@ -258,8 +477,11 @@ public class Shard {
         config.setRAMBufferSizeMB(32);
         // 创建索引写入对象
         indexWriter = new IndexWriter(directory, config);
-        // 创建索引的读取器
-        indexReader = DirectoryReader.open(indexWriter);
+        // 创建近实时读取器，读取未提交的写入
+        searcherManager = new SearcherManager(indexWriter, true, true, null);
+        lastSeqNo.set(-1);
+        committedSeqNo = -1;
+        pendingDocs.set(0);
     }
 
     public Analyzer getAnalyzer() {
@@ -271,9 +493,10 @@ public class Shard {
         /**
          * 索引回执
          *
+         * @return 操作序号
          * @throws IOException
          */
-        void execute() throws IOException;
+        long execute() throws IOException;
     }
 
 }
\ No newline at end of file
@@ -42,6 +42,12 @@ import java.util.Map;
  * @date 2019/11/19 22:07
  */
 public abstract class DocumentUtil {
+
+    /**
+     * 主键排序字段，作为分页游标的稳定排序条件
+     */
+    public static final String SORT_ID = "sortId";
+
     private DocumentUtil() {
     }
 
@@ -56,6 +62,7 @@ public abstract class DocumentUtil {
         Long updateTime = (Long) params.get(ConfigConstant.CONFIG_MODEL_UPDATE_TIME);
 
         doc.add(new StringField(ConfigConstant.CONFIG_MODEL_ID, id, Field.Store.YES));
+        doc.add(new SortedDocValuesField(SORT_ID, new BytesRef(id)));
         doc.add(new StringField(ConfigConstant.CONFIG_MODEL_TYPE, type, Field.Store.YES));
         doc.add(new TextField(ConfigConstant.CONFIG_MODEL_NAME, name, Field.Store.YES));
         // 配置信息
@@ -78,6 +85,7 @@ public abstract class DocumentUtil {
         Long createTime = (Long) params.get(ConfigConstant.CONFIG_MODEL_CREATE_TIME);
 
         doc.add(new StringField(ConfigConstant.CONFIG_MODEL_ID, id, Field.Store.YES));
+        doc.add(new SortedDocValuesField(SORT_ID, new BytesRef(id)));
         doc.add(new StringField(ConfigConstant.CONFIG_MODEL_TYPE, type, Field.Store.YES));
         // 日志信息
         doc.add(new TextField(ConfigConstant.CONFIG_MODEL_JSON, json, Field.Store.YES));
@@ -100,6 +108,7 @@ public abstract class DocumentUtil {
         Long createTime = (Long) params.get(ConfigConstant.CONFIG_MODEL_CREATE_TIME);
 
         doc.add(new StringField(ConfigConstant.CONFIG_MODEL_ID, id, Field.Store.YES));
+        doc.add(new SortedDocValuesField(SORT_ID, new BytesRef(id)));
         doc.add(new IntPoint(ConfigConstant.DATA_SUCCESS, success));
         doc.add(new StoredField(ConfigConstant.DATA_SUCCESS, success));
         doc.add(new StringField(ConfigConstant.DATA_TABLE_GROUP_ID, tableGroupId, Field.Store.YES));
@@ -0,0 +1,158 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+
+import org.apache.commons.io.FileUtils;
+import org.dbsyncer.storage.checkpoint.CheckpointLog;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 验证同步点日志进程崩溃后恢复：末尾半条记录或损坏记录被丢弃，之前的记录不丢失，恢复后可继续追加
+ */
+public class CheckpointLogTest {
+
+    private static final String PATH = "target/checkpointDir/";
+
+    private static final String FILE = PATH + "checkpoint.log";
+
+    private static final int CAPACITY = 4096;
+
+    @Before
+    public void init() throws IOException {
+        FileUtils.deleteDirectory(new File(PATH));
+    }
+
+    @After
+    public void close() throws IOException {
+        FileUtils.deleteDirectory(new File(PATH));
+    }
+
+    @Test
+    public void testRecover() {
+        CheckpointLog log = new CheckpointLog(PATH, CAPACITY);
+        log.put("a", snapshot("1"));
+        log.put("b", snapshot("2"));
+        log.put("a", snapshot("3"));
+        log.remove("b");
+        log.close();
+
+        CheckpointLog recovered = new CheckpointLog(PATH, CAPACITY);
+        Assert.assertEquals(snapshot("3"), recovered.get("a"));
+        Assert.assertNull(recovered.get("b"));
+        recovered.close();
+    }
+
+    @Test
+    public void testTruncatedTailRecord() throws IOException {
+        CheckpointLog log = new CheckpointLog(PATH, CAPACITY);
+        log.put("a", snapshot("1"));
+        log.put("b", snapshot("2"));
+        log.close();
+
+        // 最后一条记录只写了一半
+        int last = lastRecordOffset();
+        truncate(last + 10);
+
+        CheckpointLog recovered = new CheckpointLog(PATH, CAPACITY);
+        Assert.assertEquals(snapshot("1"), recovered.get("a"));
+        Assert.assertNull(recovered.get("b"));
+
+        // 从截断位置继续追加
+        recovered.put("c", snapshot("4"));
+        recovered.close();
+        assertReopen("a", snapshot("1"), "c", snapshot("4"));
+    }
+
+    @Test
+    public void testCorruptTailRecord() throws IOException {
+        CheckpointLog log = new CheckpointLog(PATH, CAPACITY);
+        log.put("a", snapshot("1"));
+        log.put("b", snapshot("2"));
+        log.close();
+
+        // 最后一条记录的数据损坏，CRC校验失败
+        int last = lastRecordOffset();
+        try (RandomAccessFile raf = new RandomAccessFile(FILE, "rw")) {
+            raf.seek(last + 12);
+            int b = raf.read();
+            raf.seek(last + 12);
+            raf.write(b ^ 0xFF);
+        }
+
+        CheckpointLog recovered = new CheckpointLog(PATH, CAPACITY);
+        Assert.assertEquals(snapshot("1"), recovered.get("a"));
+        Assert.assertNull(recovered.get("b"));
+
+        recovered.put("b", snapshot("5"));
+        recovered.close();
+        assertReopen("a", snapshot("1"), "b", snapshot("5"));
+    }
+
+    @Test
+    public void testCompactAndRecover() {
+        CheckpointLog log = new CheckpointLog(PATH, CAPACITY);
+        // 超过容量，触发压缩
+        for (int i = 0; i < 500; i++) {
+            log.put("a", snapshot(String.valueOf(i)));
+            log.put("b", snapshot(String.valueOf(i * 2)));
+            log.sync();
+        }
+        log.close();
+        // 关闭后刷盘不访问已释放的内存映射
+        log.sync();
+
+        assertReopen("a", snapshot("499"), "b", snapshot("998"));
+    }
+
+    private void assertReopen(String k1, Map<String, String> v1, String k2, Map<String, String> v2) {
+        CheckpointLog log = new CheckpointLog(PATH, CAPACITY);
+        Assert.assertEquals(v1, log.get(k1));
+        Assert.assertEquals(v2, log.get(k2));
+        log.close();
+    }
+
+    /**
+     * 按记录头顺序查找最后一条记录的位置
+     */
+    private int lastRecordOffset() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(FILE, "r")) {
+            int position = 0;
+            int last = -1;
+            while (position + 8 <= raf.length()) {
+                raf.seek(position);
+                int length = raf.readInt();
+                if (length <= 0) {
+                    break;
+                }
+                last = position;
+                position += 8 + length;
+            }
+            Assert.assertTrue(last >= 0);
+            return last;
+        }
+    }
+
+    private void truncate(int length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(FILE, "rw")) {
+            raf.setLength(length);
+        }
+    }
+
+    private Map<String, String> snapshot(String position) {
+        Map<String, String> snapshot = new HashMap<>();
+        snapshot.put("fileName", "mysql-bin.000001");
+        snapshot.put("position", position);
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+}
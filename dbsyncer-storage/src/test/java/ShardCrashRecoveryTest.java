@@ -0,0 +1,153 @@
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.TermQuery;
+import org.dbsyncer.sdk.constant.ConfigConstant;
+import org.dbsyncer.storage.lucene.Shard;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 验证分片批量提交后进程崩溃，已确认（已提交）的写入不丢失，最后一次提交之后未提交的写入丢失
+ */
+public class ShardCrashRecoveryTest {
+
+    private static final String PATH = "target/crashIndexDir/";
+
+    @Before
+    public void init() throws IOException {
+        FileUtils.deleteDirectory(new File(PATH));
+    }
+
+    @After
+    public void close() throws IOException {
+        FileUtils.deleteDirectory(new File(PATH));
+    }
+
+    @Test
+    public void testExplicitCommitSurvivesCrash() throws Exception {
+        // 提交间隔足够长，只有显式提交才会持久化
+        Shard shard = new Shard(PATH, TimeUnit.MINUTES.toMillis(10), Integer.MAX_VALUE);
+        shard.insertBatch(newDocs(0, 1000));
+        shard.commit();
+        Assert.assertFalse(shard.isDirty());
+
+        // 未确认的写入，近实时可见
+        shard.insertBatch(newDocs(1000, 500));
+        Assert.assertTrue(shard.isDirty());
+        Assert.assertEquals(1500, count(shard));
+
+        crash(shard);
+
+        Shard recovered = new Shard(PATH);
+        Assert.assertEquals(1000, count(recovered));
+        assertContains(recovered, 0, 1000);
+        assertLost(recovered, 1000, 500);
+        recovered.close();
+    }
+
+    @Test
+    public void testIntervalCommitSurvivesCrash() throws Exception {
+        Shard shard = new Shard(PATH, 100, Integer.MAX_VALUE);
+        shard.insertBatch(newDocs(0, 200));
+        TimeUnit.MILLISECONDS.sleep(150);
+        // 模拟定时任务
+        shard.maybeCommit();
+        Assert.assertFalse(shard.isDirty());
+
+        // 下一次定时提交前的写入
+        shard.insertBatch(newDocs(200, 50));
+        Assert.assertTrue(shard.isDirty());
+
+        crash(shard);
+
+        Shard recovered = new Shard(PATH);
+        Assert.assertEquals(200, count(recovered));
+        assertContains(recovered, 0, 200);
+        assertLost(recovered, 200, 50);
+        recovered.close();
+    }
+
+    @Test
+    public void testMaxDocsCommitSurvivesCrash() throws Exception {
+        Shard shard = new Shard(PATH, TimeUnit.MINUTES.toMillis(10), 100);
+        // 达到文档数上限立即提交
+        shard.insertBatch(newDocs(0, 100));
+        Assert.assertFalse(shard.isDirty());
+        shard.insertBatch(newDocs(100, 10));
+        Assert.assertTrue(shard.isDirty());
+
+        crash(shard);
+
+        Shard recovered = new Shard(PATH);
+        Assert.assertEquals(100, count(recovered));
+        assertContains(recovered, 0, 100);
+        assertLost(recovered, 100, 10);
+        recovered.close();
+    }
+
+    /**
+     * 丢弃未提交的写入并释放写锁，等同于进程崩溃
+     */
+    private void crash(Shard shard) throws Exception {
+        Field field = Shard.class.getDeclaredField("indexWriter");
+        field.setAccessible(true);
+        IndexWriter indexWriter = (IndexWriter) field.get(shard);
+        indexWriter.rollback();
+    }
+
+    private int count(Shard shard) throws IOException {
+        IndexSearcher searcher = shard.getSearcher();
+        try {
+            return searcher.count(new MatchAllDocsQuery());
+        } finally {
+            shard.release(searcher);
+        }
+    }
+
+    private void assertContains(Shard shard, int begin, int size) throws IOException {
+        IndexSearcher searcher = shard.getSearcher();
+        try {
+            for (int i = begin; i < begin + size; i++) {
+                Assert.assertEquals("丢失已确认的文档:" + i, 1, searcher.count(new TermQuery(new Term(ConfigConstant.CONFIG_MODEL_ID, String.valueOf(i)))));
+            }
+        } finally {
+            shard.release(searcher);
+        }
+    }
+
+    private void assertLost(Shard shard, int begin, int size) throws IOException {
+        IndexSearcher searcher = shard.getSearcher();
+        try {
+            for (int i = begin; i < begin + size; i++) {
+                Assert.assertEquals("恢复了未提交的文档:" + i, 0, searcher.count(new TermQuery(new Term(ConfigConstant.CONFIG_MODEL_ID, String.valueOf(i)))));
+            }
+        } finally {
+            shard.release(searcher);
+        }
+    }
+
+    private List<Document> newDocs(int begin, int size) {
+        List<Document> docs = new ArrayList<>(size);
+        for (int i = begin; i < begin + size; i++) {
+            Document doc = new Document();
+            doc.add(new StringField(ConfigConstant.CONFIG_MODEL_ID, String.valueOf(i), org.apache.lucene.document.Field.Store.YES));
+            docs.add(doc);
+        }
+        return docs;
+    }
+
+}
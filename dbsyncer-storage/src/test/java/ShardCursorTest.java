@@ -0,0 +1,160 @@
+/**
+ * DBSyncer Copyright 2020-2024 All Rights Reserved.
+ */
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.dbsyncer.common.model.Paging;
+import org.dbsyncer.sdk.constant.ConfigConstant;
+import org.dbsyncer.storage.StorageException;
+import org.dbsyncer.storage.lucene.Option;
+import org.dbsyncer.storage.lucene.Shard;
+import org.dbsyncer.storage.util.DocumentUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 验证分片游标分页：游标往返与偏移分页结果一致，尾页和空结果不返回游标，已返回的文档被删除后游标仍然有效
+ */
+public class ShardCursorTest {
+
+    private static final String PATH = "target/cursorIndexDir/";
+
+    private static final int TOTAL = 20;
+
+    private static final int PAGE_SIZE = 7;
+
+    /**
+     * 创建时间降序，创建时间相同按主键降序
+     */
+    private static final Sort SORT = new Sort(new SortField(ConfigConstant.CONFIG_MODEL_CREATE_TIME, SortField.Type.LONG, true),
+            new SortField(DocumentUtil.SORT_ID, SortField.Type.STRING, true));
+
+    private Shard shard;
+
+    @Before
+    public void init() throws IOException {
+        FileUtils.deleteDirectory(new File(PATH));
+        shard = new Shard(PATH);
+        List<Document> docs = new ArrayList<>();
+        for (int i = 0; i < TOTAL; i++) {
+            // 每3条记录创建时间相同，由主键保证排序稳定
+            docs.add(newDoc(i, i / 3));
+        }
+        shard.insertBatch(docs);
+    }
+
+    @After
+    public void close() throws IOException {
+        shard.close();
+        FileUtils.deleteDirectory(new File(PATH));
+    }
+
+    @Test
+    public void testCursorRoundTrip() throws IOException {
+        List<String> expected = ids(shard.query(newOption(null), 1, TOTAL, SORT));
+        Assert.assertEquals(TOTAL, expected.size());
+
+        List<String> actual = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            // 第一页不带游标，之后按上一页返回的游标查询
+            Paging paging = null == cursor ? shard.query(newOption(null), 1, PAGE_SIZE, SORT) : shard.query(newOption(cursor), 1, PAGE_SIZE, SORT);
+            Assert.assertEquals(TOTAL, paging.getTotal());
+            actual.addAll(ids(paging));
+            cursor = paging.getCursor();
+            pages++;
+        } while (null != cursor && pages <= TOTAL);
+
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals(TOTAL, new HashSet<>(actual).size());
+    }
+
+    @Test
+    public void testLastPage() throws IOException {
+        Paging first = shard.query(newOption(null), 1, PAGE_SIZE, SORT);
+        Paging second = shard.query(newOption(first.getCursor()), 1, PAGE_SIZE, SORT);
+        Paging last = shard.query(newOption(second.getCursor()), 1, PAGE_SIZE, SORT);
+        Assert.assertEquals(TOTAL - PAGE_SIZE * 2, last.getData().size());
+        Assert.assertNotNull(last.getCursor());
+
+        // 尾页之后没有数据，不返回游标
+        Paging end = shard.query(newOption(last.getCursor()), 1, PAGE_SIZE, SORT);
+        Assert.assertTrue(end.getData().isEmpty());
+        Assert.assertNull(end.getCursor());
+
+        // 偏移分页超出范围
+        Paging overflow = shard.query(newOption(null), 4, PAGE_SIZE, SORT);
+        Assert.assertTrue(overflow.getData().isEmpty());
+        Assert.assertNull(overflow.getCursor());
+    }
+
+    @Test
+    public void testEmptyPage() throws IOException {
+        Option option = newOption(null);
+        option.setQuery(new TermQuery(new Term(ConfigConstant.CONFIG_MODEL_ID, "none")));
+        Paging paging = shard.query(option, 1, PAGE_SIZE, SORT);
+        Assert.assertEquals(0, paging.getTotal());
+        Assert.assertTrue(paging.getData().isEmpty());
+        Assert.assertNull(paging.getCursor());
+    }
+
+    @Test
+    public void testCursorAfterDelete() throws IOException {
+        List<String> expected = ids(shard.query(newOption(null), 1, TOTAL, SORT));
+        Paging first = shard.query(newOption(null), 1, PAGE_SIZE, SORT);
+
+        // 删除已返回的数据（如重试成功后删除失败记录），不影响下一页
+        for (String id : ids(first)) {
+            shard.deleteBatch(new Term(ConfigConstant.CONFIG_MODEL_ID, id));
+        }
+        Paging second = shard.query(newOption(first.getCursor()), 1, PAGE_SIZE, SORT);
+        Assert.assertEquals(expected.subList(PAGE_SIZE, PAGE_SIZE * 2), ids(second));
+    }
+
+    @Test(expected = StorageException.class)
+    public void testInvalidCursor() throws IOException {
+        shard.query(newOption("1,2"), 1, PAGE_SIZE, SORT);
+    }
+
+    private Option newOption(String cursor) {
+        Option option = new Option();
+        option.setQuery(new MatchAllDocsQuery());
+        option.setCursor(cursor);
+        return option;
+    }
+
+    private List<String> ids(Paging paging) {
+        List<String> ids = new ArrayList<>();
+        for (Object row : paging.getData()) {
+            ids.add((String) ((Map) row).get(ConfigConstant.CONFIG_MODEL_ID));
+        }
+        return ids;
+    }
+
+    private Document newDoc(int i, long createTime) {
+        Map<String, Object> params = new HashMap<>();
+        params.put(ConfigConstant.CONFIG_MODEL_ID, String.format("%02d", i));
+        params.put(ConfigConstant.CONFIG_MODEL_TYPE, "log");
+        params.put(ConfigConstant.CONFIG_MODEL_JSON, "log" + i);
+        params.put(ConfigConstant.CONFIG_MODEL_CREATE_TIME, createTime);
+        return DocumentUtil.convertLog2Doc(params);
+    }
+
+}
@@ -152,6 +152,17 @@ public class MonitorController extends BaseController {
         }
     }
 
+    @PostMapping("/syncAll")
+    @ResponseBody
+    public RestResult syncAll(String id) {
+        try {
+            return RestResult.restSuccess(dataSyncService.syncAll(id));
+        } catch (Exception e) {
+            logger.error(e.getLocalizedMessage(), e);
+            return RestResult.restFail(e.getMessage());
+        }
+    }
+
     @PostMapping("/clearData")
     @ResponseBody
     public RestResult clearData(String id) {
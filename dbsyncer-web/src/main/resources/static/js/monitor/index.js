@@ -159,10 +159,12 @@ function bindQueryDataMoreEvent() {
         var keyword = $("#searchDataKeyword").val();
         var id = $("#searchMetaData").selectpicker("val");
         var success = $("#searchDataSuccess").selectpicker("val");
+        // 游标分页，从上一页最后一条数据之后查询（MySQL存储按页码查询）
         showMore($(this), '/monitor/queryData', {
             "error": keyword,
             "success": success,
-            "id": id
+            "id": id,
+            "cursor": $(this).attr("cursor")
         }, function (resultValue) {
             refreshDataList(resultValue, true)
         });
@@ -179,6 +181,9 @@ function refreshDataList(resultValue, append) {
         $dataList.html(html);
         $("#queryDataMore").attr("num", 1);
     }
+    if (!append || resultValue.data.length > 0) {
+        $("#queryDataMore").attr("cursor", resultValue.cursor || "");
+    }
     $dataTotal.html(resultValue.total);
     bindQueryDataDetailEvent();
     bindQueryDataRetryEvent();
@@ -529,6 +534,9 @@ $(function () {
     bindQueryDataDetailEvent();
     bindQueryDataRetryEvent();
     bindQueryErrorDetailEvent();
+    bindClearEvent($(".syncAllDataBtn"), "确认重新同步所有失败数据？", "已提交重新同步失败数据，进度见失败数和日志!", "/monitor/syncAll", function () {
+        return $("#searchMetaData").selectpicker("val");
+    });
     bindClearEvent($(".clearDataBtn"), "确认清空数据？", "清空数据成功!", "/monitor/clearData", function () {
         return $("#searchMetaData").selectpicker("val");
     });